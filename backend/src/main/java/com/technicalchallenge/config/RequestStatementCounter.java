@@ -0,0 +1,29 @@
+package com.technicalchallenge.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the current thread between start() and stop(); statements
+// outside that window (scheduled jobs, startup) pass through uncounted
+public class RequestStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> current = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = current.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    void start() {
+        current.set(new int[1]);
+    }
+
+    int stop() {
+        int[] count = current.get();
+        current.remove();
+        return count != null ? count[0] : 0;
+    }
+}
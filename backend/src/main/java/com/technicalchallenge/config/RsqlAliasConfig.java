@@ -1,29 +1,37 @@
 package com.technicalchallenge.config;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 // Rewrites user-friendly RSQL aliases (case-insensitive for alias keys) to entity property paths
 public class RsqlAliasConfig {
 
-    public static Map<String, String> aliasMap = new HashMap<>();
+    public static final Map<String, String> aliasMap = Map.of(
+            "counterparty", "counterparty.name",
+            "book", "book.bookName",
+            "trader", "traderUser.loginId",
+            "status", "tradeStatus.tradeStatus",
+            "date", "tradeDate");
+
+    // Compiled once rather than on every replaceAll call
+    private static final Map<Pattern, String> aliasPatterns = new LinkedHashMap<>();
 
     static {
-        aliasMap.put("counterparty", "counterparty.name");
-        aliasMap.put("book", "book.bookName");
-        aliasMap.put("trader", "traderUser.loginId");
-        aliasMap.put("status", "tradeStatus.tradeStatus");
-        aliasMap.put("date", "tradeDate");
-    }   
+        aliasMap.forEach((alias, path) -> aliasPatterns.put(
+                Pattern.compile("(?i)(?<!\\.)\\b" + alias + "\\b(?=\\s*[!<>=]=?)"),
+                Matcher.quoteReplacement(path)));
+    }
 
     public static String applyAliases(String query) {
         String rewritten = query;
 
-        for (var entry : aliasMap.entrySet()) {
-        rewritten = rewritten.replaceAll("(?i)(?<!\\.)\\b" + entry.getKey() + "\\b(?=\\s*[!<>=]=?)", entry.getValue());
+        for (var entry : aliasPatterns.entrySet()) {
+            rewritten = entry.getKey().matcher(rewritten).replaceAll(entry.getValue());
         }
-    
+
         return rewritten;
     }
-    
+
 }
@@ -0,0 +1,62 @@
+package com.technicalchallenge.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Records how many SQL statements Hibernate prepared for each /api request as hibernate.statements.per.request,
+// tagged with the method and the mapped URI pattern like http.server.requests, so an endpoint whose statement
+// count grows with its result (N+1 loads) shows up next to its latency. Work a request hands to another thread,
+// such as an export stream, is not counted
+@Configuration
+public class StatementMetricsConfig {
+
+    @Bean
+    public RequestStatementCounter requestStatementCounter() {
+        return new RequestStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(RequestStatementCounter counter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> statementCountFilter(RequestStatementCounter counter, MeterRegistry meterRegistry) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                counter.start();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    int statements = counter.stop();
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    DistributionSummary.builder("hibernate.statements.per.request")
+                            .description("SQL statements Hibernate prepared while serving one request")
+                            .baseUnit("statements")
+                            .tag("method", request.getMethod())
+                            .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                            .register(meterRegistry)
+                            .record(statements);
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,31 @@
+package com.technicalchallenge.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.service.FileTradeEventSink;
+import com.technicalchallenge.service.InMemoryTradeEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Picks the sink the trade outbox relays to (trade.outbox.sink=memory|file). Any other value creates neither,
+// for a TradeEventSink bean of another kind, e.g. a message broker client
+@Configuration
+public class TradeEventSinkConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "trade.outbox.sink", havingValue = "file")
+    public FileTradeEventSink fileTradeEventSink(@Value("${trade.outbox.file:trade-events.ndjson}") String file,
+                                                 ObjectMapper objectMapper) throws IOException {
+        return new FileTradeEventSink(Path.of(file), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "trade.outbox.sink", havingValue = "memory", matchIfMissing = true)
+    public InMemoryTradeEventSink inMemoryTradeEventSink(@Value("${trade.outbox.memory-capacity:10000}") int capacity) {
+        return new InMemoryTradeEventSink(capacity);
+    }
+}
@@ -2,10 +2,13 @@ package com.technicalchallenge.controller;
 
 import com.technicalchallenge.dto.CashflowDTO;
 import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.dto.CashflowRegenerationStatus;
 import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.service.CashflowRegenerationService;
 import com.technicalchallenge.service.CashflowService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -20,13 +23,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import java.math.BigDecimal;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +41,8 @@ public class CashflowController {
     private CashflowService cashflowService;
     @Autowired
     private CashflowMapper cashflowMapper;
+    @Autowired
+    private CashflowRegenerationService cashflowRegenerationService;
 
     @GetMapping
     @Operation(summary = "Get all cashflows",
@@ -119,7 +121,8 @@ public class CashflowController {
 
     @PostMapping("/generate")
     @Operation(summary = "Generate cashflows",
-               description = "Creates a series of cashflows based on trade legs and specified generation parameters")
+               description = "Creates a series of cashflows based on trade legs and specified generation parameters. "
+                       + "Floating legs are projected from their index's fixings and forward curve when market data is loaded for it")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Cashflows generated successfully",
                     content = @Content(mediaType = "application/json",
@@ -128,57 +131,40 @@ public class CashflowController {
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<List<CashflowDTO>> generateCashflows(@RequestBody CashflowGenerationRequest request) {
-        List<CashflowDTO> allCashflows = new ArrayList<>();
-        if (request.getLegs() == null || request.getLegs().isEmpty()) {
-            return ResponseEntity.badRequest().body(allCashflows);
+        if (request.getLegs() == null || request.getLegs().isEmpty()
+                || request.getTradeStartDate() == null || request.getTradeMaturityDate() == null) {
+            return ResponseEntity.badRequest().body(new ArrayList<>());
         }
-        for (CashflowGenerationRequest.TradeLegDTO leg : request.getLegs()) {
-            LocalDate startDate = request.getTradeStartDate();
-            LocalDate maturityDate = request.getTradeMaturityDate();
-            String schedule = leg.getCalculationPeriodSchedule();
-            int months = scheduleToMonths(schedule);
-            if (months <= 0) {
-                continue;
-            }
-            LocalDate valueDate = startDate;
-            while (valueDate.isBefore(maturityDate)) {
-                LocalDate nextValueDate = valueDate.plusMonths(months);
-                if (nextValueDate.isAfter(maturityDate)) {
-                    nextValueDate = maturityDate;
-                }
-                BigDecimal paymentValue = BigDecimal.ZERO;
-                if ("Fixed".equalsIgnoreCase(leg.getLegType())) {
-                    long days = java.time.temporal.ChronoUnit.DAYS.between(valueDate, nextValueDate);
-                    double rate = leg.getRate() != null ? leg.getRate() : 0.0;
-                    paymentValue = leg.getNotional().multiply(BigDecimal.valueOf(rate)).multiply(BigDecimal.valueOf(days)).divide(BigDecimal.valueOf(360), 2, BigDecimal.ROUND_HALF_UP);
-                }
-                // For floating, paymentValue remains 0
-                CashflowDTO cf = new CashflowDTO();
-                cf.setValueDate(nextValueDate);
-                cf.setPaymentValue(paymentValue);
-                cf.setPayRec(leg.getPayReceiveFlag());
-                cf.setPaymentType(leg.getLegType());
-                cf.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
-                cf.setRate(leg.getRate());
-                allCashflows.add(cf);
-                valueDate = nextValueDate;
-            }
+        try {
+            return ResponseEntity.ok(cashflowService.generatePreview(request));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejecting cashflow generation: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ArrayList<>());
         }
-        return ResponseEntity.ok(allCashflows);
     }
 
-    private int scheduleToMonths(String schedule) {
-        if (schedule == null) return 0;
-        schedule = schedule.toLowerCase();
-        if (schedule.contains("month")) {
-            if (schedule.contains("3")) return 3;
-            if (schedule.contains("6")) return 6;
-            if (schedule.contains("12")) return 12;
-            return 1;
+    @PostMapping("/regenerate")
+    @Operation(summary = "Regenerate cashflows",
+               description = "Starts a background job that rebuilds the cashflows of active legs, optionally only those on one holiday calendar, schedule or floating-rate indices. Progress is reported at /actuator/cashflowregeneration")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Regeneration job started",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CashflowRegenerationStatus.class))),
+        @ApiResponse(responseCode = "409", description = "A regeneration job is already running")
+    })
+    public ResponseEntity<CashflowRegenerationStatus> regenerateCashflows(
+            @Parameter(description = "Only legs on this holiday calendar, e.g. LON")
+            @RequestParam(name = "holidayCalendar", required = false) String holidayCalendar,
+            @Parameter(description = "Only legs on this calculation schedule, e.g. Quarterly")
+            @RequestParam(name = "schedule", required = false) String schedule,
+            @Parameter(description = "Only legs on these floating-rate indices, e.g. LIBOR (repeatable)")
+            @RequestParam(name = "index", required = false) List<String> index) {
+        logger.info("Cashflow regeneration requested (holidayCalendar={}, schedule={}, index={})", holidayCalendar, schedule, index);
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(cashflowRegenerationService.start(holidayCalendar, schedule, index != null ? index : List.of()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(cashflowRegenerationService.getStatus());
         }
-        if (schedule.contains("quarter")) return 3;
-        if (schedule.contains("annual") || schedule.contains("year")) return 12;
-        return 0;
     }
-
 }
@@ -0,0 +1,24 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.CashflowRegenerationStatus;
+import com.technicalchallenge.service.CashflowRegenerationService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/cashflowregeneration - progress of the current (or last) cashflow regeneration job
+@Component
+@Endpoint(id = "cashflowregeneration")
+public class CashflowRegenerationEndpoint {
+
+    private final CashflowRegenerationService cashflowRegenerationService;
+
+    public CashflowRegenerationEndpoint(CashflowRegenerationService cashflowRegenerationService) {
+        this.cashflowRegenerationService = cashflowRegenerationService;
+    }
+
+    @ReadOperation
+    public CashflowRegenerationStatus status() {
+        return cashflowRegenerationService.getStatus();
+    }
+}
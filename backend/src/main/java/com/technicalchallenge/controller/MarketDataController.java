@@ -0,0 +1,110 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.IndexMarketDataDTO;
+import com.technicalchallenge.dto.MarketDataLoadResult;
+import com.technicalchallenge.service.CashflowRegenerationService;
+import com.technicalchallenge.service.IndexRates;
+import com.technicalchallenge.service.MarketDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/market-data")
+@Tag(name = "Market Data", description = "Index fixings and forward curves used to project floating cashflows")
+public class MarketDataController {
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataController.class);
+
+    @Autowired
+    private MarketDataService marketDataService;
+    @Autowired
+    private CashflowRegenerationService cashflowRegenerationService;
+
+    @GetMapping
+    @Operation(summary = "Get loaded market data",
+               description = "Lists the indices with fixings or a forward curve loaded")
+    public List<IndexMarketDataDTO> getAll() {
+        logger.info("Fetching loaded market data");
+        return marketDataService.getAll().stream().map(MarketDataController::toDto).toList();
+    }
+
+    @PostMapping(value = "/curves", consumes = "text/csv")
+    @Operation(summary = "Load forward curves",
+               description = "Replaces the curves of the indices in the CSV (index,as_of,pillar_date,discount_factor). "
+                       + "By default the floating legs on those indices are then re-projected by a cashflow regeneration job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Curves loaded",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = MarketDataLoadResult.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed CSV or invalid curve; nothing is loaded")
+    })
+    public ResponseEntity<?> loadCurves(
+            @RequestBody String csv,
+            @Parameter(description = "Re-project the floating legs on the loaded indices")
+            @RequestParam(name = "reproject", defaultValue = "true") boolean reproject) {
+        return load(csv, reproject, marketDataService::loadCurves);
+    }
+
+    @PostMapping(value = "/fixings", consumes = "text/csv")
+    @Operation(summary = "Load index fixings",
+               description = "Adds the fixings in the CSV (index,fixing_date,rate); a date already fixed takes the new rate. "
+                       + "By default the floating legs on those indices are then re-projected by a cashflow regeneration job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Fixings loaded",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = MarketDataLoadResult.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed CSV; nothing is loaded")
+    })
+    public ResponseEntity<?> loadFixings(
+            @RequestBody String csv,
+            @Parameter(description = "Re-project the floating legs on the loaded indices")
+            @RequestParam(name = "reproject", defaultValue = "true") boolean reproject) {
+        return load(csv, reproject, marketDataService::loadFixings);
+    }
+
+    private ResponseEntity<?> load(String csv, boolean reproject, Function<StringReader, List<String>> loader) {
+        List<String> loaded;
+        try {
+            loaded = loader.apply(new StringReader(csv));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejecting market data: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        logger.info("Loaded market data for {}", loaded);
+        List<IndexMarketDataDTO> indices = loaded.stream()
+                .map(index -> toDto(marketDataService.findIndexRates(index).orElseThrow()))
+                .toList();
+        if (!reproject || loaded.isEmpty()) {
+            return ResponseEntity.ok(new MarketDataLoadResult(indices, null));
+        }
+        try {
+            return ResponseEntity.ok(new MarketDataLoadResult(indices, cashflowRegenerationService.start(null, null, loaded)));
+        } catch (IllegalStateException e) {
+            // The data is in place; the running job's status tells the caller to re-project later
+            logger.warn("Market data loaded for {} but a regeneration job is already running", loaded);
+            return ResponseEntity.ok(new MarketDataLoadResult(indices, cashflowRegenerationService.getStatus()));
+        }
+    }
+
+    private static IndexMarketDataDTO toDto(IndexRates rates) {
+        return new IndexMarketDataDTO(rates.index(),
+                rates.curve() != null ? rates.curve().asOf() : null,
+                rates.curve() != null ? rates.curve().lastPillar() : null,
+                rates.fixingCount(), rates.lastFixingDate());
+    }
+}
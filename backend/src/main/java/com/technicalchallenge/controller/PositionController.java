@@ -0,0 +1,93 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.dto.PositionReconciliation;
+import com.technicalchallenge.service.PositionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.time.YearMonth;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/positions")
+@Tag(name = "Positions", description = "Net cashflow positions by book, desk, currency and value month")
+public class PositionController {
+    private static final Logger logger = LoggerFactory.getLogger(PositionController.class);
+
+    @Autowired
+    private PositionService positionService;
+
+    @GetMapping
+    @Operation(summary = "Get net positions",
+               description = "Net received minus paid cashflows of live trades, always per currency and grouped by any of "
+                       + "book, desk and month (default book,month). Served from running totals kept up to date as trades are booked")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Positions returned",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = PositionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown groupBy dimension or inverted month range")
+    })
+    public ResponseEntity<?> getPositions(
+            @Parameter(description = "Dimensions to group by besides currency: book, desk, month")
+            @RequestParam(name = "groupBy", defaultValue = "book,month") List<String> groupBy,
+            @Parameter(description = "Only this book") @RequestParam(required = false) String book,
+            @Parameter(description = "Only books under this desk") @RequestParam(required = false) String desk,
+            @Parameter(description = "Only this currency") @RequestParam(required = false) String currency,
+            @Parameter(description = "First value month, yyyy-MM")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @Parameter(description = "Last value month, yyyy-MM")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        logger.debug("Fetching positions grouped by {} - book: {}, desk: {}, currency: {}, from: {}, to: {}", groupBy, book, desk, currency, from, to);
+        Set<String> dimensions = new LinkedHashSet<>();
+        for (String dimension : groupBy) {
+            if (!dimension.isBlank()) {
+                dimensions.add(dimension.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        try {
+            List<PositionDTO> positions = positionService.getPositions(dimensions, book, desk, currency, from, to);
+            return ResponseEntity.ok(positions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/reconcile")
+    @Operation(summary = "Reconcile positions",
+               description = "Rebuilds the positions from stored cashflows and compares them with the running totals, without changing them")
+    @ApiResponse(responseCode = "200", description = "Reconciliation result",
+                content = @Content(mediaType = "application/json",
+                                 schema = @Schema(implementation = PositionReconciliation.class)))
+    public PositionReconciliation reconcile() {
+        logger.info("Reconciling positions");
+        return positionService.reconcile();
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild positions",
+               description = "Replaces the running totals with a rebuild from stored cashflows and reports what differed")
+    @ApiResponse(responseCode = "200", description = "Rebuild result",
+                content = @Content(mediaType = "application/json",
+                                 schema = @Schema(implementation = PositionReconciliation.class)))
+    public PositionReconciliation rebuild() {
+        logger.info("Rebuilding positions");
+        return positionService.rebuild();
+    }
+}
@@ -1,18 +1,37 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.CursorPageDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
 import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeVersionDTO;
+import com.technicalchallenge.dto.TradeVersionDiff;
+import com.technicalchallenge.exception.TradeConcurrencyException;
+import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.mapper.TradeMapper;
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.CashflowProjectionService;
+import com.technicalchallenge.service.TradeExportWriter;
+import com.technicalchallenge.service.TradeHistoryService;
 import com.technicalchallenge.service.TradeService;
+import com.technicalchallenge.service.TradeStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,7 +43,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -41,6 +62,14 @@ public class TradeController {
     private TradeService tradeService;
     @Autowired
     private TradeMapper tradeMapper;
+    @Autowired
+    private CashflowProjectionService cashflowProjectionService;
+    @Autowired
+    private CashflowMapper cashflowMapper;
+    @Autowired
+    private TradeStreamService tradeStreamService;
+    @Autowired
+    private TradeHistoryService tradeHistoryService;
 
     @GetMapping
     @Operation(summary = "Get all trades",
@@ -58,6 +87,48 @@ public class TradeController {
                 .toList();
     }
 
+    @GetMapping("/blotter")
+    @Operation(summary = "Get trade blotter rows",
+               description = "Retrieves one flat row per trade (ids, dates, book, counterparty, trader, status and per-leg notional/rate/currency) for blotter grids. Built from a projection query, so legs and cashflows are not loaded.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved blotter rows",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBlotterRow.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public List<TradeBlotterRow> getTradeBlotter(
+            @Parameter(description = "Only return active trade versions")
+            @RequestParam(defaultValue = "false") boolean activeOnly) {
+        logger.info("Fetching trade blotter, activeOnly: {}", activeOnly);
+        return tradeService.getTradeBlotter(activeOnly);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream trade changes",
+               description = "Server-Sent Events stream of committed creates, amendments, terminations and cancellations of trades matching the /filter/search criteria. "
+                       + "The first event is 'ready'; load the blotter after it and apply each 'trade' event (a TradeChangeEvent carrying the changed blotter row) by tradeId. "
+                       + "A client that falls too far behind gets a 'resync' event and is disconnected, and should reload and subscribe again.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+        @ApiResponse(responseCode = "503", description = "Too many open streams; retry later")
+    })
+    public ResponseEntity<SseEmitter> streamTrades(
+        @RequestParam(required = false) String counterpartyName,
+        @RequestParam(required = false) String bookName,
+        @RequestParam(required = false) String loginId,
+        @RequestParam(required = false) String tradeStatus,
+        @RequestParam(required = false) LocalDate tradeDateFrom,
+        @RequestParam(required = false) LocalDate tradeDateTo) {
+        logger.debug("Opening trade stream - counterparty: {}, book: {}, trader: {}, status: {}, tradeDateFrom: {}, tradeDateTo: {}", counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo);
+        try {
+            return ResponseEntity.ok(tradeStreamService.subscribe(counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo));
+        } catch (IllegalStateException e) {
+            logger.warn("Rejecting trade stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
    //ENHANCEMENT-1: MULTI-CRITERIA SEARCH METHODS
     @GetMapping("/search/counterparty/{name}")
     @Operation(summary = "Searches trades by counterparty",
@@ -199,6 +270,37 @@ public class TradeController {
         return ResponseEntity.ok(trades.map(tradeMapper::toDto));
      }
 
+    @GetMapping("/filter/search/cursor")
+    @Operation(summary = "Get trades filtered by multi-criteria search parameters, by cursor",
+              description = "Keyset-paginated version of /filter/search, ordered by trade date then id (newest first). Pass the returned nextCursor to get the next page. The total count is only run when includeCount=true.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved filtered trades",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CursorPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<?> filterTradesByCursor(
+        @RequestParam(required = false) String counterpartyName,
+        @RequestParam(required = false) String bookName,
+        @RequestParam(required = false) String loginId,
+        @RequestParam(required = false) String tradeStatus,
+        @RequestParam(required = false) LocalDate tradeDateFrom,
+        @RequestParam(required = false) LocalDate tradeDateTo,
+        @Parameter(description = "Continuation token from the previous page; omit for the first page")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Page size", example = "20")
+        @RequestParam(defaultValue = "20") int size,
+        @Parameter(description = "Also return the total number of matching trades")
+        @RequestParam(defaultValue = "false") boolean includeCount) {
+        logger.debug("Retrieving filtered trades by cursor");
+        try {
+            CursorPageDTO<Trade> trades = tradeService.filterTrades(counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo, cursor, size, includeCount);
+            return ResponseEntity.ok(trades.map(tradeMapper::toDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
      // ENHANCEMENT-1: RSQL QUERY METHOD
      @GetMapping("/rsql")
      @Operation(summary = "Search trades using RSQL queries",
@@ -218,7 +320,69 @@ public class TradeController {
         Page<Trade> trades = tradeService.searchByRsql(query, page, size, sort);
         return ResponseEntity.ok(trades.map(tradeMapper::toDto));
     }
+
+    @GetMapping("/rsql/cursor")
+    @Operation(summary = "Search trades using RSQL queries, by cursor",
+               description = "Keyset-paginated version of /rsql, ordered by trade date then id (newest first). Pass the returned nextCursor to get the next page. The total count is only run when includeCount=true.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved trades by RSQL syntax",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CursorPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid RSQL syntax, cursor or page size")
+    })
+    public ResponseEntity<?> searchByRsqlCursor(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeCount) {
+        logger.debug("RSQL cursor query received: {}", query);
+        try {
+            CursorPageDTO<Trade> trades = tradeService.searchByRsql(query, cursor, size, includeCount);
+            return ResponseEntity.ok(trades.map(tradeMapper::toDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
     
+    @GetMapping("/export")
+    @Operation(summary = "Export trades as CSV or NDJSON",
+               description = "Streams blotter rows (one per trade, both legs flattened) newest first. Accepts the /filter/search criteria and an optional RSQL query; all given filters are combined. Inactive trade versions are left out unless activeOnly=false.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed successfully",
+                    content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson")}),
+        @ApiResponse(responseCode = "400", description = "Invalid RSQL syntax or export format")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+        @RequestParam(required = false) String counterpartyName,
+        @RequestParam(required = false) String bookName,
+        @RequestParam(required = false) String loginId,
+        @RequestParam(required = false) String tradeStatus,
+        @RequestParam(required = false) LocalDate tradeDateFrom,
+        @RequestParam(required = false) LocalDate tradeDateTo,
+        @Parameter(description = "Optional RSQL query, e.g. counterparty.name==BigBank")
+        @RequestParam(required = false) String query,
+        @Parameter(description = "csv or ndjson", example = "csv")
+        @RequestParam(defaultValue = "ndjson") String format,
+        @Parameter(description = "Only export the live version of each trade")
+        @RequestParam(defaultValue = "true") boolean activeOnly) {
+        logger.debug("Export requested - format: {}, query: {}", format, query);
+        try {
+            TradeExportWriter.Format exportFormat = TradeExportWriter.Format.parse(format);
+            Specification<Trade> spec = tradeService.buildExportSpecification(counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo, query, activeOnly);
+            StreamingResponseBody body = out -> tradeService.exportTrades(spec, exportFormat, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.getFileName() + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            // The declared body type has to stay StreamingResponseBody, so the message is streamed too
+            String message = e.getMessage();
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get trade by ID",
                description = "Retrieves a specific trade by its unique identifier")
@@ -239,6 +403,104 @@ public class TradeController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/cashflows")
+    @Operation(summary = "Get trade cashflows",
+               description = "Cashflows of all active legs of the trade with value dates in [from, to], by value date. "
+                       + "Stored rows are returned as they are; periods not yet stored (lazily booked legs) are computed "
+                       + "from the leg's schedule and have no id")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cashflows returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CashflowDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Trade not found"),
+        @ApiResponse(responseCode = "400", description = "from is after to")
+    })
+    public ResponseEntity<?> getTradeCashflows(
+            @Parameter(description = "Unique identifier of the trade", required = true)
+            @PathVariable(name = "id") Long id,
+            @Parameter(description = "First value date (yyyy-MM-dd); unbounded if omitted")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last value date (yyyy-MM-dd); unbounded if omitted")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.debug("Fetching cashflows of trade {} from {} to {}", id, from, to);
+        try {
+            return cashflowProjectionService.getTradeCashflows(id, from, to)
+                    .<ResponseEntity<?>>map(cashflows -> ResponseEntity.ok(cashflows.stream().map(cashflowMapper::toDto).toList()))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/history")
+    @Operation(summary = "Get trade version history",
+               description = "Every version of the trade, oldest first, with the period each was current (createdDate to "
+                       + "deactivatedDate) and its validity dates. Legs come as blotter columns; no cashflows are read")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "History returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeVersionDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Trade not found")
+    })
+    public ResponseEntity<List<TradeVersionDTO>> getTradeHistory(
+            @Parameter(description = "Business trade id", required = true)
+            @PathVariable(name = "id") Long id) {
+        logger.debug("Fetching history of trade {}", id);
+        List<TradeVersionDTO> history = tradeHistoryService.getHistory(id);
+        return history.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(history);
+    }
+
+    @GetMapping("/{id}/diff")
+    @Operation(summary = "Compare two trade versions",
+               description = "Trade and leg fields that differ between two versions (legs matched in legId order). "
+                       + "to defaults to the latest version and from to the version before to")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Differences returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeVersionDiff.class))),
+        @ApiResponse(responseCode = "404", description = "Trade or version not found")
+    })
+    public ResponseEntity<TradeVersionDiff> diffTradeVersions(
+            @Parameter(description = "Business trade id", required = true)
+            @PathVariable(name = "id") Long id,
+            @Parameter(description = "Older version") @RequestParam(required = false) Integer from,
+            @Parameter(description = "Newer version") @RequestParam(required = false) Integer to) {
+        logger.debug("Comparing versions {} and {} of trade {}", from, to, id);
+        return tradeHistoryService.diff(id, from, to)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/asof")
+    @Operation(summary = "Get trades as of a point in time",
+               description = "The version of each trade that was current at timestamp (created by then and not yet amended), "
+                       + "by trade id. validOn also restricts to versions whose validity dates cover that day. Keyset "
+                       + "paginated: pass the returned nextCursor to get the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trades returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CursorPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<?> getTradesAsOf(
+            @Parameter(description = "Point in transaction time (yyyy-MM-ddTHH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp,
+            @Parameter(description = "Point in valid time (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate validOn,
+            @Parameter(description = "Only this business trade id")
+            @RequestParam(required = false) Long tradeId,
+            @Parameter(description = "Continuation token from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size", example = "100")
+            @RequestParam(defaultValue = "100") int size) {
+        logger.debug("Fetching trades as of {} valid on {}", timestamp, validOn);
+        try {
+            return ResponseEntity.ok(tradeHistoryService.getAsOf(timestamp, validOn, tradeId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping
     @Operation(summary = "Create new trade",
                description = "Creates a new trade with the provided details. Automatically generates cashflows and validates business rules.")
@@ -256,7 +518,28 @@ public class TradeController {
         
             Trade savedTrade = tradeService.createTrade(tradeDTO);
             TradeDTO responseDTO = tradeMapper.toDto(savedTrade);
-            return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);        
+            return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Bulk create trades",
+               description = "Books a list of trades in one call using batched inserts. Each trade is validated independently; failures are reported per trade and do not roll back the rest of the batch.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see per-trade results",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBatchResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or malformed batch"),
+        @ApiResponse(responseCode = "500", description = "Internal server error during bulk creation")
+    })
+    public ResponseEntity<?> createTrades(
+            @Parameter(description = "Trades to create", required = true)
+            @RequestBody List<TradeDTO> tradeDTOs) {
+        if (tradeDTOs == null || tradeDTOs.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one trade is required");
+        }
+        logger.info("Bulk creating {} trades", tradeDTOs.size());
+        TradeBatchResultDTO result = tradeService.createTrades(tradeDTOs);
+        return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{id}")
@@ -268,7 +551,8 @@ public class TradeController {
                                      schema = @Schema(implementation = TradeDTO.class))),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Invalid trade data or business rule violation"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to update trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to update trade"),
+        @ApiResponse(responseCode = "409", description = "Trade is being changed by another request")
     })
     public ResponseEntity<?> updateTrade(
             @Parameter(description = "Unique identifier of the trade to update", required = true)
@@ -285,6 +569,9 @@ public class TradeController {
             Trade amendedTrade = tradeService.amendTrade(id, tradeDTO);
             TradeDTO responseDTO = tradeMapper.toDto(amendedTrade);
             return ResponseEntity.ok(responseDTO);
+        } catch (TradeConcurrencyException | OptimisticLockingFailureException e) {
+            logger.warn("Concurrent change to trade {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Trade was changed concurrently, reload and retry: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error updating trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error updating trade: " + e.getMessage());
@@ -298,7 +585,8 @@ public class TradeController {
         @ApiResponse(responseCode = "200", description = "Trade deleted successfully"),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Trade cannot be deleted in current status"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to delete trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to delete trade"),
+        @ApiResponse(responseCode = "409", description = "Trade is being changed by another request")
     })
     public ResponseEntity<?> deleteTrade(
             @Parameter(description = "Unique identifier of the trade to delete", required = true)
@@ -307,6 +595,9 @@ public class TradeController {
         try {
             tradeService.deleteTrade(id);
             return ResponseEntity.ok().body("Trade cancelled successfully");
+        } catch (TradeConcurrencyException | OptimisticLockingFailureException e) {
+            logger.warn("Concurrent change to trade {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Trade was changed concurrently, reload and retry: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error deleting trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error deleting trade: " + e.getMessage());
@@ -322,7 +613,8 @@ public class TradeController {
                                      schema = @Schema(implementation = TradeDTO.class))),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Trade cannot be terminated in current status"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to terminate trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to terminate trade"),
+        @ApiResponse(responseCode = "409", description = "Trade is being changed by another request")
     })
     public ResponseEntity<?> terminateTrade(
             @Parameter(description = "Unique identifier of the trade to terminate", required = true)
@@ -332,6 +624,9 @@ public class TradeController {
             Trade terminatedTrade = tradeService.terminateTrade(id);
             TradeDTO responseDTO = tradeMapper.toDto(terminatedTrade);
             return ResponseEntity.ok(responseDTO);
+        } catch (TradeConcurrencyException | OptimisticLockingFailureException e) {
+            logger.warn("Concurrent change to trade {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Trade was changed concurrently, reload and retry: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error terminating trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error terminating trade: " + e.getMessage());
@@ -347,7 +642,8 @@ public class TradeController {
                                      schema = @Schema(implementation = TradeDTO.class))),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Trade cannot be cancelled in current status"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to cancel trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to cancel trade"),
+        @ApiResponse(responseCode = "409", description = "Trade is being changed by another request")
     })
     public ResponseEntity<?> cancelTrade(
             @Parameter(description = "Unique identifier of the trade to cancel", required = true)
@@ -357,6 +653,9 @@ public class TradeController {
             Trade cancelledTrade = tradeService.cancelTrade(id);
             TradeDTO responseDTO = tradeMapper.toDto(cancelledTrade);
             return ResponseEntity.ok(responseDTO);
+        } catch (TradeConcurrencyException | OptimisticLockingFailureException e) {
+            logger.warn("Concurrent change to trade {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Trade was changed concurrently, reload and retry: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error cancelling trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error cancelling trade: " + e.getMessage());
@@ -15,10 +15,12 @@ public class CashflowGenerationRequest {
     public static class TradeLegDTO {
         private String legType; // "Fixed" or "Floating"
         private BigDecimal notional;
+        private String currency; // ISO code; sets the decimal places of the amounts, 2 if empty
         private Double rate; // for fixed
         private String index; // for floating
         private String calculationPeriodSchedule; // e.g. "Monthly", "Quarterly", "Annually"
         private String paymentBusinessDayConvention;
+        private String holidayCalendar; // e.g. "LON", or "LON+NY" for a joint calendar; no adjustment if empty
         private String payReceiveFlag; // "Pay" or "Rec"
     }
 }
@@ -0,0 +1,21 @@
+package com.technicalchallenge.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Snapshot of the cashflow regeneration job, served by POST /api/cashflows/regenerate and
+// the cashflowregeneration actuator endpoint. Filters are null (indices empty) when the job covers every active leg.
+public record CashflowRegenerationStatus(
+        String state,
+        String holidayCalendar,
+        String schedule,
+        List<String> indices,
+        int partitionsTotal,
+        int partitionsDone,
+        long legsProcessed,
+        long cashflowsWritten,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long elapsedMillis,
+        List<String> errors) {
+}
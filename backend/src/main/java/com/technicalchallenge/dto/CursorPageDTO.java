@@ -0,0 +1,26 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset (cursor) query. Pass nextCursor back to fetch the following page.
+// totalElements is only populated when the caller asks for a count.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+
+    public <R> CursorPageDTO<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new CursorPageDTO<>(mapped, size, hasNext, nextCursor, totalElements);
+    }
+}
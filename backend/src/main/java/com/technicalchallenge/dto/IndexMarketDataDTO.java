@@ -0,0 +1,13 @@
+package com.technicalchallenge.dto;
+
+import java.time.LocalDate;
+
+// Market data held for one floating-rate index, served by /api/market-data. Curve fields are null when
+// only fixings have been loaded, lastFixingDate when only a curve has.
+public record IndexMarketDataDTO(
+        String index,
+        LocalDate curveAsOf,
+        LocalDate curveLastPillar,
+        int fixingCount,
+        LocalDate lastFixingDate) {
+}
@@ -0,0 +1,10 @@
+package com.technicalchallenge.dto;
+
+import java.util.List;
+
+// Response of a curve or fixings upload: the indices loaded and, when re-projection was requested, the
+// status of the cashflow regeneration job rebuilding their floating legs (null otherwise)
+public record MarketDataLoadResult(
+        List<IndexMarketDataDTO> indices,
+        CashflowRegenerationStatus reprojection) {
+}
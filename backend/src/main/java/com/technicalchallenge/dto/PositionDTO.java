@@ -0,0 +1,14 @@
+package com.technicalchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+// One row of /api/positions: the net of received minus paid cashflows in one currency. book, desk and
+// valueMonth are null when the positions were not grouped by them.
+public record PositionDTO(
+        String book,
+        String desk,
+        String currency,
+        YearMonth valueMonth,
+        BigDecimal netAmount) {
+}
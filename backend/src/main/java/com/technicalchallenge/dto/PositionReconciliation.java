@@ -0,0 +1,17 @@
+package com.technicalchallenge.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Result of comparing the running positions with a rebuild from stored cashflows, served by
+// /api/positions/reconcile and /api/positions/rebuild. differences lists the first few mismatched
+// buckets as "book/currency/month: running vs rebuilt"; repaired is true when the rebuild replaced the running positions.
+public record PositionReconciliation(
+        boolean matches,
+        int bucketsCompared,
+        int mismatchedBuckets,
+        List<String> differences,
+        boolean repaired,
+        LocalDateTime checkedAt,
+        long elapsedMillis) {
+}
@@ -0,0 +1,44 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TradeBatchResultDTO {
+    private int totalRequested;
+    private int succeeded;
+    private int failed;
+    private List<Item> results = new ArrayList<>();
+
+    public void addSuccess(int index, Long tradeId, Long id) {
+        results.add(new Item(index, tradeId, id, true, null));
+        succeeded++;
+    }
+
+    public void addFailure(int index, Long tradeId, String message) {
+        results.add(new Item(index, tradeId, null, false, message));
+        failed++;
+    }
+
+    public void merge(TradeBatchResultDTO other) {
+        results.addAll(other.getResults());
+        succeeded += other.getSucceeded();
+        failed += other.getFailed();
+    }
+
+    // Outcome of a single trade, index is its position in the submitted list
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private Long tradeId;
+        private Long id;
+        private boolean success;
+        private String message;
+    }
+}
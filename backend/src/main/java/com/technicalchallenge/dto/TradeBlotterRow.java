@@ -0,0 +1,30 @@
+package com.technicalchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Flat, read-only trade row for blotter grids. Built straight from a JPQL projection
+// (see TradeRepositoryCustom.findBlotterRows) so no entities or leg/cashflow trees are loaded.
+// Legs are ordered by legId and only the first two have columns; legCount says how many the trade
+// really has, so a row for a trade with more (or fewer) than the usual two legs can be told apart.
+public record TradeBlotterRow(
+        Long id,
+        Long tradeId,
+        Integer version,
+        LocalDate tradeDate,
+        LocalDate tradeStartDate,
+        LocalDate tradeMaturityDate,
+        String bookName,
+        String counterpartyName,
+        String traderUserName,
+        String tradeType,
+        String tradeStatus,
+        Boolean active,
+        BigDecimal leg1Notional,
+        Double leg1Rate,
+        String leg1Currency,
+        BigDecimal leg2Notional,
+        Double leg2Rate,
+        String leg2Currency,
+        Integer legCount) {
+}
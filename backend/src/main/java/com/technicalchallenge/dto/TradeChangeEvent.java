@@ -0,0 +1,19 @@
+package com.technicalchallenge.dto;
+
+import java.time.LocalDateTime;
+
+// One committed trade lifecycle change pushed by /api/trades/stream. row is the trade's blotter row after
+// the change (for AMENDED, the new version); clients replace the row with the same tradeId. sequence
+// increases by one per change across all subscribers, in commit order.
+public record TradeChangeEvent(
+        long sequence,
+        String type,
+        Long tradeId,
+        TradeBlotterRow row,
+        LocalDateTime committedAt) {
+
+    public static final String CREATED = "CREATED";
+    public static final String AMENDED = "AMENDED";
+    public static final String TERMINATED = "TERMINATED";
+    public static final String CANCELLED = "CANCELLED";
+}
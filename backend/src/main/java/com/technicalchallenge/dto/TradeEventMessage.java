@@ -0,0 +1,16 @@
+package com.technicalchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+// A trade lifecycle event as handed to a TradeEventSink. Delivery is at least once: consumers drop repeats by
+// eventId. Events of one trade arrive in eventId order; trade is the TradeBlotterRow JSON after the change
+public record TradeEventMessage(
+        long eventId,
+        String type,
+        Long tradeId,
+        Integer tradeVersion,
+        LocalDateTime occurredAt,
+        @JsonRawValue String trade) {
+}
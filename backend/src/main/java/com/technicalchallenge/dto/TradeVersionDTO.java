@@ -0,0 +1,18 @@
+package com.technicalchallenge.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One version of a trade for history and as-of reads. Transaction time: the version was current from
+// createdDate until deactivatedDate (null while it is the live version). Valid time: validityStartDate to
+// validityEndDate. trade holds the blotter columns of this version
+public record TradeVersionDTO(
+        Long tradeId,
+        Integer version,
+        LocalDateTime createdDate,
+        LocalDateTime deactivatedDate,
+        LocalDate validityStartDate,
+        LocalDate validityEndDate,
+        LocalDateTime lastTouchTimestamp,
+        TradeBlotterRow trade) {
+}
@@ -0,0 +1,15 @@
+package com.technicalchallenge.dto;
+
+import java.util.List;
+
+// Fields that differ between two versions of a trade, trade fields first, then legs in legId order
+// ("leg1.notional"). Values are rendered as text; a null side means the field was unset or the leg absent
+public record TradeVersionDiff(
+        Long tradeId,
+        Integer fromVersion,
+        Integer toVersion,
+        List<FieldChange> changes) {
+
+    public record FieldChange(String field, String from, String to) {
+    }
+}
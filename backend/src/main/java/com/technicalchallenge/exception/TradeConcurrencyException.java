@@ -0,0 +1,12 @@
+package com.technicalchallenge.exception;
+
+// Another request is changing the same trade; the client should reload it and retry
+public class TradeConcurrencyException extends RuntimeException {
+    public TradeConcurrencyException(String message) {
+        super(message);
+    }
+
+    public TradeConcurrencyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
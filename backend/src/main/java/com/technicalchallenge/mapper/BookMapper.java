@@ -2,8 +2,8 @@ package com.technicalchallenge.mapper;
 
 import com.technicalchallenge.dto.BookDTO;
 import com.technicalchallenge.model.Book;
-import com.technicalchallenge.repository.CostCenterRepository;
 import com.technicalchallenge.model.CostCenter;
+import com.technicalchallenge.service.ReferenceDataCache;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -16,7 +16,7 @@ public class BookMapper {
     private ModelMapper modelMapper;
 
     @Autowired
-    private CostCenterRepository costCenterRepository;
+    private ReferenceDataCache referenceDataCache;
 
     public BookDTO toDto(Book entity) {
         BookDTO dto = modelMapper.map(entity, BookDTO.class);
@@ -27,9 +27,7 @@ public class BookMapper {
     public Book toEntity(BookDTO dto) {
         Book entity = modelMapper.map(dto, Book.class);
         if (dto.getCostCenterName() != null) {
-            CostCenter costCenter = costCenterRepository.findAll().stream()
-                .filter(cc -> dto.getCostCenterName().equals(cc.getCostCenterName()))
-                .findFirst().orElse(null);
+            CostCenter costCenter = referenceDataCache.findByName(CostCenter.class, dto.getCostCenterName()).orElse(null);
             entity.setCostCenter(costCenter);
         }
         return entity;
@@ -2,8 +2,8 @@ package com.technicalchallenge.mapper;
 
 import com.technicalchallenge.dto.CostCenterDTO;
 import com.technicalchallenge.model.CostCenter;
-import com.technicalchallenge.repository.SubDeskRepository;
 import com.technicalchallenge.model.SubDesk;
+import com.technicalchallenge.service.ReferenceDataCache;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -16,7 +16,7 @@ public class CostCenterMapper {
     private ModelMapper modelMapper;
 
     @Autowired
-    private SubDeskRepository subDeskRepository;
+    private ReferenceDataCache referenceDataCache;
 
     public CostCenterDTO toDto(CostCenter entity) {
         CostCenterDTO dto = modelMapper.map(entity, CostCenterDTO.class);
@@ -27,9 +27,7 @@ public class CostCenterMapper {
     public CostCenter toEntity(CostCenterDTO dto) {
         CostCenter entity = modelMapper.map(dto, CostCenter.class);
         if (dto.getSubDeskName() != null) {
-            SubDesk subDesk = subDeskRepository.findAll().stream()
-                .filter(sd -> dto.getSubDeskName().equals(sd.getSubdeskName()))
-                .findFirst().orElse(null);
+            SubDesk subDesk = referenceDataCache.findByName(SubDesk.class, dto.getSubDeskName()).orElse(null);
             entity.setSubDesk(subDesk);
         }
         return entity;
@@ -2,8 +2,8 @@ package com.technicalchallenge.mapper;
 
 import com.technicalchallenge.dto.SubDeskDTO;
 import com.technicalchallenge.model.SubDesk;
-import com.technicalchallenge.repository.DeskRepository;
 import com.technicalchallenge.model.Desk;
+import com.technicalchallenge.service.ReferenceDataCache;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -14,7 +14,7 @@ public class SubDeskMapper {
     private ModelMapper modelMapper;
 
     @Autowired
-    private DeskRepository deskRepository;
+    private ReferenceDataCache referenceDataCache;
 
     public SubDeskDTO toDto(SubDesk entity) {
         SubDeskDTO dto = modelMapper.map(entity, SubDeskDTO.class);
@@ -25,9 +25,7 @@ public class SubDeskMapper {
     public SubDesk toEntity(SubDeskDTO dto) {
         SubDesk entity = modelMapper.map(dto, SubDesk.class);
         if (dto.getDeskName() != null) {
-            Desk desk = deskRepository.findAll().stream()
-                .filter(d -> dto.getDeskName().equals(d.getDeskName()))
-                .findFirst().orElse(null);
+            Desk desk = referenceDataCache.findByName(Desk.class, dto.getDeskName()).orElse(null);
             entity.setDesk(desk);
         }
         return entity;
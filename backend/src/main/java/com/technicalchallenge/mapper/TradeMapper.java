@@ -6,11 +6,14 @@ import com.technicalchallenge.dto.CashflowDTO;
 import com.technicalchallenge.model.Trade;
 import com.technicalchallenge.model.TradeLeg;
 import com.technicalchallenge.model.Cashflow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -19,11 +22,26 @@ public class TradeMapper {
     @Autowired
     private ModelMapper modelMapper;
 
+    private final Timer toDtoTimer;
+
+    public TradeMapper(MeterRegistry meterRegistry) {
+        this.toDtoTimer = Timer.builder("trade.mapping")
+                .description("Time mapping one trade with its legs and cashflows to a TradeDTO, including lazy loads")
+                .tag("direction", "toDto")
+                .register(meterRegistry);
+    }
+
     public TradeDTO toDto(Trade trade) {
         if (trade == null) {
             return null;
         }
+        long start = System.nanoTime();
+        TradeDTO dto = mapToDto(trade);
+        toDtoTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return dto;
+    }
 
+    private TradeDTO mapToDto(Trade trade) {
         TradeDTO dto = new TradeDTO();
         dto.setId(trade.getId());
         dto.setTradeId(trade.getTradeId());
@@ -3,6 +3,8 @@ package com.technicalchallenge.model;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Locale;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,7 +12,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "application_user")
+@Table(name = "application_user", indexes = @jakarta.persistence.Index(name = "ix_application_user_login_id_lower", columnList = "login_id_lower"))
 public class ApplicationUser {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +21,10 @@ public class ApplicationUser {
     private String lastName;
     @Column(unique = true, nullable = false)
     private String loginId;
+    // lower(login_id), indexed for the case-insensitive trade filters (see Counterparty.nameLower)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "login_id_lower")
+    private String loginIdLower;
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private boolean active;
@@ -32,11 +38,13 @@ public class ApplicationUser {
     public void prePersist() {
         this.lastModifiedTimestamp = java.time.LocalDateTime.now();
         this.version = 1;
+        this.loginIdLower = loginId.toLowerCase(Locale.ROOT);
     }
 
     @PreUpdate
     public void preUpdate() {
         this.lastModifiedTimestamp = java.time.LocalDateTime.now();
         this.version = this.version + 1;
+        this.loginIdLower = loginId.toLowerCase(Locale.ROOT);
     }
 }
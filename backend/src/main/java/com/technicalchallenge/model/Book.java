@@ -1,23 +1,36 @@
 package com.technicalchallenge.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Locale;
+
 @Getter
 @Setter
 @Entity
-@Table(name = "book")
+@Table(name = "book", indexes = @jakarta.persistence.Index(name = "ix_book_book_name_lower", columnList = "book_name_lower"))
 public class Book {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String bookName;
+    // lower(book_name), indexed for the case-insensitive trade filters (see Counterparty.nameLower)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "book_name_lower")
+    private String bookNameLower;
     private boolean active;
     private int version;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cost_center_id", referencedColumnName = "id")
     private CostCenter costCenter;
+
+    @PrePersist
+    @PreUpdate
+    void lowerBookName() {
+        this.bookNameLower = bookName != null ? bookName.toLowerCase(Locale.ROOT) : null;
+    }
 }
@@ -14,10 +14,11 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "cashflow")
+@Table(name = "cashflow", indexes = @jakarta.persistence.Index(name = "ix_cashflow_leg", columnList = "leg_id"))
 public class Cashflow {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cashflow_seq")
+    @SequenceGenerator(name = "cashflow_seq", sequenceName = "cashflow_seq", initialValue = 10000, allocationSize = 50)
     private Long id; // Changed from 'id' to match DTO
 
     private BigDecimal paymentValue;
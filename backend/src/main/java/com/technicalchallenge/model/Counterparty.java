@@ -1,25 +1,39 @@
 package com.technicalchallenge.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "counterparty")
+@Table(name = "counterparty", indexes = @jakarta.persistence.Index(name = "ix_counterparty_name_lower", columnList = "name_lower"))
 public class Counterparty {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
+    // Lower-cased copy kept in step with name on every save and indexed, so the case-insensitive trade
+    // filters can seek instead of scanning lower(name). A plain column keeps the DDL portable (generated
+    // columns differ between H2 and PostgreSQL); rows written outside JPA must fill it with lower(name)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "name_lower")
+    private String nameLower;
     private String address;
     private String phoneNumber;
     private Long internalCode;
     private LocalDate createdDate;
     private LocalDate lastModifiedDate;
     private boolean active;
+
+    @PrePersist
+    @PreUpdate
+    void lowerName() {
+        this.nameLower = name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
 }
@@ -0,0 +1,26 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// A non-business day of one holiday calendar; weekends are implied and not stored
+@Getter
+@Setter
+@Entity
+@Table(name = "holiday", uniqueConstraints = @UniqueConstraint(name = "ux_holiday_calendar_date",
+        columnNames = {"holiday_calendar_id", "holidayDate"}))
+public class Holiday {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "holiday_calendar_id", referencedColumnName = "id")
+    private HolidayCalendar holidayCalendar;
+
+    private LocalDate holidayDate;
+    private String description;
+}
@@ -8,21 +8,86 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "trade")
+// Index column lists use physical names; the columns they name are spelled out with @Column/@JoinColumn
+@Table(name = "trade", indexes = {
+        // Blotter reads: active trades in a trade date range, newest first
+        @jakarta.persistence.Index(name = "ix_trade_active_trade_date", columnList = "active, trade_date"),
+        // Live version lookup by business trade id (findByTradeIdAndActiveTrue)
+        @jakarta.persistence.Index(name = "ix_trade_trade_id_active", columnList = "trade_id, active"),
+        // Version history and as-of reads: the versions of a trade ordered by when they were current
+        @jakarta.persistence.Index(name = "ix_trade_trade_id_created", columnList = "trade_id, created_date, deactivated_date"),
+        // Join side of the counterparty/book/trader/status filters
+        @jakarta.persistence.Index(name = "ix_trade_counterparty", columnList = "counterparty_id"),
+        @jakarta.persistence.Index(name = "ix_trade_book", columnList = "book_id"),
+        @jakarta.persistence.Index(name = "ix_trade_trader_user", columnList = "trader_user_id"),
+        @jakarta.persistence.Index(name = "ix_trade_trade_status", columnList = "trade_status_id")
+})
+// Fetch plans for trade reads: the blotter graph covers every to-one a TradeDTO needs,
+// withLegs adds the legs and their reference data (cashflows are loaded separately, see TradeLeg)
+@NamedEntityGraph(name = Trade.GRAPH_BLOTTER,
+        attributeNodes = {
+                @NamedAttributeNode("book"),
+                @NamedAttributeNode("counterparty"),
+                @NamedAttributeNode(value = "traderUser", subgraph = "user"),
+                @NamedAttributeNode(value = "tradeInputterUser", subgraph = "user"),
+                @NamedAttributeNode("tradeType"),
+                @NamedAttributeNode("tradeSubType"),
+                @NamedAttributeNode("tradeStatus")
+        },
+        subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("userProfile")))
+@NamedEntityGraph(name = Trade.GRAPH_WITH_LEGS,
+        attributeNodes = {
+                @NamedAttributeNode("book"),
+                @NamedAttributeNode("counterparty"),
+                @NamedAttributeNode(value = "traderUser", subgraph = "user"),
+                @NamedAttributeNode(value = "tradeInputterUser", subgraph = "user"),
+                @NamedAttributeNode("tradeType"),
+                @NamedAttributeNode("tradeSubType"),
+                @NamedAttributeNode("tradeStatus"),
+                @NamedAttributeNode(value = "tradeLegs", subgraph = "leg")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("userProfile")),
+                @NamedSubgraph(name = "leg", attributeNodes = {
+                        @NamedAttributeNode("currency"),
+                        @NamedAttributeNode("legRateType"),
+                        @NamedAttributeNode("index"),
+                        @NamedAttributeNode("holidayCalendar"),
+                        @NamedAttributeNode("calculationPeriodSchedule"),
+                        @NamedAttributeNode("paymentBusinessDayConvention"),
+                        @NamedAttributeNode("fixingBusinessDayConvention"),
+                        @NamedAttributeNode("payReceiveFlag")
+                })
+        })
 public class Trade {
+    public static final String GRAPH_BLOTTER = "Trade.blotter";
+    public static final String GRAPH_WITH_LEGS = "Trade.withLegs";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts; starts above the ids seeded by data.sql
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_seq")
+    @SequenceGenerator(name = "trade_seq", sequenceName = "trade_seq", initialValue = 10000, allocationSize = 50)
     private Long id;
 
+    @Column(name = "trade_id")
     private Long tradeId;
+    // Business version: 1 when booked, +1 per amendment (each amendment is a new row)
     private Integer version;
 
+    // Optimistic lock on this row: every update checks and bumps it, so two writers that read the same live
+    // version cannot both deactivate it. Defaults to 0 for rows inserted without it (data.sql)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long rowVersion;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", referencedColumnName = "id")
     private Book book;
@@ -54,6 +119,7 @@ public class Trade {
     private String utiCode;
 
     // Date fields
+    @Column(name = "trade_date")
     private LocalDate tradeDate;
     private LocalDate tradeStartDate;
     private LocalDate tradeMaturityDate;
@@ -65,8 +131,11 @@ public class Trade {
     private LocalDate validityEndDate;
 
     // Audit fields
+    @Column(name = "active")
     private Boolean active = true;
+    @Column(name = "created_date")
     private LocalDateTime createdDate;
+    @Column(name = "deactivated_date")
     private LocalDateTime deactivatedDate;
 
     @OneToMany(mappedBy = "trade", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -2,6 +2,7 @@ package com.technicalchallenge.model;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -14,10 +15,20 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "trade_leg")
+@Table(name = "trade_leg", indexes = @jakarta.persistence.Index(name = "ix_trade_leg_trade", columnList = "trade_id"))
+@NamedEntityGraph(name = TradeLeg.GRAPH_WITH_CASHFLOWS,
+        attributeNodes = @NamedAttributeNode(value = "cashflows", subgraph = "cashflow"),
+        subgraphs = @NamedSubgraph(name = "cashflow", attributeNodes = {
+                @NamedAttributeNode("payRec"),
+                @NamedAttributeNode("paymentType"),
+                @NamedAttributeNode("paymentBusinessDayConvention")
+        }))
 public class TradeLeg {
+    public static final String GRAPH_WITH_CASHFLOWS = "TradeLeg.withCashflows";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_leg_seq")
+    @SequenceGenerator(name = "trade_leg_seq", sequenceName = "trade_leg_seq", initialValue = 10000, allocationSize = 50)
     private Long legId;
 
     private BigDecimal notional;
@@ -59,6 +70,10 @@ public class TradeLeg {
     @JoinColumn(name = "pay_rec_id", referencedColumnName = "id")
     private PayRec payReceiveFlag;
 
+    // Cashflow rows exist up to this value date; later periods are computed on read (cashflow.materialization=lazy).
+    // Null means every period was stored at booking
+    private LocalDate cashflowsMaterializedThrough;
+
     // Audit fields
     private Boolean active = true;
     private LocalDateTime createdDate;
@@ -0,0 +1,43 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// A trade lifecycle event written in the booking's transaction and relayed to downstream feeds by
+// TradeOutboxService. publishedDate stays null until the sink has accepted it
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "trade_outbox", indexes = @jakarta.persistence.Index(name = "ix_trade_outbox_pending", columnList = "published_date, id"))
+public class TradeOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_outbox_seq")
+    @SequenceGenerator(name = "trade_outbox_seq", sequenceName = "trade_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String eventType;
+
+    @Column(nullable = false)
+    private Long tradeId;
+
+    private Integer tradeVersion;
+
+    // The trade's blotter row after the change, as JSON
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate;
+
+    // Named so the pending index can refer to it
+    @Column(name = "published_date")
+    private LocalDateTime publishedDate;
+
+    // Failed deliveries so far
+    private int attempts;
+}
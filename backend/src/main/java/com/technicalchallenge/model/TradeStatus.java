@@ -1,17 +1,30 @@
 package com.technicalchallenge.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Locale;
+
 @Getter
 @Setter
 @Entity
-@Table(name = "trade_status")
+@Table(name = "trade_status", indexes = @jakarta.persistence.Index(name = "ix_trade_status_trade_status_lower", columnList = "trade_status_lower"))
 public class TradeStatus {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String tradeStatus;
+    // lower(trade_status), indexed for the case-insensitive trade filters (see Counterparty.nameLower)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "trade_status_lower")
+    private String tradeStatusLower;
+
+    @PrePersist
+    @PreUpdate
+    void lowerTradeStatus() {
+        this.tradeStatusLower = tradeStatus != null ? tradeStatus.toLowerCase(Locale.ROOT) : null;
+    }
 }
@@ -1,10 +1,30 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Cashflow;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CashflowRepository extends JpaRepository<Cashflow, Long> {
-    // Custom query methods if needed
+    List<Cashflow> findByTradeLegLegIdAndValueDateBetweenOrderByValueDate(Long legId, LocalDate from, LocalDate to);
+
+    /**
+     * Copies every stored cashflow of one leg onto another in a single statement, so closing a trade version does
+     * not load or save its schedule row by row. Each row takes its own {@code nextval}: with the pooled optimizer a
+     * sequence value owns the block of ids below it, so these ids never collide with the blocks Hibernate hands out.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO cashflow (id, leg_id, payment_value, value_date, rate, pay_rec_id, payment_type_id, "
+            + "payment_business_day_convention_id, active, created_date, validity_start_date, validity_end_date) "
+            + "SELECT nextval('cashflow_seq'), :toLegId, payment_value, value_date, rate, pay_rec_id, payment_type_id, "
+            + "payment_business_day_convention_id, active, :createdDate, validity_start_date, validity_end_date "
+            + "FROM cashflow WHERE leg_id = :fromLegId", nativeQuery = true)
+    int copyToLeg(@Param("fromLegId") Long fromLegId, @Param("toLegId") Long toLegId,
+            @Param("createdDate") LocalDateTime createdDate);
 }
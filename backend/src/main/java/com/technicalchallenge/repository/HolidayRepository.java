@@ -0,0 +1,16 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Holiday;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HolidayRepository extends JpaRepository<Holiday, Long> {
+    @Query("SELECT h.holidayDate FROM Holiday h WHERE h.holidayCalendar.id = :calendarId")
+    List<LocalDate> findHolidayDatesByCalendarId(@Param("calendarId") Long calendarId);
+}
@@ -1,8 +1,28 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.TradeLeg;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TradeLegRepository extends JpaRepository<TradeLeg, Long> {}
+public interface TradeLegRepository extends JpaRepository<TradeLeg, Long> {
+
+    // Lazily materialized legs of live trades whose stored cashflows stop before asOf
+    @Query("SELECT l FROM TradeLeg l JOIN FETCH l.trade t WHERE l.active = true AND t.active = true"
+            + " AND l.cashflowsMaterializedThrough < :asOf")
+    List<TradeLeg> findLegsMaterializedBefore(@Param("asOf") LocalDate asOf);
+
+    // Ids of the same legs, in leg id order after afterLegId, one page at a time
+    @Query("SELECT l.legId FROM TradeLeg l JOIN l.trade t WHERE l.active = true AND t.active = true"
+            + " AND l.cashflowsMaterializedThrough < :asOf AND l.legId > :afterLegId ORDER BY l.legId")
+    List<Long> findLegIdsMaterializedBefore(@Param("asOf") LocalDate asOf, @Param("afterLegId") long afterLegId, Pageable page);
+
+    @Query("SELECT l FROM TradeLeg l JOIN FETCH l.trade WHERE l.legId IN :legIds ORDER BY l.legId")
+    List<TradeLeg> findWithTradeByLegIdIn(@Param("legIds") Collection<Long> legIds);
+}
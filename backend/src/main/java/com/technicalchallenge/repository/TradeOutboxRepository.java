@@ -0,0 +1,37 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.TradeOutboxEvent;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TradeOutboxRepository extends JpaRepository<TradeOutboxEvent, Long> {
+
+    // Oldest first, so events of one trade are relayed in the order they were written
+    @Query("SELECT e FROM TradeOutboxEvent e WHERE e.publishedDate IS NULL ORDER BY e.id")
+    List<TradeOutboxEvent> findPending(Pageable page);
+
+    long countByPublishedDateIsNull();
+
+    @Query("SELECT MIN(e.createdDate) FROM TradeOutboxEvent e WHERE e.publishedDate IS NULL")
+    LocalDateTime findOldestPendingCreatedDate();
+
+    @Modifying
+    @Query("UPDATE TradeOutboxEvent e SET e.publishedDate = :publishedDate WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedDate") LocalDateTime publishedDate);
+
+    @Modifying
+    @Query("UPDATE TradeOutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM TradeOutboxEvent e WHERE e.publishedDate < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
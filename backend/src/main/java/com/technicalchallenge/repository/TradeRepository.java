@@ -2,8 +2,13 @@ package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Trade;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -11,7 +16,20 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecificationExecutor<Trade> {
+public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecificationExecutor<Trade>, TradeRepositoryCustom {
+    // List reads fetch every to-one the TradeDTO needs in the same SELECT (see Trade.GRAPH_BLOTTER)
+    @Override
+    @EntityGraph(Trade.GRAPH_BLOTTER)
+    List<Trade> findAll();
+
+    @Override
+    @EntityGraph(Trade.GRAPH_BLOTTER)
+    Page<Trade> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(Trade.GRAPH_BLOTTER)
+    Page<Trade> findAll(Specification<Trade> spec, Pageable pageable);
+
     // Existing methods
     List<Trade> findByTradeId(Long tradeId);
 
@@ -22,23 +40,33 @@ public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecific
     Optional<Integer> findMaxVersionByTradeId(@Param("tradeId") Long tradeId);
 
     // NEW METHODS for service layer compatibility
+    @EntityGraph(Trade.GRAPH_WITH_LEGS)
     Optional<Trade> findByTradeIdAndActiveTrue(Long tradeId);
 
     List<Trade> findByActiveTrueOrderByTradeIdDesc();
 
+    // Given versions of one trade with legs and their reference data, but not cashflows (version diffs)
+    @EntityGraph(Trade.GRAPH_WITH_LEGS)
+    List<Trade> findByTradeIdAndVersionIn(Long tradeId, Collection<Integer> versions);
+
     @Query("SELECT t FROM Trade t WHERE t.tradeId = :tradeId AND t.active = true ORDER BY t.version DESC")
     Optional<Trade> findLatestActiveVersionByTradeId(@Param("tradeId") Long tradeId);
 
     //ENHANCEMENT-1: MULTI-CRITERIA SEARCH METHODS
+    @EntityGraph(Trade.GRAPH_BLOTTER)
     List<Trade> findByCounterparty_Name(String name); 
 
+    @EntityGraph(Trade.GRAPH_BLOTTER)
     List<Trade> findByTraderUser_LoginId(String loginId);
 
+    @EntityGraph(Trade.GRAPH_BLOTTER)
     List<Trade> findByTradeDateBetween(LocalDate fromDate, LocalDate toDate);
 
+    @EntityGraph(Trade.GRAPH_BLOTTER)
     @Query("SELECT t FROM Trade t WHERE t.book.bookName = :bookName")
     List<Trade> findByBookName(@Param("bookName") String bookName);
 
+    @EntityGraph(Trade.GRAPH_BLOTTER)
     @Query("SELECT t FROM Trade t WHERE t.tradeStatus.tradeStatus = :tradeStatus")
     List<Trade> findByTradeStatus(@Param("tradeStatus") String tradeStatus);
 }
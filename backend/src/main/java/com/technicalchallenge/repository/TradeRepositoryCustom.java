@@ -0,0 +1,35 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeVersionDTO;
+import com.technicalchallenge.model.Trade;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TradeRepositoryCustom {
+    // Runs the specification with ORDER BY and LIMIT only - no offset and no count query
+    List<Trade> findAll(Specification<Trade> spec, Sort sort, int limit);
+
+    // Loads legs and cashflows (with their reference data) for already-loaded trades in two queries,
+    // instead of one lazy load per trade, leg and association when the trades are mapped to DTOs
+    List<Trade> fetchLegsAndCashflows(List<Trade> trades);
+
+    // Scalar projection of the blotter columns, newest trades first; never builds managed entities
+    List<TradeBlotterRow> findBlotterRows(boolean activeOnly);
+
+    // Same projection restricted by a specification, read through a forward-only cursor with the given
+    // JDBC fetch size. Must be consumed inside a transaction and closed by the caller
+    Stream<TradeBlotterRow> streamBlotterRows(Specification<Trade> spec, int fetchSize);
+
+    // Every version of one business trade, oldest first, as blotter rows with their audit dates
+    List<TradeVersionDTO> findVersions(Long tradeId);
+
+    // The version of each trade current at asOf (created by then and not yet deactivated), optionally also
+    // valid on validOn, for one trade or up to limit trades after afterTradeId, by tradeId
+    List<TradeVersionDTO> findVersionsAsOf(LocalDateTime asOf, LocalDate validOn, Long tradeId, Long afterTradeId, int limit);
+}
@@ -0,0 +1,271 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeVersionDTO;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.JpaOrder;
+import org.hibernate.query.sqm.NullPrecedence;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class TradeRepositoryCustomImpl implements TradeRepositoryCustom {
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+    // Keeps IN lists to a size every database accepts
+    private static final int FETCH_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Trade> findAll(Specification<Trade> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Trade> query = cb.createQuery(Trade.class);
+        Root<Trade> root = query.from(Trade.class);
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(root).orderBy(withNullHandling(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Trade.GRAPH_BLOTTER))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // QueryUtils.toOrders drops Sort.Order null handling, so apply it through Hibernate's JpaOrder
+    private static List<Order> withNullHandling(Sort sort, Root<Trade> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Order jpaOrder = toOrders(Sort.by(order), root, cb).get(0);
+            if (order.getNullHandling() != Sort.NullHandling.NATIVE && jpaOrder instanceof JpaOrder hibernateOrder) {
+                hibernateOrder.nullPrecedence(order.getNullHandling() == Sort.NullHandling.NULLS_FIRST ? NullPrecedence.FIRST : NullPrecedence.LAST);
+            }
+            orders.add(jpaOrder);
+        }
+        return orders;
+    }
+
+    @Override
+    public List<Trade> fetchLegsAndCashflows(List<Trade> trades) {
+        List<Long> ids = trades.stream().map(Trade::getId).filter(Objects::nonNull).toList();
+        // Two bags (legs, cashflows) cannot be fetch-joined in one query, so legs first, then cashflows;
+        // both land in the current persistence context and initialise the collections on the trades
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + FETCH_CHUNK_SIZE, ids.size()));
+            entityManager.createQuery("SELECT t FROM Trade t WHERE t.id IN :ids", Trade.class)
+                    .setParameter("ids", chunk)
+                    .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Trade.GRAPH_WITH_LEGS))
+                    .getResultList();
+            entityManager.createQuery("SELECT l FROM TradeLeg l WHERE l.trade.id IN :ids", TradeLeg.class)
+                    .setParameter("ids", chunk)
+                    .setHint(FETCH_GRAPH, entityManager.getEntityGraph(TradeLeg.GRAPH_WITH_CASHFLOWS))
+                    .getResultList();
+        }
+        return trades;
+    }
+
+    @Override
+    public List<TradeBlotterRow> findBlotterRows(boolean activeOnly) {
+        Specification<Trade> spec = activeOnly ? (root, query, cb) -> cb.isTrue(root.get("active")) : null;
+        List<Object[]> rows = entityManager.createQuery(blotterQuery(spec)).getResultList();
+
+        List<TradeBlotterRow> blotter = new ArrayList<>();
+        new TradeRowIterator<>(rows.iterator(), TradeRepositoryCustomImpl::toBlotterRow).forEachRemaining(blotter::add);
+        return blotter;
+    }
+
+    @Override
+    public List<TradeVersionDTO> findVersions(Long tradeId) {
+        return findVersionRows((root, query, cb) -> cb.equal(root.get("tradeId"), tradeId));
+    }
+
+    @Override
+    public List<TradeVersionDTO> findVersionsAsOf(LocalDateTime asOf, LocalDate validOn, Long tradeId, Long afterTradeId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> ids = cb.createQuery(Long.class);
+        Root<Trade> t = ids.from(Trade.class);
+        List<Predicate> where = new ArrayList<>();
+        // Transaction time: created by asOf and not yet superseded at asOf
+        where.add(cb.lessThanOrEqualTo(t.get("createdDate"), asOf));
+        where.add(cb.or(cb.isNull(t.get("deactivatedDate")), cb.greaterThan(t.get("deactivatedDate"), asOf)));
+        // Valid time: the version's validity window covers validOn
+        if (validOn != null) {
+            where.add(cb.or(cb.isNull(t.get("validityStartDate")), cb.lessThanOrEqualTo(t.get("validityStartDate"), validOn)));
+            where.add(cb.or(cb.isNull(t.get("validityEndDate")), cb.greaterThanOrEqualTo(t.get("validityEndDate"), validOn)));
+        }
+        if (tradeId != null) {
+            where.add(cb.equal(t.get("tradeId"), tradeId));
+        }
+        if (afterTradeId != null) {
+            where.add(cb.greaterThan(t.get("tradeId"), afterTradeId));
+        }
+        ids.select(t.get("id")).where(where.toArray(Predicate[]::new)).orderBy(cb.asc(t.get("tradeId")), cb.asc(t.get("version")));
+
+        // Page on trade rows first; the projection below returns a row per leg
+        List<Long> page = entityManager.createQuery(ids).setMaxResults(limit).getResultList();
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        return findVersionRows((root, query, builder) -> root.get("id").in(page));
+    }
+
+    private List<TradeVersionDTO> findVersionRows(Specification<Trade> spec) {
+        List<Object[]> rows = entityManager.createQuery(rowQuery(spec,
+                (t, cb) -> List.of(cb.asc(t.get("tradeId")), cb.asc(t.get("version")))))
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+
+        List<TradeVersionDTO> versions = new ArrayList<>();
+        new TradeRowIterator<>(rows.iterator(), TradeRepositoryCustomImpl::toVersion).forEachRemaining(versions::add);
+        return versions;
+    }
+
+    @Override
+    public Stream<TradeBlotterRow> streamBlotterRows(Specification<Trade> spec, int fetchSize) {
+        Stream<Object[]> rows = entityManager.createQuery(blotterQuery(spec))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+        Iterator<TradeBlotterRow> blotter = new TradeRowIterator<>(rows.iterator(), TradeRepositoryCustomImpl::toBlotterRow);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(blotter, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(rows::close);
+    }
+
+    private CriteriaQuery<Object[]> blotterQuery(Specification<Trade> spec) {
+        return rowQuery(spec, (t, cb) -> List.of(cb.desc(t.get("tradeDate")), cb.desc(t.get("id"))));
+    }
+
+    // One row per leg, ordered by tradeOrder then legId, so the rows of a trade are always adjacent. The
+    // trade's audit dates follow the blotter columns
+    private CriteriaQuery<Object[]> rowQuery(Specification<Trade> spec, BiFunction<Root<Trade>, CriteriaBuilder, List<Order>> tradeOrder) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Trade> t = query.from(Trade.class);
+        Join<Trade, ApplicationUser> trader = t.join("traderUser", JoinType.LEFT);
+        Join<Trade, TradeLeg> leg = t.join("tradeLegs", JoinType.LEFT);
+
+        query.multiselect(
+                t.get("id"), t.get("tradeId"), t.get("version"),
+                t.get("tradeDate"), t.get("tradeStartDate"), t.get("tradeMaturityDate"),
+                t.join("book", JoinType.LEFT).get("bookName"),
+                t.join("counterparty", JoinType.LEFT).get("name"),
+                trader.get("firstName"), trader.get("lastName"),
+                t.join("tradeType", JoinType.LEFT).get("tradeType"),
+                t.join("tradeStatus", JoinType.LEFT).get("tradeStatus"),
+                t.get("active"),
+                leg.get("legId"), leg.get("notional"), leg.get("rate"),
+                leg.join("currency", JoinType.LEFT).get("currency"),
+                t.get("createdDate"), t.get("deactivatedDate"), t.get("validityStartDate"), t.get("validityEndDate"),
+                t.get("lastTouchTimestamp"));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(t, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        List<Order> order = new ArrayList<>(tradeOrder.apply(t, cb));
+        order.add(cb.asc(leg.get("legId")));
+        return query.orderBy(order);
+    }
+
+    // Folds consecutive per-leg rows into one result per trade. Joins added by a specification
+    // can repeat a leg row, so only the first two distinct legs are kept and the rest are counted
+    private static class TradeRowIterator<T> implements Iterator<T> {
+        private final Iterator<Object[]> rows;
+        private final RowMapper<T> mapper;
+        private Object[] next;
+
+        interface RowMapper<T> {
+            T map(Object[] leg1, Object[] leg2, int legCount);
+        }
+
+        TradeRowIterator(Iterator<Object[]> rows, RowMapper<T> mapper) {
+            this.rows = rows;
+            this.mapper = mapper;
+            this.next = rows.hasNext() ? rows.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Object[] first = next;
+            Object[] second = null;
+            Object lastLegId = first[13];
+            int legCount = lastLegId == null ? 0 : 1;
+            next = null;
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                if (!row[0].equals(first[0])) {
+                    next = row;
+                    break;
+                }
+                // Rows of a trade are ordered by legId, so a repeated leg is always next to itself
+                if (!Objects.equals(row[13], lastLegId)) {
+                    lastLegId = row[13];
+                    legCount++;
+                    if (second == null) {
+                        second = row;
+                    }
+                }
+            }
+            return mapper.map(first, second == null ? new Object[first.length] : second, legCount);
+        }
+    }
+
+    private static TradeBlotterRow toBlotterRow(Object[] r, Object[] leg2, int legCount) {
+        String trader = r[8] == null && r[9] == null ? null : r[8] + " " + r[9];
+        return new TradeBlotterRow(
+                (Long) r[0], (Long) r[1], (Integer) r[2],
+                (LocalDate) r[3], (LocalDate) r[4], (LocalDate) r[5],
+                (String) r[6], (String) r[7], trader, (String) r[10], (String) r[11], (Boolean) r[12],
+                (BigDecimal) r[14], (Double) r[15], (String) r[16],
+                (BigDecimal) leg2[14], (Double) leg2[15], (String) leg2[16],
+                legCount);
+    }
+
+    private static TradeVersionDTO toVersion(Object[] r, Object[] leg2, int legCount) {
+        return new TradeVersionDTO((Long) r[1], (Integer) r[2],
+                (LocalDateTime) r[17], (LocalDateTime) r[18], (LocalDate) r[19], (LocalDate) r[20], (LocalDateTime) r[21],
+                toBlotterRow(r, leg2, legCount));
+    }
+}
@@ -3,8 +3,8 @@ package com.technicalchallenge.service;
 import com.technicalchallenge.dto.BookDTO;
 import com.technicalchallenge.mapper.BookMapper;
 import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.CostCenter;
 import com.technicalchallenge.repository.BookRepository;
-import com.technicalchallenge.repository.CostCenterRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,8 +22,8 @@ public class BookService {
 
 
     private final BookRepository bookRepository;
-    private final CostCenterRepository costCenterRepository;
     private final BookMapper bookMapper;
+    private final ReferenceDataCache referenceDataCache;
 
     public List<BookDTO> getAllBooks() {
         logger.info("Retrieving all books");
@@ -39,9 +39,7 @@ public class BookService {
 
     public void populateReferenceDataByName(Book book, BookDTO dto) {
         if (dto.getCostCenterName() != null && !dto.getCostCenterName().isBlank()) {
-            var costCenter = costCenterRepository.findAll().stream()
-                .filter(c -> c.getCostCenterName().equalsIgnoreCase(dto.getCostCenterName()))
-                .findFirst().orElse(null);
+            var costCenter = referenceDataCache.findByName(CostCenter.class, dto.getCostCenterName()).orElse(null);
             if (costCenter == null) throw new IllegalArgumentException("CostCenter '" + dto.getCostCenterName() + "' does not exist");
             book.setCostCenter(costCenter);
         }
@@ -54,6 +52,7 @@ public class BookService {
         logger.debug("Saving book Entity: {}", entity);
         populateReferenceDataByName(entity, dto);
         var saved = bookRepository.save(entity);
+        referenceDataCache.refresh(Book.class);
 
         return bookMapper.toDto(saved);
     }
@@ -61,5 +60,6 @@ public class BookService {
     public void deleteBook(Long id) {
         logger.warn("Deleting book with id: {}", id);
         bookRepository.deleteById(id);
+        referenceDataCache.refresh(Book.class);
     }
 }
@@ -0,0 +1,220 @@
+package com.technicalchallenge.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Business days of one holiday calendar (or a joint calendar) as a bitmap indexed by epoch day, one bit
+ * per day from 1950 to 2149. A set bit is a business day: a weekday that is not a holiday.
+ * Lookups never touch the database or a collection:
+ * - isBusinessDay is a single bit test
+ * - adjust scans forward or back one 64-day word at a time, so it is constant for real calendars
+ * - addBusinessDays uses rank/select: business days before each word, plus the word holding every
+ *   64th business day, so finding the n-th business day reads at most a few words
+ * Instances are immutable and shared; build them through {@link HolidayCalendarService}.
+ */
+public final class BusinessCalendar {
+
+    public enum Adjustment {
+        UNADJUSTED, FOLLOWING, MODIFIED_FOLLOWING, PRECEDING, MODIFIED_PRECEDING;
+
+        // Maps BusinessDayConvention names such as "Modified Following"; null or blank means unadjusted
+        public static Adjustment fromName(String bdc) {
+            if (bdc == null || bdc.isBlank()) {
+                return UNADJUSTED;
+            }
+            String key = bdc.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+            if (key.equals("NONE")) {
+                return UNADJUSTED;
+            }
+            try {
+                return valueOf(key);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported business day convention: " + bdc);
+            }
+        }
+    }
+
+    static final int FIRST_DAY = (int) LocalDate.of(1950, 1, 1).toEpochDay();
+    static final int END_DAY = (int) LocalDate.of(2150, 1, 1).toEpochDay();
+    private static final int DAYS = END_DAY - FIRST_DAY;
+
+    private final String name;
+    private final long[] businessDays;
+    // rank[w] = business days before word w; select[k] = word holding business day number k * 64
+    private final int[] rank;
+    private final int[] select;
+
+    private BusinessCalendar(String name, long[] businessDays) {
+        this.name = name;
+        this.businessDays = businessDays;
+        this.rank = new int[businessDays.length + 1];
+        for (int w = 0; w < businessDays.length; w++) {
+            rank[w + 1] = rank[w] + Long.bitCount(businessDays[w]);
+        }
+        this.select = new int[(rank[businessDays.length] + 63) >>> 6];
+        for (int w = 0, k = 0; w < businessDays.length; w++) {
+            for (; k < select.length && (k << 6) < rank[w + 1]; k++) {
+                select[k] = w;
+            }
+        }
+    }
+
+    // Weekdays minus the given holidays; holidays outside the supported range are ignored
+    public static BusinessCalendar of(String name, Collection<LocalDate> holidays) {
+        long[] bits = new long[(DAYS + 63) >>> 6];
+        for (int i = 0; i < DAYS; i++) {
+            // Epoch day 0 (1970-01-01) was a Thursday; 0 = Monday .. 6 = Sunday
+            if (Math.floorMod(FIRST_DAY + i + 3, 7) < 5) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+        for (LocalDate holiday : holidays) {
+            long day = holiday.toEpochDay();
+            if (day >= FIRST_DAY && day < END_DAY) {
+                int i = (int) (day - FIRST_DAY);
+                bits[i >>> 6] &= ~(1L << i);
+            }
+        }
+        return new BusinessCalendar(name, bits);
+    }
+
+    // A day is a business day of the joint calendar only if it is one in every member calendar
+    public static BusinessCalendar joint(String name, BusinessCalendar... calendars) {
+        long[] bits = calendars[0].businessDays.clone();
+        for (int c = 1; c < calendars.length; c++) {
+            for (int w = 0; w < bits.length; w++) {
+                bits[w] &= calendars[c].businessDays[w];
+            }
+        }
+        return new BusinessCalendar(name, bits);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isBusinessDay(LocalDate date) {
+        return isBusinessDay(toEpochDay(date));
+    }
+
+    public boolean isBusinessDay(int epochDay) {
+        int i = index(epochDay);
+        return (businessDays[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public LocalDate adjust(LocalDate date, Adjustment adjustment) {
+        return LocalDate.ofEpochDay(adjust(toEpochDay(date), adjustment));
+    }
+
+    public int adjust(int epochDay, Adjustment adjustment) {
+        switch (adjustment) {
+            case FOLLOWING:
+                return following(epochDay);
+            case MODIFIED_FOLLOWING: {
+                int adjusted = following(epochDay);
+                return yearMonth(adjusted) == yearMonth(epochDay) ? adjusted : preceding(epochDay);
+            }
+            case PRECEDING:
+                return preceding(epochDay);
+            case MODIFIED_PRECEDING: {
+                int adjusted = preceding(epochDay);
+                return yearMonth(adjusted) == yearMonth(epochDay) ? adjusted : following(epochDay);
+            }
+            default:
+                return epochDay;
+        }
+    }
+
+    public LocalDate addBusinessDays(LocalDate date, int days) {
+        return LocalDate.ofEpochDay(addBusinessDays(toEpochDay(date), days));
+    }
+
+    // The n-th business day after (n > 0) or before (n < 0) the given day, which need not be a business day
+    public int addBusinessDays(int epochDay, int days) {
+        if (days == 0) {
+            return epochDay;
+        }
+        int i = index(epochDay);
+        long target = days > 0 ? (long) businessDaysBefore(i + 1) + days - 1 : (long) businessDaysBefore(i) + days;
+        if (target < 0 || target >= rank[businessDays.length]) {
+            throw new IllegalArgumentException("Business day outside calendar range: " + LocalDate.ofEpochDay(epochDay) + " + " + days);
+        }
+        return select((int) target);
+    }
+
+    private int businessDaysBefore(int i) {
+        int w = i >>> 6;
+        if (w == businessDays.length) {
+            return rank[w];
+        }
+        return rank[w] + Long.bitCount(businessDays[w] & ((1L << i) - 1));
+    }
+
+    private int select(int k) {
+        int w = select[k >>> 6];
+        while (rank[w + 1] <= k) {
+            w++;
+        }
+        long word = businessDays[w];
+        for (int skip = k - rank[w]; skip > 0; skip--) {
+            word &= word - 1;
+        }
+        return FIRST_DAY + (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private int following(int epochDay) {
+        int i = index(epochDay);
+        int w = i >>> 6;
+        long word = businessDays[w] & (-1L << i);
+        while (word == 0) {
+            if (++w == businessDays.length) {
+                throw new IllegalArgumentException("No business day after " + LocalDate.ofEpochDay(epochDay) + " in " + name);
+            }
+            word = businessDays[w];
+        }
+        return FIRST_DAY + (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private int preceding(int epochDay) {
+        int i = index(epochDay);
+        int w = i >>> 6;
+        long word = businessDays[w] & (-1L >>> (63 - (i & 63)));
+        while (word == 0) {
+            if (--w < 0) {
+                throw new IllegalArgumentException("No business day before " + LocalDate.ofEpochDay(epochDay) + " in " + name);
+            }
+            word = businessDays[w];
+        }
+        return FIRST_DAY + (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    private static int index(int epochDay) {
+        if (epochDay < FIRST_DAY || epochDay >= END_DAY) {
+            throw new IllegalArgumentException("Date outside business calendar range: " + LocalDate.ofEpochDay(epochDay));
+        }
+        return epochDay - FIRST_DAY;
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day < FIRST_DAY || day >= END_DAY) {
+            throw new IllegalArgumentException("Date outside business calendar range: " + date);
+        }
+        return (int) day;
+    }
+
+    // year * 12 + month of an epoch day without building a LocalDate (days-to-civil)
+    private static int yearMonth(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month;
+    }
+}
@@ -17,6 +17,8 @@ public class BusinessDayConventionService {
 
     @Autowired
     private BusinessDayConventionRepository businessDayConventionRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<BusinessDayConvention> findAll() {
         logger.info("Retrieving all business day conventions");
@@ -30,11 +32,14 @@ public class BusinessDayConventionService {
 
     public BusinessDayConvention save(BusinessDayConvention businessDayConvention) {
         logger.info("Saving business day convention: {}", businessDayConvention);
-        return businessDayConventionRepository.save(businessDayConvention);
+        BusinessDayConvention saved = businessDayConventionRepository.save(businessDayConvention);
+        referenceDataCache.refresh(BusinessDayConvention.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting business day convention with id: {}", id);
         businessDayConventionRepository.deleteById(id);
+        referenceDataCache.refresh(BusinessDayConvention.class);
     }
 }
@@ -0,0 +1,222 @@
+package com.technicalchallenge.service;
+
+import org.springframework.stereotype.Component;
+
+import com.technicalchallenge.model.TradeLeg;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Builds the cashflow schedule of a leg in a single pass over primitive arrays. Period dates are
+ * rolled on year/month/day integers rather than LocalDate, and every period is measured from the
+ * start date (start + k * interval), so an end-of-month start does not drift (31 Jan, 28 Feb, 31 Mar).
+ * Amounts are {@link Money} minor units, computed exactly from the notional and the rate's decimal form.
+ */
+@Component
+public class CashflowEngine {
+
+    private static final int DAYS_0000_TO_1970 = 719528;
+    // Projected rates are rounded to 1e-8 (a millionth of a percent) so interest stays in long arithmetic
+    private static final int PROJECTED_RATE_SCALE = 8;
+    private static final double PROJECTED_RATE_UNITS = 1e8;
+
+    public enum Convention {
+        // Whole periods only, accrual = months / 12. What trade booking stores (see functionality guide)
+        MONTHS_OVER_12(false),
+        // Last period clipped to maturity, accrual = actual days / 360. Used by the generate preview
+        ACTUAL_360(true);
+
+        private final boolean stubToMaturity;
+
+        Convention(boolean stubToMaturity) {
+            this.stubToMaturity = stubToMaturity;
+        }
+    }
+
+    /**
+     * Months per period for a schedule name: Monthly, Quarterly, Semi-annually, Annually or "NM".
+     * A blank schedule means quarterly.
+     */
+    public int parseSchedule(String schedule) {
+        if (schedule == null || schedule.isBlank()) {
+            return 3;
+        }
+        String name = schedule.trim().toLowerCase(Locale.ROOT);
+        switch (name) {
+            case "monthly":
+                return 1;
+            case "quarterly":
+                return 3;
+            case "semi-annually":
+            case "semiannually":
+            case "half-yearly":
+                return 6;
+            case "annually":
+            case "yearly":
+                return 12;
+            default:
+                if (name.endsWith("m")) {
+                    try {
+                        int months = Integer.parseInt(name.substring(0, name.length() - 1));
+                        if (months > 0) {
+                            return months;
+                        }
+                    } catch (NumberFormatException ignored) {
+                        // reported below
+                    }
+                }
+                throw new IllegalArgumentException("Invalid schedule format: " + schedule
+                        + ". Supported formats: Monthly, Quarterly, Semi-annually, Annually, or 1M, 3M, 6M, 12M");
+        }
+    }
+
+    /**
+     * Generates the periods between start and maturity, with amounts in cents ({@link Money#DEFAULT_SCALE}).
+     * Floating legs get dates and accruals with zero amounts; see the overload taking {@link IndexRates}.
+     */
+    public CashflowSchedule generate(LocalDate startDate, LocalDate maturityDate, int intervalMonths,
+                                     boolean fixed, BigDecimal notional, double rate, Convention convention) {
+        return generate(startDate, maturityDate, intervalMonths, fixed, notional, Money.DEFAULT_SCALE, rate, convention,
+                null, BusinessCalendar.Adjustment.UNADJUSTED);
+    }
+
+    /**
+     * As above, with amounts at the currency's scale (see {@link Money#scaleOf}) and value dates moved onto
+     * business days of the payment calendar. Accruals stay on the unadjusted period dates, so only the
+     * payment date moves. A null notional is zero.
+     */
+    public CashflowSchedule generate(LocalDate startDate, LocalDate maturityDate, int intervalMonths,
+                                     boolean fixed, BigDecimal notional, int currencyScale, double rate, Convention convention,
+                                     BusinessCalendar paymentCalendar, BusinessCalendar.Adjustment paymentAdjustment) {
+        return generate(startDate, maturityDate, intervalMonths, fixed, notional, currencyScale, rate, convention,
+                paymentCalendar, paymentAdjustment, null);
+    }
+
+    /**
+     * As above; a floating leg's period pays the index rate for its unadjusted accrual dates (a fixing, or
+     * the forward off the index curve). Periods the index data does not cover, and every period when
+     * floatingRates is null, stay at zero. Ignored for fixed legs.
+     */
+    public CashflowSchedule generate(LocalDate startDate, LocalDate maturityDate, int intervalMonths,
+                                     boolean fixed, BigDecimal notional, int currencyScale, double rate, Convention convention,
+                                     BusinessCalendar paymentCalendar, BusinessCalendar.Adjustment paymentAdjustment,
+                                     IndexRates floatingRates) {
+        if (intervalMonths <= 0) {
+            throw new IllegalArgumentException("Schedule interval must be positive: " + intervalMonths);
+        }
+        int startYear = startDate.getYear();
+        int startMonth = startDate.getMonthValue();
+        int startDay = startDate.getDayOfMonth();
+        int start = (int) startDate.toEpochDay();
+        int maturity = (int) maturityDate.toEpochDay();
+
+        // Periods that end on or before maturity; the period landing in maturity's month may overshoot it
+        int monthSpan = (maturityDate.getYear() - startYear) * 12 + maturityDate.getMonthValue() - startMonth;
+        int whole = Math.max(0, monthSpan / intervalMonths);
+        while (whole > 0 && periodEnd(startYear, startMonth, startDay, whole * intervalMonths) > maturity) {
+            whole--;
+        }
+        int lastWhole = whole == 0 ? start : periodEnd(startYear, startMonth, startDay, whole * intervalMonths);
+        boolean stub = convention.stubToMaturity && lastWhole < maturity;
+        int count = whole + (stub ? 1 : 0);
+        if (count == 0) {
+            return CashflowSchedule.empty(currencyScale);
+        }
+
+        int[] valueDates = new int[count];
+        double[] accruals = new double[count];
+        long[] amounts = new long[count];
+        boolean projected = !fixed && floatingRates != null;
+        long notionalUnits = fixed || projected ? Money.toMinorUnits(notional, currencyScale) : 0L;
+        long rateUnscaled = fixed ? Money.rateUnscaled(rate) : 0L;
+        int rateScale = fixed ? Money.rateScale(rate) : 0;
+        // Every whole period pays the same under months/12
+        long wholePeriodAmount = Money.interest(notionalUnits, rateUnscaled, rateScale, intervalMonths, 12);
+        int previous = start;
+        for (int i = 0; i < count; i++) {
+            int end = i < whole ? periodEnd(startYear, startMonth, startDay, (i + 1) * intervalMonths) : maturity;
+            valueDates[i] = paymentCalendar == null ? end : paymentCalendar.adjust(end, paymentAdjustment);
+            long numerator = convention == Convention.ACTUAL_360 ? end - previous : intervalMonths;
+            long denominator = convention == Convention.ACTUAL_360 ? 360 : 12;
+            accruals[i] = (double) numerator / denominator;
+            if (projected) {
+                double periodRate = floatingRates.rate(previous, end);
+                amounts[i] = Double.isNaN(periodRate) ? 0L : Money.interest(notionalUnits,
+                        Math.round(periodRate * PROJECTED_RATE_UNITS), PROJECTED_RATE_SCALE, numerator, denominator);
+            } else if (convention == Convention.ACTUAL_360) {
+                amounts[i] = Money.interest(notionalUnits, rateUnscaled, rateScale, numerator, denominator);
+            } else {
+                amounts[i] = wholePeriodAmount;
+            }
+            previous = end;
+        }
+        return new CashflowSchedule(valueDates, accruals, amounts, currencyScale);
+    }
+
+    /**
+     * Schedule a booked leg pays, with booking's conventions: the leg's calculation schedule (quarterly if
+     * unset), months/12 accrual, amounts at the leg currency's scale and value dates adjusted on the given
+     * payment calendar (the leg's holiday calendar, resolved by the caller) with the leg's payment convention.
+     * Floating legs are projected from floatingRates, the market data of the leg's index (null for none).
+     */
+    public CashflowSchedule generate(TradeLeg leg, LocalDate startDate, LocalDate maturityDate,
+                                     BusinessCalendar paymentCalendar, IndexRates floatingRates) {
+        String schedule = leg.getCalculationPeriodSchedule() != null ? leg.getCalculationPeriodSchedule().getSchedule() : "3M";
+        // Floating legs are projected off the index's market data (resolved by the caller), or booked at zero without it
+        boolean fixed = leg.getLegRateType() != null && "Fixed".equals(leg.getLegRateType().getType());
+        BusinessCalendar.Adjustment paymentAdjustment = BusinessCalendar.Adjustment.fromName(
+                leg.getPaymentBusinessDayConvention() != null ? leg.getPaymentBusinessDayConvention().getBdc() : null);
+        int currencyScale = Money.scaleOf(leg.getCurrency() != null ? leg.getCurrency().getCurrency() : null);
+        return generate(startDate, maturityDate, parseSchedule(schedule), fixed, leg.getNotional(), currencyScale,
+                leg.getRate() != null ? leg.getRate() : 0.0, Convention.MONTHS_OVER_12, paymentCalendar, paymentAdjustment,
+                floatingRates);
+    }
+
+    // Epoch day of start + months, clamped to the month's last day like LocalDate.plusMonths
+    private static int periodEnd(int startYear, int startMonth, int startDay, int months) {
+        int monthIndex = startMonth - 1 + months;
+        int year = startYear + Math.floorDiv(monthIndex, 12);
+        int month = Math.floorMod(monthIndex, 12) + 1;
+        return epochDay(year, month, Math.min(startDay, lengthOfMonth(year, month)));
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, without building the LocalDate
+    private static int epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeap(year)) {
+                total--;
+            }
+        }
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
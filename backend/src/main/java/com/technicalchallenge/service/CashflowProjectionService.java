@@ -0,0 +1,279 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.CashflowRepository;
+import com.technicalchallenge.repository.TradeLegRepository;
+import com.technicalchallenge.repository.TradeRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves a trade's cashflows from stored rows plus, for lazily booked legs, periods computed on read.
+ * With cashflow.materialization=lazy, booking stores only periods paid by the booking date and records that
+ * date in TradeLeg.cashflowsMaterializedThrough; later periods come from CashflowEngine. Computed schedules
+ * sit in a bounded LRU keyed by leg id. Leg terms never change after booking (an amendment books new legs),
+ * and an entry is recomputed when its leg's business calendar or index market data has been replaced since. A daily job stores
+ * the periods that have since been paid, so settled cashflows always exist as rows.
+ */
+@Service
+public class CashflowProjectionService {
+    private static final Logger logger = LoggerFactory.getLogger(CashflowProjectionService.class);
+
+    private static final LocalDate NO_LOWER_BOUND = LocalDate.of(1900, 1, 1);
+    private static final LocalDate NO_UPPER_BOUND = LocalDate.of(9999, 12, 31);
+
+    private final CashflowEngine cashflowEngine;
+    private final HolidayCalendarService holidayCalendarService;
+    private final MarketDataService marketDataService;
+    private final TradeRepository tradeRepository;
+    private final TradeLegRepository tradeLegRepository;
+    private final CashflowRepository cashflowRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean lazy;
+    private final int maxSize;
+    private final int chunkSize;
+    private final Map<Long, CachedSchedule> schedules;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CashflowProjectionService(CashflowEngine cashflowEngine,
+                                     HolidayCalendarService holidayCalendarService,
+                                     MarketDataService marketDataService,
+                                     TradeRepository tradeRepository,
+                                     TradeLegRepository tradeLegRepository,
+                                     CashflowRepository cashflowRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("#{'${cashflow.materialization:eager}'.equalsIgnoreCase('lazy')}") boolean lazy,
+                                     @Value("${cashflow.projection.cache.max-size:1000}") int maxSize,
+                                     @Value("${cashflow.materialization.chunk-size:500}") int chunkSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("cashflow.projection.cache.max-size must be positive");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("cashflow.materialization.chunk-size must be positive");
+        }
+        this.cashflowEngine = cashflowEngine;
+        this.holidayCalendarService = holidayCalendarService;
+        this.marketDataService = marketDataService;
+        this.tradeRepository = tradeRepository;
+        this.tradeLegRepository = tradeLegRepository;
+        this.cashflowRepository = cashflowRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lazy = lazy;
+        this.maxSize = maxSize;
+        this.chunkSize = chunkSize;
+        this.schedules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedSchedule> eldest) {
+                return size() > CashflowProjectionService.this.maxSize;
+            }
+        };
+
+        FunctionCounter.builder("cashflow.projection.cache.requests", hits, AtomicLong::get)
+                .description("Per-leg schedule lookups for computed cashflows; a miss runs the cashflow engine")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cashflow.projection.cache.requests", misses, AtomicLong::get)
+                .description("Per-leg schedule lookups for computed cashflows; a miss runs the cashflow engine")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cashflow.projection.cache.size", this, CashflowProjectionService::size)
+                .description("Leg schedules currently cached")
+                .register(meterRegistry);
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Cashflows of the active version of a trade with value dates in [from, to] (either bound may be null),
+     * ordered by value date. Computed periods are transient Cashflows with no id. Empty if the trade does not exist.
+     */
+    public Optional<List<Cashflow>> getTradeCashflows(Long tradeId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        LocalDate lower = from != null ? from : NO_LOWER_BOUND;
+        LocalDate upper = to != null ? to : NO_UPPER_BOUND;
+        return transactionTemplate.execute(status -> {
+            Optional<Trade> trade = tradeRepository.findByTradeIdAndActiveTrue(tradeId);
+            return trade.map(t -> cashflows(t, lower, upper));
+        });
+    }
+
+    private List<Cashflow> cashflows(Trade trade, LocalDate from, LocalDate to) {
+        List<Cashflow> result = new ArrayList<>();
+        if (trade.getTradeLegs() == null) {
+            return result;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (TradeLeg leg : trade.getTradeLegs()) {
+            if (Boolean.FALSE.equals(leg.getActive())) {
+                continue;
+            }
+            LocalDate through = leg.getCashflowsMaterializedThrough();
+            LocalDate storedTo = through != null && through.isBefore(to) ? through : to;
+            if (!storedTo.isBefore(from)) {
+                for (Cashflow cashflow : cashflowRepository.findByTradeLegLegIdAndValueDateBetweenOrderByValueDate(leg.getLegId(), from, storedTo)) {
+                    if (!Boolean.FALSE.equals(cashflow.getActive())) {
+                        result.add(cashflow);
+                    }
+                }
+            }
+            if (through != null && through.isBefore(to) && trade.getTradeStartDate() != null && trade.getTradeMaturityDate() != null) {
+                CashflowSchedule schedule = cachedSchedule(leg, trade);
+                long after = Math.max(through.toEpochDay(), from.toEpochDay() - 1);
+                long last = to.toEpochDay();
+                for (int i = 0; i < schedule.size(); i++) {
+                    int valueDate = schedule.valueDates()[i];
+                    if (valueDate > after && valueDate <= last) {
+                        result.add(schedule.toCashflow(i, leg, now));
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparing(Cashflow::getValueDate));
+        return result;
+    }
+
+    /**
+     * Stores the periods of lazily booked legs that have been paid by asOf and moves the
+     * cashflowsMaterializedThrough of each leg that had one up to asOf. Legs are taken in leg id order,
+     * cashflow.materialization.chunk-size per transaction; a chunk that fails is logged and left for the next run.
+     * Returns the number of cashflows written.
+     */
+    public int materializeSettled(LocalDate asOf) {
+        int written = 0;
+        int failedChunks = 0;
+        long afterLegId = 0L;
+        List<Long> legIds;
+        do {
+            legIds = tradeLegRepository.findLegIdsMaterializedBefore(asOf, afterLegId, PageRequest.of(0, chunkSize));
+            if (legIds.isEmpty()) {
+                break;
+            }
+            afterLegId = legIds.get(legIds.size() - 1);
+            List<Long> chunk = legIds;
+            try {
+                Integer rows = transactionTemplate.execute(status -> materializeChunk(chunk, asOf));
+                written += rows != null ? rows : 0;
+            } catch (RuntimeException e) {
+                failedChunks++;
+                logger.error("Storing settled cashflows failed for legs {} to {}", chunk.get(0), afterLegId, e);
+            }
+        } while (legIds.size() == chunkSize);
+
+        logger.info("Stored {} settled cashflows up to {} ({} chunks failed)", written, asOf, failedChunks);
+        return written;
+    }
+
+    // Schedules bypass the LRU, which is kept for legs that are being read
+    private int materializeChunk(List<Long> legIds, LocalDate asOf) {
+        List<Cashflow> settled = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        long last = asOf.toEpochDay();
+        for (TradeLeg leg : tradeLegRepository.findWithTradeByLegIdIn(legIds)) {
+            Trade trade = leg.getTrade();
+            if (trade.getTradeStartDate() == null || trade.getTradeMaturityDate() == null) {
+                continue;
+            }
+            CashflowSchedule schedule = computeSchedule(leg, trade);
+            long after = leg.getCashflowsMaterializedThrough().toEpochDay();
+            int before = settled.size();
+            for (int i = 0; i < schedule.size(); i++) {
+                int valueDate = schedule.valueDates()[i];
+                if (valueDate > after && valueDate <= last) {
+                    settled.add(schedule.toCashflow(i, leg, now));
+                }
+            }
+            // A leg with nothing newly paid is left untouched; its unpaid periods are still computed on read
+            if (settled.size() > before) {
+                leg.setCashflowsMaterializedThrough(asOf);
+            }
+        }
+        cashflowRepository.saveAll(settled);
+        return settled.size();
+    }
+
+    @Scheduled(cron = "${cashflow.materialization.settle-cron:0 15 0 * * *}")
+    public void materializeSettledDaily() {
+        if (lazy) {
+            materializeSettled(LocalDate.now());
+        }
+    }
+
+    public int size() {
+        synchronized (schedules) {
+            return schedules.size();
+        }
+    }
+
+    // The engine runs outside the lock; two threads missing on the same leg both compute and the last one is kept
+    CashflowSchedule cachedSchedule(TradeLeg leg, Trade trade) {
+        BusinessCalendar paymentCalendar = paymentCalendar(leg);
+        IndexRates floatingRates = floatingRates(leg);
+        CachedSchedule cached;
+        synchronized (schedules) {
+            cached = schedules.get(leg.getLegId());
+        }
+        if (cached != null && cached.paymentCalendar == paymentCalendar && cached.floatingRates == floatingRates) {
+            hits.incrementAndGet();
+            return cached.schedule;
+        }
+        misses.incrementAndGet();
+        CashflowSchedule schedule = cashflowEngine.generate(leg, trade.getTradeStartDate(), trade.getTradeMaturityDate(),
+                paymentCalendar, floatingRates);
+        synchronized (schedules) {
+            schedules.put(leg.getLegId(), new CachedSchedule(schedule, paymentCalendar, floatingRates));
+        }
+        return schedule;
+    }
+
+    // Same schedule without going through the cache, for whole-book passes that would evict every hot leg
+    CashflowSchedule computeSchedule(TradeLeg leg, Trade trade) {
+        return cashflowEngine.generate(leg, trade.getTradeStartDate(), trade.getTradeMaturityDate(),
+                paymentCalendar(leg), floatingRates(leg));
+    }
+
+    private BusinessCalendar paymentCalendar(TradeLeg leg) {
+        return leg.getHolidayCalendar() != null
+                ? holidayCalendarService.getBusinessCalendar(leg.getHolidayCalendar().getHolidayCalendar())
+                : null;
+    }
+
+    private IndexRates floatingRates(TradeLeg leg) {
+        return leg.getIndex() != null
+                ? marketDataService.findIndexRates(leg.getIndex().getIndex()).orElse(null)
+                : null;
+    }
+
+    // Calendars and index rates are rebuilt (new instance) when their data changes, so identity tells whether
+    // the dates or projected amounts are stale
+    private record CachedSchedule(CashflowSchedule schedule, BusinessCalendar paymentCalendar, IndexRates floatingRates) {
+    }
+}
@@ -0,0 +1,397 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.CashflowRegenerationStatus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds the cashflows of active legs after a holiday calendar, schedule definition or index curve
+ * changes, without amending each trade. Active legs are split into leg_id ranges; each range is one task on a
+ * bounded ForkJoinPool and one transaction. Legs are read as a scalar projection, their schedules
+ * come from CashflowEngine exactly as at booking, and the old rows are replaced through JDBC batches.
+ * Only one job runs at a time; progress is served by CashflowRegenerationEndpoint.
+ */
+@Service
+public class CashflowRegenerationService {
+    private static final Logger logger = LoggerFactory.getLogger(CashflowRegenerationService.class);
+
+    // Must match Cashflow's @SequenceGenerator allocationSize. Hibernate's pooled optimizer treats each
+    // cashflow_seq value v as owning ids v-49..v, so blocks taken here never collide with entity inserts
+    static final int CASHFLOW_ID_BLOCK = 50;
+    private static final int MAX_ERRORS = 20;
+
+    private static final String LEG_SELECT =
+            "SELECT l.leg_id, l.notional, l.rate, lt.type, s.schedule, hc.holiday_calendar, bdc.bdc,"
+            + " l.pay_rec_id, l.payment_business_day_convention_id,"
+            + " t.trade_start_date, t.trade_maturity_date, c.currency, l.cashflows_materialized_through, ix.index"
+            + " FROM trade_leg l JOIN trade t ON t.id = l.trade_id"
+            + " LEFT JOIN leg_type lt ON lt.id = l.leg_rate_type_id"
+            + " LEFT JOIN schedule s ON s.id = l.calculation_period_schedule_id"
+            + " LEFT JOIN holiday_calendar hc ON hc.id = l.holiday_calendar_id"
+            + " LEFT JOIN business_day_convention bdc ON bdc.id = l.payment_business_day_convention_id"
+            + " LEFT JOIN currency c ON c.id = l.currency_id"
+            + " LEFT JOIN index_table ix ON ix.id = l.index_id";
+    private static final String ACTIVE_LEGS =
+            " WHERE l.active = true AND t.active = true"
+            + " AND t.trade_start_date IS NOT NULL AND t.trade_maturity_date IS NOT NULL";
+    private static final String INSERT_CASHFLOW =
+            "INSERT INTO cashflow (id, leg_id, value_date, payment_value, rate, pay_rec_id,"
+            + " payment_business_day_convention_id, active, created_date)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, true, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CashflowEngine cashflowEngine;
+    private final HolidayCalendarService holidayCalendarService;
+    private final MarketDataService marketDataService;
+    private final PositionService positionService;
+    private final int parallelism;
+    private final int partitionSize;
+    private final int batchSize;
+
+    private volatile Job current;
+
+    public CashflowRegenerationService(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       CashflowEngine cashflowEngine,
+                                       HolidayCalendarService holidayCalendarService,
+                                       MarketDataService marketDataService,
+                                       PositionService positionService,
+                                       @Value("${cashflow.regeneration.parallelism:4}") int parallelism,
+                                       @Value("${cashflow.regeneration.partition-size:1000}") int partitionSize,
+                                       @Value("${cashflow.regeneration.batch-size:500}") int batchSize) {
+        if (parallelism < 1 || partitionSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("cashflow.regeneration parallelism, partition-size and batch-size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cashflowEngine = cashflowEngine;
+        this.holidayCalendarService = holidayCalendarService;
+        this.marketDataService = marketDataService;
+        this.positionService = positionService;
+        this.parallelism = parallelism;
+        this.partitionSize = partitionSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Starts regenerating every active leg, optionally only those on one holiday calendar and/or
+     * calculation schedule (names match case-insensitively). Returns as soon as the job is queued.
+     */
+    public CashflowRegenerationStatus start(String holidayCalendar, String schedule) {
+        return start(holidayCalendar, schedule, List.of());
+    }
+
+    /**
+     * As above, and when indices is not empty only the legs on one of those floating-rate indices, e.g.
+     * to re-project floating cashflows after their curves or fixings have been reloaded.
+     */
+    public synchronized CashflowRegenerationStatus start(String holidayCalendar, String schedule, List<String> indices) {
+        if (current != null && !current.completion.isDone()) {
+            throw new IllegalStateException("A cashflow regeneration job is already running");
+        }
+        LegFilter filter = new LegFilter(holidayCalendar, schedule, indices);
+        List<long[]> partitions = partition(filter);
+        Job job = new Job(filter, partitions.size());
+        current = job;
+        logger.info("Regenerating cashflows for {} leg id ranges (calendar={}, schedule={}, indices={})",
+                partitions.size(), filter.holidayCalendar, filter.schedule, filter.indices);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        CompletableFuture<?>[] tasks = partitions.stream()
+                .map(range -> CompletableFuture.runAsync(() -> regeneratePartition(job, range[0], range[1]), pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).whenComplete((ignored, error) -> {
+            pool.shutdown();
+            logger.info("Cashflow regeneration finished: {} legs, {} cashflows in {} ms, {} errors",
+                    job.legsProcessed.get(), job.cashflowsWritten.get(), job.elapsedMillis(), job.errors.size());
+            // Stored amounts may have changed under the running positions
+            try {
+                if (job.legsProcessed.get() > 0) {
+                    positionService.rebuild();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Rebuilding positions after cashflow regeneration failed", e);
+            } finally {
+                job.finish();
+            }
+        });
+        return job.snapshot();
+    }
+
+    public CashflowRegenerationStatus getStatus() {
+        Job job = current;
+        return job == null
+                ? new CashflowRegenerationStatus("IDLE", null, null, List.of(), 0, 0, 0, 0, null, null, 0, List.of())
+                : job.snapshot();
+    }
+
+    // Completes when the latest job has finished; already complete when no job has been started
+    CompletableFuture<Void> currentJob() {
+        Job job = current;
+        return job == null ? CompletableFuture.completedFuture(null) : job.completion;
+    }
+
+    private List<long[]> partition(LegFilter filter) {
+        List<long[]> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT MIN(l.leg_id), MAX(l.leg_id) FROM trade_leg l JOIN trade t ON t.id = l.trade_id"
+                        + " LEFT JOIN schedule s ON s.id = l.calculation_period_schedule_id"
+                        + " LEFT JOIN holiday_calendar hc ON hc.id = l.holiday_calendar_id"
+                        + " LEFT JOIN index_table ix ON ix.id = l.index_id"
+                        + ACTIVE_LEGS + filter.sql,
+                rs -> {
+                    long min = rs.getLong(1);
+                    if (rs.wasNull()) {
+                        return;
+                    }
+                    long max = rs.getLong(2);
+                    for (long from = min; from <= max; from += partitionSize) {
+                        partitions.add(new long[]{from, Math.min(from + partitionSize - 1, max)});
+                    }
+                },
+                filter.args.toArray());
+        return partitions;
+    }
+
+    private void regeneratePartition(Job job, long fromLegId, long toLegId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object> args = new ArrayList<>(job.filter.args);
+                args.add(fromLegId);
+                args.add(toLegId);
+                List<LegTerms> legs = jdbcTemplate.query(LEG_SELECT + ACTIVE_LEGS + job.filter.sql
+                        + " AND l.leg_id BETWEEN ? AND ? ORDER BY l.leg_id", (rs, row) -> new LegTerms(
+                        rs.getLong(1), rs.getBigDecimal(2), rs.getObject(3, Double.class), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getString(7),
+                        rs.getObject(8, Long.class), rs.getObject(9, Long.class),
+                        rs.getObject(10, LocalDate.class), rs.getObject(11, LocalDate.class),
+                        rs.getString(12), rs.getObject(13, LocalDate.class), rs.getString(14)), args.toArray());
+
+                // Schedules first, so a leg with bad reference data keeps its current cashflows
+                List<LegTerms> regenerated = new ArrayList<>(legs.size());
+                List<CashflowSchedule> schedules = new ArrayList<>(legs.size());
+                for (LegTerms leg : legs) {
+                    try {
+                        schedules.add(schedule(leg));
+                        regenerated.add(leg);
+                    } catch (IllegalArgumentException e) {
+                        job.error("leg " + leg.legId + ": " + e.getMessage());
+                    }
+                }
+                jdbcTemplate.batchUpdate("DELETE FROM cashflow WHERE leg_id = ?", regenerated, batchSize,
+                        (ps, leg) -> ps.setLong(1, leg.legId));
+
+                CashflowBatchWriter writer = new CashflowBatchWriter();
+                for (int i = 0; i < regenerated.size(); i++) {
+                    CashflowSchedule schedule = schedules.get(i);
+                    // Lazily booked legs keep rows only for periods already stored; later ones are computed on read
+                    LocalDate through = regenerated.get(i).materializedThrough;
+                    long last = through != null ? through.toEpochDay() : Long.MAX_VALUE;
+                    for (int period = 0; period < schedule.size() && schedule.valueDates()[period] <= last; period++) {
+                        writer.add(regenerated.get(i), schedule.valueDates()[period], schedule.amount(period));
+                    }
+                }
+                writer.flush();
+                job.legsProcessed.addAndGet(regenerated.size());
+                job.cashflowsWritten.addAndGet(writer.written);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Cashflow regeneration failed for legs {} to {}", fromLegId, toLegId, e);
+            job.error("legs " + fromLegId + "-" + toLegId + ": " + e.getMessage());
+        } finally {
+            job.partitionsDone.incrementAndGet();
+        }
+    }
+
+    // Same terms as TradeService.generateCashflows uses at booking
+    private CashflowSchedule schedule(LegTerms leg) {
+        BusinessCalendar paymentCalendar = leg.holidayCalendar != null
+                ? holidayCalendarService.getBusinessCalendar(leg.holidayCalendar) : null;
+        IndexRates floatingRates = marketDataService.findIndexRates(leg.index).orElse(null);
+        return cashflowEngine.generate(leg.startDate, leg.maturityDate,
+                cashflowEngine.parseSchedule(leg.schedule != null ? leg.schedule : "3M"),
+                "Fixed".equals(leg.legType), leg.notional, Money.scaleOf(leg.currency),
+                leg.rate != null ? leg.rate : 0.0, CashflowEngine.Convention.MONTHS_OVER_12,
+                paymentCalendar, BusinessCalendar.Adjustment.fromName(leg.bdc), floatingRates);
+    }
+
+    private long reserveIdBlock() {
+        return jdbcTemplate.queryForObject("SELECT nextval('cashflow_seq')", Long.class);
+    }
+
+    // Buffers one partition's rows and sends them as JDBC batches of batchSize
+    private final class CashflowBatchWriter {
+        private final Timestamp createdDate = Timestamp.valueOf(LocalDateTime.now());
+        private final LegTerms[] legs = new LegTerms[batchSize];
+        private final int[] valueDates = new int[batchSize];
+        private final BigDecimal[] amounts = new BigDecimal[batchSize];
+        private int size;
+        private long written;
+        private long nextId;
+        private long idBlockEnd;
+
+        void add(LegTerms leg, int valueDate, BigDecimal amount) {
+            legs[size] = leg;
+            valueDates[size] = valueDate;
+            amounts[size] = amount;
+            if (++size == batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (size == 0) {
+                return;
+            }
+            long[] ids = new long[size];
+            for (int i = 0; i < size; i++) {
+                if (nextId == idBlockEnd) {
+                    long blockEnd = reserveIdBlock();
+                    nextId = blockEnd - CASHFLOW_ID_BLOCK + 1;
+                    idBlockEnd = blockEnd + 1;
+                }
+                ids[i] = nextId++;
+            }
+            int rows = size;
+            jdbcTemplate.batchUpdate(INSERT_CASHFLOW, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    LegTerms leg = legs[i];
+                    ps.setLong(1, ids[i]);
+                    ps.setLong(2, leg.legId);
+                    ps.setObject(3, LocalDate.ofEpochDay(valueDates[i]));
+                    ps.setBigDecimal(4, amounts[i]);
+                    setNullable(ps, 5, leg.rate, Types.DOUBLE);
+                    setNullable(ps, 6, leg.payRecId, Types.BIGINT);
+                    setNullable(ps, 7, leg.bdcId, Types.BIGINT);
+                    ps.setTimestamp(8, createdDate);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows;
+                }
+            });
+            written += rows;
+            size = 0;
+        }
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+
+    private record LegTerms(long legId, BigDecimal notional, Double rate, String legType, String schedule,
+                            String holidayCalendar, String bdc, Long payRecId, Long bdcId,
+                            LocalDate startDate, LocalDate maturityDate, String currency, LocalDate materializedThrough,
+                            String index) {
+    }
+
+    private static final class LegFilter {
+        final String holidayCalendar;
+        final String schedule;
+        final List<String> indices;
+        final String sql;
+        final List<Object> args = new ArrayList<>();
+
+        LegFilter(String holidayCalendar, String schedule, List<String> indices) {
+            this.holidayCalendar = blankToNull(holidayCalendar);
+            this.schedule = blankToNull(schedule);
+            this.indices = indices == null ? List.of() : indices.stream()
+                    .map(LegFilter::blankToNull)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            StringBuilder where = new StringBuilder();
+            if (this.holidayCalendar != null) {
+                where.append(" AND LOWER(hc.holiday_calendar) = LOWER(?)");
+                args.add(this.holidayCalendar);
+            }
+            if (this.schedule != null) {
+                where.append(" AND LOWER(s.schedule) = LOWER(?)");
+                args.add(this.schedule);
+            }
+            if (!this.indices.isEmpty()) {
+                where.append(" AND LOWER(ix.index) IN (")
+                        .append(String.join(", ", Collections.nCopies(this.indices.size(), "LOWER(?)")))
+                        .append(")");
+                args.addAll(this.indices);
+            }
+            this.sql = where.toString();
+        }
+
+        private static String blankToNull(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    private static final class Job {
+        final LegFilter filter;
+        final int partitionsTotal;
+        final AtomicInteger partitionsDone = new AtomicInteger();
+        final AtomicLong legsProcessed = new AtomicLong();
+        final AtomicLong cashflowsWritten = new AtomicLong();
+        final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errorCount = new AtomicInteger();
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile LocalDateTime finishedAt;
+
+        Job(LegFilter filter, int partitionsTotal) {
+            this.filter = filter;
+            this.partitionsTotal = partitionsTotal;
+        }
+
+        void error(String message) {
+            // Keep the first few messages; the count is still reported in the log
+            if (errorCount.incrementAndGet() <= MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        void finish() {
+            finishedAt = LocalDateTime.now();
+            completion.complete(null);
+        }
+
+        long elapsedMillis() {
+            return Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now()).toMillis();
+        }
+
+        CashflowRegenerationStatus snapshot() {
+            String state = !completion.isDone() ? "RUNNING" : errorCount.get() > 0 ? "COMPLETED_WITH_ERRORS" : "COMPLETED";
+            return new CashflowRegenerationStatus(state, filter.holidayCalendar, filter.schedule, filter.indices,
+                    partitionsTotal, partitionsDone.get(), legsProcessed.get(), cashflowsWritten.get(),
+                    startedAt, finishedAt, elapsedMillis(), List.copyOf(errors));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.TradeLeg;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cashflows of one leg as parallel primitive arrays, produced by {@link CashflowEngine}. Index i is
+ * the i-th period: its value (payment) date as an epoch day, its accrual fraction and its amount in
+ * {@link Money} minor units at {@code scale}. Arrays are exactly {@link #size()} long and must not be
+ * modified by callers.
+ */
+public record CashflowSchedule(int[] valueDates, double[] accruals, long[] amounts, int scale) {
+
+    static CashflowSchedule empty(int scale) {
+        return new CashflowSchedule(new int[0], new double[0], new long[0], scale);
+    }
+
+    public int size() {
+        return valueDates.length;
+    }
+
+    public LocalDate valueDate(int i) {
+        return LocalDate.ofEpochDay(valueDates[i]);
+    }
+
+    public BigDecimal amount(int i) {
+        return Money.toBigDecimal(amounts[i], scale);
+    }
+
+    // Period i as a Cashflow of the leg, as booking stores it; not persisted here
+    public Cashflow toCashflow(int i, TradeLeg leg, LocalDateTime createdDate) {
+        Cashflow cashflow = new Cashflow();
+        cashflow.setTradeLeg(leg);
+        cashflow.setValueDate(valueDate(i));
+        cashflow.setRate(leg.getRate());
+        cashflow.setPaymentValue(amount(i));
+        cashflow.setPayRec(leg.getPayReceiveFlag());
+        cashflow.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
+        cashflow.setCreatedDate(createdDate);
+        cashflow.setActive(true);
+        return cashflow;
+    }
+}
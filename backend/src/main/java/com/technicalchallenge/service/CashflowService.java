@@ -1,31 +1,55 @@
 package com.technicalchallenge.service;
 
 import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.model.BusinessDayConvention;
 import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.LegType;
+import com.technicalchallenge.model.PayRec;
 import com.technicalchallenge.repository.CashflowRepository;
-import com.technicalchallenge.repository.BusinessDayConventionRepository;
-import com.technicalchallenge.repository.LegTypeRepository;
-import com.technicalchallenge.repository.PayRecRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class CashflowService {
     private static final Logger logger = LoggerFactory.getLogger(CashflowService.class);
-    @Autowired
-    private CashflowRepository cashflowRepository;
-    @Autowired
-    private PayRecRepository payRecRepository;
-    @Autowired
-    private LegTypeRepository legTypeRepository;
-    @Autowired
-    private BusinessDayConventionRepository businessDayConventionRepository;
+
+    private final CashflowRepository cashflowRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final CashflowEngine cashflowEngine;
+    private final HolidayCalendarService holidayCalendarService;
+    private final MarketDataService marketDataService;
+    private final Timer previewTimer;
+    private final DistributionSummary previewCashflowsPerLeg;
+
+    public CashflowService(CashflowRepository cashflowRepository,
+                           ReferenceDataCache referenceDataCache,
+                           CashflowEngine cashflowEngine,
+                           HolidayCalendarService holidayCalendarService,
+                           MarketDataService marketDataService,
+                           MeterRegistry meterRegistry) {
+        this.cashflowRepository = cashflowRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.cashflowEngine = cashflowEngine;
+        this.holidayCalendarService = holidayCalendarService;
+        this.marketDataService = marketDataService;
+        this.previewTimer = Timer.builder("cashflow.preview")
+                .description("Time generating the cashflows of a /api/cashflows/generate preview, all legs together")
+                .register(meterRegistry);
+        this.previewCashflowsPerLeg = DistributionSummary.builder("cashflow.preview.per.leg")
+                .description("Cashflows generated for one leg of a /api/cashflows/generate preview")
+                .baseUnit("cashflows")
+                .register(meterRegistry);
+    }
 
     public List<Cashflow> getAllCashflows() {
         logger.info("Retrieving all cashflows");
@@ -55,21 +79,57 @@ public class CashflowService {
         cashflowRepository.deleteById(id);
     }
 
+    /**
+     * Generates the cashflows of the requested legs without storing anything. Legs on a schedule the engine
+     * does not support are skipped. Throws IllegalArgumentException for an unknown holiday calendar or
+     * business day convention.
+     */
+    public List<CashflowDTO> generatePreview(CashflowGenerationRequest request) {
+        return previewTimer.record(() -> {
+            List<CashflowDTO> allCashflows = new ArrayList<>();
+            for (CashflowGenerationRequest.TradeLegDTO leg : request.getLegs()) {
+                int months;
+                try {
+                    months = cashflowEngine.parseSchedule(leg.getCalculationPeriodSchedule());
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Skipping leg with unsupported schedule: {}", leg.getCalculationPeriodSchedule());
+                    continue;
+                }
+                BusinessCalendar paymentCalendar = leg.getHolidayCalendar() == null || leg.getHolidayCalendar().isBlank()
+                        ? null : holidayCalendarService.getBusinessCalendar(leg.getHolidayCalendar());
+                BusinessCalendar.Adjustment paymentAdjustment = BusinessCalendar.Adjustment.fromName(leg.getPaymentBusinessDayConvention());
+                double rate = leg.getRate() != null ? leg.getRate() : 0.0;
+                // For floating, paymentValue remains 0 unless the index has market data
+                boolean fixed = "Fixed".equalsIgnoreCase(leg.getLegType());
+                IndexRates floatingRates = fixed ? null : marketDataService.findIndexRates(leg.getIndex()).orElse(null);
+                CashflowSchedule schedule = cashflowEngine.generate(request.getTradeStartDate(), request.getTradeMaturityDate(),
+                        months, fixed, leg.getNotional(), Money.scaleOf(leg.getCurrency()), rate,
+                        CashflowEngine.Convention.ACTUAL_360, paymentCalendar, paymentAdjustment, floatingRates);
+                for (int i = 0; i < schedule.size(); i++) {
+                    CashflowDTO cf = new CashflowDTO();
+                    cf.setValueDate(schedule.valueDate(i));
+                    cf.setPaymentValue(schedule.amount(i));
+                    cf.setPayRec(leg.getPayReceiveFlag());
+                    cf.setPaymentType(leg.getLegType());
+                    cf.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
+                    cf.setRate(leg.getRate());
+                    allCashflows.add(cf);
+                }
+                previewCashflowsPerLeg.record(schedule.size());
+            }
+            return allCashflows;
+        });
+    }
+
     public void populateReferenceDataByName(Cashflow cashflow, CashflowDTO dto) {
         if (dto.getPayRec() != null) {
-            cashflow.setPayRec(payRecRepository.findAll().stream()
-                .filter(p -> p.getPayRec().equalsIgnoreCase(dto.getPayRec()))
-                .findFirst().orElse(null));
+            cashflow.setPayRec(referenceDataCache.findByName(PayRec.class, dto.getPayRec()).orElse(null));
         }
         if (dto.getPaymentType() != null) {
-            cashflow.setPaymentType(legTypeRepository.findAll().stream()
-                .filter(l -> l.getType().equalsIgnoreCase(dto.getPaymentType()))
-                .findFirst().orElse(null));
+            cashflow.setPaymentType(referenceDataCache.findByName(LegType.class, dto.getPaymentType()).orElse(null));
         }
         if (dto.getPaymentBusinessDayConvention() != null) {
-            cashflow.setPaymentBusinessDayConvention(businessDayConventionRepository.findAll().stream()
-                .filter(b -> b.getBdc().equalsIgnoreCase(dto.getPaymentBusinessDayConvention()))
-                .findFirst().orElse(null));
+            cashflow.setPaymentBusinessDayConvention(referenceDataCache.findByName(BusinessDayConvention.class, dto.getPaymentBusinessDayConvention()).orElse(null));
         }
     }
 }
@@ -1,9 +1,9 @@
 package com.technicalchallenge.service;
 
 import com.technicalchallenge.model.CostCenter;
+import com.technicalchallenge.model.SubDesk;
 import com.technicalchallenge.dto.CostCenterDTO;
 import com.technicalchallenge.repository.CostCenterRepository;
-import com.technicalchallenge.repository.SubDeskRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -21,7 +21,7 @@ public class CostCenterService {
     private CostCenterRepository costCenterRepository;
 
     @Autowired
-    private SubDeskRepository subDeskRepository;
+    private ReferenceDataCache referenceDataCache;
 
     public List<CostCenter> getAllCostCenters() {
         logger.info("Retrieving all cost centers");
@@ -35,9 +35,7 @@ public class CostCenterService {
 
     public void populateReferenceDataByName(CostCenter costCenter, CostCenterDTO dto) {
         if (dto.getSubDeskName() != null && !dto.getSubDeskName().isBlank()) {
-            var subDesk = subDeskRepository.findAll().stream()
-                .filter(s -> s.getSubdeskName().equalsIgnoreCase(dto.getSubDeskName()))
-                .findFirst().orElse(null);
+            var subDesk = referenceDataCache.findByName(SubDesk.class, dto.getSubDeskName()).orElse(null);
             if (subDesk == null) throw new IllegalArgumentException("SubDesk '" + dto.getSubDeskName() + "' does not exist");
             costCenter.setSubDesk(subDesk);
         }
@@ -47,11 +45,14 @@ public class CostCenterService {
     public CostCenter saveCostCenter(CostCenter costCenter, CostCenterDTO dto) {
         logger.info("Saving cost center: {}", costCenter);
         populateReferenceDataByName(costCenter, dto);
-        return costCenterRepository.save(costCenter);
+        CostCenter saved = costCenterRepository.save(costCenter);
+        referenceDataCache.refresh(CostCenter.class);
+        return saved;
     }
 
     public void deleteCostCenter(Long id) {
         logger.warn("Deleting cost center with id: {}", id);
         costCenterRepository.deleteById(id);
+        referenceDataCache.refresh(CostCenter.class);
     }
 }
@@ -12,6 +12,8 @@ import java.util.Optional;
 public class CounterpartyService {
     @Autowired
     private CounterpartyRepository counterpartyRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<Counterparty> getAllCounterparties() {
         return counterpartyRepository.findAll();
@@ -22,10 +24,13 @@ public class CounterpartyService {
     }
 
     public Counterparty saveCounterparty(Counterparty counterparty) {
-        return counterpartyRepository.save(counterparty);
+        Counterparty saved = counterpartyRepository.save(counterparty);
+        referenceDataCache.refresh(Counterparty.class);
+        return saved;
     }
 
     public void deleteCounterparty(Long id) {
         counterpartyRepository.deleteById(id);
+        referenceDataCache.refresh(Counterparty.class);
     }
 }
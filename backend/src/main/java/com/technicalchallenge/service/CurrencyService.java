@@ -17,6 +17,8 @@ public class CurrencyService {
 
     @Autowired
     private CurrencyRepository currencyRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<Currency> findAll() {
         logger.info("Retrieving all currencies");
@@ -30,11 +32,14 @@ public class CurrencyService {
 
     public Currency save(Currency currency) {
         logger.info("Saving currency: {}", currency);
-        return currencyRepository.save(currency);
+        Currency saved = currencyRepository.save(currency);
+        referenceDataCache.refresh(Currency.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting currency with id: {}", id);
         currencyRepository.deleteById(id);
+        referenceDataCache.refresh(Currency.class);
     }
 }
@@ -18,6 +18,9 @@ public class DeskService {
     @Autowired
     private DeskRepository deskRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<Desk> getAllDesks() {
         logger.info("Retrieving all desks");
         return deskRepository.findAll();
@@ -30,11 +33,14 @@ public class DeskService {
 
     public Desk saveDesk(Desk desk) {
         logger.info("Saving desk: {}", desk);
-        return deskRepository.save(desk);
+        Desk saved = deskRepository.save(desk);
+        referenceDataCache.refresh(Desk.class);
+        return saved;
     }
 
     public void deleteDesk(Long id) {
         logger.warn("Deleting desk with id: {}", id);
         deskRepository.deleteById(id);
+        referenceDataCache.refresh(Desk.class);
     }
 }
@@ -0,0 +1,49 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeEventMessage;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Appends one JSON object per line to trade.outbox.file; flush forces the batch to disk before it is marked sent
+public class FileTradeEventSink implements TradeEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final FileOutputStream out;
+    private final BufferedWriter writer;
+
+    public FileTradeEventSink(Path file, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = new FileOutputStream(file.toFile(), true);
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized void send(TradeEventMessage message) throws IOException {
+        writer.write(objectMapper.writeValueAsString(message));
+        writer.newLine();
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        writer.flush();
+        out.getChannel().force(false);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
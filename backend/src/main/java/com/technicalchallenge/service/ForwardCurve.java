@@ -0,0 +1,111 @@
+package com.technicalchallenge.service;
+
+import java.time.LocalDate;
+
+/**
+ * Discount curve of one index as a dense array of log discount factors, one per calendar day from the
+ * as-of date to the last pillar. Between pillars log discount factors are linear in days (constant
+ * overnight forward), and beyond the last pillar the last segment's forward carries on. Built once per
+ * curve load, so:
+ * - discountFactor is an array read and an exp
+ * - forwardRate(start, end) is two array reads, with no search over pillars
+ * Dates are epoch days, as in {@link CashflowSchedule}. Instances are immutable and shared; build them
+ * through {@link MarketDataService}.
+ */
+public final class ForwardCurve {
+
+    // Pillars further out than this are rejected, which bounds a curve at ~290 KB
+    static final int MAX_DAYS = 366 * 100;
+
+    private final int asOf;
+    private final int lastPillar;
+    // logDiscount[d] = ln DF(asOf + d) for d in [0, lastPillar - asOf]
+    private final double[] logDiscount;
+    private final double tailSlope;
+
+    private ForwardCurve(int asOf, double[] logDiscount, double tailSlope) {
+        this.asOf = asOf;
+        this.lastPillar = asOf + logDiscount.length - 1;
+        this.logDiscount = logDiscount;
+        this.tailSlope = tailSlope;
+    }
+
+    /**
+     * Curve from discount factors at pillar dates (epoch days, strictly increasing and after asOf).
+     * DF(asOf) is 1.
+     */
+    public static ForwardCurve of(LocalDate asOf, int[] pillarDays, double[] discountFactors) {
+        if (pillarDays.length == 0 || pillarDays.length != discountFactors.length) {
+            throw new IllegalArgumentException("A curve needs one discount factor per pillar, and at least one pillar");
+        }
+        int start = (int) asOf.toEpochDay();
+        int previousDay = start;
+        double previousLog = 0.0;
+        for (int i = 0; i < pillarDays.length; i++) {
+            if (pillarDays[i] <= previousDay) {
+                throw new IllegalArgumentException("Curve pillars must be after the as-of date and strictly increasing: "
+                        + LocalDate.ofEpochDay(pillarDays[i]));
+            }
+            if (!(discountFactors[i] > 0.0) || Double.isInfinite(discountFactors[i])) {
+                throw new IllegalArgumentException("Discount factors must be positive: " + discountFactors[i]);
+            }
+            previousDay = pillarDays[i];
+        }
+        if (previousDay - start > MAX_DAYS) {
+            throw new IllegalArgumentException("Curve pillars must be within 100 years of the as-of date");
+        }
+
+        double[] logDiscount = new double[previousDay - start + 1];
+        previousDay = start;
+        double slope = 0.0;
+        for (int i = 0; i < pillarDays.length; i++) {
+            double pillarLog = Math.log(discountFactors[i]);
+            slope = (pillarLog - previousLog) / (pillarDays[i] - previousDay);
+            for (int day = previousDay + 1; day < pillarDays[i]; day++) {
+                logDiscount[day - start] = previousLog + slope * (day - previousDay);
+            }
+            logDiscount[pillarDays[i] - start] = pillarLog;
+            previousDay = pillarDays[i];
+            previousLog = pillarLog;
+        }
+        return new ForwardCurve(start, logDiscount, slope);
+    }
+
+    public LocalDate asOf() {
+        return LocalDate.ofEpochDay(asOf);
+    }
+
+    int asOfDay() {
+        return asOf;
+    }
+
+    public LocalDate lastPillar() {
+        return LocalDate.ofEpochDay(lastPillar);
+    }
+
+    // DF is 1 on and before the as-of date
+    public double discountFactor(int epochDay) {
+        return Math.exp(logDiscount(epochDay));
+    }
+
+    /**
+     * Simple forward rate over [start, end) on an actual/360 basis: (DF(start) / DF(end) - 1) x 360 / days.
+     * NaN if end is not after start.
+     */
+    public double forwardRate(int startEpochDay, int endEpochDay) {
+        if (endEpochDay <= startEpochDay) {
+            return Double.NaN;
+        }
+        return Math.expm1(logDiscount(startEpochDay) - logDiscount(endEpochDay)) * 360.0 / (endEpochDay - startEpochDay);
+    }
+
+    private double logDiscount(int epochDay) {
+        if (epochDay <= asOf) {
+            return 0.0;
+        }
+        if (epochDay <= lastPillar) {
+            return logDiscount[epochDay - asOf];
+        }
+        return logDiscount[logDiscount.length - 1] + tailSlope * (epochDay - lastPillar);
+    }
+}
@@ -2,14 +2,20 @@ package com.technicalchallenge.service;
 
 import com.technicalchallenge.model.HolidayCalendar;
 import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class HolidayCalendarService {
@@ -17,6 +23,13 @@ public class HolidayCalendarService {
 
     @Autowired
     private HolidayCalendarRepository holidayCalendarRepository;
+    @Autowired
+    private HolidayRepository holidayRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    // Business-day bitmaps keyed by normalised calendar name, e.g. "LON" or "LON+NY"
+    private final Map<String, BusinessCalendar> businessCalendars = new ConcurrentHashMap<>();
 
     public List<HolidayCalendar> findAll() {
         logger.info("Retrieving all holiday calendars");
@@ -30,11 +43,72 @@ public class HolidayCalendarService {
 
     public HolidayCalendar save(HolidayCalendar holidayCalendar) {
         logger.info("Saving holiday calendar: {}", holidayCalendar);
-        return holidayCalendarRepository.save(holidayCalendar);
+        HolidayCalendar saved = holidayCalendarRepository.save(holidayCalendar);
+        referenceDataCache.refresh(HolidayCalendar.class);
+        businessCalendars.clear();
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting holiday calendar with id: {}", id);
         holidayCalendarRepository.deleteById(id);
+        referenceDataCache.refresh(HolidayCalendar.class);
+        businessCalendars.clear();
+    }
+
+    /**
+     * Business calendar for a calendar name, or a joint calendar written as names joined by '+'
+     * (e.g. "LON+NY": a business day in both). Holidays are read once per calendar and kept in memory.
+     */
+    public BusinessCalendar getBusinessCalendar(String calendarName) {
+        String key = normaliseCalendarName(calendarName);
+        BusinessCalendar calendar = businessCalendars.get(key);
+        if (calendar != null) {
+            return calendar;
+        }
+        String[] members = key.split("\\+");
+        if (members.length == 1) {
+            calendar = loadBusinessCalendar(key);
+        } else {
+            calendar = BusinessCalendar.joint(key, Arrays.stream(members)
+                    .map(this::getBusinessCalendar)
+                    .toArray(BusinessCalendar[]::new));
+        }
+        BusinessCalendar existing = businessCalendars.putIfAbsent(key, calendar);
+        return existing != null ? existing : calendar;
+    }
+
+    public boolean isBusinessDay(String calendarName, LocalDate date) {
+        return getBusinessCalendar(calendarName).isBusinessDay(date);
+    }
+
+    public LocalDate adjust(String calendarName, LocalDate date, String businessDayConvention) {
+        return getBusinessCalendar(calendarName).adjust(date, BusinessCalendar.Adjustment.fromName(businessDayConvention));
+    }
+
+    public LocalDate addBusinessDays(String calendarName, LocalDate date, int days) {
+        return getBusinessCalendar(calendarName).addBusinessDays(date, days);
+    }
+
+    private BusinessCalendar loadBusinessCalendar(String name) {
+        HolidayCalendar holidayCalendar = referenceDataCache.findByName(HolidayCalendar.class, name)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown holiday calendar: " + name));
+        List<LocalDate> holidays = holidayRepository.findHolidayDatesByCalendarId(holidayCalendar.getId());
+        logger.info("Loaded {} holidays for calendar {}", holidays.size(), name);
+        return BusinessCalendar.of(name, holidays);
+    }
+
+    // Upper case, sorted and de-duplicated, so "ny+LON" and "LON+NY" share one bitmap
+    private static String normaliseCalendarName(String calendarName) {
+        if (calendarName == null || calendarName.isBlank()) {
+            throw new IllegalArgumentException("Holiday calendar name is required");
+        }
+        return Arrays.stream(calendarName.split("\\+"))
+                .map(name -> name.trim().toUpperCase(Locale.ROOT))
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .sorted()
+                .reduce((a, b) -> a + "+" + b)
+                .orElseThrow(() -> new IllegalArgumentException("Holiday calendar name is required"));
     }
 }
@@ -0,0 +1,38 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeEventMessage;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+// Keeps the last capacity messages in memory; for local runs and tests, where no downstream feed is attached
+public class InMemoryTradeEventSink implements TradeEventSink {
+
+    private final int capacity;
+    private final ArrayDeque<TradeEventMessage> messages;
+
+    public InMemoryTradeEventSink(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("trade.outbox.memory-capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.messages = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    @Override
+    public synchronized void send(TradeEventMessage message) {
+        if (messages.size() == capacity) {
+            messages.removeFirst();
+        }
+        messages.addLast(message);
+    }
+
+    // Oldest first
+    public synchronized List<TradeEventMessage> messages() {
+        return List.copyOf(messages);
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,84 @@
+package com.technicalchallenge.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Market data of one floating-rate index: its published fixings and, optionally, its forward curve.
+ * A period starting on or after the curve's as-of date is projected off the curve; an earlier one uses
+ * the latest fixing on or before its start date. Fixings are sorted parallel arrays (epoch day, rate),
+ * looked up by binary search. Instances are immutable; loading new data builds a new one, so callers
+ * can tell that data has moved by identity.
+ */
+public final class IndexRates {
+
+    private final String index;
+    private final int[] fixingDates;
+    private final double[] fixingRates;
+    private final ForwardCurve curve;
+
+    IndexRates(String index, int[] fixingDates, double[] fixingRates, ForwardCurve curve) {
+        this.index = index;
+        this.fixingDates = fixingDates;
+        this.fixingRates = fixingRates;
+        this.curve = curve;
+    }
+
+    static IndexRates empty(String index) {
+        return new IndexRates(index, new int[0], new double[0], null);
+    }
+
+    public String index() {
+        return index;
+    }
+
+    public ForwardCurve curve() {
+        return curve;
+    }
+
+    public int fixingCount() {
+        return fixingDates.length;
+    }
+
+    public LocalDate lastFixingDate() {
+        return fixingDates.length == 0 ? null : LocalDate.ofEpochDay(fixingDates[fixingDates.length - 1]);
+    }
+
+    /**
+     * Rate for the accrual period [start, end) as a decimal (0.05 is 5%), or NaN when neither a fixing
+     * nor the curve covers it.
+     */
+    public double rate(int startEpochDay, int endEpochDay) {
+        if (curve != null && startEpochDay >= curve.asOfDay()) {
+            return curve.forwardRate(startEpochDay, endEpochDay);
+        }
+        int i = Arrays.binarySearch(fixingDates, startEpochDay);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        return i >= 0 ? fixingRates[i] : Double.NaN;
+    }
+
+    IndexRates withCurve(ForwardCurve newCurve) {
+        return new IndexRates(index, fixingDates, fixingRates, newCurve);
+    }
+
+    // Merges fixings by date; the new value wins on a date that already has one
+    IndexRates withFixings(Map<Integer, Double> fixings) {
+        TreeMap<Integer, Double> merged = new TreeMap<>();
+        for (int i = 0; i < fixingDates.length; i++) {
+            merged.put(fixingDates[i], fixingRates[i]);
+        }
+        merged.putAll(fixings);
+        int[] dates = new int[merged.size()];
+        double[] rates = new double[merged.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Double> fixing : merged.entrySet()) {
+            dates[i] = fixing.getKey();
+            rates[i++] = fixing.getValue();
+        }
+        return new IndexRates(index, dates, rates, curve);
+    }
+}
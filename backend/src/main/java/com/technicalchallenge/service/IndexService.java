@@ -17,6 +17,8 @@ public class IndexService {
 
     @Autowired
     private IndexRepository indexRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<Index> findAll() {
         logger.info("Retrieving all indexes");
@@ -30,11 +32,14 @@ public class IndexService {
 
     public Index save(Index index) {
         logger.info("Saving index: {}", index);
-        return indexRepository.save(index);
+        Index saved = indexRepository.save(index);
+        referenceDataCache.refresh(Index.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting index with id: {}", id);
         indexRepository.deleteById(id);
+        referenceDataCache.refresh(Index.class);
     }
 }
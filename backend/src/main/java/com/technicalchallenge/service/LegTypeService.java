@@ -17,6 +17,8 @@ public class LegTypeService {
 
     @Autowired
     private LegTypeRepository legTypeRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<LegType> findAll() {
         logger.info("Retrieving all leg types");
@@ -30,11 +32,14 @@ public class LegTypeService {
 
     public LegType save(LegType legType) {
         logger.info("Saving leg type: {}", legType);
-        return legTypeRepository.save(legType);
+        LegType saved = legTypeRepository.save(legType);
+        referenceDataCache.refresh(LegType.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting leg type with id: {}", id);
         legTypeRepository.deleteById(id);
+        referenceDataCache.refresh(LegType.class);
     }
 }
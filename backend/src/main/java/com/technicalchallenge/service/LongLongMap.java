@@ -0,0 +1,106 @@
+package com.technicalchallenge.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative long keys to long values, stored in two parallel arrays with
+ * linear probing. Nothing is boxed and a lookup touches one or two cache lines. Entries are never removed;
+ * a value that sums back to zero stays as a zero entry. Not thread-safe.
+ */
+final class LongLongMap {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    LongLongMap() {
+        this(16);
+    }
+
+    LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : 0L;
+    }
+
+    boolean containsKey(long key) {
+        return keys[slot(key)] == key;
+    }
+
+    // Adds delta to the key's value, inserting the key at delta if absent
+    void addTo(long key, long delta) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must not be negative: " + key);
+        }
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            rehash();
+        }
+    }
+
+    void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    interface Entry {
+        void accept(long key, long value);
+    }
+
+    // Slot holding the key, or the empty slot where it would go
+    private int slot(long key) {
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    // Packed keys differ mostly in their low and high bits; spread them over the table (murmur3 finaliser)
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
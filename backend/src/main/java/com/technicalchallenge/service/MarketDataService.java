@@ -0,0 +1,206 @@
+package com.technicalchallenge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store of index fixings and forward curves, keyed by index name (case-insensitive, as in
+ * index_table). Loaded from CSV at startup (market-data.curves-location / market-data.fixings-location)
+ * and again whenever new files are posted to /api/market-data. Each load swaps in new immutable
+ * {@link IndexRates}, so readers never lock and never see a half-loaded curve.
+ *
+ * Curves CSV:   index,as_of,pillar_date,discount_factor  (one as_of per index)
+ * Fixings CSV:  index,fixing_date,rate                   (rate as a decimal, 0.0531 is 5.31%)
+ * A header row and lines starting with '#' are skipped.
+ */
+@Service
+public class MarketDataService {
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataService.class);
+
+    private final Map<String, IndexRates> indices = new ConcurrentHashMap<>();
+
+    public MarketDataService(ResourceLoader resourceLoader,
+                             @Value("${market-data.curves-location:}") String curvesLocation,
+                             @Value("${market-data.fixings-location:}") String fixingsLocation) {
+        if (!fixingsLocation.isBlank()) {
+            logger.info("Loaded fixings for {} from {}", loadFixings(resourceLoader.getResource(fixingsLocation)), fixingsLocation);
+        }
+        if (!curvesLocation.isBlank()) {
+            logger.info("Loaded curves for {} from {}", loadCurves(resourceLoader.getResource(curvesLocation)), curvesLocation);
+        }
+    }
+
+    // Fixings and curve of an index; empty when nothing has been loaded for it
+    public Optional<IndexRates> findIndexRates(String index) {
+        if (index == null || index.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(indices.get(key(index)));
+    }
+
+    public List<IndexRates> getAll() {
+        return indices.values().stream()
+                .sorted(Comparator.comparing(IndexRates::index))
+                .toList();
+    }
+
+    /**
+     * Replaces the curve of every index in the CSV; their fixings are kept. The whole file is parsed and
+     * validated before any curve is swapped in. Returns the indices loaded.
+     */
+    public List<String> loadCurves(Reader csv) {
+        Map<String, CurvePillars> curves = new LinkedHashMap<>();
+        forEachRow(csv, 4, (line, fields) -> {
+            CurvePillars curve = curves.computeIfAbsent(key(fields[0]), k -> new CurvePillars(fields[0], parseDate(line, fields[1])));
+            if (!curve.asOf.equals(parseDate(line, fields[1]))) {
+                throw new IllegalArgumentException("Line " + line + ": index " + fields[0] + " has more than one as_of date");
+            }
+            curve.pillars.put((int) parseDate(line, fields[2]).toEpochDay(), parseNumber(line, fields[3]));
+        });
+        Map<String, ForwardCurve> built = new LinkedHashMap<>();
+        curves.forEach((key, pillars) -> {
+            try {
+                built.put(key, ForwardCurve.of(pillars.asOf,
+                        pillars.pillars.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                        pillars.pillars.values().stream().mapToDouble(Double::doubleValue).toArray()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Index " + pillars.index + ": " + e.getMessage(), e);
+            }
+        });
+        List<String> loaded = new ArrayList<>();
+        built.forEach((key, curve) -> {
+            String index = curves.get(key).index;
+            indices.compute(key, (k, existing) -> (existing != null ? existing : IndexRates.empty(index)).withCurve(curve));
+            loaded.add(index);
+        });
+        return loaded;
+    }
+
+    /**
+     * Adds the fixings in the CSV; a date that already has a fixing takes the new value. Returns the
+     * indices loaded.
+     */
+    public List<String> loadFixings(Reader csv) {
+        Map<String, Map<Integer, Double>> fixings = new LinkedHashMap<>();
+        Map<String, String> names = new HashMap<>();
+        forEachRow(csv, 3, (line, fields) -> {
+            names.putIfAbsent(key(fields[0]), fields[0]);
+            fixings.computeIfAbsent(key(fields[0]), k -> new HashMap<>())
+                    .put((int) parseDate(line, fields[1]).toEpochDay(), parseNumber(line, fields[2]));
+        });
+        List<String> loaded = new ArrayList<>();
+        fixings.forEach((key, byDate) -> {
+            String index = names.get(key);
+            indices.compute(key, (k, existing) -> (existing != null ? existing : IndexRates.empty(index)).withFixings(byDate));
+            loaded.add(index);
+        });
+        return loaded;
+    }
+
+    private List<String> loadCurves(Resource resource) {
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            return loadCurves(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read curves from " + resource, e);
+        }
+    }
+
+    private List<String> loadFixings(Resource resource) {
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            return loadFixings(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read fixings from " + resource, e);
+        }
+    }
+
+    private static void forEachRow(Reader csv, int columns, RowHandler handler) {
+        BufferedReader reader = new BufferedReader(csv);
+        try {
+            String text;
+            int line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                String trimmed = text.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")
+                        || (line == 1 && trimmed.toLowerCase(Locale.ROOT).startsWith("index,"))) {
+                    continue;
+                }
+                String[] fields = trimmed.split(",", -1);
+                if (fields.length != columns) {
+                    throw new IllegalArgumentException("Line " + line + ": expected " + columns + " columns but found " + fields.length);
+                }
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim();
+                }
+                if (fields[0].isEmpty()) {
+                    throw new IllegalArgumentException("Line " + line + ": index is required");
+                }
+                handler.accept(line, fields);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDate parseDate(int line, String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + line + ": invalid date " + value + " (expected yyyy-MM-dd)");
+        }
+    }
+
+    private static double parseNumber(int line, String value) {
+        try {
+            double number = Double.parseDouble(value);
+            if (Double.isFinite(number)) {
+                return number;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Line " + line + ": invalid number " + value);
+    }
+
+    private static String key(String index) {
+        return index.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private interface RowHandler {
+        void accept(int line, String[] fields);
+    }
+
+    private static final class CurvePillars {
+        final String index;
+        final LocalDate asOf;
+        final TreeMap<Integer, Double> pillars = new TreeMap<>();
+
+        CurvePillars(String index, LocalDate asOf) {
+            this.index = index;
+            this.asOf = asOf;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.technicalchallenge.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+/**
+ * Fixed-point money arithmetic on primitive longs. An amount is a count of minor units at its currency's
+ * scale (123.45 USD is 12345 at scale 2, 12345 JPY is 12345 at scale 0), so a schedule's amounts fit in a
+ * long[] and are added, compared and rounded without allocating. Rates are decimals too: a double rate is
+ * read through its shortest decimal form (0.0425 is 425 at scale 4), so 5% is exactly 5/100 rather than
+ * the nearest binary fraction. BigDecimal is only built at the persistence/DTO boundary.
+ */
+public final class Money {
+
+    // Scale for amounts whose currency is missing or has no ISO minor unit
+    public static final int DEFAULT_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private Money() {
+    }
+
+    /**
+     * Minor-unit digits of an ISO 4217 currency code: 2 for USD/EUR/GBP, 0 for JPY, 3 for KWD.
+     * Unknown or blank codes use {@link #DEFAULT_SCALE}.
+     */
+    public static int scaleOf(String currencyCode) {
+        if (currencyCode == null || currencyCode.isBlank()) {
+            return DEFAULT_SCALE;
+        }
+        try {
+            int digits = java.util.Currency.getInstance(currencyCode.trim().toUpperCase(Locale.ROOT)).getDefaultFractionDigits();
+            return digits >= 0 ? digits : DEFAULT_SCALE;
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_SCALE;
+        }
+    }
+
+    // Rounds half-up to the scale; throws ArithmeticException beyond +/-9.2e18 minor units
+    public static long toMinorUnits(BigDecimal amount, int scale) {
+        return amount == null ? 0L : amount.movePointRight(scale).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits, int scale) {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    // Unscaled digits of a rate's shortest decimal form; use with rateScale
+    public static long rateUnscaled(double rate) {
+        BigDecimal decimal = rateDecimal(rate);
+        return decimal.unscaledValue().longValueExact();
+    }
+
+    public static int rateScale(double rate) {
+        return rateDecimal(rate).scale();
+    }
+
+    /**
+     * notional x rate x numerator / denominator in the notional's minor units, rounded half-up: one
+     * period's interest, e.g. numerator/denominator = 3/12 (months) or 91/360 (days). Exact in long
+     * arithmetic; falls back to BigDecimal only when an intermediate product would overflow.
+     */
+    public static long interest(long notionalUnits, long rateUnscaled, int rateScale, long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive: " + denominator);
+        }
+        if (rateScale < POWERS_OF_TEN.length && denominator <= Long.MAX_VALUE / POWERS_OF_TEN[rateScale] / 2) {
+            long divisor = denominator * POWERS_OF_TEN[rateScale];
+            long high = Math.multiplyHigh(notionalUnits, rateUnscaled);
+            long product = notionalUnits * rateUnscaled;
+            if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+                long highByNumerator = Math.multiplyHigh(product, numerator);
+                long dividend = product * numerator;
+                if ((highByNumerator == 0 && dividend >= 0) || (highByNumerator == -1 && dividend < 0)) {
+                    return divideHalfUp(dividend, divisor);
+                }
+            }
+        }
+        return BigDecimal.valueOf(notionalUnits)
+                .multiply(BigDecimal.valueOf(rateUnscaled, rateScale))
+                .multiply(BigDecimal.valueOf(numerator))
+                .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    // Integer division rounding halves away from zero, like RoundingMode.HALF_UP; divisor < 2^62
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private static BigDecimal rateDecimal(double rate) {
+        if (!Double.isFinite(rate)) {
+            throw new IllegalArgumentException("Rate must be finite: " + rate);
+        }
+        BigDecimal decimal = BigDecimal.valueOf(rate).stripTrailingZeros();
+        return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+    }
+}
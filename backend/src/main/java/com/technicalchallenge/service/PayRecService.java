@@ -17,6 +17,8 @@ public class PayRecService {
 
     @Autowired
     private PayRecRepository payRecRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<PayRec> findAll() {
         logger.info("Retrieving all pay recs");
@@ -30,11 +32,14 @@ public class PayRecService {
 
     public PayRec save(PayRec payRec) {
         logger.info("Saving pay rec: {}", payRec);
-        return payRecRepository.save(payRec);
+        PayRec saved = payRecRepository.save(payRec);
+        referenceDataCache.refresh(PayRec.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting pay rec with id: {}", id);
         payRecRepository.deleteById(id);
+        referenceDataCache.refresh(PayRec.class);
     }
 }
@@ -0,0 +1,502 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.dto.PositionReconciliation;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.TradeLegRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Net cashflow positions by (book, currency, value month), kept as running sums so reads never touch the
+ * database. Each sum is a long in {@link Money} minor units in a {@link LongLongMap} keyed by the three
+ * packed into one long. Every live trade's {@link TradePosition} is also held, so an amendment subtracts
+ * the previous version exactly and a cancelled or terminated trade drops out. Updates are applied once the
+ * booking transaction commits. The whole state is rebuilt from stored cashflows (plus the computed periods
+ * of lazily booked legs) at startup, after a cashflow regeneration job and daily, and the same rebuild
+ * serves as a reconciliation check against the running sums.
+ */
+@Service
+public class PositionService {
+    private static final Logger logger = LoggerFactory.getLogger(PositionService.class);
+
+    public static final List<String> GROUP_BY = List.of("book", "desk", "month");
+    private static final Set<String> CLOSED_STATUSES = Set.of("CANCELLED", "TERMINATED");
+    private static final LocalDate NO_UPPER_BOUND = LocalDate.of(9999, 12, 31);
+    private static final int MAX_DIFFERENCES = 20;
+
+    // Key layout: book index in bits 40-62, currency index in bits 20-39, months since year 0 in bits 0-19
+    private static final int MONTH_BITS = 20;
+    private static final int CURRENCY_BITS = 20;
+    private static final long MONTH_MASK = (1L << MONTH_BITS) - 1;
+    private static final long CURRENCY_MASK = (1L << CURRENCY_BITS) - 1;
+    private static final int MAX_BOOKS = (1 << 23) - 1;
+
+    // Stored cashflows of live trades; for lazily booked legs only the stored part, the rest is computed
+    private static final String STORED_CASHFLOWS =
+            "SELECT t.trade_id, t.book_id, l.currency_id, pr.pay_rec, cf.value_date, cf.payment_value"
+            + " FROM cashflow cf JOIN trade_leg l ON l.leg_id = cf.leg_id JOIN trade t ON t.id = l.trade_id"
+            + " LEFT JOIN trade_status ts ON ts.id = t.trade_status_id"
+            + " LEFT JOIN pay_rec pr ON pr.id = l.pay_rec_id"
+            + " WHERE t.active = true AND l.active = true AND (cf.active IS NULL OR cf.active = true)"
+            + " AND (ts.trade_status IS NULL OR UPPER(ts.trade_status) NOT IN ('CANCELLED', 'TERMINATED'))"
+            + " AND (l.cashflows_materialized_through IS NULL OR cf.value_date <= l.cashflows_materialized_through)";
+    private static final String BOOK_DESKS =
+            "SELECT b.id, d.desk_name FROM book b"
+            + " LEFT JOIN cost_center cc ON cc.id = b.cost_center_id"
+            + " LEFT JOIN sub_desk sd ON sd.id = cc.subdesk_id"
+            + " LEFT JOIN desk d ON d.id = sd.desk_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TradeLegRepository tradeLegRepository;
+    private final CashflowProjectionService cashflowProjectionService;
+    private final ReferenceDataCache referenceDataCache;
+
+    private final IdDictionary books = new IdDictionary(MAX_BOOKS);
+    private final IdDictionary currencies = new IdDictionary((int) CURRENCY_MASK);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Guarded by lock
+    private LongLongMap positions = new LongLongMap();
+    private Map<Long, TradePosition> trades = new HashMap<>();
+    // Trades updated while a rebuild reads the database; non-null only during a rebuild
+    private Set<Long> touchedDuringRebuild;
+    private volatile Map<Long, String> deskByBook = Map.of();
+
+    public PositionService(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           TradeLegRepository tradeLegRepository,
+                           CashflowProjectionService cashflowProjectionService,
+                           ReferenceDataCache referenceDataCache,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.tradeLegRepository = tradeLegRepository;
+        this.cashflowProjectionService = cashflowProjectionService;
+        this.referenceDataCache = referenceDataCache;
+
+        Gauge.builder("positions.buckets", this, PositionService::bucketCount)
+                .description("(book, currency, month) buckets held by the running position aggregates")
+                .register(meterRegistry);
+        Gauge.builder("positions.trades", this, PositionService::tradeCount)
+                .description("Live trades contributing to the running position aggregates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a newly booked trade version in place of the trade's previous one, once the current
+     * transaction commits. A version booked as CANCELLED or TERMINATED only removes the previous one.
+     */
+    public void tradeBooked(Trade trade, TradePosition position) {
+        long tradeId = trade.getTradeId();
+        TradePosition contribution = isClosed(trade.getTradeStatus()) ? null : position;
+        AfterCommit.run(() -> apply(tradeId, contribution));
+    }
+
+    // Removes a cancelled or terminated trade, once the current transaction commits
+    public void tradeClosed(Long tradeId) {
+        AfterCommit.run(() -> apply(tradeId, null));
+    }
+
+    /**
+     * Net positions summed over the requested dimensions (any of book, desk, month; currency is always
+     * one), optionally restricted to one book, desk and currency (case-insensitive) and a month range.
+     * Rows with a zero net are left out.
+     */
+    public List<PositionDTO> getPositions(Set<String> groupBy, String book, String desk, String currency,
+                                          YearMonth fromMonth, YearMonth toMonth) {
+        for (String dimension : groupBy) {
+            if (!GROUP_BY.contains(dimension)) {
+                throw new IllegalArgumentException("Unknown groupBy '" + dimension + "'; expected any of " + GROUP_BY);
+            }
+        }
+        if (fromMonth != null && toMonth != null && fromMonth.isAfter(toMonth)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        boolean byBook = groupBy.contains("book");
+        boolean byDesk = groupBy.contains("desk");
+        boolean byMonth = groupBy.contains("month");
+
+        // Names resolve to dictionary indices once, so the scan below compares ints
+        int bookIndex = book == null ? 0 : referenceDataCache.findByName(Book.class, book)
+                .map(b -> books.find(b.getId())).orElse(-1);
+        int currencyIndex = currency == null ? 0 : referenceDataCache.findByName(Currency.class, currency)
+                .map(c -> currencies.find(c.getId())).orElse(-1);
+        if (bookIndex < 0 || currencyIndex < 0) {
+            return List.of();
+        }
+        int firstMonth = fromMonth != null ? monthIndex(fromMonth) : 0;
+        int lastMonth = toMonth != null ? monthIndex(toMonth) : (int) MONTH_MASK;
+        boolean needDesk = byDesk || desk != null;
+        Map<Long, String> desks = needDesk ? currentDesks() : Map.of();
+
+        Map<Bucket, long[]> sums = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            positions.forEach((key, amount) -> {
+                int bookIdx = (int) (key >>> (MONTH_BITS + CURRENCY_BITS));
+                int currencyIdx = (int) ((key >>> MONTH_BITS) & CURRENCY_MASK);
+                int month = (int) (key & MONTH_MASK);
+                if (amount == 0 || month < firstMonth || month > lastMonth
+                        || (bookIndex != 0 && bookIdx != bookIndex) || (currencyIndex != 0 && currencyIdx != currencyIndex)) {
+                    return;
+                }
+                String deskName = needDesk ? desks.get(books.idAt(bookIdx)) : null;
+                if (desk != null && !desk.equalsIgnoreCase(deskName)) {
+                    return;
+                }
+                Bucket bucket = new Bucket(byBook ? bookIdx : 0, byDesk ? deskName : null, currencyIdx, byMonth ? month : -1);
+                sums.computeIfAbsent(bucket, b -> new long[1])[0] += amount;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<PositionDTO> result = new ArrayList<>(sums.size());
+        sums.forEach((bucket, sum) -> {
+            if (sum[0] != 0) {
+                String currencyName = currencyName(bucket.currency);
+                result.add(new PositionDTO(bucket.book != 0 ? bookName(bucket.book) : null, bucket.desk, currencyName,
+                        bucket.month >= 0 ? toYearMonth(bucket.month) : null,
+                        Money.toBigDecimal(sum[0], Money.scaleOf(currencyName))));
+            }
+        });
+        result.sort(Comparator.comparing(PositionDTO::book, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(PositionDTO::desk, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(PositionDTO::currency, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(PositionDTO::valueMonth, Comparator.nullsFirst(Comparator.<YearMonth>naturalOrder())));
+        return result;
+    }
+
+    // Rebuilds from the database and reports how the running positions differed, leaving them unchanged
+    public PositionReconciliation reconcile() {
+        return rebuild(false);
+    }
+
+    // Rebuilds from the database, replaces the running positions and reports what was corrected
+    public PositionReconciliation rebuild() {
+        return rebuild(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        PositionReconciliation result = rebuild();
+        logger.info("Loaded positions for {} trades into {} buckets in {} ms", tradeCount(), bucketCount(), result.elapsedMillis());
+    }
+
+    @Scheduled(cron = "${positions.reconcile-cron:0 30 0 * * *}")
+    public void reconcileDaily() {
+        PositionReconciliation result = rebuild();
+        if (!result.matches()) {
+            logger.warn("Running positions had drifted from stored cashflows in {} buckets and were rebuilt: {}",
+                    result.mismatchedBuckets(), result.differences());
+        }
+    }
+
+    public int bucketCount() {
+        lock.readLock().lock();
+        try {
+            return positions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tradeCount() {
+        lock.readLock().lock();
+        try {
+            return trades.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One rebuild at a time; bookings carry on meanwhile and are replayed over the rebuilt state. A lock rather
+    // than synchronized, so a virtual thread waiting on JDBC inside does not pin its carrier
+    private PositionReconciliation rebuild(boolean repair) {
+        rebuildLock.lock();
+        try {
+            return rebuildLocked(repair);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private PositionReconciliation rebuildLocked(boolean repair) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, TradePosition> rebuilt;
+        try {
+            deskByBook = loadDesks();
+            rebuilt = loadTrades();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // What the database showed for these trades may predate their latest booking
+            for (Long tradeId : touchedDuringRebuild) {
+                TradePosition live = trades.get(tradeId);
+                if (live != null) {
+                    rebuilt.put(tradeId, live);
+                } else {
+                    rebuilt.remove(tradeId);
+                }
+            }
+            touchedDuringRebuild = null;
+            LongLongMap rebuiltPositions = new LongLongMap(Math.max(16, positions.size()));
+            for (TradePosition position : rebuilt.values()) {
+                add(rebuiltPositions, position, 1);
+            }
+
+            List<String> differences = new ArrayList<>();
+            int[] compared = new int[1];
+            int[] mismatched = new int[1];
+            positions.forEach((key, running) -> {
+                long expected = rebuiltPositions.get(key);
+                compared[0]++;
+                if (running != expected && mismatched[0]++ < MAX_DIFFERENCES) {
+                    differences.add(describe(key, running, expected));
+                }
+            });
+            // Keys the running positions already hold were compared above, including those summed back to zero
+            rebuiltPositions.forEach((key, expected) -> {
+                if (expected != 0 && !positions.containsKey(key)) {
+                    compared[0]++;
+                    if (mismatched[0]++ < MAX_DIFFERENCES) {
+                        differences.add(describe(key, 0, expected));
+                    }
+                }
+            });
+
+            if (repair) {
+                positions = rebuiltPositions;
+                trades = rebuilt;
+            }
+            long elapsed = Duration.between(startedAt, LocalDateTime.now()).toMillis();
+            return new PositionReconciliation(mismatched[0] == 0, compared[0], mismatched[0], differences, repair, startedAt, elapsed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, TradePosition> loadTrades() {
+        Map<Long, TradePosition> loaded = new HashMap<>();
+        jdbcTemplate.query(STORED_CASHFLOWS, rs -> {
+            long tradeId = rs.getLong(1);
+            Long bookId = rs.getObject(2, Long.class);
+            long currencyId = rs.getLong(3);
+            boolean pay = TradePosition.isPay(rs.getString(4));
+            LocalDate valueDate = rs.getObject(5, LocalDate.class);
+            BigDecimal paymentValue = rs.getBigDecimal(6);
+            if (valueDate == null || paymentValue == null) {
+                return;
+            }
+            Currency currency = referenceDataCache.findById(Currency.class, currencyId).orElse(null);
+            long amount = Money.toMinorUnits(paymentValue, Money.scaleOf(currency != null ? currency.getCurrency() : null));
+            loaded.computeIfAbsent(tradeId, id -> new TradePosition(id, bookId))
+                    .add(currencyId, (int) valueDate.toEpochDay(), pay ? -amount : amount);
+        });
+
+        // Periods of lazily booked legs that are not stored yet, computed as on read
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (TradeLeg leg : tradeLegRepository.findLegsMaterializedBefore(NO_UPPER_BOUND)) {
+                Trade trade = leg.getTrade();
+                if (isClosed(trade.getTradeStatus()) || trade.getTradeStartDate() == null || trade.getTradeMaturityDate() == null) {
+                    continue;
+                }
+                CashflowSchedule schedule = cashflowProjectionService.computeSchedule(leg, trade);
+                CashflowSchedule unstored = after(schedule, leg.getCashflowsMaterializedThrough().toEpochDay());
+                loaded.computeIfAbsent(trade.getTradeId(), id -> new TradePosition(id, trade.getBook() != null ? trade.getBook().getId() : null))
+                        .addSchedule(leg, unstored);
+            }
+        });
+        return loaded;
+    }
+
+    private Map<Long, String> loadDesks() {
+        Map<Long, String> desks = new HashMap<>();
+        jdbcTemplate.query(BOOK_DESKS, rs -> {
+            String deskName = rs.getString(2);
+            if (deskName != null) {
+                desks.put(rs.getLong(1), deskName);
+            }
+        });
+        return desks;
+    }
+
+    // Reloads the book-to-desk map when a book first booked since the last load is missing from it
+    private Map<Long, String> currentDesks() {
+        Map<Long, String> desks = deskByBook;
+        for (int i = 1; i <= books.size(); i++) {
+            long bookId = books.idAt(i);
+            if (bookId != 0 && !desks.containsKey(bookId)) {
+                desks = loadDesks();
+                deskByBook = desks;
+                break;
+            }
+        }
+        return desks;
+    }
+
+    private void apply(long tradeId, TradePosition next) {
+        lock.writeLock().lock();
+        try {
+            TradePosition previous = next != null ? trades.put(tradeId, next) : trades.remove(tradeId);
+            if (previous != null) {
+                add(positions, previous, -1);
+            }
+            if (next != null) {
+                add(positions, next, 1);
+            }
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(tradeId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(LongLongMap target, TradePosition position, int sign) {
+        long bookBits = (long) books.indexOf(position.bookId()) << (MONTH_BITS + CURRENCY_BITS);
+        for (int i = 0; i < position.size(); i++) {
+            long key = bookBits | (long) currencies.indexOf(position.currencyId(i)) << MONTH_BITS | position.month(i);
+            target.addTo(key, sign * position.amount(i));
+        }
+    }
+
+    private String describe(long key, long running, long rebuilt) {
+        int bookIdx = (int) (key >>> (MONTH_BITS + CURRENCY_BITS));
+        String currencyName = currencyName((int) ((key >>> MONTH_BITS) & CURRENCY_MASK));
+        int scale = Money.scaleOf(currencyName);
+        return bookName(bookIdx) + "/" + currencyName + "/" + toYearMonth((int) (key & MONTH_MASK)) + ": "
+                + Money.toBigDecimal(running, scale).toPlainString() + " vs " + Money.toBigDecimal(rebuilt, scale).toPlainString();
+    }
+
+    private String bookName(int bookIdx) {
+        long bookId = books.idAt(bookIdx);
+        return referenceDataCache.findById(Book.class, bookId).map(Book::getBookName).orElse(String.valueOf(bookId));
+    }
+
+    private String currencyName(int currencyIdx) {
+        long currencyId = currencies.idAt(currencyIdx);
+        return referenceDataCache.findById(Currency.class, currencyId).map(Currency::getCurrency).orElse(String.valueOf(currencyId));
+    }
+
+    // The schedule's periods with value dates after the given epoch day
+    private static CashflowSchedule after(CashflowSchedule schedule, long epochDay) {
+        int first = 0;
+        while (first < schedule.size() && schedule.valueDates()[first] <= epochDay) {
+            first++;
+        }
+        int size = schedule.size();
+        return new CashflowSchedule(Arrays.copyOfRange(schedule.valueDates(), first, size),
+                Arrays.copyOfRange(schedule.accruals(), first, size),
+                Arrays.copyOfRange(schedule.amounts(), first, size), schedule.scale());
+    }
+
+    private static boolean isClosed(TradeStatus status) {
+        return status != null && status.getTradeStatus() != null
+                && CLOSED_STATUSES.contains(status.getTradeStatus().toUpperCase(Locale.ROOT));
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth toYearMonth(int monthIndex) {
+        return YearMonth.of(monthIndex / 12, monthIndex % 12 + 1);
+    }
+
+    private record Bucket(int book, String desk, int currency, int month) {
+    }
+
+    // Database ids to dense 1-based indices, so they pack into the position key; indices are never reused
+    private static final class IdDictionary {
+        private final int maxSize;
+        private final LongLongMap indices = new LongLongMap();
+        private long[] ids = new long[16];
+        private int size;
+
+        IdDictionary(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        synchronized int indexOf(long id) {
+            int index = (int) indices.get(id);
+            if (index != 0) {
+                return index;
+            }
+            if (size == maxSize) {
+                throw new IllegalStateException("More than " + maxSize + " distinct ids in positions");
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+            indices.addTo(id, size);
+            return size;
+        }
+
+        // -1 when the id has no index yet, so a lookup never grows the dictionary
+        synchronized int find(long id) {
+            int index = (int) indices.get(id);
+            return index != 0 ? index : -1;
+        }
+
+        synchronized long idAt(int index) {
+            return ids[index - 1];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.*;
+import com.technicalchallenge.repository.*;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory resolver for the small reference tables used during trade booking.
+ * Each table is loaded from the database on first use and served from memory until
+ * the owning service writes to it and calls {@link #refresh(Class)}.
+ * Name lookups are case-insensitive. Cached entities are detached, so only their
+ * own columns should be read (not lazy associations).
+ */
+@Component
+public class ReferenceDataCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    private final Map<Class<?>, Table<?>> tables = new LinkedHashMap<>();
+
+    public ReferenceDataCache(BookRepository bookRepository,
+                              CounterpartyRepository counterpartyRepository,
+                              TradeStatusRepository tradeStatusRepository,
+                              ApplicationUserRepository applicationUserRepository,
+                              TradeTypeRepository tradeTypeRepository,
+                              TradeSubTypeRepository tradeSubTypeRepository,
+                              CurrencyRepository currencyRepository,
+                              LegTypeRepository legTypeRepository,
+                              IndexRepository indexRepository,
+                              HolidayCalendarRepository holidayCalendarRepository,
+                              ScheduleRepository scheduleRepository,
+                              BusinessDayConventionRepository businessDayConventionRepository,
+                              PayRecRepository payRecRepository,
+                              DeskRepository deskRepository,
+                              SubDeskRepository subDeskRepository,
+                              CostCenterRepository costCenterRepository,
+                              MeterRegistry meterRegistry) {
+        register(Book.class, bookRepository::findAll, Book::getId, Book::getBookName);
+        register(Counterparty.class, counterpartyRepository::findAll, Counterparty::getId, Counterparty::getName);
+        register(TradeStatus.class, tradeStatusRepository::findAll, TradeStatus::getId, TradeStatus::getTradeStatus);
+        // Users resolve by first name, falling back to login ID; findUserByFirstName skips the fallback
+        register(ApplicationUser.class, applicationUserRepository::findAll, ApplicationUser::getId, ApplicationUser::getFirstName, ApplicationUser::getLoginId);
+        register(TradeType.class, tradeTypeRepository::findAll, TradeType::getId, TradeType::getTradeType);
+        register(TradeSubType.class, tradeSubTypeRepository::findAll, TradeSubType::getId, TradeSubType::getTradeSubType);
+        register(Currency.class, currencyRepository::findAll, Currency::getId, Currency::getCurrency);
+        register(LegType.class, legTypeRepository::findAll, LegType::getId, LegType::getType);
+        register(Index.class, indexRepository::findAll, Index::getId, Index::getIndex);
+        register(HolidayCalendar.class, holidayCalendarRepository::findAll, HolidayCalendar::getId, HolidayCalendar::getHolidayCalendar);
+        register(Schedule.class, scheduleRepository::findAll, Schedule::getId, Schedule::getSchedule);
+        register(BusinessDayConvention.class, businessDayConventionRepository::findAll, BusinessDayConvention::getId, BusinessDayConvention::getBdc);
+        register(PayRec.class, payRecRepository::findAll, PayRec::getId, PayRec::getPayRec);
+        register(Desk.class, deskRepository::findAll, Desk::getId, Desk::getDeskName);
+        register(SubDesk.class, subDeskRepository::findAll, SubDesk::getId, SubDesk::getSubdeskName);
+        register(CostCenter.class, costCenterRepository::findAll, CostCenter::getId, CostCenter::getCostCenterName);
+
+        tables.forEach((type, table) -> {
+            FunctionCounter.builder("reference.data.cache.requests", table, t -> t.hits.get())
+                    .description("Reference data lookups; a miss loads the table from the database")
+                    .tag("type", type.getSimpleName()).tag("result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("reference.data.cache.requests", table, t -> t.misses.get())
+                    .description("Reference data lookups; a miss loads the table from the database")
+                    .tag("type", type.getSimpleName()).tag("result", "miss")
+                    .register(meterRegistry);
+        });
+    }
+
+    public <T> Optional<T> findByName(Class<T> type, String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return table(type).snapshot().findByName(normalize(name));
+    }
+
+    // First name only, as the privilege and trader checks match users. findByName would also accept a login ID
+    public Optional<ApplicationUser> findUserByFirstName(String firstName) {
+        if (firstName == null) {
+            return Optional.empty();
+        }
+        return table(ApplicationUser.class).snapshot().findByName(0, normalize(firstName));
+    }
+
+    public <T> Optional<T> findById(Class<T> type, Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(table(type).snapshot().byId.get(id));
+    }
+
+    public <T> List<T> findAll(Class<T> type) {
+        return table(type).snapshot().all;
+    }
+
+    // Drops the cached table so the next lookup reloads it; call after any write to that table
+    public void refresh(Class<?> type) {
+        Table<?> table = tables.get(type);
+        if (table != null) {
+            logger.debug("Refreshing reference data cache for {}", type.getSimpleName());
+            table.invalidate();
+        }
+    }
+
+    public void refreshAll() {
+        tables.values().forEach(Table::invalidate);
+    }
+
+    // Hit/miss counts per reference type, as exposed through the reference.data.cache.requests metric
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        tables.forEach((type, table) -> stats.put(type.getSimpleName(),
+                Map.of("hits", table.hits.get(), "misses", table.misses.get())));
+        return stats;
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @SafeVarargs
+    private <T> void register(Class<T> type, Supplier<List<T>> loader, Function<T, Long> idFn, Function<T, String>... nameFns) {
+        tables.put(type, new Table<>(type, loader, idFn, List.of(nameFns)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Table<T> table(Class<T> type) {
+        Table<T> table = (Table<T>) tables.get(type);
+        if (table == null) {
+            throw new IllegalArgumentException("Not a cached reference data type: " + type.getSimpleName());
+        }
+        return table;
+    }
+
+    private static final class Table<T> {
+        private final Class<T> type;
+        private final Supplier<List<T>> loader;
+        private final Function<T, Long> idFn;
+        private final List<Function<T, String>> nameFns;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        // Not a monitor: the load runs a JDBC query, and blocking inside synchronized pins a virtual thread's carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Snapshot<T> current;
+
+        private Table(Class<T> type, Supplier<List<T>> loader, Function<T, Long> idFn, List<Function<T, String>> nameFns) {
+            this.type = type;
+            this.loader = loader;
+            this.idFn = idFn;
+            this.nameFns = nameFns;
+        }
+
+        private Snapshot<T> snapshot() {
+            Snapshot<T> snapshot = current;
+            if (snapshot != null) {
+                hits.incrementAndGet();
+                return snapshot;
+            }
+            lock.lock();
+            try {
+                if (current == null) {
+                    misses.incrementAndGet();
+                    current = load();
+                } else {
+                    hits.incrementAndGet();
+                }
+                return current;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void invalidate() {
+            lock.lock();
+            try {
+                current = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Snapshot<T> load() {
+            List<T> rows = loader.get();
+            Map<Long, T> byId = new HashMap<>();
+            List<Map<String, T>> byName = nameFns.stream().map(fn -> (Map<String, T>) new HashMap<String, T>()).toList();
+            for (T row : rows) {
+                byId.put(idFn.apply(row), row);
+                for (int i = 0; i < nameFns.size(); i++) {
+                    String name = nameFns.get(i).apply(row);
+                    if (name != null) {
+                        // First row wins, matching findFirst() on a duplicate name
+                        byName.get(i).putIfAbsent(normalize(name), row);
+                    }
+                }
+            }
+            logger.info("Loaded {} {} rows into reference data cache", rows.size(), type.getSimpleName());
+            return new Snapshot<>(List.copyOf(rows), Collections.unmodifiableMap(byId), byName);
+        }
+    }
+
+    private record Snapshot<T>(List<T> all, Map<Long, T> byId, List<Map<String, T>> byName) {
+        private Optional<T> findByName(String normalizedName) {
+            for (Map<String, T> index : byName) {
+                T row = index.get(normalizedName);
+                if (row != null) {
+                    return Optional.of(row);
+                }
+            }
+            return Optional.empty();
+        }
+
+        // Looks in one name index only, in registration order
+        private Optional<T> findByName(int nameIndex, String normalizedName) {
+            return Optional.ofNullable(byName.get(nameIndex).get(normalizedName));
+        }
+    }
+}
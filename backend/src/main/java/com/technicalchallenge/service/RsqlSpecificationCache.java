@@ -0,0 +1,114 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Trade;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU of compiled RSQL specifications, keyed by the raw query string as the client sent it.
+ * Blotter screens poll the same few queries, so alias rewriting and parsing run once per distinct
+ * query instead of on every request. Queries that fail to compile are not cached.
+ */
+@Component
+public class RsqlSpecificationCache {
+
+    private final int maxSize;
+    private final Map<String, Specification<Trade>> specifications;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RsqlSpecificationCache(MeterRegistry meterRegistry, @Value("${trade.rsql.cache.max-size:256}") int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("trade.rsql.cache.max-size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.specifications = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Specification<Trade>> eldest) {
+                if (size() > RsqlSpecificationCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("rsql.specification.cache.requests", hits, AtomicLong::get)
+                .description("RSQL specification lookups; a miss compiles the query")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("rsql.specification.cache.requests", misses, AtomicLong::get)
+                .description("RSQL specification lookups; a miss compiles the query")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("rsql.specification.cache.evictions", evictions, AtomicLong::get)
+                .description("Compiled RSQL specifications dropped to stay within the size bound")
+                .register(meterRegistry);
+        Gauge.builder("rsql.specification.cache.size", this, RsqlSpecificationCache::size)
+                .description("Compiled RSQL specifications currently cached")
+                .register(meterRegistry);
+        Gauge.builder("rsql.specification.cache.hit.ratio", this, RsqlSpecificationCache::hitRatio)
+                .description("Share of RSQL lookups served from the cache since startup")
+                .register(meterRegistry);
+    }
+
+    // Returns the cached specification for the query, compiling and caching it on a miss.
+    // Compilation runs outside the lock; two threads missing on the same query both compile and the last one is kept
+    public Specification<Trade> get(String query, Function<String, Specification<Trade>> compiler) {
+        Specification<Trade> spec;
+        synchronized (specifications) {
+            spec = specifications.get(query);
+        }
+        if (spec != null) {
+            hits.incrementAndGet();
+            return spec;
+        }
+        misses.incrementAndGet();
+        spec = compiler.apply(query);
+        synchronized (specifications) {
+            specifications.put(query, spec);
+        }
+        return spec;
+    }
+
+    public void clear() {
+        synchronized (specifications) {
+            specifications.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (specifications) {
+            return specifications.size();
+        }
+    }
+
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    // Counters as exposed through the rsql.specification.cache.* metrics
+    public Map<String, Number> getStats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("size", size());
+        stats.put("hitRatio", hitRatio());
+        return stats;
+    }
+}
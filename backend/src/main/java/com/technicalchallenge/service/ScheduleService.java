@@ -17,6 +17,8 @@ public class ScheduleService {
 
     @Autowired
     private ScheduleRepository scheduleRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<Schedule> findAll() {
         logger.info("Retrieving all schedules");
@@ -30,11 +32,14 @@ public class ScheduleService {
 
     public Schedule save(Schedule schedule) {
         logger.info("Saving schedule: {}", schedule);
-        return scheduleRepository.save(schedule);
+        Schedule saved = scheduleRepository.save(schedule);
+        referenceDataCache.refresh(Schedule.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting schedule with id: {}", id);
         scheduleRepository.deleteById(id);
+        referenceDataCache.refresh(Schedule.class);
     }
 }
@@ -1,8 +1,8 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.model.Desk;
 import com.technicalchallenge.model.SubDesk;
 import com.technicalchallenge.dto.SubDeskDTO;
-import com.technicalchallenge.repository.DeskRepository;
 import com.technicalchallenge.repository.SubDeskRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -20,7 +20,7 @@ public class SubDeskService {
     private SubDeskRepository subDeskRepository;
 
     @Autowired
-    private DeskRepository deskRepository;
+    private ReferenceDataCache referenceDataCache;
 
     public List<SubDesk> getAllSubDesks() {
         logger.info("Retrieving all subdesks");
@@ -34,9 +34,7 @@ public class SubDeskService {
 
     public void populateReferenceDataByName(SubDesk subDesk, SubDeskDTO dto) {
         if (dto.getDeskName() != null && !dto.getDeskName().isBlank()) {
-            var desk = deskRepository.findAll().stream()
-                .filter(d -> d.getDeskName().equalsIgnoreCase(dto.getDeskName()))
-                .findFirst().orElse(null);
+            var desk = referenceDataCache.findByName(Desk.class, dto.getDeskName()).orElse(null);
             if (desk == null) throw new IllegalArgumentException("Desk '" + dto.getDeskName() + "' does not exist");
             subDesk.setDesk(desk);
         }
@@ -46,11 +44,14 @@ public class SubDeskService {
     public SubDesk saveSubDesk(SubDesk subDesk, SubDeskDTO dto) {
         logger.info("Saving subdesk: {}", subDesk);
         populateReferenceDataByName(subDesk, dto);
-        return subDeskRepository.save(subDesk);
+        SubDesk saved = subDeskRepository.save(subDesk);
+        referenceDataCache.refresh(SubDesk.class);
+        return saved;
     }
 
     public void deleteSubDesk(Long id) {
         logger.warn("Deleting subdesk with id: {}", id);
         subDeskRepository.deleteById(id);
+        referenceDataCache.refresh(SubDesk.class);
     }
 }
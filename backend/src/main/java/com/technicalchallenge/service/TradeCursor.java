@@ -0,0 +1,56 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Trade;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position in the blotter ordering (tradeDate desc nulls first, id desc) used by keyset pagination.
+ * Encoded as an opaque URL-safe token so clients just hand it back unchanged.
+ */
+public record TradeCursor(LocalDate tradeDate, Long id) {
+
+    // Trades without a trade date lead, as under DEFAULT_NULL_ORDERING=HIGH and PostgreSQL; stated explicitly
+    // so the order (and so the seek predicate) holds whatever null ordering the database defaults to
+    public static final Sort ORDER = Sort.by(Sort.Order.desc("tradeDate").nullsFirst(), Sort.Order.desc("id"));
+
+    // Stands in for a missing trade date in the encoded token
+    private static final String NO_DATE = "-";
+
+    public static TradeCursor of(Trade trade) {
+        return new TradeCursor(trade.getTradeDate(), trade.getId());
+    }
+
+    public String encode() {
+        String raw = (tradeDate == null ? NO_DATE : tradeDate.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TradeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String date = raw.substring(0, separator);
+            return new TradeCursor(NO_DATE.equals(date) ? null : LocalDate.parse(date), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, ex);
+        }
+    }
+
+    // Rows strictly after this cursor in ORDER: (tradeDate, id) < (cursor.tradeDate, cursor.id), where every
+    // undated row comes before every dated one
+    public Specification<Trade> after() {
+        if (tradeDate == null) {
+            return (root, query, cb) -> cb.or(
+                    cb.and(cb.isNull(root.get("tradeDate")), cb.lessThan(root.get("id"), id)),
+                    cb.isNotNull(root.get("tradeDate")));
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("tradeDate"), tradeDate),
+                cb.and(cb.equal(root.get("tradeDate"), tradeDate), cb.lessThan(root.get("id"), id)));
+    }
+}
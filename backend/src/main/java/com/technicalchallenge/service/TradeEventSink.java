@@ -0,0 +1,18 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeEventMessage;
+
+import java.io.IOException;
+
+/**
+ * Where TradeOutboxService relays trade lifecycle events (trade.outbox.sink). A message that fails to send,
+ * or a batch whose flush fails, stays in the outbox and is sent again, so implementations must accept repeats.
+ */
+public interface TradeEventSink {
+
+    void send(TradeEventMessage message) throws IOException;
+
+    // Called after each batch; the batch counts as delivered only once this returns
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,101 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeBlotterRow;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Writes blotter rows one at a time in the requested export format. Nothing is buffered beyond the
+ * underlying writer, so the export costs the same memory for ten trades or a million.
+ */
+public class TradeExportWriter {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileName() {
+            return "trades." + extension;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unsupported export format: " + format + " (expected csv or ndjson)");
+            }
+        }
+    }
+
+    // Column order of TradeBlotterRow, which is also the NDJSON field order
+    private static final String CSV_HEADER = "id,tradeId,version,tradeDate,tradeStartDate,tradeMaturityDate,"
+            + "bookName,counterpartyName,traderUserName,tradeType,tradeStatus,active,"
+            + "leg1Notional,leg1Rate,leg1Currency,leg2Notional,leg2Rate,leg2Currency,legCount";
+
+    private final Format format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+
+    public TradeExportWriter(Format format, Writer writer, ObjectMapper objectMapper) {
+        this.format = format;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public void write(TradeBlotterRow row) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+        } else {
+            Object[] values = {
+                    row.id(), row.tradeId(), row.version(), row.tradeDate(), row.tradeStartDate(), row.tradeMaturityDate(),
+                    row.bookName(), row.counterpartyName(), row.traderUserName(), row.tradeType(), row.tradeStatus(), row.active(),
+                    row.leg1Notional(), row.leg1Rate(), row.leg1Currency(), row.leg2Notional(), row.leg2Rate(), row.leg2Currency(),
+                    row.legCount()};
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(values[i]));
+            }
+        }
+        writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,190 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.CursorPageDTO;
+import com.technicalchallenge.dto.TradeVersionDTO;
+import com.technicalchallenge.dto.TradeVersionDiff;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.TradeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reads over the versions lifecycle changes leave behind: each amendment, termination or cancellation deactivates
+ * the live trade row (deactivatedDate) and inserts the next version (createdDate), so a version was current over
+ * [createdDate, deactivatedDate). History and as-of reads are scalar projections seeking the
+ * (tradeId, createdDate, deactivatedDate) index; diffs load the two versions with their legs but no cashflows.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TradeHistoryService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeHistoryService.class);
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Map<String, Function<Trade, Object>> TRADE_FIELDS = new LinkedHashMap<>();
+    private static final Map<String, Function<TradeLeg, Object>> LEG_FIELDS = new LinkedHashMap<>();
+
+    static {
+        TRADE_FIELDS.put("tradeDate", Trade::getTradeDate);
+        TRADE_FIELDS.put("tradeStartDate", Trade::getTradeStartDate);
+        TRADE_FIELDS.put("tradeMaturityDate", Trade::getTradeMaturityDate);
+        TRADE_FIELDS.put("tradeExecutionDate", Trade::getTradeExecutionDate);
+        TRADE_FIELDS.put("utiCode", Trade::getUtiCode);
+        TRADE_FIELDS.put("bookName", t -> t.getBook() != null ? t.getBook().getBookName() : null);
+        TRADE_FIELDS.put("counterpartyName", t -> t.getCounterparty() != null ? t.getCounterparty().getName() : null);
+        TRADE_FIELDS.put("traderUser", t -> loginId(t.getTraderUser()));
+        TRADE_FIELDS.put("tradeInputterUser", t -> loginId(t.getTradeInputterUser()));
+        TRADE_FIELDS.put("tradeType", t -> t.getTradeType() != null ? t.getTradeType().getTradeType() : null);
+        TRADE_FIELDS.put("tradeSubType", t -> t.getTradeSubType() != null ? t.getTradeSubType().getTradeSubType() : null);
+        TRADE_FIELDS.put("tradeStatus", t -> t.getTradeStatus() != null ? t.getTradeStatus().getTradeStatus() : null);
+        TRADE_FIELDS.put("validityStartDate", Trade::getValidityStartDate);
+        TRADE_FIELDS.put("validityEndDate", Trade::getValidityEndDate);
+
+        LEG_FIELDS.put("notional", TradeLeg::getNotional);
+        LEG_FIELDS.put("rate", TradeLeg::getRate);
+        LEG_FIELDS.put("currency", l -> l.getCurrency() != null ? l.getCurrency().getCurrency() : null);
+        LEG_FIELDS.put("legType", l -> l.getLegRateType() != null ? l.getLegRateType().getType() : null);
+        LEG_FIELDS.put("index", l -> l.getIndex() != null ? l.getIndex().getIndex() : null);
+        LEG_FIELDS.put("holidayCalendar", l -> l.getHolidayCalendar() != null ? l.getHolidayCalendar().getHolidayCalendar() : null);
+        LEG_FIELDS.put("calculationPeriodSchedule", l -> l.getCalculationPeriodSchedule() != null ? l.getCalculationPeriodSchedule().getSchedule() : null);
+        LEG_FIELDS.put("paymentBusinessDayConvention", l -> l.getPaymentBusinessDayConvention() != null ? l.getPaymentBusinessDayConvention().getBdc() : null);
+        LEG_FIELDS.put("fixingBusinessDayConvention", l -> l.getFixingBusinessDayConvention() != null ? l.getFixingBusinessDayConvention().getBdc() : null);
+        LEG_FIELDS.put("payReceiveFlag", l -> l.getPayReceiveFlag() != null ? l.getPayReceiveFlag().getPayRec() : null);
+    }
+
+    private final TradeRepository tradeRepository;
+
+    public TradeHistoryService(TradeRepository tradeRepository) {
+        this.tradeRepository = tradeRepository;
+    }
+
+    // Every version of the trade, oldest first; empty when the trade does not exist
+    public List<TradeVersionDTO> getHistory(Long tradeId) {
+        logger.debug("Fetching version history of trade {}", tradeId);
+        return tradeRepository.findVersions(tradeId);
+    }
+
+    /**
+     * The trades as they were recorded at asOf, one version per trade ordered by tradeId, optionally only
+     * versions valid on validOn and only one trade. cursor is the nextCursor of the previous page.
+     */
+    public CursorPageDTO<TradeVersionDTO> getAsOf(LocalDateTime asOf, LocalDate validOn, Long tradeId, String cursor, int size) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("timestamp is required");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long afterTradeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterTradeId = Long.valueOf(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        logger.debug("Fetching trades as of {} valid on {} - tradeId: {}, after: {}, size: {}", asOf, validOn, tradeId, afterTradeId, size);
+
+        List<TradeVersionDTO> versions = tradeRepository.findVersionsAsOf(asOf, validOn, tradeId, afterTradeId, size + 1);
+        boolean hasNext = versions.size() > size;
+        List<TradeVersionDTO> content = hasNext ? versions.subList(0, size) : versions;
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).tradeId()) : null;
+        return new CursorPageDTO<>(List.copyOf(content), size, hasNext, nextCursor, null);
+    }
+
+    /**
+     * Field-by-field differences between two versions of a trade. toVersion defaults to the latest
+     * version and fromVersion to the one before toVersion. Empty when the trade or a version does not exist.
+     */
+    public Optional<TradeVersionDiff> diff(Long tradeId, Integer fromVersion, Integer toVersion) {
+        Integer to = toVersion != null ? toVersion : tradeRepository.findMaxVersionByTradeId(tradeId).orElse(null);
+        if (to == null) {
+            return Optional.empty();
+        }
+        Integer from = fromVersion != null ? fromVersion : Integer.valueOf(to - 1);
+        logger.debug("Comparing versions {} and {} of trade {}", from, to, tradeId);
+
+        Trade before = null;
+        Trade after = null;
+        for (Trade trade : tradeRepository.findByTradeIdAndVersionIn(tradeId, List.of(from, to))) {
+            if (from.equals(trade.getVersion())) {
+                before = trade;
+            }
+            if (to.equals(trade.getVersion())) {
+                after = trade;
+            }
+        }
+        if (before == null || after == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TradeVersionDiff(tradeId, from, to, changes(before, after)));
+    }
+
+    static List<TradeVersionDiff.FieldChange> changes(Trade before, Trade after) {
+        Map<String, String> from = fields(before);
+        Map<String, String> to = fields(after);
+        Set<String> names = new LinkedHashSet<>(from.keySet());
+        names.addAll(to.keySet());
+
+        List<TradeVersionDiff.FieldChange> changes = new ArrayList<>();
+        for (String name : names) {
+            String oldValue = from.get(name);
+            String newValue = to.get(name);
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.add(new TradeVersionDiff.FieldChange(name, oldValue, newValue));
+            }
+        }
+        return changes;
+    }
+
+    // Trade fields, then each leg's fields as legN.field with legs numbered from 1 in legId order
+    private static Map<String, String> fields(Trade trade) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        TRADE_FIELDS.forEach((name, getter) -> fields.put(name, text(getter.apply(trade))));
+        if (trade.getTradeLegs() != null) {
+            List<TradeLeg> legs = trade.getTradeLegs().stream()
+                    .sorted(Comparator.comparing(TradeLeg::getLegId, Comparator.nullsLast(Comparator.<Long>naturalOrder())))
+                    .toList();
+            for (int i = 0; i < legs.size(); i++) {
+                TradeLeg leg = legs.get(i);
+                String prefix = "leg" + (i + 1) + ".";
+                LEG_FIELDS.forEach((name, getter) -> fields.put(prefix + name, text(getter.apply(leg))));
+            }
+        }
+        return fields;
+    }
+
+    // Numbers compare by value, so 1000000.00 and 1000000 are not a change
+    private static String text(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        return value.toString();
+    }
+
+    private static String loginId(ApplicationUser user) {
+        return user != null ? user.getLoginId() : null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.repository.TradeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out business trade IDs without touching the database on every booking.
+ * IDs are reserved in blocks from the trade_id_seq sequence (one nextval per block)
+ * and served from memory, so concurrent bookings never receive the same ID.
+ * Once the application is ready the sequence is created if missing and moved past the
+ * highest trade_id already stored, so seeded or previously booked trades are never reused.
+ * That DDL commits implicitly on H2 and several other databases, so it runs in a transaction
+ * of its own and never inside a booking's; after it, a refill is a single nextval.
+ */
+@Component
+public class TradeIdAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(TradeIdAllocator.class);
+
+    static final String SEQUENCE_NAME = "trade_id_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TradeRepository tradeRepository;
+    private final TransactionTemplate sequenceTransaction;
+    private final int blockSize;
+    private final long firstTradeId;
+
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block current = Block.EMPTY;
+    private boolean sequenceReady;
+
+    public TradeIdAllocator(JdbcTemplate jdbcTemplate,
+                            TradeRepository tradeRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${trade.id.block-size:50}") int blockSize,
+                            @Value("${trade.id.start:10000}") long firstTradeId) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("trade.id.block-size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.tradeRepository = tradeRepository;
+        this.sequenceTransaction = new TransactionTemplate(transactionManager);
+        this.sequenceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.firstTradeId = firstTradeId;
+    }
+
+    public long nextTradeId() {
+        while (true) {
+            Block block = current;
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block);
+        }
+    }
+
+    // Prepares the sequence and reserves the first block after data.sql has run and before bookings arrive
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareSequence() {
+        refillLock.lock();
+        try {
+            if (!sequenceReady) {
+                install(initSequenceInOwnTransaction());
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    // A lock rather than synchronized: the refill queries the database, which would pin a virtual thread's carrier
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may already have swapped in a fresh block
+            if (current != exhausted) {
+                return;
+            }
+            // Not ready only when a booking beats the ready event, or outside a Spring context
+            install(sequenceReady ? reserveBlock() : initSequenceInOwnTransaction());
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private void install(long start) {
+        current = new Block(start, start + blockSize);
+        logger.debug("Reserved trade IDs {} to {}", start, start + blockSize - 1);
+    }
+
+    private long initSequenceInOwnTransaction() {
+        long start = sequenceTransaction.execute(status -> initSequence());
+        sequenceReady = true;
+        return start;
+    }
+
+    private long reserveBlock() {
+        return jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_NAME + "')", Long.class);
+    }
+
+    private long initSequence() {
+        long seed = Math.max(firstTradeId, tradeRepository.findMaxTradeId().map(max -> max + 1).orElse(firstTradeId));
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME
+                + " START WITH " + seed + " INCREMENT BY " + blockSize);
+        // An existing sequence may have been created with another block size
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE_NAME + " INCREMENT BY " + blockSize);
+        long start = reserveBlock();
+        if (start < seed) {
+            // The sequence outlived the trade table, or rows were inserted with explicit IDs
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE_NAME + " RESTART WITH " + seed);
+            logger.info("Trade ID sequence restarted at {}", seed);
+            start = reserveBlock();
+        }
+        return start;
+    }
+
+    private static final class Block {
+        private static final Block EMPTY = new Block(0, 0);
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
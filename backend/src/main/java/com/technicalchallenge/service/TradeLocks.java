@@ -0,0 +1,86 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.exception.TradeConcurrencyException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process locks serialising changes to one trade (amend, terminate, cancel) while different trades run in
+ * parallel. Trade ids hash onto a fixed array of locks (trade.lock.stripes), so memory stays constant and
+ * two trades only wait for each other when they share a stripe. TradeService takes the lock before it starts
+ * the change's transaction and releases it after the commit, so the next writer reads the version this one
+ * committed and no connection is held while waiting. Across application instances Trade's optimistic lock
+ * (rowVersion) still rejects the second of two conflicting writers.
+ */
+@Component
+public class TradeLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+
+    public TradeLocks(@Value("${trade.lock.stripes:1024}") int stripes,
+                      @Value("${trade.lock.timeout-ms:10000}") long timeoutMillis) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("trade.lock.stripes must be a power of two");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs action holding the trade's lock, released when action returns. Called inside a transaction, the
+     * lock is instead held until that transaction completes. Throws TradeConcurrencyException if the lock is
+     * not free within trade.lock.timeout-ms.
+     */
+    public <T> T withLock(Long tradeId, Supplier<T> action) {
+        ReentrantLock lock = stripe(tradeId);
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new TradeConcurrencyException("Trade " + tradeId + " is being changed by another request; try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradeConcurrencyException("Interrupted waiting to change trade " + tradeId, e);
+        }
+        boolean releaseOnCompletion = false;
+        try {
+            T result = action.get();
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        lock.unlock();
+                    }
+                });
+                releaseOnCompletion = true;
+            }
+            return result;
+        } finally {
+            if (!releaseOnCompletion) {
+                lock.unlock();
+            }
+        }
+    }
+
+    boolean isLocked(Long tradeId) {
+        return stripe(tradeId).isLocked();
+    }
+
+    private ReentrantLock stripe(Long tradeId) {
+        // Spread sequential ids across stripes
+        long h = tradeId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & mask];
+    }
+}
@@ -0,0 +1,135 @@
+package com.technicalchallenge.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the stages of a trade booking, so a slow create or amend can be broken down in
+ * /actuator/metrics: the lifecycle operation as a whole, each validation stage, reference data resolution
+ * and cashflow generation. Tags come from fixed lists, so every meter is registered up front.
+ */
+@Component
+public class TradeMetrics {
+
+    public static final String CREATE = "create";
+    public static final String AMEND = "amend";
+    public static final String TERMINATE = "terminate";
+    public static final String CANCEL = "cancel";
+
+    public static final String BUSINESS_RULES = "businessRules";
+    public static final String LEG_CONSISTENCY = "legConsistency";
+    public static final String REFERENCE_DATA_ACTIVE = "referenceDataActive";
+    public static final String REFERENCE_DATA_VALID = "referenceDataValid";
+
+    public static final String TRADE = "trade";
+    public static final String LEG = "leg";
+
+    private static final List<String> OPERATIONS = List.of(CREATE, AMEND, TERMINATE, CANCEL);
+    private static final List<String> STAGES = List.of(BUSINESS_RULES, LEG_CONSISTENCY, REFERENCE_DATA_ACTIVE, REFERENCE_DATA_VALID);
+
+    private record Outcomes(Timer success, Timer failure) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Outcomes> operations = new HashMap<>();
+    private final Map<String, Timer> validationStages = new HashMap<>();
+    private final Map<String, Counter> validationRejections = new HashMap<>();
+    private final Map<String, Timer> referenceResolution = new HashMap<>();
+    private final Timer cashflowGeneration;
+    private final DistributionSummary cashflowsPerLeg;
+
+    public TradeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (String operation : OPERATIONS) {
+            operations.put(operation, new Outcomes(operationTimer(operation, "success"), operationTimer(operation, "failure")));
+        }
+        for (String stage : STAGES) {
+            validationStages.put(stage, Timer.builder("trade.validation")
+                    .description("Time spent in one trade validation stage")
+                    .tag("stage", stage)
+                    .register(meterRegistry));
+            validationRejections.put(stage, Counter.builder("trade.validation.rejections")
+                    .description("Trades rejected by one validation stage")
+                    .tag("stage", stage)
+                    .register(meterRegistry));
+        }
+        for (String scope : List.of(TRADE, LEG)) {
+            referenceResolution.put(scope, Timer.builder("trade.reference.resolution")
+                    .description("Time resolving a trade's or a leg's reference data names and ids to entities")
+                    .tag("scope", scope)
+                    .register(meterRegistry));
+        }
+        this.cashflowGeneration = Timer.builder("trade.cashflows.generation")
+                .description("Time generating and storing the cashflows of one booked leg")
+                .register(meterRegistry);
+        this.cashflowsPerLeg = DistributionSummary.builder("trade.cashflows.per.leg")
+                .description("Cashflows generated for one booked leg")
+                .baseUnit("cashflows")
+                .register(meterRegistry);
+    }
+
+    private Timer operationTimer(String operation, String outcome) {
+        return Timer.builder("trade.operation")
+                .description("Time to create, amend, terminate or cancel a trade, including lock waits and commit")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs action and times it as the given lifecycle operation. Inside a transaction the timer stops when it
+     * completes, so the flush and commit are counted and a rollback is recorded as a failure.
+     */
+    public <T> T timeOperation(String operation, Supplier<T> action) {
+        Outcomes outcomes = operations.get(operation);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            sample.stop(outcomes.failure());
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    sample.stop(status == STATUS_COMMITTED ? outcomes.success() : outcomes.failure());
+                }
+            });
+        } else {
+            sample.stop(outcomes.success());
+        }
+        return result;
+    }
+
+    public Timer validationStage(String stage) {
+        return validationStages.get(stage);
+    }
+
+    public void validationRejected(String stage) {
+        validationRejections.get(stage).increment();
+    }
+
+    public Timer referenceResolution(String scope) {
+        return referenceResolution.get(scope);
+    }
+
+    public Timer cashflowGeneration() {
+        return cashflowGeneration;
+    }
+
+    public void cashflowsGenerated(int cashflows) {
+        cashflowsPerLeg.record(cashflows);
+    }
+}
@@ -0,0 +1,230 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeEventMessage;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeOutboxEvent;
+import com.technicalchallenge.repository.TradeOutboxRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transactional outbox for trade lifecycle events. TradeService records each create, amend, terminate and
+ * cancel as a trade_outbox row in the booking's own transaction, so an event exists exactly when the
+ * change committed. A relay drains pending rows oldest first in batches to the configured
+ * {@link TradeEventSink} and marks them published only after the sink has flushed them: delivery is at
+ * least once. When a send fails, the trade's later events in the batch are held back, so each trade's
+ * events still arrive in order, while other trades carry on. Published rows are purged after
+ * trade.outbox.retention-days. The relay assumes one application instance drains the table.
+ */
+@Service
+public class TradeOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeOutboxService.class);
+
+    private final TradeOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TradeEventSink sink;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int retentionDays;
+    private final boolean relayEnabled;
+
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Timer deliveryDelay;
+
+    public TradeOutboxService(TradeOutboxRepository outboxRepository,
+                              PlatformTransactionManager transactionManager,
+                              TradeEventSink sink,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${trade.outbox.batch-size:200}") int batchSize,
+                              @Value("${trade.outbox.retention-days:7}") int retentionDays,
+                              @Value("${trade.outbox.relay-enabled:true}") boolean relayEnabled) {
+        if (batchSize < 1 || retentionDays < 0) {
+            throw new IllegalArgumentException("trade.outbox batch-size must be at least 1 and retention-days not negative");
+        }
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.retentionDays = retentionDays;
+        this.relayEnabled = relayEnabled;
+
+        Gauge.builder("trade.outbox.pending", pending, AtomicLong::get)
+                .description("Trade events not yet delivered, as of the last relay run")
+                .register(meterRegistry);
+        Gauge.builder("trade.outbox.lag", this, TradeOutboxService::lagSeconds)
+                .description("Age of the oldest undelivered trade event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("trade.outbox.published", published, AtomicLong::get)
+                .description("Trade events delivered to the sink")
+                .register(meterRegistry);
+        FunctionCounter.builder("trade.outbox.failures", failures, AtomicLong::get)
+                .description("Failed trade event deliveries, retried on the next relay run")
+                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("trade.outbox.delivery")
+                .description("Time from a trade event being recorded to its delivery")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes an event for the trade as it stands in the current transaction; must be called inside the
+     * transaction that makes the change. legs are the trade's legs, for the payload's leg columns.
+     */
+    public TradeOutboxEvent record(String type, Trade trade, List<TradeLeg> legs) {
+        TradeOutboxEvent event = new TradeOutboxEvent();
+        event.setEventType(type);
+        event.setTradeId(trade.getTradeId());
+        event.setTradeVersion(trade.getVersion());
+        event.setCreatedDate(LocalDateTime.now());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(TradeStreamService.toBlotterRow(trade, legs)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize trade " + trade.getTradeId() + " for the outbox", e);
+        }
+        return outboxRepository.save(event);
+    }
+
+    // Starts one delay after startup; with trade.outbox.relay-enabled=false only explicit relay() calls deliver
+    @Scheduled(initialDelayString = "${trade.outbox.relay-delay-ms:500}", fixedDelayString = "${trade.outbox.relay-delay-ms:500}")
+    public void scheduledRelay() {
+        if (!relayEnabled) {
+            return;
+        }
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            logger.error("Trade outbox relay failed", e);
+        }
+    }
+
+    /**
+     * Delivers pending events until none are left or a delivery fails; returns how many were delivered.
+     * Returns 0 straight away when a relay is already running.
+     */
+    public int relay() {
+        if (!relayLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int delivered = 0;
+            while (true) {
+                List<TradeOutboxEvent> batch = outboxRepository.findPending(PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                BatchResult result = deliver(batch);
+                delivered += result.delivered;
+                if (result.failed || batch.size() < batchSize) {
+                    break;
+                }
+            }
+            pending.set(outboxRepository.countByPublishedDateIsNull());
+            oldestPending.set(outboxRepository.findOldestPendingCreatedDate());
+            return delivered;
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${trade.outbox.purge-cron:0 15 1 * * *}")
+    public void purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        Integer purged = transactionTemplate.execute(status -> outboxRepository.deletePublishedBefore(before));
+        logger.info("Purged {} trade outbox events published before {}", purged, before);
+    }
+
+    public long pendingCount() {
+        return pending.get();
+    }
+
+    double lagSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    private BatchResult deliver(List<TradeOutboxEvent> batch) {
+        List<TradeOutboxEvent> sent = new ArrayList<>(batch.size());
+        List<Long> failedIds = new ArrayList<>();
+        Set<Long> heldBack = new HashSet<>();
+        for (TradeOutboxEvent event : batch) {
+            // An earlier event of this trade is still undelivered
+            if (heldBack.contains(event.getTradeId())) {
+                continue;
+            }
+            try {
+                sink.send(toMessage(event));
+                sent.add(event);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Delivering trade event {} ({} of trade {}) failed, attempt {}: {}",
+                        event.getId(), event.getEventType(), event.getTradeId(), event.getAttempts() + 1, e.getMessage());
+                failedIds.add(event.getId());
+                heldBack.add(event.getTradeId());
+            }
+        }
+        try {
+            sink.flush();
+        } catch (IOException | RuntimeException e) {
+            // Nothing in the batch counts as delivered; all of it is sent again
+            logger.warn("Flushing {} trade events failed: {}", sent.size(), e.getMessage());
+            failedIds.addAll(sent.stream().map(TradeOutboxEvent::getId).toList());
+            sent.clear();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = sent.stream().map(TradeOutboxEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxRepository.markPublished(sentIds, now);
+            }
+            if (!failedIds.isEmpty()) {
+                outboxRepository.incrementAttempts(failedIds);
+            }
+        });
+        for (TradeOutboxEvent event : sent) {
+            deliveryDelay.record(Duration.between(event.getCreatedDate(), now));
+        }
+        published.addAndGet(sent.size());
+        failures.addAndGet(failedIds.size());
+        return new BatchResult(sent.size(), !failedIds.isEmpty());
+    }
+
+    private static TradeEventMessage toMessage(TradeOutboxEvent event) {
+        return new TradeEventMessage(event.getId(), event.getEventType(), event.getTradeId(), event.getTradeVersion(),
+                event.getCreatedDate(), event.getPayload());
+    }
+
+    private record BatchResult(int delivered, boolean failed) {
+    }
+}
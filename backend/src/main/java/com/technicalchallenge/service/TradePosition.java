@@ -0,0 +1,89 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.TradeLeg;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * What one trade version adds to the net positions kept by {@link PositionService}: its signed cashflows
+ * as (currency id, value month, amount in {@link Money} minor units) entries in primitive arrays. Received
+ * amounts are positive and paid amounts negative. Built while the trade's legs are booked, or from stored
+ * rows during a rebuild.
+ */
+public final class TradePosition {
+
+    private final long tradeId;
+    private final long bookId;
+    private long[] currencyIds = new long[8];
+    private int[] months = new int[8];
+    private long[] amounts = new long[8];
+    private int size;
+
+    // A null book or currency is recorded as id 0
+    public TradePosition(long tradeId, Long bookId) {
+        this.tradeId = tradeId;
+        this.bookId = bookId != null ? bookId : 0L;
+    }
+
+    public long tradeId() {
+        return tradeId;
+    }
+
+    long bookId() {
+        return bookId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long currencyId(int i) {
+        return currencyIds[i];
+    }
+
+    int month(int i) {
+        return months[i];
+    }
+
+    long amount(int i) {
+        return amounts[i];
+    }
+
+    /**
+     * Adds every period of a leg's schedule, whether or not it is stored as a row (lazily booked legs
+     * count their computed periods too), signed by the leg's pay/receive flag.
+     */
+    public void addSchedule(TradeLeg leg, CashflowSchedule schedule) {
+        long currencyId = leg.getCurrency() != null && leg.getCurrency().getId() != null ? leg.getCurrency().getId() : 0L;
+        boolean pay = isPay(leg.getPayReceiveFlag() != null ? leg.getPayReceiveFlag().getPayRec() : null);
+        for (int i = 0; i < schedule.size(); i++) {
+            long amount = schedule.amounts()[i];
+            add(currencyId, schedule.valueDates()[i], pay ? -amount : amount);
+        }
+    }
+
+    void add(long currencyId, int valueDate, long signedAmount) {
+        if (size == amounts.length) {
+            currencyIds = Arrays.copyOf(currencyIds, size * 2);
+            months = Arrays.copyOf(months, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+        }
+        currencyIds[size] = currencyId;
+        months[size] = monthOf(valueDate);
+        amounts[size] = signedAmount;
+        size++;
+    }
+
+    // "Pay" (any case) is paid; anything else, including no flag, is received
+    static boolean isPay(String payRec) {
+        return payRec != null && payRec.trim().toLowerCase(Locale.ROOT).startsWith("pay");
+    }
+
+    // Months since 0000-01, so buckets sort in date order
+    static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
@@ -3,6 +3,10 @@ package com.technicalchallenge.service;
 import io.github.perplexhub.rsql.RSQLJPASupport;
 
 import com.technicalchallenge.config.RsqlAliasConfig;
+import com.technicalchallenge.dto.CursorPageDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeChangeEvent;
 import com.technicalchallenge.dto.TradeDTO;
 import com.technicalchallenge.dto.TradeLegDTO;
 import com.technicalchallenge.model.*;
@@ -13,11 +17,15 @@ import com.technicalchallenge.exception.TradeAuthorizationException;
 import com.technicalchallenge.exception.TradeValidationException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.apache.catalina.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,17 +33,34 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.math.BigDecimal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class TradeService {
     private static final Logger logger = LoggerFactory.getLogger(TradeService.class);
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
 
     @Autowired
     private TradeRepository tradeRepository;
@@ -44,118 +69,143 @@ public class TradeService {
     @Autowired
     private CashflowRepository cashflowRepository;
     @Autowired
-    private TradeStatusRepository tradeStatusRepository;
+    private CashflowEngine cashflowEngine;
     @Autowired
-    private BookRepository bookRepository;
+    private HolidayCalendarService holidayCalendarService;
     @Autowired
-    private CounterpartyRepository counterpartyRepository;
+    private MarketDataService marketDataService;
     @Autowired
-    private ApplicationUserRepository applicationUserRepository;
+    private PositionService positionService;
     @Autowired
-    private TradeTypeRepository tradeTypeRepository;
+    private TradeStreamService tradeStreamService;
     @Autowired
-    private TradeSubTypeRepository tradeSubTypeRepository;
+    private TradeOutboxService tradeOutboxService;
     @Autowired
-    private CurrencyRepository currencyRepository;
+    private TradeLocks tradeLocks;
     @Autowired
-    private LegTypeRepository legTypeRepository;
+    private TradeMetrics tradeMetrics;
     @Autowired
-    private IndexRepository indexRepository;
+    private TradeValidator tradeValidator;
     @Autowired
-    private HolidayCalendarRepository holidayCalendarRepository;
+    private AdditionalInfoService additionalInfoService;
     @Autowired
-    private ScheduleRepository scheduleRepository;
+    private ReferenceDataCache referenceDataCache;
     @Autowired
-    private BusinessDayConventionRepository businessDayConventionRepository;
+    private TradeIdAllocator tradeIdAllocator;
     @Autowired
-    private PayRecRepository payRecRepository;
+    private RsqlSpecificationCache rsqlSpecificationCache;
     @Autowired
-    private TradeValidator tradeValidator;
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
-    private AdditionalInfoService additionalInfoService;
+    private ObjectMapper objectMapper;
+
+    @Value("${trade.batch.chunk-size:50}")
+    private int batchChunkSize = 50;
+
+    @Value("${trade.export.fetch-size:500}")
+    private int exportFetchSize = 500;
+
+    // cashflow.materialization=lazy stores only settled cashflows at booking (see CashflowProjectionService)
+    @Value("#{'${cashflow.materialization:eager}'.equalsIgnoreCase('lazy')}")
+    private boolean lazyCashflows;
 
     public List<Trade> getAllTrades() {
         logger.info("Retrieving all trades");
-        return tradeRepository.findAll();
+        return withLegsAndCashflows(tradeRepository.findAll());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TradeBlotterRow> getTradeBlotter(boolean activeOnly) {
+        logger.debug("Retrieving trade blotter rows, activeOnly: {}", activeOnly);
+        return tradeRepository.findBlotterRows(activeOnly);
     }
 
     //ENHANCEMENT-1: MULTI-CRITERIA SEARCH METHODS
     public List<Trade> searchTradesByCounterpartyName(String name) {
         logger.debug("Retrieving trades by counterparty: {}", name);
-        return tradeRepository.findByCounterparty_Name(name);
+        return withLegsAndCashflows(tradeRepository.findByCounterparty_Name(name));
     }
 
     public List<Trade> searchTradesByBookName(String bookName) {
         logger.debug("Retrieving trades by book: {}", bookName);
-        return tradeRepository.findByBookName(bookName);
+        return withLegsAndCashflows(tradeRepository.findByBookName(bookName));
     }
 
     public List<Trade> searchTradesByTraderLoginId(String loginId) {
         logger.debug("Retrieving trades by loginId: {}", loginId);
-        return tradeRepository.findByTraderUser_LoginId(loginId);
+        return withLegsAndCashflows(tradeRepository.findByTraderUser_LoginId(loginId));
     }
 
     public List<Trade> searchTradesByStatus(String tradeStatus) {
         logger.debug("Retrieving trades by status: {}", tradeStatus);
-        return tradeRepository.findByTradeStatus(tradeStatus);
+        return withLegsAndCashflows(tradeRepository.findByTradeStatus(tradeStatus));
     }
 
     public List<Trade> searchTradesByDateBetween(LocalDate tradeDateFrom, LocalDate tradeDateTo) {
         logger.debug("Retrieving trades by date range: {} to {}", tradeDateFrom, tradeDateTo);
-        return tradeRepository.findByTradeDateBetween(tradeDateFrom, tradeDateTo);
+        return withLegsAndCashflows(tradeRepository.findByTradeDateBetween(tradeDateFrom, tradeDateTo));
     }
 
     // ENHANCEMENT-1: PAGINATED FILTERING METHODS 
     public Page<Trade> getAllTrades(int page, int size) {
         logger.debug("Retrieving all trades - page: {}, size: {}", page, size);
         Pageable pageable = PageRequest.of(page, size, Sort.by("tradeDate").descending());
-        return tradeRepository.findAll(pageable);
+        Page<Trade> trades = tradeRepository.findAll(pageable);
+        withLegsAndCashflows(trades.getContent());
+        return trades;
     }
 
     public Page<Trade> filterTrades(String counterpartyName, String bookName, String loginId, String tradeStatus, LocalDate tradeDateFrom, LocalDate tradeDateTo, Pageable pageable) {
-        Specification<Trade> spec = Specification.where(null);
+        Specification<Trade> spec = TradeSpecifications.filter(counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo);
 
-        if (counterpartyName != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("counterparty").get("name")), counterpartyName.toLowerCase()));
-        }
-        if (bookName != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("book").get("bookName")), bookName.toLowerCase()));
-        }
-        if (loginId != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("traderUser").get("loginId")), loginId.toLowerCase()));
-        }
-        if (tradeStatus != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("tradeStatus").get("tradeStatus")), tradeStatus.toLowerCase()));
-        }
-        if (tradeDateFrom != null && tradeDateTo != null) {
-            spec = spec.and((root, query, cb) -> cb.between(root.get("tradeDate"), tradeDateFrom, tradeDateTo));
-        }
-        else if (tradeDateFrom != null) {
-            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("tradeDate"), tradeDateFrom));
-        }
-        else if (tradeDateTo != null) {
-            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("tradeDate"), tradeDateTo));
-        }
         if (pageable.getSort().isUnsorted()) {
         pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("tradeDate").descending());
         }
 
         logger.debug("Filtering trades with criteria - counterparty: {}, book: {}, trader: {}, status: {}, tradeDateFrom: {}, tradeDateTo: {}", counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo);
-        return tradeRepository.findAll(spec, pageable);    
+        Page<Trade> trades = tradeRepository.findAll(spec, pageable);
+        withLegsAndCashflows(trades.getContent());
+        return trades;
+    }
+
+    // Keyset variant of filterTrades: ordered by (tradeDate desc, id desc), no OFFSET and no COUNT unless asked for
+    public CursorPageDTO<Trade> filterTrades(String counterpartyName, String bookName, String loginId, String tradeStatus, LocalDate tradeDateFrom, LocalDate tradeDateTo, String cursor, int size, boolean includeCount) {
+        logger.debug("Filtering trades by cursor - counterparty: {}, book: {}, trader: {}, status: {}, tradeDateFrom: {}, tradeDateTo: {}, cursor: {}", counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo, cursor);
+        Specification<Trade> spec = TradeSpecifications.filter(counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo);
+        return findPageAfter(spec, cursor, size, includeCount);
     }
 
      // ENHANCEMENT-1: RSQL QUERY METHOD
      public Page<Trade> searchByRsql(String query, int page, int size, String sortParam) {
-        String rewritten = RsqlAliasConfig.applyAliases(query);
-        logger.debug("RSQL original: {}", query);
-        logger.debug("RSQL rewritten: {}", rewritten);
-
         String[] sortParts = sortParam.split(",");
         String sortField = sortParts[0];
         Sort.Direction direction = (sortParts.length > 1 && sortParts[1].equalsIgnoreCase("asc")) ? Sort.Direction.ASC : Sort.Direction.DESC;
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
 
+        Page<Trade> trades = tradeRepository.findAll(toRsqlSpecification(query), pageable);
+        withLegsAndCashflows(trades.getContent());
+        return trades;
+     } 
+
+     // Keyset variant of searchByRsql; the blotter ordering (tradeDate desc, id desc) is fixed so the cursor stays valid
+     public CursorPageDTO<Trade> searchByRsql(String query, String cursor, int size, boolean includeCount) {
+        return findPageAfter(toRsqlSpecification(query), cursor, size, includeCount);
+     }
+
+     // Compiled specifications are cached per raw query string; see RsqlSpecificationCache
+     private Specification<Trade> toRsqlSpecification(String query) {
+        return rsqlSpecificationCache.get(query, this::compileRsql);
+     }
+
+     private Specification<Trade> compileRsql(String query) {
+        String rewritten = RsqlAliasConfig.applyAliases(query);
+        logger.debug("RSQL original: {}", query);
+        logger.debug("RSQL rewritten: {}", rewritten);
+
         Specification<Trade> spec;
 
         try{
@@ -167,8 +217,69 @@ public class TradeService {
         if (spec == null) {
             throw new IllegalArgumentException("Invalid RSQL" + query);
             }
-        return tradeRepository.findAll(spec, pageable);
-     } 
+        return spec;
+     }
+
+    // Export takes the /filter/search criteria and an optional RSQL query together. Built up front so a bad
+    // query is reported before the response starts streaming
+    public Specification<Trade> buildExportSpecification(String counterpartyName, String bookName, String loginId, String tradeStatus, LocalDate tradeDateFrom, LocalDate tradeDateTo, String rsqlQuery, boolean activeOnly) {
+        Specification<Trade> spec = TradeSpecifications.filter(counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo);
+        if (rsqlQuery != null && !rsqlQuery.isBlank()) {
+            spec = spec.and(toRsqlSpecification(rsqlQuery));
+        }
+        if (activeOnly) {
+            spec = spec.and(TradeSpecifications.active());
+        }
+        return spec;
+    }
+
+    // Streams blotter rows straight from a database cursor to the response; only the current fetch
+    // window is held in memory and the rows are scalar projections, so no entities pile up in the
+    // persistence context however many trades are exported
+    @Transactional(readOnly = true)
+    public long exportTrades(Specification<Trade> spec, TradeExportWriter.Format format, OutputStream out) throws IOException {
+        logger.debug("Exporting trades as {}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        TradeExportWriter export = new TradeExportWriter(format, writer, objectMapper);
+        long count = 0;
+
+        export.writeHeader();
+        try (Stream<TradeBlotterRow> rows = tradeRepository.streamBlotterRows(spec, exportFetchSize)) {
+            Iterator<TradeBlotterRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                export.write(iterator.next());
+                if (++count % exportFetchSize == 0) {
+                    export.flush();
+                }
+            }
+        }
+        export.flush();
+        logger.info("Exported {} trades as {}", count, format);
+        return count;
+    }
+
+    // List results are mapped to full TradeDTOs (legs and cashflows included), so initialise those
+    // collections for the whole result in two queries rather than lazily per trade and per leg
+    private List<Trade> withLegsAndCashflows(List<Trade> trades) {
+        tradeRepository.fetchLegsAndCashflows(trades);
+        return trades;
+    }
+
+    // Fetches one row more than requested to learn whether another page exists without counting
+    private CursorPageDTO<Trade> findPageAfter(Specification<Trade> spec, String cursor, int size, boolean includeCount) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        Specification<Trade> seek = cursor == null || cursor.isBlank() ? spec : spec.and(TradeCursor.decode(cursor).after());
+
+        List<Trade> rows = tradeRepository.findAll(seek, TradeCursor.ORDER, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Trade> content = withLegsAndCashflows(hasNext ? rows.subList(0, size) : rows);
+        String nextCursor = hasNext ? TradeCursor.of(content.get(content.size() - 1)).encode() : null;
+        Long total = includeCount ? tradeRepository.count(spec) : null;
+
+        return new CursorPageDTO<>(content, content.size(), hasNext, nextCursor, total);
+    }
 
     public Optional<Trade> getTradeById(Long tradeId) {
         logger.debug("Retrieving trade by id: {}", tradeId);
@@ -177,7 +288,10 @@ public class TradeService {
 
     @Transactional
     public Trade createTrade(TradeDTO tradeDTO) {
+        return tradeMetrics.timeOperation(TradeMetrics.CREATE, () -> bookTrade(tradeDTO));
+    }
 
+    private Trade bookTrade(TradeDTO tradeDTO) {
         if (!validateUserPrivileges("create", tradeDTO)) {
         throw new TradeAuthorizationException("User does not have privileges for this operation.");
         }
@@ -213,12 +327,88 @@ public class TradeService {
         Trade savedTrade = tradeRepository.save(trade);
 
         // Create trade legs and cashflows
-        createTradeLegsWithCashflows(tradeDTO, savedTrade);
+        TradePosition position = newPosition(savedTrade);
+        List<TradeLeg> legs = createTradeLegsWithCashflows(tradeDTO, savedTrade, position);
+        positionService.tradeBooked(savedTrade, position);
+        publishChange(TradeChangeEvent.CREATED, savedTrade, legs, null);
 
         logger.info("Successfully created trade with ID: {}", savedTrade.getTradeId());
         return savedTrade;
     }
 
+    // BULK BOOKING: trades are committed in chunks so Hibernate can batch the trade, leg and cashflow inserts.
+    // A chunk that fails on persistence is replayed one trade per transaction, so a bad trade only fails itself.
+    // Each attempt books a copy of the submitted DTO (booking fills in tradeId and tradeStatus), so a replay
+    // starts from the trade as submitted and failures are reported against the submitted trade ID.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradeBatchResultDTO createTrades(List<TradeDTO> tradeDTOs) {
+        logger.info("Bulk booking {} trades", tradeDTOs.size());
+
+        TradeBatchResultDTO report = new TradeBatchResultDTO();
+        report.setTotalRequested(tradeDTOs.size());
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        int chunkSize = Math.max(1, batchChunkSize);
+
+        for (int start = 0; start < tradeDTOs.size(); start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, tradeDTOs.size());
+            try {
+                TradeBatchResultDTO chunkReport = txTemplate.execute(status -> createTradeChunk(tradeDTOs, from, to));
+                report.merge(chunkReport);
+            } catch (RuntimeException ex) {
+                logger.warn("Bulk booking chunk {}-{} failed, retrying trades individually: {}", from, to - 1, ex.getMessage());
+                for (int i = from; i < to; i++) {
+                    createSingleTradeInBatch(tradeDTOs.get(i), i, txTemplate, report);
+                }
+            }
+        }
+
+        report.getResults().sort(Comparator.comparingInt(TradeBatchResultDTO.Item::getIndex));
+        logger.info("Bulk booking complete - succeeded: {}, failed: {}", report.getSucceeded(), report.getFailed());
+        return report;
+    }
+
+    private TradeBatchResultDTO createTradeChunk(List<TradeDTO> tradeDTOs, int from, int to) {
+        TradeBatchResultDTO chunkReport = new TradeBatchResultDTO();
+        Map<Integer, Trade> created = new LinkedHashMap<>();
+
+        for (int i = from; i < to; i++) {
+            TradeDTO tradeDTO = tradeDTOs.get(i);
+            try {
+                created.put(i, createTrade(bookingCopy(tradeDTO)));
+            } catch (TradeValidationException | TradeAuthorizationException ex) {
+                // Rejected before anything was persisted, so the rest of the chunk can carry on
+                chunkReport.addFailure(i, tradeDTO.getTradeId(), ex.getMessage());
+            }
+        }
+
+        entityManager.flush();
+        created.forEach((index, trade) -> chunkReport.addSuccess(index, trade.getTradeId(), trade.getId()));
+        // Keep the persistence context from growing across chunks
+        entityManager.clear();
+        return chunkReport;
+    }
+
+    private void createSingleTradeInBatch(TradeDTO tradeDTO, int index, TransactionTemplate txTemplate, TradeBatchResultDTO report) {
+        try {
+            Trade trade = txTemplate.execute(status -> {
+                Trade created = createTrade(bookingCopy(tradeDTO));
+                entityManager.flush();
+                entityManager.clear();
+                return created;
+            });
+            report.addSuccess(index, trade.getTradeId(), trade.getId());
+        } catch (RuntimeException ex) {
+            logger.warn("Bulk booking failed for trade at index {}: {}", index, ex.getMessage());
+            report.addFailure(index, tradeDTO.getTradeId(), ex.getMessage());
+        }
+    }
+
+    // Deep copy through the API's own JSON mapping, so legs and additional fields are not shared either
+    private TradeDTO bookingCopy(TradeDTO tradeDTO) {
+        return objectMapper.convertValue(tradeDTO, TradeDTO.class);
+    }
+
     // ENHANCEMENT-2: USER PRIVILEGE ENFORCEMENT METHOD
     public boolean validateUserPrivileges(String operation, TradeDTO tradeDTO) {
         logger.info("InputterUserName: {}", tradeDTO.getInputterUserName());
@@ -228,7 +418,7 @@ public class TradeService {
         String inputterUserName = tradeDTO.getInputterUserName();
         if (inputterUserName == null) return false;
 
-        Optional<ApplicationUser> optUser = applicationUserRepository.findByFirstNameIgnoreCase(inputterUserName);
+        Optional<ApplicationUser> optUser = referenceDataCache.findUserByFirstName(inputterUserName);
 
         if (optUser.isEmpty()) return false;
         
@@ -271,32 +461,36 @@ public class TradeService {
 
     // FIXED: Populate reference data by names from DTO
     public void populateReferenceDataByName(Trade trade, TradeDTO tradeDTO) {
+        tradeMetrics.referenceResolution(TradeMetrics.TRADE).record(() -> resolveReferenceData(trade, tradeDTO));
+    }
+
+    private void resolveReferenceData(Trade trade, TradeDTO tradeDTO) {
         logger.debug("Populating reference data for trade");
 
         // Populate Book
         if (tradeDTO.getBookName() != null) {
-            bookRepository.findByBookName(tradeDTO.getBookName())
+            referenceDataCache.findByName(Book.class, tradeDTO.getBookName())
                     .ifPresent(trade::setBook);
         } else if (tradeDTO.getBookId() != null) {
-            bookRepository.findById(tradeDTO.getBookId())
+            referenceDataCache.findById(Book.class, tradeDTO.getBookId())
                     .ifPresent(trade::setBook);
         }
 
         // Populate Counterparty
         if (tradeDTO.getCounterpartyName() != null) {
-            counterpartyRepository.findByName(tradeDTO.getCounterpartyName())
+            referenceDataCache.findByName(Counterparty.class, tradeDTO.getCounterpartyName())
                     .ifPresent(trade::setCounterparty);
         } else if (tradeDTO.getCounterpartyId() != null) {
-            counterpartyRepository.findById(tradeDTO.getCounterpartyId())
+            referenceDataCache.findById(Counterparty.class, tradeDTO.getCounterpartyId())
                     .ifPresent(trade::setCounterparty);
         }
 
         // Populate TradeStatus
         if (tradeDTO.getTradeStatus() != null) {
-            tradeStatusRepository.findByTradeStatus(tradeDTO.getTradeStatus())
+            referenceDataCache.findByName(TradeStatus.class, tradeDTO.getTradeStatus())
                     .ifPresent(trade::setTradeStatus);
         } else if (tradeDTO.getTradeStatusId() != null) {
-            tradeStatusRepository.findById(tradeDTO.getTradeStatusId())
+            referenceDataCache.findById(TradeStatus.class, tradeDTO.getTradeStatusId())
                     .ifPresent(trade::setTradeStatus);
         }
 
@@ -313,14 +507,14 @@ public class TradeService {
             if (nameParts.length >= 1) {
                 String firstName = nameParts[0];
                 logger.debug("Searching for user with firstName: {}", firstName);
-                Optional<ApplicationUser> userOpt = applicationUserRepository.findByFirstName(firstName);
+                Optional<ApplicationUser> userOpt = referenceDataCache.findByName(ApplicationUser.class, firstName);
                 if (userOpt.isPresent()) {
                     trade.setTraderUser(userOpt.get());
                     logger.debug("Found trader user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
                 } else {
                     logger.warn("Trader user not found with firstName: {}", firstName);
                     // Try with loginId as fallback
-                    Optional<ApplicationUser> byLoginId = applicationUserRepository.findByLoginId(tradeDTO.getTraderUserName().toLowerCase());
+                    Optional<ApplicationUser> byLoginId = referenceDataCache.findByName(ApplicationUser.class, tradeDTO.getTraderUserName());
                     if (byLoginId.isPresent()) {
                         trade.setTraderUser(byLoginId.get());
                         logger.debug("Found trader user by loginId: {}", tradeDTO.getTraderUserName());
@@ -330,7 +524,7 @@ public class TradeService {
                 }
             }
         } else if (tradeDTO.getTraderUserId() != null) {
-            applicationUserRepository.findById(tradeDTO.getTraderUserId())
+            referenceDataCache.findById(ApplicationUser.class, tradeDTO.getTraderUserId())
                     .ifPresent(trade::setTraderUser);
         }
 
@@ -341,14 +535,14 @@ public class TradeService {
             if (nameParts.length >= 1) {
                 String firstName = nameParts[0];
                 logger.debug("Searching for inputter with firstName: {}", firstName);
-                Optional<ApplicationUser> userOpt = applicationUserRepository.findByFirstName(firstName);
+                Optional<ApplicationUser> userOpt = referenceDataCache.findByName(ApplicationUser.class, firstName);
                 if (userOpt.isPresent()) {
                     trade.setTradeInputterUser(userOpt.get());
                     logger.debug("Found inputter user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
                 } else {
                     logger.warn("Inputter user not found with firstName: {}", firstName);
                     // Try with loginId as fallback
-                    Optional<ApplicationUser> byLoginId = applicationUserRepository.findByLoginId(tradeDTO.getInputterUserName().toLowerCase());
+                    Optional<ApplicationUser> byLoginId = referenceDataCache.findByName(ApplicationUser.class, tradeDTO.getInputterUserName());
                     if (byLoginId.isPresent()) {
                         trade.setTradeInputterUser(byLoginId.get());
                         logger.debug("Found inputter user by loginId: {}", tradeDTO.getInputterUserName());
@@ -358,7 +552,7 @@ public class TradeService {
                 }
             }
         } else if (tradeDTO.getTradeInputterUserId() != null) {
-            applicationUserRepository.findById(tradeDTO.getTradeInputterUserId())
+            referenceDataCache.findById(ApplicationUser.class, tradeDTO.getTradeInputterUserId())
                     .ifPresent(trade::setTradeInputterUser);
         }
     }
@@ -366,7 +560,7 @@ public class TradeService {
     private void populateTradeTypeReferences(Trade trade, TradeDTO tradeDTO) {
         if (tradeDTO.getTradeType() != null) {
             logger.debug("Looking up trade type: {}", tradeDTO.getTradeType());
-            Optional<TradeType> tradeTypeOpt = tradeTypeRepository.findByTradeType(tradeDTO.getTradeType());
+            Optional<TradeType> tradeTypeOpt = referenceDataCache.findByName(TradeType.class, tradeDTO.getTradeType());
             if (tradeTypeOpt.isPresent()) {
                 trade.setTradeType(tradeTypeOpt.get());
                 logger.debug("Found trade type: {} with ID: {}", tradeTypeOpt.get().getTradeType(), tradeTypeOpt.get().getId());
@@ -374,38 +568,41 @@ public class TradeService {
                 logger.warn("Trade type not found: {}", tradeDTO.getTradeType());
             }
         } else if (tradeDTO.getTradeTypeId() != null) {
-            tradeTypeRepository.findById(tradeDTO.getTradeTypeId())
+            referenceDataCache.findById(TradeType.class, tradeDTO.getTradeTypeId())
                     .ifPresent(trade::setTradeType);
         }
 
+        // Cache lookups are case-insensitive, so no findAll() scan is needed on a case mismatch
         if (tradeDTO.getTradeSubType() != null) {
-            Optional<TradeSubType> tradeSubTypeOpt = tradeSubTypeRepository.findByTradeSubType(tradeDTO.getTradeSubType());
-            if (tradeSubTypeOpt.isPresent()) {
-                trade.setTradeSubType(tradeSubTypeOpt.get());
-            } else {
-                List<TradeSubType> allSubTypes = tradeSubTypeRepository.findAll();
-                for (TradeSubType subType : allSubTypes) {
-                    if (subType.getTradeSubType().equalsIgnoreCase(tradeDTO.getTradeSubType())) {
-                        trade.setTradeSubType(subType);
-                        break;
-                    }
-                }
-            }
+            referenceDataCache.findByName(TradeSubType.class, tradeDTO.getTradeSubType())
+                    .ifPresent(trade::setTradeSubType);
         } else if (tradeDTO.getTradeSubTypeId() != null) {
-            tradeSubTypeRepository.findById(tradeDTO.getTradeSubTypeId())
+            referenceDataCache.findById(TradeSubType.class, tradeDTO.getTradeSubTypeId())
                     .ifPresent(trade::setTradeSubType);
         }
     }
 
     // NEW METHOD: Delete trade (mark as cancelled)
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteTrade(Long tradeId) {
         logger.info("Deleting (cancelling) trade with ID: {}", tradeId);
         cancelTrade(tradeId);
     }
 
-    @Transactional
+    // LIFECYCLE CHANGES: the trade's lock (see TradeLocks) is taken before the transaction starts and released
+    // once it has committed, so each amendment reads and deactivates the version the previous one committed
+    // rather than both deactivating the same one. These methods only lock and time; lockedTransaction does the work.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trade amendTrade(Long tradeId, TradeDTO tradeDTO) {
+        return tradeMetrics.timeOperation(TradeMetrics.AMEND, () -> lockedTransaction(tradeId, () -> amendLocked(tradeId, tradeDTO)));
+    }
+
+    private <T> T lockedTransaction(Long tradeId, Supplier<T> change) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        return tradeLocks.withLock(tradeId, () -> txTemplate.execute(status -> change.get()));
+    }
+
+    private Trade amendLocked(Long tradeId, TradeDTO tradeDTO) {
         logger.info("Amending trade with ID: {}", tradeId);
 
         Optional<Trade> existingTradeOpt = getTradeById(tradeId);
@@ -414,10 +611,13 @@ public class TradeService {
         }
 
         Trade existingTrade = existingTradeOpt.get();
+        TradeStreamService.MatchKeys before = TradeStreamService.MatchKeys.of(existingTrade);
 
-        // Deactivate existing trade
+        // Deactivate existing trade; one timestamp ends the old version and starts the new one, so an
+        // as-of read at any instant finds exactly one of them
+        LocalDateTime amendedAt = LocalDateTime.now();
         existingTrade.setActive(false);
-        existingTrade.setDeactivatedDate(LocalDateTime.now());
+        existingTrade.setDeactivatedDate(amendedAt);
         tradeRepository.save(existingTrade);
 
         // Create new version
@@ -425,90 +625,161 @@ public class TradeService {
         amendedTrade.setTradeId(tradeId);
         amendedTrade.setVersion(existingTrade.getVersion() + 1);
         amendedTrade.setActive(true);
-        amendedTrade.setCreatedDate(LocalDateTime.now());
-        amendedTrade.setLastTouchTimestamp(LocalDateTime.now());
+        amendedTrade.setCreatedDate(amendedAt);
+        amendedTrade.setLastTouchTimestamp(amendedAt);
 
         // Populate reference data
         populateReferenceDataByName(amendedTrade, tradeDTO);
 
         // Set status to AMENDED
-        TradeStatus amendedStatus = tradeStatusRepository.findByTradeStatus("AMENDED")
+        TradeStatus amendedStatus = referenceDataCache.findByName(TradeStatus.class, "AMENDED")
                 .orElseThrow(() -> new RuntimeException("AMENDED status not found"));
         amendedTrade.setTradeStatus(amendedStatus);
 
         Trade savedTrade = tradeRepository.save(amendedTrade);
 
-        // Create new trade legs and cashflows
-        createTradeLegsWithCashflows(tradeDTO, savedTrade);
+        // Create new trade legs and cashflows; the new version's position replaces the old one's
+        TradePosition position = newPosition(savedTrade);
+        List<TradeLeg> legs = createTradeLegsWithCashflows(tradeDTO, savedTrade, position);
+        positionService.tradeBooked(savedTrade, position);
+        publishChange(TradeChangeEvent.AMENDED, savedTrade, legs, before);
 
         logger.info("Successfully amended trade with ID: {}", savedTrade.getTradeId());
         return savedTrade;
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trade terminateTrade(Long tradeId) {
-        logger.info("Terminating trade with ID: {}", tradeId);
-
-        Optional<Trade> tradeOpt = getTradeById(tradeId);
-        if (tradeOpt.isEmpty()) {
-            throw new RuntimeException("Trade not found: " + tradeId);
-        }
-
-        Trade trade = tradeOpt.get();
-        TradeStatus terminatedStatus = tradeStatusRepository.findByTradeStatus("TERMINATED")
-                .orElseThrow(() -> new RuntimeException("TERMINATED status not found"));
-
-        trade.setTradeStatus(terminatedStatus);
-        trade.setLastTouchTimestamp(LocalDateTime.now());
+        return tradeMetrics.timeOperation(TradeMetrics.TERMINATE, () -> lockedTransaction(tradeId, () -> terminateLocked(tradeId)));
+    }
 
-        return tradeRepository.save(trade);
+    private Trade terminateLocked(Long tradeId) {
+        logger.info("Terminating trade with ID: {}", tradeId);
+        return closeLocked(tradeId, "TERMINATED", TradeChangeEvent.TERMINATED);
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trade cancelTrade(Long tradeId) {
+        return tradeMetrics.timeOperation(TradeMetrics.CANCEL, () -> lockedTransaction(tradeId, () -> cancelLocked(tradeId)));
+    }
+
+    private Trade cancelLocked(Long tradeId) {
         logger.info("Cancelling trade with ID: {}", tradeId);
+        return closeLocked(tradeId, "CANCELLED", TradeChangeEvent.CANCELLED);
+    }
 
+    // Terminate and cancel are versioned like an amendment: the live version ends at the change and a copy
+    // carrying the new status (legs and stored cashflows included) becomes the next version, so history and
+    // as-of reads before the change still show the status the trade had then
+    private Trade closeLocked(Long tradeId, String statusName, String changeType) {
         Optional<Trade> tradeOpt = getTradeById(tradeId);
         if (tradeOpt.isEmpty()) {
             throw new RuntimeException("Trade not found: " + tradeId);
         }
 
-        Trade trade = tradeOpt.get();
-        TradeStatus cancelledStatus = tradeStatusRepository.findByTradeStatus("CANCELLED")
-                .orElseThrow(() -> new RuntimeException("CANCELLED status not found"));
+        Trade existingTrade = tradeOpt.get();
+        TradeStreamService.MatchKeys before = TradeStreamService.MatchKeys.of(existingTrade);
+        TradeStatus closedStatus = referenceDataCache.findByName(TradeStatus.class, statusName)
+                .orElseThrow(() -> new RuntimeException(statusName + " status not found"));
 
-        trade.setTradeStatus(cancelledStatus);
-        trade.setLastTouchTimestamp(LocalDateTime.now());
+        LocalDateTime closedAt = LocalDateTime.now();
+        existingTrade.setActive(false);
+        existingTrade.setDeactivatedDate(closedAt);
+        tradeRepository.save(existingTrade);
+
+        Trade closedTrade = copyVersion(existingTrade, closedAt);
+        closedTrade.setTradeStatus(closedStatus);
+        Trade savedTrade = tradeRepository.save(closedTrade);
+        List<TradeLeg> legs = copyLegs(existingTrade, savedTrade, closedAt);
+        savedTrade.setTradeLegs(legs);
+
+        positionService.tradeClosed(tradeId);
+        publishChange(changeType, savedTrade, legs, before);
+
+        logger.info("Trade {} is {} as of version {}", tradeId, statusName, savedTrade.getVersion());
+        return savedTrade;
+    }
+
+    // The next version of a trade with the same economics and references, current from createdAt
+    private static Trade copyVersion(Trade trade, LocalDateTime createdAt) {
+        Trade copy = new Trade();
+        copy.setTradeId(trade.getTradeId());
+        copy.setVersion(trade.getVersion() + 1);
+        copy.setBook(trade.getBook());
+        copy.setCounterparty(trade.getCounterparty());
+        copy.setTraderUser(trade.getTraderUser());
+        copy.setTradeInputterUser(trade.getTradeInputterUser());
+        copy.setTradeType(trade.getTradeType());
+        copy.setTradeSubType(trade.getTradeSubType());
+        copy.setTradeStatus(trade.getTradeStatus());
+        copy.setUtiCode(trade.getUtiCode());
+        copy.setTradeDate(trade.getTradeDate());
+        copy.setTradeStartDate(trade.getTradeStartDate());
+        copy.setTradeMaturityDate(trade.getTradeMaturityDate());
+        copy.setTradeExecutionDate(trade.getTradeExecutionDate());
+        copy.setAdditionalFieldsId(trade.getAdditionalFieldsId());
+        copy.setValidityStartDate(trade.getValidityStartDate());
+        copy.setValidityEndDate(trade.getValidityEndDate());
+        copy.setActive(true);
+        copy.setCreatedDate(createdAt);
+        copy.setLastTouchTimestamp(createdAt);
+        return copy;
+    }
 
-        return tradeRepository.save(trade);
+    // Copies the legs and their stored cashflows onto the new version as they are, rather than regenerating
+    // them, so projected floating amounts and lazily materialised periods carry over unchanged
+    private List<TradeLeg> copyLegs(Trade from, Trade to, LocalDateTime createdAt) {
+        List<TradeLeg> legs = from.getTradeLegs() != null ? from.getTradeLegs() : List.of();
+        List<TradeLeg> copies = new ArrayList<>(legs.size());
+        for (TradeLeg leg : legs) {
+            TradeLeg copy = new TradeLeg();
+            copy.setTrade(to);
+            copy.setNotional(leg.getNotional());
+            copy.setRate(leg.getRate());
+            copy.setCurrency(leg.getCurrency());
+            copy.setLegRateType(leg.getLegRateType());
+            copy.setIndex(leg.getIndex());
+            copy.setHolidayCalendar(leg.getHolidayCalendar());
+            copy.setCalculationPeriodSchedule(leg.getCalculationPeriodSchedule());
+            copy.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
+            copy.setFixingBusinessDayConvention(leg.getFixingBusinessDayConvention());
+            copy.setPayReceiveFlag(leg.getPayReceiveFlag());
+            copy.setCashflowsMaterializedThrough(leg.getCashflowsMaterializedThrough());
+            copy.setActive(leg.getActive());
+            copy.setCreatedDate(createdAt);
+            TradeLeg savedLeg = tradeLegRepository.save(copy);
+
+            cashflowRepository.copyToLeg(leg.getLegId(), savedLeg.getLegId(), createdAt);
+            // Reload so the copy's cashflows become a lazy collection over the rows just inserted
+            entityManager.refresh(savedLeg);
+            copies.add(savedLeg);
+        }
+        return copies;
     }
 
     private void validateTradeCreation(TradeDTO tradeDTO) {
 
         // ENHANCEMENT-2: COMPREHENSIVE DATE BUSINESS RULES VALIDATION:
-        ValidationResult tradeBusinessRulesResult = tradeValidator.validateTradeBusinessRules(tradeDTO);
-        if (!tradeBusinessRulesResult.isValid()) {
-        throw new TradeValidationException(tradeBusinessRulesResult.getMessage());
-        }
-        
+        validateStage(TradeMetrics.BUSINESS_RULES, () -> tradeValidator.validateTradeBusinessRules(tradeDTO));
+
         // ENHANCEMENT-2: COMPREHENSIVE CROSS-LEG BUSINESS RULES VALIDATION:
-        ValidationResult tradeLegConsistencyResult = tradeValidator.validateTradeLegConsistency(tradeDTO);
-        if (!tradeLegConsistencyResult.isValid()) {
-            throw new TradeValidationException(tradeLegConsistencyResult.getMessage());
-        }
+        validateStage(TradeMetrics.LEG_CONSISTENCY, () -> tradeValidator.validateTradeLegConsistency(tradeDTO));
 
         // ENHANCEMENT-2: ENSURE USER, BOOK, AND COUNTERPARTY ARE ACTIVE IN THE SYSTEM
-        ValidationResult referenceDataIsActiveResult = tradeValidator.confirmReferenceDataIsActive(tradeDTO);
-        if (!referenceDataIsActiveResult.isValid()) {
-            throw new TradeValidationException(referenceDataIsActiveResult.getMessage());
-        }
+        validateStage(TradeMetrics.REFERENCE_DATA_ACTIVE, () -> tradeValidator.confirmReferenceDataIsActive(tradeDTO));
 
         // ENHANCEMENT-2: COMPREHENSIVE REFERENCE DATA VALIDATION:
-        ValidationResult referenceDataValidityResult = tradeValidator.validateTradeDTOReferenceData(tradeDTO);
-        if (!referenceDataValidityResult.isValid()) {
-            throw new TradeValidationException(referenceDataValidityResult.getMessage());
+        validateStage(TradeMetrics.REFERENCE_DATA_VALID, () -> tradeValidator.validateTradeDTOReferenceData(tradeDTO));
+    }
+
+    // Runs one validation stage under its timer; a failed stage is counted and rejects the trade
+    private void validateStage(String stage, Supplier<ValidationResult> check) {
+        ValidationResult result = tradeMetrics.validationStage(stage).record(check);
+        if (!result.isValid()) {
+            tradeMetrics.validationRejected(stage);
+            throw new TradeValidationException(result.getMessage());
         }
-    }  
+    }
 
     private Trade mapDTOToEntity(TradeDTO dto) {
         Trade trade = new Trade();
@@ -523,7 +794,19 @@ public class TradeService {
         return trade;
     }
 
-    private void createTradeLegsWithCashflows(TradeDTO tradeDTO, Trade savedTrade) {
+    // The outbox row joins this transaction; the stream event goes out once it commits
+    private void publishChange(String type, Trade trade, List<TradeLeg> legs, TradeStreamService.MatchKeys before) {
+        tradeOutboxService.record(type, trade, legs);
+        tradeStreamService.publish(type, trade, legs, before);
+    }
+
+    private static TradePosition newPosition(Trade trade) {
+        return new TradePosition(trade.getTradeId(), trade.getBook() != null ? trade.getBook().getId() : null);
+    }
+
+    // Adds each leg's cashflows to the trade's position contribution (see PositionService); returns the saved legs
+    private List<TradeLeg> createTradeLegsWithCashflows(TradeDTO tradeDTO, Trade savedTrade, TradePosition position) {
+        List<TradeLeg> savedLegs = new ArrayList<>(tradeDTO.getTradeLegs().size());
         for (int i = 0; i < tradeDTO.getTradeLegs().size(); i++) {
             var legDTO = tradeDTO.getTradeLegs().get(i);
 
@@ -535,87 +818,92 @@ public class TradeService {
             tradeLeg.setCreatedDate(LocalDateTime.now());
 
             // Populate reference data for leg
-            populateLegReferenceData(tradeLeg, legDTO);
+            tradeMetrics.referenceResolution(TradeMetrics.LEG).record(() -> populateLegReferenceData(tradeLeg, legDTO));
+            if (lazyCashflows && tradeDTO.getTradeStartDate() != null && tradeDTO.getTradeMaturityDate() != null) {
+                tradeLeg.setCashflowsMaterializedThrough(LocalDate.now());
+            }
 
             TradeLeg savedLeg = tradeLegRepository.save(tradeLeg);
+            savedLegs.add(savedLeg);
 
             // Generate cashflows for this leg
             if (tradeDTO.getTradeStartDate() != null && tradeDTO.getTradeMaturityDate() != null) {
-                generateCashflows(savedLeg, tradeDTO.getTradeStartDate(), tradeDTO.getTradeMaturityDate());
+                position.addSchedule(savedLeg, generateCashflows(savedLeg, tradeDTO.getTradeStartDate(), tradeDTO.getTradeMaturityDate()));
             }
         }
+        return savedLegs;
     }
 
     private void populateLegReferenceData(TradeLeg leg, TradeLegDTO legDTO) {
         // Populate currency by name or ID
         if (legDTO.getCurrency() != null) {
-            currencyRepository.findByCurrency(legDTO.getCurrency())
+            referenceDataCache.findByName(Currency.class, legDTO.getCurrency())
                     .ifPresent(leg::setCurrency);
         } else if (legDTO.getCurrencyId() != null) {
-            currencyRepository.findById(legDTO.getCurrencyId())
+            referenceDataCache.findById(Currency.class, legDTO.getCurrencyId())
                     .ifPresent(leg::setCurrency);
         }
 
         // Populate leg type by name or ID
         if (legDTO.getLegType() != null) {
-            legTypeRepository.findByType(legDTO.getLegType())
+            referenceDataCache.findByName(LegType.class, legDTO.getLegType())
                     .ifPresent(leg::setLegRateType);
         } else if (legDTO.getLegTypeId() != null) {
-            legTypeRepository.findById(legDTO.getLegTypeId())
+            referenceDataCache.findById(LegType.class, legDTO.getLegTypeId())
                     .ifPresent(leg::setLegRateType);
         }
 
         // Populate index by name or ID
         if (legDTO.getIndexName() != null) {
-            indexRepository.findByIndex(legDTO.getIndexName())
+            referenceDataCache.findByName(Index.class, legDTO.getIndexName())
                     .ifPresent(leg::setIndex);
         } else if (legDTO.getIndexId() != null) {
-            indexRepository.findById(legDTO.getIndexId())
+            referenceDataCache.findById(Index.class, legDTO.getIndexId())
                     .ifPresent(leg::setIndex);
         }
 
         // Populate holiday calendar by name or ID
         if (legDTO.getHolidayCalendar() != null) {
-            holidayCalendarRepository.findByHolidayCalendar(legDTO.getHolidayCalendar())
+            referenceDataCache.findByName(HolidayCalendar.class, legDTO.getHolidayCalendar())
                     .ifPresent(leg::setHolidayCalendar);
         } else if (legDTO.getHolidayCalendarId() != null) {
-            holidayCalendarRepository.findById(legDTO.getHolidayCalendarId())
+            referenceDataCache.findById(HolidayCalendar.class, legDTO.getHolidayCalendarId())
                     .ifPresent(leg::setHolidayCalendar);
         }
 
         // Populate schedule by name or ID
         if (legDTO.getCalculationPeriodSchedule() != null) {
-            scheduleRepository.findBySchedule(legDTO.getCalculationPeriodSchedule())
+            referenceDataCache.findByName(Schedule.class, legDTO.getCalculationPeriodSchedule())
                     .ifPresent(leg::setCalculationPeriodSchedule);
         } else if (legDTO.getScheduleId() != null) {
-            scheduleRepository.findById(legDTO.getScheduleId())
+            referenceDataCache.findById(Schedule.class, legDTO.getScheduleId())
                     .ifPresent(leg::setCalculationPeriodSchedule);
         }
 
         // Populate payment business day convention by name or ID
         if (legDTO.getPaymentBusinessDayConvention() != null) {
-            businessDayConventionRepository.findByBdc(legDTO.getPaymentBusinessDayConvention())
+            referenceDataCache.findByName(BusinessDayConvention.class, legDTO.getPaymentBusinessDayConvention())
                     .ifPresent(leg::setPaymentBusinessDayConvention);
         } else if (legDTO.getPaymentBdcId() != null) {
-            businessDayConventionRepository.findById(legDTO.getPaymentBdcId())
+            referenceDataCache.findById(BusinessDayConvention.class, legDTO.getPaymentBdcId())
                     .ifPresent(leg::setPaymentBusinessDayConvention);
         }
 
         // Populate fixing business day convention by name or ID
         if (legDTO.getFixingBusinessDayConvention() != null) {
-            businessDayConventionRepository.findByBdc(legDTO.getFixingBusinessDayConvention())
+            referenceDataCache.findByName(BusinessDayConvention.class, legDTO.getFixingBusinessDayConvention())
                     .ifPresent(leg::setFixingBusinessDayConvention);
         } else if (legDTO.getFixingBdcId() != null) {
-            businessDayConventionRepository.findById(legDTO.getFixingBdcId())
+            referenceDataCache.findById(BusinessDayConvention.class, legDTO.getFixingBdcId())
                     .ifPresent(leg::setFixingBusinessDayConvention);
         }
 
         // Populate pay/receive flag by name or ID
         if (legDTO.getPayReceiveFlag() != null) {
-            payRecRepository.findByPayRec(legDTO.getPayReceiveFlag())
+            referenceDataCache.findByName(PayRec.class, legDTO.getPayReceiveFlag())
                     .ifPresent(leg::setPayReceiveFlag);
         } else if (legDTO.getPayRecId() != null) {
-            payRecRepository.findById(legDTO.getPayRecId())
+            referenceDataCache.findById(PayRec.class, legDTO.getPayRecId())
                     .ifPresent(leg::setPayReceiveFlag);
         }
     }
@@ -623,109 +911,41 @@ public class TradeService {
     /**
      * FIXED: Generate cashflows based on schedule and maturity date
      */
-    private void generateCashflows(TradeLeg leg, LocalDate startDate, LocalDate maturityDate) {
-        logger.info("Generating cashflows for leg {} from {} to {}", leg.getLegId(), startDate, maturityDate);
-
-        // Use default schedule if not set
-        String schedule = "3M"; // Default to quarterly
-        if (leg.getCalculationPeriodSchedule() != null) {
-            schedule = leg.getCalculationPeriodSchedule().getSchedule();
-        }
-
-        int monthsInterval = parseSchedule(schedule);
-        List<LocalDate> paymentDates = calculatePaymentDates(startDate, maturityDate, monthsInterval);
-
-        for (LocalDate paymentDate : paymentDates) {
-            Cashflow cashflow = new Cashflow();
-            cashflow.setTradeLeg(leg); // Fixed field name
-            cashflow.setValueDate(paymentDate);
-            cashflow.setRate(leg.getRate());
-
-            // Calculate value based on leg type
-            BigDecimal cashflowValue = calculateCashflowValue(leg, monthsInterval);
-            cashflow.setPaymentValue(cashflowValue);
-
-            cashflow.setPayRec(leg.getPayReceiveFlag());
-            cashflow.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
-            cashflow.setCreatedDate(LocalDateTime.now());
-            cashflow.setActive(true);
-
-            cashflowRepository.save(cashflow);
-        }
-
-        logger.info("Generated {} cashflows for leg {}", paymentDates.size(), leg.getLegId());
+    private CashflowSchedule generateCashflows(TradeLeg leg, LocalDate startDate, LocalDate maturityDate) {
+        CashflowSchedule cashflows = tradeMetrics.cashflowGeneration().record(() -> generateAndStoreCashflows(leg, startDate, maturityDate));
+        tradeMetrics.cashflowsGenerated(cashflows.size());
+        return cashflows;
     }
 
-    private int parseSchedule(String schedule) {
-        if (schedule == null || schedule.trim().isEmpty()) {
-            return 3; // Default to quarterly
-        }
-
-        schedule = schedule.trim();
-
-        // Handle common schedule names
-        switch (schedule.toLowerCase()) {
-            case "monthly":
-                return 1;
-            case "quarterly":
-                return 3;
-            case "semi-annually":
-            case "semiannually":
-            case "half-yearly":
-                return 6;
-            case "annually":
-            case "yearly":
-                return 12;
-            default:
-                // Parse "1M", "3M", "12M" format
-                if (schedule.endsWith("M") || schedule.endsWith("m")) {
-                    try {
-                        return Integer.parseInt(schedule.substring(0, schedule.length() - 1));
-                    } catch (NumberFormatException e) {
-                        throw new RuntimeException("Invalid schedule format: " + schedule);
-                    }
-                }
-                throw new RuntimeException("Invalid schedule format: " + schedule + ". Supported formats: Monthly, Quarterly, Semi-annually, Annually, or 1M, 3M, 6M, 12M");
-        }
-    }
-
-    private List<LocalDate> calculatePaymentDates(LocalDate startDate, LocalDate maturityDate, int monthsInterval) {
-        List<LocalDate> dates = new ArrayList<>();
-        LocalDate currentDate = startDate.plusMonths(monthsInterval);
-
-        while (!currentDate.isAfter(maturityDate)) {
-            dates.add(currentDate);
-            currentDate = currentDate.plusMonths(monthsInterval);
-        }
-
-        return dates;
-    }
-
-    private BigDecimal calculateCashflowValue(TradeLeg leg, int monthsInterval) {
-        if (leg.getLegRateType() == null) {
-            return BigDecimal.ZERO;
-        }
-
-        String legType = leg.getLegRateType().getType();
-
-        if ("Fixed".equals(legType)) {
-            double notional = leg.getNotional().doubleValue();
-            double rate = leg.getRate();
-            double months = monthsInterval;
-
-            double result = (notional * rate * months) / 12;
-
-            return BigDecimal.valueOf(result);
-        } else if ("Floating".equals(legType)) {
-            return BigDecimal.ZERO;
-        }
+    private CashflowSchedule generateAndStoreCashflows(TradeLeg leg, LocalDate startDate, LocalDate maturityDate) {
+        logger.info("Generating cashflows for leg {} from {} to {}", leg.getLegId(), startDate, maturityDate);
 
-        return BigDecimal.ZERO;
+        // Payment dates roll onto business days of the leg's calendar; legs without one stay unadjusted
+        BusinessCalendar paymentCalendar = leg.getHolidayCalendar() != null
+                ? holidayCalendarService.getBusinessCalendar(leg.getHolidayCalendar().getHolidayCalendar())
+                : null;
+        // Floating legs are projected off their index's fixings and curve when market data is loaded for it
+        IndexRates floatingRates = leg.getIndex() != null
+                ? marketDataService.findIndexRates(leg.getIndex().getIndex()).orElse(null)
+                : null;
+        CashflowSchedule cashflows = cashflowEngine.generate(leg, startDate, maturityDate, paymentCalendar, floatingRates);
+
+        // Lazy legs store only the periods already paid; the rest are computed on read (CashflowProjectionService)
+        long storedThrough = leg.getCashflowsMaterializedThrough() != null
+                ? leg.getCashflowsMaterializedThrough().toEpochDay() : Long.MAX_VALUE;
+        LocalDateTime createdDate = LocalDateTime.now();
+        int stored = 0;
+        for (int i = 0; i < cashflows.size() && cashflows.valueDates()[i] <= storedThrough; i++) {
+            cashflowRepository.save(cashflows.toCashflow(i, leg, createdDate));
+            stored++;
+        }
+
+        logger.info("Generated {} cashflows for leg {}, stored {}", cashflows.size(), leg.getLegId(), stored);
+        return cashflows;
     }
 
-    // NEW METHOD: Generate the next trade ID (sequential)
+    // NEW METHOD: Generate the next trade ID (sequential, served from a reserved block - see TradeIdAllocator)
     private Long generateNextTradeId() {
-        // For simplicity, using a static variable. In real scenario, this should be atomic and thread-safe.
-        return 10000L + tradeRepository.count();
+        return tradeIdAllocator.nextTradeId();
     }
 }
@@ -0,0 +1,68 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeStatus;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Trade search predicates shared by the /filter/search, cursor and export reads.
+ * Each one is written to match an index on trade or on the referenced table (see TradeSearchIndexPlanTest).
+ */
+public final class TradeSpecifications {
+
+    private TradeSpecifications() {
+    }
+
+    // Any criterion left null is not applied
+    public static Specification<Trade> filter(String counterpartyName, String bookName, String loginId, String tradeStatus, LocalDate tradeDateFrom, LocalDate tradeDateTo) {
+        Specification<Trade> spec = Specification.where(null);
+
+        if (counterpartyName != null) {
+            spec = spec.and(referenceNameMatches("counterparty", Counterparty.class, "nameLower", counterpartyName));
+        }
+        if (bookName != null) {
+            spec = spec.and(referenceNameMatches("book", Book.class, "bookNameLower", bookName));
+        }
+        if (loginId != null) {
+            spec = spec.and(referenceNameMatches("traderUser", ApplicationUser.class, "loginIdLower", loginId));
+        }
+        if (tradeStatus != null) {
+            spec = spec.and(referenceNameMatches("tradeStatus", TradeStatus.class, "tradeStatusLower", tradeStatus));
+        }
+        if (tradeDateFrom != null && tradeDateTo != null) {
+            spec = spec.and((root, query, cb) -> cb.between(root.get("tradeDate"), tradeDateFrom, tradeDateTo));
+        }
+        else if (tradeDateFrom != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("tradeDate"), tradeDateFrom));
+        }
+        else if (tradeDateTo != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("tradeDate"), tradeDateTo));
+        }
+        return spec;
+    }
+
+    // Live versions only; amendments leave the superseded ones inactive
+    public static Specification<Trade> active() {
+        return (root, query, cb) -> cb.isTrue(root.get("active"));
+    }
+
+    // Case-insensitive match on a to-one reference, written as association_id IN (SELECT id ... WHERE lowerColumn = ?).
+    // The subquery seeks the indexed lower-cased column and the outer query the FK index on trade, whereas
+    // lower(name) on a joined table forces a scan of trade
+    private static <R> Specification<Trade> referenceNameMatches(String association, Class<R> referenceType, String lowerAttribute, String value) {
+        return (root, query, cb) -> {
+            Subquery<Long> ids = query.subquery(Long.class);
+            Root<R> reference = ids.from(referenceType);
+            ids.select(reference.get("id")).where(cb.equal(reference.get(lowerAttribute), value.toLowerCase(Locale.ROOT)));
+            return root.get(association).get("id").in(ids);
+        };
+    }
+}
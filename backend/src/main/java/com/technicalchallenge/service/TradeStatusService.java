@@ -17,6 +17,8 @@ public class TradeStatusService {
 
     @Autowired
     private TradeStatusRepository tradeStatusRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<TradeStatus> findAll() {
         logger.info("Retrieving all trade statuses");
@@ -30,11 +32,14 @@ public class TradeStatusService {
 
     public TradeStatus save(TradeStatus tradeStatus) {
         logger.info("Saving trade status: {}", tradeStatus);
-        return tradeStatusRepository.save(tradeStatus);
+        TradeStatus saved = tradeStatusRepository.save(tradeStatus);
+        referenceDataCache.refresh(TradeStatus.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting trade status with id: {}", id);
         tradeStatusRepository.deleteById(id);
+        referenceDataCache.refresh(TradeStatus.class);
     }
 }
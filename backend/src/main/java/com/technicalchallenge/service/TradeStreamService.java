@@ -0,0 +1,297 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeChangeEvent;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed trade changes to blotter subscribers over Server-Sent Events (/api/trades/stream).
+ * TradeService hands over each create, amend, terminate and cancel together with the blotter row it
+ * already has in memory; once the booking commits the event is offered to the queue of every subscriber
+ * whose filter matches the trade before or after the change. Offering never blocks: each subscriber has a
+ * bounded queue drained by its own sender task, and a subscriber whose queue overflows has its backlog
+ * dropped, is sent a resync event and is disconnected, so it reloads the blotter and subscribes again.
+ */
+@Service
+public class TradeStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeStreamService.class);
+
+    // Queue marker for a keep-alive comment; never sent as a trade event
+    private static final TradeChangeEvent HEARTBEAT = new TradeChangeEvent(-1, "HEARTBEAT", null, null, null);
+
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    // Sends can block on a slow connection, so each runs on its own virtual thread rather than a booking thread
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TradeStreamService(MeterRegistry meterRegistry,
+                              @Value("${trade.stream.queue-capacity:256}") int queueCapacity,
+                              @Value("${trade.stream.max-subscribers:500}") int maxSubscribers,
+                              @Value("${trade.stream.timeout-ms:1800000}") long timeoutMillis) {
+        if (queueCapacity < 1 || maxSubscribers < 1) {
+            throw new IllegalArgumentException("trade.stream queue-capacity and max-subscribers must be at least 1");
+        }
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+
+        Gauge.builder("trade.stream.subscribers", subscribers, Set::size)
+                .description("Open /api/trades/stream connections")
+                .register(meterRegistry);
+        FunctionCounter.builder("trade.stream.events", delivered, AtomicLong::get)
+                .description("Trade change events written to subscribers")
+                .register(meterRegistry);
+        FunctionCounter.builder("trade.stream.resyncs", resyncs, AtomicLong::get)
+                .description("Subscribers disconnected with a resync because their queue overflowed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of changes to trades matching the /api/trades/filter/search criteria (null means any).
+     * The first event is "ready" with the current sequence: load the blotter after receiving it and apply
+     * "trade" events on top. Throws IllegalStateException when the subscriber limit is reached.
+     */
+    public SseEmitter subscribe(String counterpartyName, String bookName, String loginId, String tradeStatus,
+                                LocalDate tradeDateFrom, LocalDate tradeDateTo) {
+        return subscribe(new Filter(counterpartyName, bookName, loginId, tradeStatus, tradeDateFrom, tradeDateTo),
+                new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Filter filter, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many trade stream subscribers (" + maxSubscribers + ")");
+        }
+        Subscriber subscriber = new Subscriber(filter, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // Queued before registering, so it is always the first event the client sees
+        subscriber.queue.offer(new TradeChangeEvent(sequence.get(), "READY", null, null, LocalDateTime.now()));
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        logger.debug("Trade stream subscriber added with {}; {} open", filter, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Queues a change for delivery once the current transaction commits. row is built now, from the
+     * trade as it stands in this transaction; previous holds the filter fields before the change (null
+     * for a new trade), so a subscriber also hears about a trade leaving its filter.
+     */
+    void publish(String type, Trade trade, List<TradeLeg> legs, MatchKeys previous) {
+        TradeBlotterRow row = toBlotterRow(trade, legs);
+        MatchKeys current = MatchKeys.of(trade);
+        AfterCommit.run(() -> fanOut(type, row, current, previous));
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // Keeps idle connections open through proxies and finds clients that have gone away
+    @Scheduled(fixedDelayString = "${trade.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty() && subscriber.queue.offer(HEARTBEAT)) {
+                subscriber.schedule();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private void fanOut(String type, TradeBlotterRow row, MatchKeys current, MatchKeys previous) {
+        TradeChangeEvent event = new TradeChangeEvent(sequence.incrementAndGet(), type, row.tradeId(), row, LocalDateTime.now());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(current) || (previous != null && subscriber.filter.matches(previous))) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    // Same columns as TradeRepositoryCustom.findBlotterRows, from entities already loaded by the booking
+    static TradeBlotterRow toBlotterRow(Trade trade, List<TradeLeg> legs) {
+        List<TradeLeg> ordered = legs == null ? List.of() : legs.stream()
+                .sorted(Comparator.comparing(TradeLeg::getLegId, Comparator.nullsLast(Comparator.<Long>naturalOrder())))
+                .toList();
+        TradeLeg leg1 = ordered.size() > 0 ? ordered.get(0) : null;
+        TradeLeg leg2 = ordered.size() > 1 ? ordered.get(1) : null;
+        ApplicationUser trader = trade.getTraderUser();
+        String traderName = trader == null || (trader.getFirstName() == null && trader.getLastName() == null)
+                ? null : trader.getFirstName() + " " + trader.getLastName();
+        return new TradeBlotterRow(trade.getId(), trade.getTradeId(), trade.getVersion(),
+                trade.getTradeDate(), trade.getTradeStartDate(), trade.getTradeMaturityDate(),
+                trade.getBook() != null ? trade.getBook().getBookName() : null,
+                trade.getCounterparty() != null ? trade.getCounterparty().getName() : null,
+                traderName,
+                trade.getTradeType() != null ? trade.getTradeType().getTradeType() : null,
+                trade.getTradeStatus() != null ? trade.getTradeStatus().getTradeStatus() : null,
+                trade.getActive(),
+                leg1 != null ? leg1.getNotional() : null, leg1 != null ? leg1.getRate() : null, currency(leg1),
+                leg2 != null ? leg2.getNotional() : null, leg2 != null ? leg2.getRate() : null, currency(leg2),
+                ordered.size());
+    }
+
+    private static String currency(TradeLeg leg) {
+        return leg != null && leg.getCurrency() != null ? leg.getCurrency().getCurrency() : null;
+    }
+
+    // The trade fields /api/trades/filter/search filters on
+    record MatchKeys(String counterpartyName, String bookName, String loginId, String tradeStatus, LocalDate tradeDate) {
+        static MatchKeys of(Trade trade) {
+            return new MatchKeys(
+                    trade.getCounterparty() != null ? trade.getCounterparty().getName() : null,
+                    trade.getBook() != null ? trade.getBook().getBookName() : null,
+                    trade.getTraderUser() != null ? trade.getTraderUser().getLoginId() : null,
+                    trade.getTradeStatus() != null ? trade.getTradeStatus().getTradeStatus() : null,
+                    trade.getTradeDate());
+        }
+    }
+
+    // Case-insensitive equality and an inclusive trade date range, as in TradeService.filterTrades
+    record Filter(String counterpartyName, String bookName, String loginId, String tradeStatus,
+                  LocalDate tradeDateFrom, LocalDate tradeDateTo) {
+
+        boolean matches(MatchKeys keys) {
+            return equalsIgnoreCase(counterpartyName, keys.counterpartyName())
+                    && equalsIgnoreCase(bookName, keys.bookName())
+                    && equalsIgnoreCase(loginId, keys.loginId())
+                    && equalsIgnoreCase(tradeStatus, keys.tradeStatus())
+                    && (tradeDateFrom == null || (keys.tradeDate() != null && !keys.tradeDate().isBefore(tradeDateFrom)))
+                    && (tradeDateTo == null || (keys.tradeDate() != null && !keys.tradeDate().isAfter(tradeDateTo)));
+        }
+
+        private static boolean equalsIgnoreCase(String criterion, String value) {
+            return criterion == null || criterion.equalsIgnoreCase(value);
+        }
+    }
+
+    private final class Subscriber {
+        final Filter filter;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<TradeChangeEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean overflowed;
+        volatile boolean closed;
+
+        Subscriber(Filter filter, SseEmitter emitter) {
+            this.filter = filter;
+            this.emitter = emitter;
+        }
+
+        // Called on booking threads: never blocks
+        void offer(TradeChangeEvent event) {
+            if (closed || overflowed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                overflowed = true;
+            }
+            schedule();
+        }
+
+        // At most one sender task per subscriber, so events go out in queue order
+        void schedule() {
+            if (!closed && sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Shutting down
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                TradeChangeEvent event;
+                while (!closed && (event = queue.poll()) != null) {
+                    if (overflowed) {
+                        resync();
+                        return;
+                    }
+                    send(event);
+                }
+                if (overflowed) {
+                    resync();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client gone or emitter already completed; the container reports the error to the emitter
+                logger.debug("Dropping trade stream subscriber: {}", e.getMessage());
+                close();
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // An event offered after the last poll but before sending was released would otherwise wait for the next one
+            if (!queue.isEmpty() || overflowed) {
+                schedule();
+            }
+        }
+
+        private void send(TradeChangeEvent event) throws IOException {
+            if (event == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if ("READY".equals(event.type())) {
+                emitter.send(SseEmitter.event().name("ready").data(Map.of("sequence", event.sequence()), MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(SseEmitter.event().id(Long.toString(event.sequence())).name("trade").data(event, MediaType.APPLICATION_JSON));
+                delivered.incrementAndGet();
+            }
+        }
+
+        private void resync() throws IOException {
+            queue.clear();
+            resyncs.incrementAndGet();
+            logger.warn("Trade stream subscriber with {} fell more than {} events behind; sending resync", filter, queueCapacity);
+            close();
+            emitter.send(SseEmitter.event().name("resync").data(Map.of("sequence", sequence.get()), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
@@ -17,6 +17,8 @@ public class TradeTypeService {
 
     @Autowired
     private TradeTypeRepository tradeTypeRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<TradeType> findAll() {
         logger.info("Retrieving all trade types");
@@ -30,11 +32,14 @@ public class TradeTypeService {
 
     public TradeType save(TradeType tradeType) {
         logger.info("Saving trade type: {}", tradeType);
-        return tradeTypeRepository.save(tradeType);
+        TradeType saved = tradeTypeRepository.save(tradeType);
+        referenceDataCache.refresh(TradeType.class);
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting trade type with id: {}", id);
         tradeTypeRepository.deleteById(id);
+        referenceDataCache.refresh(TradeType.class);
     }
 }
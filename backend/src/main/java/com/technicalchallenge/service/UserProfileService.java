@@ -1,5 +1,6 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.model.ApplicationUser;
 import com.technicalchallenge.model.UserProfile;
 import com.technicalchallenge.repository.UserProfileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,8 @@ import java.util.Optional;
 public class UserProfileService {
     @Autowired
     private UserProfileRepository userProfileRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     public List<UserProfile> getAllUserProfiles() {
         return userProfileRepository.findAll();
@@ -28,13 +31,17 @@ public class UserProfileService {
     public Optional<UserProfile> updateUserProfile(Long id, UserProfile updatedProfile) {
         return userProfileRepository.findById(id).map(existingProfile -> {
             existingProfile.setUserType(updatedProfile.getUserType());
-            return userProfileRepository.save(existingProfile);
+            UserProfile saved = userProfileRepository.save(existingProfile);
+            // Cached users carry their profile, which drives privilege checks
+            referenceDataCache.refresh(ApplicationUser.class);
+            return saved;
         });
     }
 
     public boolean deleteUserProfile(Long id) {
         if (userProfileRepository.existsById(id)) {
             userProfileRepository.deleteById(id);
+            referenceDataCache.refresh(ApplicationUser.class);
             return true;
         }
         return false;
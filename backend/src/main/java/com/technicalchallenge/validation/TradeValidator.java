@@ -5,9 +5,7 @@ import com.technicalchallenge.dto.TradeLegDTO;
 import com.technicalchallenge.model.ApplicationUser;
 import com.technicalchallenge.model.Book;
 import com.technicalchallenge.model.Counterparty;
-import com.technicalchallenge.repository.ApplicationUserRepository;
-import com.technicalchallenge.repository.BookRepository;
-import com.technicalchallenge.repository.CounterpartyRepository;
+import com.technicalchallenge.service.ReferenceDataCache;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,11 +18,7 @@ import org.springframework.stereotype.Component;
 public class TradeValidator {
 
     @Autowired
-    private ApplicationUserRepository applicationUserRepository;
-    @Autowired
-    private BookRepository bookRepository;
-    @Autowired
-    private CounterpartyRepository counterpartyRepository;
+    private ReferenceDataCache referenceDataCache;
 
     public ValidationResult validateTradeBusinessRules(TradeDTO tradeDTO) {
         ValidationResult result = ValidationResult.success();
@@ -151,7 +145,7 @@ public class TradeValidator {
         if (traderName == null) {
             result.addError("Trader must be set");
         } else {
-            Optional<ApplicationUser> optTrader = applicationUserRepository.findByFirstNameIgnoreCase(traderName);
+            Optional<ApplicationUser> optTrader = referenceDataCache.findUserByFirstName(traderName);
             if (optTrader.isEmpty()) {
                 result.addError("Trader must exist in the system");
             } else if (!optTrader.get().isActive()) {
@@ -164,7 +158,7 @@ public class TradeValidator {
         if (bookName == null) {
             result.addError("Book must be set");
         } else {
-            Optional<Book> optBook = bookRepository.findByBookName(bookName);
+            Optional<Book> optBook = referenceDataCache.findByName(Book.class, bookName);
             if (optBook.isEmpty()) {
                 result.addError("Book must exist in the system");
             } else if (!optBook.get().isActive()) {
@@ -177,7 +171,7 @@ public class TradeValidator {
         if (counterpartyName == null) {
             result.addError("Counterparty must be set");
         } else {
-            Optional<Counterparty> optCounterparty = counterpartyRepository.findByName(counterpartyName);
+            Optional<Counterparty> optCounterparty = referenceDataCache.findByName(Counterparty.class, counterpartyName);
             if (optCounterparty.isEmpty()) {
                 result.addError("Counterparty must exist in the system");
             } else if (!optCounterparty.get().isActive()) {
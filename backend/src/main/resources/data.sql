@@ -14,6 +14,47 @@ INSERT INTO schedule (id, schedule) VALUES (1000, 'Monthly'), (1001, 'Quarterly'
 INSERT INTO business_day_convention (id, bdc) VALUES (1000, 'Following'), (1001, 'Modified Following');
 INSERT INTO pay_rec (id, pay_rec) VALUES (1000, 'Pay'), (1001, 'Receive');
 
+-- Holidays (weekends are implied); NY = 1000, LON = 1001
+INSERT INTO holiday (id, holiday_calendar_id, holiday_date, description) VALUES
+  (1000, 1000, '2025-01-01', 'New Year''s Day'),
+  (1001, 1000, '2025-01-20', 'Martin Luther King Jr. Day'),
+  (1002, 1000, '2025-02-17', 'Washington''s Birthday'),
+  (1003, 1000, '2025-05-26', 'Memorial Day'),
+  (1004, 1000, '2025-06-19', 'Juneteenth'),
+  (1005, 1000, '2025-07-04', 'Independence Day'),
+  (1006, 1000, '2025-09-01', 'Labor Day'),
+  (1007, 1000, '2025-10-13', 'Columbus Day'),
+  (1008, 1000, '2025-11-11', 'Veterans Day'),
+  (1009, 1000, '2025-11-27', 'Thanksgiving Day'),
+  (1010, 1000, '2025-12-25', 'Christmas Day'),
+  (1011, 1000, '2026-01-01', 'New Year''s Day'),
+  (1012, 1000, '2026-01-19', 'Martin Luther King Jr. Day'),
+  (1013, 1000, '2026-02-16', 'Washington''s Birthday'),
+  (1014, 1000, '2026-05-25', 'Memorial Day'),
+  (1015, 1000, '2026-06-19', 'Juneteenth'),
+  (1016, 1000, '2026-07-03', 'Independence Day (observed)'),
+  (1017, 1000, '2026-09-07', 'Labor Day'),
+  (1018, 1000, '2026-10-12', 'Columbus Day'),
+  (1019, 1000, '2026-11-11', 'Veterans Day'),
+  (1020, 1000, '2026-11-26', 'Thanksgiving Day'),
+  (1021, 1000, '2026-12-25', 'Christmas Day'),
+  (1022, 1001, '2025-01-01', 'New Year''s Day'),
+  (1023, 1001, '2025-04-18', 'Good Friday'),
+  (1024, 1001, '2025-04-21', 'Easter Monday'),
+  (1025, 1001, '2025-05-05', 'Early May Bank Holiday'),
+  (1026, 1001, '2025-05-26', 'Spring Bank Holiday'),
+  (1027, 1001, '2025-08-25', 'Summer Bank Holiday'),
+  (1028, 1001, '2025-12-25', 'Christmas Day'),
+  (1029, 1001, '2025-12-26', 'Boxing Day'),
+  (1030, 1001, '2026-01-01', 'New Year''s Day'),
+  (1031, 1001, '2026-04-03', 'Good Friday'),
+  (1032, 1001, '2026-04-06', 'Easter Monday'),
+  (1033, 1001, '2026-05-04', 'Early May Bank Holiday'),
+  (1034, 1001, '2026-05-25', 'Spring Bank Holiday'),
+  (1035, 1001, '2026-08-31', 'Summer Bank Holiday'),
+  (1036, 1001, '2026-12-25', 'Christmas Day'),
+  (1037, 1001, '2026-12-28', 'Boxing Day (substitute)');
+
 -- Users
 INSERT INTO user_profile (id, user_type) VALUES (1000,'TRADER_SALES'), (1001,'SUPPORT'),(1002,'ADMIN'),(1003,'MO'),(1004,'SUPERUSER');
 INSERT INTO application_user (id, first_name, last_name, login_id, password, active, user_profile_id, version, last_modified_timestamp) VALUES
@@ -56,3 +97,9 @@ INSERT INTO cashflow (id, payment_value, value_date, rate, leg_id, pay_rec_id, p
   (1000, 12500.00, '2024-09-01', 0.05, 1000, 1000, 1000, 1000, true, '2024-06-01T10:30:00', '2024-06-01', null),
   (1001, 12500.00, '2024-12-01', 0.05, 1000, 1000, 1000, 1000, true, '2024-06-01T10:30:00', '2024-06-01', null),
   (1002, 225000.00, '2024-06-04', 0.045, 1002, 1000, 1000, 1001, true, '2024-06-02T11:15:00', '2024-06-02', null);
+
+-- Lower-cased names for the case-insensitive trade filters; JPA keeps them in step on save, rows inserted here need them filled
+UPDATE book SET book_name_lower = lower(book_name);
+UPDATE trade_status SET trade_status_lower = lower(trade_status);
+UPDATE application_user SET login_id_lower = lower(login_id);
+UPDATE counterparty SET name_lower = lower(name);
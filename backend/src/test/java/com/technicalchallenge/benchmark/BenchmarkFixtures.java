@@ -0,0 +1,190 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeLegDTO;
+import com.technicalchallenge.model.*;
+import com.technicalchallenge.repository.*;
+import com.technicalchallenge.service.HolidayCalendarService;
+import com.technicalchallenge.service.ReferenceDataCache;
+import com.technicalchallenge.support.SampleTrades;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fixtures shared by the benchmarks: the sample swap from {@link SampleTrades} as a loaded entity tree, and the
+ * reference rows in data.sql (ids and names) behind stub repositories, so the benchmarked code sees what a real
+ * booking sees without a database.
+ */
+public final class BenchmarkFixtures {
+
+    private static final List<LocalDate> NY_HOLIDAYS = List.of(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 20), LocalDate.of(2025, 2, 17), LocalDate.of(2025, 5, 26),
+            LocalDate.of(2025, 6, 19), LocalDate.of(2025, 7, 4), LocalDate.of(2025, 9, 1), LocalDate.of(2025, 10, 13),
+            LocalDate.of(2025, 11, 11), LocalDate.of(2025, 11, 27), LocalDate.of(2025, 12, 25), LocalDate.of(2026, 1, 1),
+            LocalDate.of(2026, 1, 19), LocalDate.of(2026, 2, 16), LocalDate.of(2026, 5, 25), LocalDate.of(2026, 6, 19),
+            LocalDate.of(2026, 7, 3), LocalDate.of(2026, 9, 7), LocalDate.of(2026, 10, 12), LocalDate.of(2026, 11, 11),
+            LocalDate.of(2026, 11, 26), LocalDate.of(2026, 12, 25));
+
+    private BenchmarkFixtures() {
+    }
+
+    // The sample swap as a loaded entity tree: reference data on the trade and legs, and cashflowsPerLeg
+    // quarterly cashflows on each leg
+    static Trade sampleTrade(int cashflowsPerLeg) {
+        TradeDTO dto = SampleTrades.tradeDto(Math.max(1, cashflowsPerLeg / 4));
+        Trade trade = new Trade();
+        trade.setId(1L);
+        trade.setTradeId(dto.getTradeId());
+        trade.setVersion(1);
+        trade.setTradeDate(dto.getTradeDate());
+        trade.setTradeStartDate(dto.getTradeStartDate());
+        trade.setTradeMaturityDate(dto.getTradeMaturityDate());
+        trade.setTradeExecutionDate(dto.getTradeExecutionDate());
+        trade.setUtiCode(dto.getUtiCode());
+        trade.setValidityStartDate(dto.getValidityStartDate());
+        trade.setLastTouchTimestamp(LocalDateTime.now());
+        trade.setCreatedDate(LocalDateTime.now());
+        trade.setBook(book());
+        trade.setCounterparty(counterparty());
+        trade.setTraderUser(user(1003L, "Simon", "King", "simon"));
+        trade.setTradeInputterUser(user(1000L, "Alice", "Smith", "alice"));
+        TradeType tradeType = new TradeType();
+        tradeType.setId(1001L);
+        tradeType.setTradeType("Swap");
+        trade.setTradeType(tradeType);
+        TradeSubType tradeSubType = new TradeSubType();
+        tradeSubType.setId(1003L);
+        tradeSubType.setTradeSubType("IR Swap");
+        trade.setTradeSubType(tradeSubType);
+        TradeStatus tradeStatus = new TradeStatus();
+        tradeStatus.setId(1000L);
+        tradeStatus.setTradeStatus("NEW");
+        trade.setTradeStatus(tradeStatus);
+
+        List<TradeLeg> legs = new ArrayList<>();
+        long legId = 1;
+        for (TradeLegDTO legDto : dto.getTradeLegs()) {
+            TradeLeg leg = new TradeLeg();
+            leg.setLegId(legId++);
+            leg.setTrade(trade);
+            leg.setNotional(legDto.getNotional());
+            leg.setRate(legDto.getRate());
+            Currency currency = new Currency();
+            currency.setId(1000L);
+            currency.setCurrency(legDto.getCurrency());
+            leg.setCurrency(currency);
+            LegType legType = new LegType();
+            legType.setId("Fixed".equals(legDto.getLegType()) ? 1000L : 1001L);
+            legType.setType(legDto.getLegType());
+            leg.setLegRateType(legType);
+            if (legDto.getIndexName() != null) {
+                Index index = new Index();
+                index.setId(1000L);
+                index.setIndex(legDto.getIndexName());
+                leg.setIndex(index);
+            }
+            HolidayCalendar calendar = new HolidayCalendar();
+            calendar.setId(1000L);
+            calendar.setHolidayCalendar(legDto.getHolidayCalendar());
+            leg.setHolidayCalendar(calendar);
+            Schedule schedule = new Schedule();
+            schedule.setId(1001L);
+            schedule.setSchedule(legDto.getCalculationPeriodSchedule());
+            leg.setCalculationPeriodSchedule(schedule);
+            BusinessDayConvention following = new BusinessDayConvention();
+            following.setId(1000L);
+            following.setBdc(legDto.getPaymentBusinessDayConvention());
+            leg.setPaymentBusinessDayConvention(following);
+            leg.setFixingBusinessDayConvention(following);
+            PayRec payRec = new PayRec();
+            payRec.setId("Pay".equals(legDto.getPayReceiveFlag()) ? 1000L : 1001L);
+            payRec.setPayRec(legDto.getPayReceiveFlag());
+            leg.setPayReceiveFlag(payRec);
+
+            List<Cashflow> cashflows = new ArrayList<>(cashflowsPerLeg);
+            for (int i = 0; i < cashflowsPerLeg; i++) {
+                Cashflow cashflow = new Cashflow();
+                cashflow.setId(leg.getLegId() * 100_000 + i);
+                cashflow.setTradeLeg(leg);
+                cashflow.setValueDate(trade.getTradeStartDate().plusMonths(3L * (i + 1)));
+                cashflow.setPaymentValue(new BigDecimal("59375.00"));
+                cashflow.setRate(leg.getRate());
+                cashflow.setPayRec(payRec);
+                cashflow.setPaymentType(legType);
+                cashflow.setPaymentBusinessDayConvention(following);
+                cashflow.setCreatedDate(trade.getCreatedDate());
+                cashflows.add(cashflow);
+            }
+            leg.setCashflows(cashflows);
+            legs.add(leg);
+        }
+        trade.setTradeLegs(legs);
+        return trade;
+    }
+
+    // Reference data cache over stub repositories holding the data.sql rows the sample trade refers to
+    static ReferenceDataCache referenceDataCache() {
+        BookRepository books = mock(BookRepository.class);
+        when(books.findAll()).thenReturn(List.of(book()));
+        CounterpartyRepository counterparties = mock(CounterpartyRepository.class);
+        when(counterparties.findAll()).thenReturn(List.of(counterparty()));
+        ApplicationUserRepository users = mock(ApplicationUserRepository.class);
+        when(users.findAll()).thenReturn(List.of(user(1000L, "Alice", "Smith", "alice"), user(1003L, "Simon", "King", "simon")));
+        HolidayCalendarRepository calendars = mock(HolidayCalendarRepository.class);
+        HolidayCalendar ny = new HolidayCalendar();
+        ny.setId(1000L);
+        ny.setHolidayCalendar("NY");
+        when(calendars.findAll()).thenReturn(List.of(ny));
+
+        return new ReferenceDataCache(books, counterparties, mock(TradeStatusRepository.class), users,
+                mock(TradeTypeRepository.class), mock(TradeSubTypeRepository.class), mock(CurrencyRepository.class),
+                mock(LegTypeRepository.class), mock(IndexRepository.class), calendars, mock(ScheduleRepository.class),
+                mock(BusinessDayConventionRepository.class), mock(PayRecRepository.class), mock(DeskRepository.class),
+                mock(SubDeskRepository.class), mock(CostCenterRepository.class), new SimpleMeterRegistry());
+    }
+
+    // HolidayCalendarService with the data.sql NY holidays; the bitmap is built on first use and kept
+    static HolidayCalendarService holidayCalendarService(ReferenceDataCache referenceDataCache) {
+        HolidayRepository holidays = mock(HolidayRepository.class);
+        when(holidays.findHolidayDatesByCalendarId(1000L)).thenReturn(NY_HOLIDAYS);
+        HolidayCalendarService service = new HolidayCalendarService();
+        ReflectionTestUtils.setField(service, "holidayRepository", holidays);
+        ReflectionTestUtils.setField(service, "referenceDataCache", referenceDataCache);
+        return service;
+    }
+
+    private static Book book() {
+        Book book = new Book();
+        book.setId(1001L);
+        book.setBookName("RATES-BOOK-1");
+        book.setActive(true);
+        return book;
+    }
+
+    private static Counterparty counterparty() {
+        Counterparty counterparty = new Counterparty();
+        counterparty.setId(1001L);
+        counterparty.setName("MegaFund");
+        counterparty.setActive(true);
+        return counterparty;
+    }
+
+    private static ApplicationUser user(Long id, String firstName, String lastName, String loginId) {
+        ApplicationUser user = new ApplicationUser();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setLoginId(loginId);
+        user.setActive(true);
+        return user;
+    }
+}
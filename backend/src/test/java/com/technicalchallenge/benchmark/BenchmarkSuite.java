@@ -0,0 +1,118 @@
+package com.technicalchallenge.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the benchmarks in this package and compares each score with benchmarks/baseline.json, the scores
+ * recorded on the reference machine and kept in the repository. All of them measure average time, so a
+ * score more than --tolerance (default 0.10) above its baseline is a regression and the run exits with 1.
+ * Benchmarks without a baseline are reported but never fail the run.
+ *
+ * mvn -Pbenchmarks test-compile exec:exec                                       compare with the baseline
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="--record"            replace the baseline
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="--include TradeMapper --tolerance 0.2"
+ */
+public class BenchmarkSuite {
+
+    static final Path BASELINE = Path.of("benchmarks", "baseline.json");
+    static final Path LATEST = Path.of("target", "benchmarks", "latest.json");
+
+    // One benchmark score; params is empty for benchmarks without @Param
+    record Score(String benchmark, Map<String, String> params, double score, String unit) {
+        String key() {
+            return params.isEmpty() ? benchmark : benchmark + params;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = BenchmarkSuite.class.getPackageName() + "\\..*Benchmark";
+        double tolerance = 0.10;
+        boolean record = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--include" -> include = args[++i];
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                case "--record" -> record = true;
+                case "" -> { }
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder().include(include).build()).run();
+        List<Score> scores = results.stream()
+                .map(BenchmarkSuite::score)
+                .sorted(Comparator.comparing(Score::key))
+                .toList();
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(LATEST.getParent());
+        objectMapper.writeValue(LATEST.toFile(), scores);
+
+        if (record) {
+            // Keep baseline entries of benchmarks that were not part of this run
+            Map<String, Score> baseline = readBaseline(objectMapper);
+            scores.forEach(score -> baseline.put(score.key(), score));
+            Files.createDirectories(BASELINE.getParent());
+            objectMapper.writeValue(BASELINE.toFile(), new ArrayList<>(baseline.values()));
+            System.out.printf("Recorded %d scores in %s%n", scores.size(), BASELINE.toAbsolutePath());
+            return;
+        }
+
+        Map<String, Score> baseline = readBaseline(objectMapper);
+        int regressions = 0;
+        System.out.printf("%n%-90s %14s %14s %8s%n", "Benchmark", "Baseline", "Score", "Change");
+        for (Score score : scores) {
+            Score base = baseline.get(score.key());
+            if (base == null || !base.unit().equals(score.unit())) {
+                System.out.printf("%-90s %14s %14.3f %8s  %s%n", score.key(), "-", score.score(), "-", score.unit());
+                continue;
+            }
+            double change = score.score() / base.score() - 1;
+            boolean regressed = change > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+7.1f%%  %s%s%n", score.key(), base.score(), score.score(),
+                    change * 100, score.unit(), regressed ? "  REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            System.out.printf("%n%d benchmark(s) more than %.0f%% slower than %s%n", regressions, tolerance * 100, BASELINE);
+            System.exit(1);
+        }
+    }
+
+    private static Score score(RunResult result) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (String key : result.getParams().getParamsKeys()) {
+            params.put(key, result.getParams().getParam(key));
+        }
+        return new Score(result.getParams().getBenchmark(), params,
+                result.getPrimaryResult().getScore(), result.getPrimaryResult().getScoreUnit());
+    }
+
+    private static Map<String, Score> readBaseline(ObjectMapper objectMapper) throws IOException {
+        if (!Files.exists(BASELINE)) {
+            return new LinkedHashMap<>();
+        }
+        List<Score> scores = objectMapper.readValue(BASELINE.toFile(), new TypeReference<List<Score>>() { });
+        return scores.stream().collect(Collectors.toMap(Score::key, Function.identity(), (a, b) -> b, LinkedHashMap::new));
+    }
+}
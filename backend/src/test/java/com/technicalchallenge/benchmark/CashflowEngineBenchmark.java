@@ -0,0 +1,73 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.service.CashflowEngine;
+import com.technicalchallenge.service.CashflowSchedule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-leg cost of a 30-year monthly schedule (360 periods). The baseline is the loop TradeService used
+ * before the engine: a List of LocalDates rolled one period at a time plus a BigDecimal per cashflow.
+ *
+ * Not part of the surefire run. JMH forks a JVM, so run it on a plain classpath:
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.technicalchallenge.benchmark.CashflowEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CashflowEngineBenchmark {
+
+    private final CashflowEngine engine = new CashflowEngine();
+    private final LocalDate start = LocalDate.of(2025, 1, 31);
+    private final LocalDate maturity = start.plusYears(30);
+    private final BigDecimal notional = BigDecimal.valueOf(10_000_000);
+    private final double rate = 0.0425;
+
+    @Benchmark
+    public CashflowSchedule engineMonthsOver12() {
+        return engine.generate(start, maturity, engine.parseSchedule("Monthly"), true,
+                notional, rate, CashflowEngine.Convention.MONTHS_OVER_12);
+    }
+
+    @Benchmark
+    public CashflowSchedule engineActual360() {
+        return engine.generate(start, maturity, engine.parseSchedule("Monthly"), true,
+                notional, rate, CashflowEngine.Convention.ACTUAL_360);
+    }
+
+    @Benchmark
+    public List<BigDecimal> legacyLocalDateLoop() {
+        int months = 1;
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate current = start.plusMonths(months);
+        while (!current.isAfter(maturity)) {
+            dates.add(current);
+            current = current.plusMonths(months);
+        }
+        List<BigDecimal> values = new ArrayList<>();
+        for (LocalDate ignored : dates) {
+            values.add(BigDecimal.valueOf(notional.doubleValue() * rate * months / 12));
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CashflowEngineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,71 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.repository.CashflowRepository;
+import com.technicalchallenge.service.CashflowEngine;
+import com.technicalchallenge.service.CashflowService;
+import com.technicalchallenge.service.MarketDataService;
+import com.technicalchallenge.service.ReferenceDataCache;
+import com.technicalchallenge.support.SampleTrades;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * CashflowService.generatePreview (the /api/cashflows/generate preview, without HTTP and JSON) for
+ * the sample swap: a quarterly fixed leg and a LIBOR leg projected from the bundled market data, both
+ * adjusted on the NY calendar, over 2, 10 and 30 years.
+ *
+ * Not part of the surefire run; run it with BenchmarkSuite, or on its own like CashflowEngineBenchmark:
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.technicalchallenge.benchmark.CashflowGenerationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CashflowGenerationBenchmark {
+
+    @Param({"2", "10", "30"})
+    public int years;
+
+    private CashflowService cashflowService;
+    private CashflowGenerationRequest request;
+
+    @Setup
+    public void setUp() {
+        ReferenceDataCache referenceDataCache = BenchmarkFixtures.referenceDataCache();
+        // The preview stores nothing, so the repository is never called
+        cashflowService = new CashflowService(mock(CashflowRepository.class), referenceDataCache, new CashflowEngine(),
+                BenchmarkFixtures.holidayCalendarService(referenceDataCache),
+                new MarketDataService(new DefaultResourceLoader(), "classpath:market-data/curves.csv", "classpath:market-data/fixings.csv"),
+                new SimpleMeterRegistry());
+        request = SampleTrades.generationRequest(years);
+        if (generatePreview().isEmpty()) {
+            throw new IllegalStateException("Sample generation request produced no cashflows");
+        }
+    }
+
+    @Benchmark
+    public List<CashflowDTO> generatePreview() {
+        return cashflowService.generatePreview(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CashflowGenerationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
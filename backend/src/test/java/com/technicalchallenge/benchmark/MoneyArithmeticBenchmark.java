@@ -0,0 +1,91 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.service.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Amounts of a 30-year monthly actual/360 leg (360 periods of 28-31 days), as used by the generate
+ * preview. Baselines are the two ways the code computed amounts before Money: a double product wrapped
+ * with BigDecimal.valueOf (booking), and a BigDecimal multiply/multiply/divide chain (the old preview).
+ * The fixed-point variants fill a long[] of cents, with and without converting each one to BigDecimal at the end.
+ *
+ * Not part of the surefire run; run it like CashflowEngineBenchmark:
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.technicalchallenge.benchmark.MoneyArithmeticBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private final BigDecimal notional = new BigDecimal("10000000.00");
+    private final double rate = 0.0425;
+    private final int[] days = new int[360];
+
+    @Setup
+    public void setUp() {
+        LocalDate start = LocalDate.of(2025, 1, 31);
+        for (int i = 0; i < days.length; i++) {
+            days[i] = (int) (start.plusMonths(i + 1).toEpochDay() - start.plusMonths(i).toEpochDay());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal[] legacyDoubleValueOf() {
+        BigDecimal[] amounts = new BigDecimal[days.length];
+        for (int i = 0; i < days.length; i++) {
+            amounts[i] = BigDecimal.valueOf(notional.doubleValue() * rate * days[i] / 360);
+        }
+        return amounts;
+    }
+
+    @Benchmark
+    public BigDecimal[] legacyBigDecimalChain() {
+        BigDecimal[] amounts = new BigDecimal[days.length];
+        for (int i = 0; i < days.length; i++) {
+            amounts[i] = notional.multiply(BigDecimal.valueOf(rate)).multiply(BigDecimal.valueOf(days[i]))
+                    .divide(BigDecimal.valueOf(360), 2, RoundingMode.HALF_UP);
+        }
+        return amounts;
+    }
+
+    @Benchmark
+    public long[] fixedPoint() {
+        long notionalUnits = Money.toMinorUnits(notional, 2);
+        long rateUnscaled = Money.rateUnscaled(rate);
+        int rateScale = Money.rateScale(rate);
+        long[] amounts = new long[days.length];
+        for (int i = 0; i < days.length; i++) {
+            amounts[i] = Money.interest(notionalUnits, rateUnscaled, rateScale, days[i], 360);
+        }
+        return amounts;
+    }
+
+    @Benchmark
+    public BigDecimal[] fixedPointToBigDecimal() {
+        long[] units = fixedPoint();
+        BigDecimal[] amounts = new BigDecimal[units.length];
+        for (int i = 0; i < units.length; i++) {
+            amounts[i] = Money.toBigDecimal(units[i], 2);
+        }
+        return amounts;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyArithmeticBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
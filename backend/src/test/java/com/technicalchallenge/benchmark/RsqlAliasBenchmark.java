@@ -0,0 +1,55 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.config.RsqlAliasConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RsqlAliasConfig.applyAliases, run on every /api/trades/rsql query before it is parsed (or found in
+ * RsqlSpecificationCache): a typical blotter filter, a long one using every alias, and one already written
+ * with entity paths, where no pattern matches.
+ *
+ * Not part of the surefire run; run it with BenchmarkSuite, or on its own like CashflowEngineBenchmark:
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.technicalchallenge.benchmark.RsqlAliasBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RsqlAliasBenchmark {
+
+    @Param({"typical", "long", "noAliases"})
+    public String query;
+
+    private String rsql;
+
+    @Setup
+    public void setUp() {
+        rsql = switch (query) {
+            case "typical" -> "counterparty==MegaFund;status==LIVE";
+            case "long" -> "(counterparty==MegaFund,counterparty==BigBank);book==RATES-BOOK-1;trader==simon"
+                    + ";status=in=(NEW,AMENDED,LIVE);date>=2025-01-01;date<=2025-12-31;utiCode!=UTI-001";
+            case "noAliases" -> "counterparty.name==MegaFund;tradeStatus.tradeStatus==LIVE;tradeDate>=2025-01-01";
+            default -> throw new IllegalArgumentException(query);
+        };
+    }
+
+    @Benchmark
+    public String applyAliases() {
+        return RsqlAliasConfig.applyAliases(rsql);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RsqlAliasBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
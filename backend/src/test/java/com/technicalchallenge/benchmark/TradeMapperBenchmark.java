@@ -0,0 +1,53 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.Trade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradeMapper.toDto over the sample swap loaded with its legs and cashflows: a short trade (4 quarterly
+ * cashflows per leg), a 30-year quarterly swap (120) and a 30-year monthly one (360), which is what
+ * GET /api/trades/{id} and the list endpoints map per trade.
+ *
+ * Not part of the surefire run; run it with BenchmarkSuite, or on its own like CashflowEngineBenchmark:
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.technicalchallenge.benchmark.TradeMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeMapperBenchmark {
+
+    @Param({"4", "120", "360"})
+    public int cashflowsPerLeg;
+
+    private final TradeMapper mapper = new TradeMapper(new SimpleMeterRegistry());
+    private Trade trade;
+
+    @Setup
+    public void setUp() {
+        trade = BenchmarkFixtures.sampleTrade(cashflowsPerLeg);
+    }
+
+    @Benchmark
+    public TradeDTO toDto() {
+        return mapper.toDto(trade);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TradeMapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
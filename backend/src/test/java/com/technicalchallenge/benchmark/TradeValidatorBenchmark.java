@@ -0,0 +1,78 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.support.SampleTrades;
+import com.technicalchallenge.validation.TradeValidator;
+import com.technicalchallenge.validation.ValidationResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each TradeValidator stage over the sample swap, and the four in the order createTrade runs them.
+ * Reference data comes from a warmed ReferenceDataCache, as in a running application, so the
+ * active-reference-data stage measures in-memory lookups only.
+ *
+ * Not part of the surefire run; run it with BenchmarkSuite, or on its own like CashflowEngineBenchmark:
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.technicalchallenge.benchmark.TradeValidatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeValidatorBenchmark {
+
+    private final TradeValidator validator = new TradeValidator();
+    private TradeDTO trade;
+
+    @Setup
+    public void setUp() {
+        ReflectionTestUtils.setField(validator, "referenceDataCache", BenchmarkFixtures.referenceDataCache());
+        trade = SampleTrades.tradeDto(5);
+        if (!allStages()) {
+            throw new IllegalStateException("Sample trade does not pass validation");
+        }
+    }
+
+    @Benchmark
+    public ValidationResult businessRules() {
+        return validator.validateTradeBusinessRules(trade);
+    }
+
+    @Benchmark
+    public ValidationResult legConsistency() {
+        return validator.validateTradeLegConsistency(trade);
+    }
+
+    @Benchmark
+    public ValidationResult referenceDataActive() {
+        return validator.confirmReferenceDataIsActive(trade);
+    }
+
+    @Benchmark
+    public ValidationResult referenceDataPopulated() {
+        return validator.validateTradeDTOReferenceData(trade);
+    }
+
+    @Benchmark
+    public boolean allStages() {
+        return validator.validateTradeBusinessRules(trade).isValid()
+                && validator.validateTradeLegConsistency(trade).isValid()
+                && validator.confirmReferenceDataIsActive(trade).isValid()
+                && validator.validateTradeDTOReferenceData(trade).isValid();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TradeValidatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -4,10 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.technicalchallenge.dto.CashflowDTO;
 import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.dto.CashflowRegenerationStatus;
 import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.PayRec;
 import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.service.CashflowRegenerationService;
 import com.technicalchallenge.service.CashflowService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,6 +47,9 @@ public class CashflowControllerTest {
     @MockBean
     private CashflowMapper cashflowMapper;
 
+    @MockBean
+    private CashflowRegenerationService cashflowRegenerationService;
+
     private ObjectMapper objectMapper;
     private CashflowDTO cashflowDTO;
     private Cashflow cashflow;
@@ -211,17 +216,34 @@ public class CashflowControllerTest {
         legDTO.setCalculationPeriodSchedule("3M");
 
         request.setLegs(Arrays.asList(legDTO));
+        when(cashflowService.generatePreview(any(CashflowGenerationRequest.class))).thenReturn(List.of(cashflowDTO));
 
-        List<CashflowDTO> generatedCashflows = Arrays.asList(cashflowDTO);
+        // When/Then
+        mockMvc.perform(post("/api/cashflows/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].paymentValue", is(25000.0)));
+    }
 
-        // Mock the controller's behavior for generating cashflows
-        // This is a simplification since the actual implementation is in the controller
+    @Test
+    void testGenerateCashflowsWithUnknownHolidayCalendar() throws Exception {
+        // Given
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.now());
+        request.setTradeMaturityDate(LocalDate.now().plusYears(2));
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setHolidayCalendar("XXX");
+        request.setLegs(List.of(legDTO));
+        when(cashflowService.generatePreview(any(CashflowGenerationRequest.class)))
+                .thenThrow(new IllegalArgumentException("Unknown holiday calendar: XXX"));
 
         // When/Then
         mockMvc.perform(post("/api/cashflows/generate")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk());
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -237,5 +259,29 @@ public class CashflowControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
+
+        verify(cashflowService, never()).generatePreview(any(CashflowGenerationRequest.class));
+    }
+
+    @Test
+    void testRegenerateCashflows() throws Exception {
+        when(cashflowRegenerationService.start("LON", null, List.of())).thenReturn(new CashflowRegenerationStatus(
+                "RUNNING", "LON", null, List.of(), 3, 0, 0, 0, null, null, 0, List.of()));
+
+        mockMvc.perform(post("/api/cashflows/regenerate").param("holidayCalendar", "LON"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state", is("RUNNING")))
+                .andExpect(jsonPath("$.partitionsTotal", is(3)));
+    }
+
+    @Test
+    void testRegenerateCashflowsWhileRunning() throws Exception {
+        when(cashflowRegenerationService.start(null, null, List.of())).thenThrow(new IllegalStateException("already running"));
+        when(cashflowRegenerationService.getStatus()).thenReturn(new CashflowRegenerationStatus(
+                "RUNNING", null, null, List.of(), 10, 4, 4000, 80000, null, null, 0, List.of()));
+
+        mockMvc.perform(post("/api/cashflows/regenerate"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.partitionsDone", is(4)));
     }
 }
@@ -2,28 +2,52 @@ package com.technicalchallenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.CursorPageDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
 import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeVersionDiff;
+import com.technicalchallenge.exception.TradeConcurrencyException;
+import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.CashflowProjectionService;
+import com.technicalchallenge.service.TradeExportWriter;
+import com.technicalchallenge.service.TradeHistoryService;
 import com.technicalchallenge.service.TradeService;
+import com.technicalchallenge.service.TradeStreamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +65,18 @@ public class TradeControllerTest {
     @MockBean
     private TradeMapper tradeMapper;
 
+    @MockBean
+    private CashflowProjectionService cashflowProjectionService;
+
+    @MockBean
+    private CashflowMapper cashflowMapper;
+
+    @MockBean
+    private TradeStreamService tradeStreamService;
+
+    @MockBean
+    private TradeHistoryService tradeHistoryService;
+
     private ObjectMapper objectMapper;
     private TradeDTO tradeDTO;
     private Trade trade;
@@ -197,6 +233,21 @@ public class TradeControllerTest {
         verify(tradeService).amendTrade(eq(tradeId), any(TradeDTO.class)); // verify amendTrade rather that saveTrade
     }
 
+    @Test
+    void testUpdateTradeConflict() throws Exception {
+        // Given
+        Long tradeId = 1001L;
+        tradeDTO.setTradeId(tradeId);
+        when(tradeService.amendTrade(eq(tradeId), any(TradeDTO.class)))
+                .thenThrow(new TradeConcurrencyException("Trade 1001 is being changed by another request; try again"));
+
+        // When/Then
+        mockMvc.perform(put("/api/trades/{id}", tradeId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testUpdateTradeIdMismatch() throws Exception {
         // Given
@@ -241,4 +292,228 @@ public class TradeControllerTest {
 
         verify(tradeService, never()).createTrade(any(TradeDTO.class));
     }
+
+    @Test
+    void testCreateTradesBatch() throws Exception {
+        // Given
+        TradeBatchResultDTO batchResult = new TradeBatchResultDTO();
+        batchResult.setTotalRequested(2);
+        batchResult.addSuccess(0, 1001L, 1L);
+        batchResult.addFailure(1, 1002L, "Book must exist in the system");
+        when(tradeService.createTrades(anyList())).thenReturn(batchResult);
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(tradeDTO, tradeDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[1].message", is("Book must exist in the system")));
+
+        verify(tradeService).createTrades(anyList());
+    }
+
+    @Test
+    void testCreateTradesBatchEmpty() throws Exception {
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(tradeService, never()).createTrades(anyList());
+    }
+
+    @Test
+    void testFilterTradesByCursor() throws Exception {
+        // Given
+        CursorPageDTO<Trade> page = new CursorPageDTO<>(List.of(trade), 1, true, "next-token", null);
+        when(tradeService.filterTrades(isNull(), eq("TestBook"), isNull(), isNull(), isNull(), isNull(), eq("abc"), eq(1), eq(false)))
+                .thenReturn(page);
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/filter/search/cursor")
+                        .param("bookName", "TestBook")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].tradeId", is(1001)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next-token")));
+    }
+
+    @Test
+    void testSearchByRsqlCursorInvalidCursor() throws Exception {
+        // Given
+        when(tradeService.searchByRsql(eq("book==TestBook"), eq("garbage"), eq(20), eq(false)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: garbage"));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/rsql/cursor")
+                        .param("query", "book==TestBook")
+                        .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetTradeBlotter() throws Exception {
+        // Given
+        TradeBlotterRow row = new TradeBlotterRow(1L, 1001L, 1, LocalDate.of(2025, 1, 2), null, null,
+                "TestBook", "TestCounterparty", "Test Trader", "Swap", "LIVE", true,
+                BigDecimal.valueOf(1000000), 0.05, "USD", BigDecimal.valueOf(1000000), null, "USD", 2);
+        when(tradeService.getTradeBlotter(true)).thenReturn(List.of(row));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/blotter").param("activeOnly", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].tradeId", is(1001)))
+                .andExpect(jsonPath("$[0].leg1Currency", is("USD")))
+                .andExpect(jsonPath("$[0].legCount", is(2)));
+
+        verify(tradeService).getTradeBlotter(true);
+        verify(tradeMapper, never()).toDto(any(Trade.class));
+    }
+
+    @Test
+    void testExportTradesStreamsCsv() throws Exception {
+        // Given
+        when(tradeService.buildExportSpecification(isNull(), eq("TestBook"), isNull(), isNull(), isNull(), isNull(), isNull(), eq(true)))
+                .thenReturn(Specification.where(null));
+        when(tradeService.exportTrades(any(), eq(TradeExportWriter.Format.CSV), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,tradeId\n1,1001\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/trades/export").param("bookName", "TestBook").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"trades.csv\""))
+                .andExpect(content().string("id,tradeId\n1,1001\n"));
+    }
+
+    @Test
+    void testExportTradesOutlivesDefaultAsyncTimeout() throws Exception {
+        // Given
+        when(tradeService.buildExportSpecification(any(), any(), any(), any(), any(), any(), any(), anyBoolean()))
+                .thenReturn(Specification.where(null));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/trades/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then - spring.mvc.async.request-timeout, not the container's 30 seconds
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void testExportTradesRejectsUnknownFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/trades/export").param("format", "xlsx"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("xlsx")));
+
+        verify(tradeService, never()).exportTrades(any(), any(), any());
+    }
+
+    @Test
+    void testGetTradeCashflows() throws Exception {
+        // Given
+        Cashflow cashflow = new Cashflow();
+        CashflowDTO cashflowDTO = new CashflowDTO();
+        cashflowDTO.setLegId(7L);
+        cashflowDTO.setValueDate(LocalDate.of(2030, 3, 15));
+        cashflowDTO.setPaymentValue(new BigDecimal("12500.00"));
+        when(cashflowProjectionService.getTradeCashflows(1001L, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 12, 31)))
+                .thenReturn(Optional.of(List.of(cashflow)));
+        when(cashflowMapper.toDto(cashflow)).thenReturn(cashflowDTO);
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/1001/cashflows").param("from", "2030-01-01").param("to", "2030-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].legId", is(7)))
+                .andExpect(jsonPath("$[0].valueDate", is("2030-03-15")));
+    }
+
+    @Test
+    void testGetTradeCashflowsNotFound() throws Exception {
+        when(cashflowProjectionService.getTradeCashflows(eq(9999L), isNull(), isNull())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/trades/9999/cashflows"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetTradeCashflowsRejectsInvertedRange() throws Exception {
+        when(cashflowProjectionService.getTradeCashflows(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("from must not be after to"));
+
+        mockMvc.perform(get("/api/trades/1001/cashflows").param("from", "2031-01-01").param("to", "2030-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("from must not be after to")));
+    }
+
+    @Test
+    void testStreamTradesOpensEventStreamWithFilter() throws Exception {
+        when(tradeStreamService.subscribe(null, "RATES-BOOK-1", null, "NEW", null, null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/trades/stream").param("bookName", "RATES-BOOK-1").param("tradeStatus", "NEW")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(tradeStreamService).subscribe(null, "RATES-BOOK-1", null, "NEW", null, null);
+    }
+
+    @Test
+    void testStreamTradesRejectedWhenFull() throws Exception {
+        when(tradeStreamService.subscribe(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("Too many trade stream subscribers (500)"));
+
+        mockMvc.perform(get("/api/trades/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"));
+    }
+
+    @Test
+    void testTradeHistoryNotFound() throws Exception {
+        when(tradeHistoryService.getHistory(999L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/trades/999/history"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testDiffTradeVersions() throws Exception {
+        when(tradeHistoryService.diff(100001L, 1, null)).thenReturn(Optional.of(new TradeVersionDiff(100001L, 1, 2,
+                List.of(new TradeVersionDiff.FieldChange("leg1.notional", "1000000", "2000000")))));
+
+        mockMvc.perform(get("/api/trades/100001/diff").param("from", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toVersion", is(2)))
+                .andExpect(jsonPath("$.changes[0].field", is("leg1.notional")))
+                .andExpect(jsonPath("$.changes[0].to", is("2000000")));
+    }
+
+    @Test
+    void testTradesAsOfRejectsInvalidCursor() throws Exception {
+        LocalDateTime asOf = LocalDateTime.of(2025, 1, 10, 9, 0);
+        when(tradeHistoryService.getAsOf(asOf, null, null, "abc", 100))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: abc"));
+
+        mockMvc.perform(get("/api/trades/asof").param("timestamp", "2025-01-10T09:00:00").param("cursor", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor: abc"));
+    }
 }
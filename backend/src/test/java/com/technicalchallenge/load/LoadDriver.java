@@ -0,0 +1,143 @@
+package com.technicalchallenge.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load: each client is a virtual thread that sends its next request as soon as the previous
+ * response arrives. Requests during the warm-up are sent but not recorded. Latencies are kept per request
+ * label, so one run can mix endpoints and still report each one.
+ */
+final class LoadDriver {
+
+    record Request(String label, HttpRequest request) {
+    }
+
+    record Stats(String label, long requests, long errors, double perSecond, long p50Micros, long p95Micros,
+                 long p99Micros, long maxMicros) {
+
+        @Override
+        public String toString() {
+            return String.format("%-18s %8d req %6d err %9.1f req/s  p50 %7.1f ms  p95 %7.1f ms  p99 %7.1f ms  max %7.1f ms",
+                    label, requests, errors, perSecond, p50Micros / 1000.0, p95Micros / 1000.0,
+                    p99Micros / 1000.0, maxMicros / 1000.0);
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    /**
+     * Runs clients concurrent loops for warmUp + measure, each request picked by next (given a per-client
+     * random). A response with status 400 or above, or a failed exchange, counts as an error.
+     */
+    Map<String, Stats> run(int clients, Duration warmUp, Duration measure,
+                           Function<ThreadLocalRandom, Request> next) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Samples>>> loops = new ArrayList<>(clients);
+        long[] window = new long[2];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                loops.add(executor.submit(() -> {
+                    start.await();
+                    return loop(window[0], window[1], next);
+                }));
+            }
+            window[0] = System.nanoTime() + warmUp.toNanos();
+            window[1] = window[0] + measure.toNanos();
+            start.countDown();
+
+            Map<String, Samples> merged = new TreeMap<>();
+            for (Future<Map<String, Samples>> loop : loops) {
+                loop.get().forEach((label, samples) -> merged.computeIfAbsent(label, l -> new Samples()).addAll(samples));
+            }
+            Map<String, Stats> stats = new TreeMap<>();
+            double seconds = measure.toNanos() / 1e9;
+            merged.forEach((label, samples) -> stats.put(label, samples.stats(label, seconds)));
+            return stats;
+        }
+    }
+
+    private Map<String, Samples> loop(long recordFrom, long recordUntil,
+                                      Function<ThreadLocalRandom, Request> next) {
+        Map<String, Samples> samples = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Request request = next.apply(random);
+            long sent = System.nanoTime();
+            if (sent >= recordUntil) {
+                return samples;
+            }
+            boolean failed;
+            try {
+                failed = client.send(request.request(), HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return samples;
+            } catch (Exception e) {
+                failed = true;
+            }
+            if (sent >= recordFrom) {
+                samples.computeIfAbsent(request.label(), l -> new Samples())
+                        .add((System.nanoTime() - sent) / 1000, failed);
+            }
+        }
+    }
+
+    // Growable array of latencies in microseconds plus an error count
+    private static final class Samples {
+        private long[] micros = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long latencyMicros, boolean failed) {
+            if (size == micros.length) {
+                micros = Arrays.copyOf(micros, size * 2);
+            }
+            micros[size++] = latencyMicros;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > micros.length) {
+                micros = Arrays.copyOf(micros, Math.max(micros.length * 2, size + other.size));
+            }
+            System.arraycopy(other.micros, 0, micros, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        Stats stats(String label, double seconds) {
+            long[] sorted = Arrays.copyOf(micros, size);
+            Arrays.sort(sorted);
+            return new Stats(label, size, errors, size / seconds, percentile(sorted, 0.50),
+                    percentile(sorted, 0.95), percentile(sorted, 0.99), size == 0 ? 0 : sorted[size - 1]);
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+        }
+    }
+}
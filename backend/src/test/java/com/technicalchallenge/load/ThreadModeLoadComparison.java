@@ -0,0 +1,81 @@
+package com.technicalchallenge.load;
+
+import com.technicalchallenge.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Blotter polling against the application started once with platform request threads and once with
+ * virtual ones (spring.threads.virtual.enabled), at 100, 500 and 2,000 concurrent clients. Each client
+ * alternates between the blotter projection and a page of /api/trades/filter, so every request blocks on
+ * the database. Prints throughput and latency percentiles per mode, client count and endpoint. Results from
+ * one run are recorded in docs/notes/enhancement-notes.md.
+ *
+ * Not part of the surefire run. Run it on a plain classpath, optionally with client counts as arguments:
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.technicalchallenge.load.ThreadModeLoadComparison 100 500 2000
+ */
+public class ThreadModeLoadComparison {
+
+    private static final Duration WARM_UP = Duration.ofSeconds(10);
+    // Discarded run at the first client count before each mode's measurements, so the JIT work is done before
+    // either mode is measured rather than counted against whichever runs first
+    private static final Duration JIT_WARM_UP = Duration.ofSeconds(60);
+    private static final Duration MEASURE = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {100, 500, 2000};
+
+        for (boolean virtual : new boolean[] {false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            try (ConfigurableApplicationContext app = start(mode, virtual)) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                LoadDriver driver = new LoadDriver();
+                Function<ThreadLocalRandom, LoadDriver.Request> next = random -> random.nextBoolean()
+                        ? new LoadDriver.Request("blotter", get(port, "/api/trades/blotter?activeOnly=true"))
+                        : new LoadDriver.Request("filter", get(port, "/api/trades/filter?page=0&size=20"));
+                driver.run(clientCounts[0], JIT_WARM_UP, Duration.ZERO, next);
+                for (int clients : clientCounts) {
+                    Map<String, LoadDriver.Stats> stats = driver.run(clients, WARM_UP, MEASURE, next);
+                    System.out.printf("%n%s threads, %d clients%n", mode, clients);
+                    stats.values().forEach(System.out::println);
+                }
+            }
+        }
+    }
+
+    // Each mode gets a fresh in-memory database seeded by data.sql; request logging is turned down so the
+    // console does not become the bottleneck. Passed as command-line arguments, since builder properties are
+    // only defaults and application.properties would override them
+    private static ConfigurableApplicationContext start(String mode, boolean virtual) {
+        return new SpringApplicationBuilder(BackendApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode
+                        + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.h2.console.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.technicalchallenge=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+    }
+
+    private static HttpRequest get(int port, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.technicalchallenge.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.service.PositionService;
+import com.technicalchallenge.support.SampleTrades;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a mixed workload against the application on an in-memory H2 database seeded with load.trades
+ * trades (default 10,000, with 60 quarterly cashflows per leg: 1.2M cashflows) and checks the SLAs from
+ * the functionality guide at the 95th percentile, with load.clients concurrent users (default 100):
+ * create and amend under 2 s, search and RSQL under 1 s, cashflow generation under 5 s, and fewer than
+ * 1% failed requests per endpoint. Percentiles per endpoint are printed and written to
+ * target/load-test/report.json.
+ *
+ * Not part of the surefire run: mvn -Pload-test verify (sizes can be overridden, e.g. -Dload.clients=200)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.h2.console.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.technicalchallenge=WARN",
+        "logging.level.org.hibernate.SQL=WARN"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TradeLoadIT {
+
+    private static final int TRADES = Integer.getInteger("load.trades", 10_000);
+    private static final int CASHFLOWS_PER_LEG = Integer.getInteger("load.cashflows-per-leg", 60);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 100);
+    private static final Duration WARM_UP = Duration.ofSeconds(Integer.getInteger("load.warm-up-seconds", 15));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("load.measure-seconds", 60));
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final Path REPORT = Path.of("target", "load-test", "report.json");
+
+    // 95th percentile limit per endpoint, in milliseconds
+    private static final Map<String, Long> SLA_P95_MILLIS = new LinkedHashMap<>();
+
+    static {
+        SLA_P95_MILLIS.put("create", 2_000L);
+        SLA_P95_MILLIS.put("amend", 2_000L);
+        SLA_P95_MILLIS.put("search", 1_000L);
+        SLA_P95_MILLIS.put("rsql", 1_000L);
+        SLA_P95_MILLIS.put("cashflow-preview", 5_000L);
+    }
+
+    private static final List<String> RSQL_QUERIES = List.of(
+            "counterparty==MegaFund;status==NEW",
+            "book==RATES-BOOK-1;date>=" + LocalDate.now().minusDays(7),
+            "(counterparty==BigBank,counterparty==MegaFund);trader==simon");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PositionService positionService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private String createBody;
+    private ObjectNode amendBody;
+    private String generateBody;
+
+    @BeforeAll
+    void seed() throws Exception {
+        long started = System.nanoTime();
+        long cashflows = new TradeLoadSeeder(jdbcTemplate).seed(TRADES, CASHFLOWS_PER_LEG);
+        // Positions were built at startup, before the seeded trades existed
+        positionService.rebuild();
+        System.out.printf("Seeded %d trades and %d cashflows in %d ms%n", TRADES, cashflows,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+
+        // Booked by a trader for themselves, the only combination the privilege check lets create trades
+        TradeDTO trade = SampleTrades.tradeDto(10);
+        trade.setTradeId(null);
+        trade.setInputterUserName("simon");
+        trade.setTraderUserName("simon");
+        createBody = objectMapper.writeValueAsString(trade);
+        amendBody = objectMapper.valueToTree(trade);
+        generateBody = objectMapper.writeValueAsString(SampleTrades.generationRequest(10));
+    }
+
+    @Test
+    void mixedTrafficMeetsSlas() throws Exception {
+        Map<String, LoadDriver.Stats> stats = new LoadDriver().run(CLIENTS, WARM_UP, MEASURE, this::next);
+
+        System.out.printf("%n%d clients, %d trades, %d s%n", CLIENTS, TRADES, MEASURE.toSeconds());
+        stats.values().forEach(System.out::println);
+        Files.createDirectories(REPORT.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), stats.values());
+
+        List<Executable> checks = new ArrayList<>();
+        SLA_P95_MILLIS.forEach((endpoint, limit) -> checks.add(() -> {
+            LoadDriver.Stats endpointStats = stats.get(endpoint);
+            assertTrue(endpointStats != null && endpointStats.requests() > 0, endpoint + ": no requests completed");
+            assertTrue(endpointStats.p95Micros() <= limit * 1000,
+                    String.format("%s: p95 %.1f ms exceeds the %d ms SLA", endpoint, endpointStats.p95Micros() / 1000.0, limit));
+            assertTrue(endpointStats.errors() <= endpointStats.requests() * MAX_ERROR_RATE,
+                    String.format("%s: %d of %d requests failed", endpoint, endpointStats.errors(), endpointStats.requests()));
+        }));
+        assertAll(checks);
+    }
+
+    // 10% create, 10% amend, 35% search, 25% RSQL, 20% cashflow preview
+    private LoadDriver.Request next(ThreadLocalRandom random) {
+        int pick = random.nextInt(100);
+        if (pick < 10) {
+            return new LoadDriver.Request("create", post("/api/trades", createBody));
+        }
+        if (pick < 20) {
+            long tradeId = TradeLoadSeeder.FIRST_TRADE_ID + random.nextInt(TRADES);
+            ObjectNode body = amendBody.deepCopy();
+            body.put("tradeId", tradeId);
+            return new LoadDriver.Request("amend", HttpRequest.newBuilder(uri("/api/trades/" + tradeId))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .PUT(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build());
+        }
+        if (pick < 55) {
+            String counterparty = random.nextBoolean() ? "MegaFund" : "BigBank";
+            return new LoadDriver.Request("search", get("/api/trades/filter/search?counterpartyName=" + counterparty
+                    + "&tradeStatus=NEW&page=" + random.nextInt(5) + "&size=20"));
+        }
+        if (pick < 80) {
+            String query = RSQL_QUERIES.get(random.nextInt(RSQL_QUERIES.size()));
+            return new LoadDriver.Request("rsql", get("/api/trades/rsql?size=20&query="
+                    + URLEncoder.encode(query, StandardCharsets.UTF_8)));
+        }
+        return new LoadDriver.Request("cashflow-preview", post("/api/cashflows/generate", generateBody));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
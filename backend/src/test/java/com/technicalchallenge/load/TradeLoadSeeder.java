@@ -0,0 +1,103 @@
+package com.technicalchallenge.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds live trades straight into the trade, trade_leg and cashflow tables with JDBC batches, so a load
+ * test starts from tens of thousands of trades and millions of cashflows in seconds instead of booking
+ * them one by one. Each trade is a quarterly fixed/floating USD swap on the data.sql reference rows,
+ * spread over both books and counterparties. Ids start far above the entity sequences, and business
+ * trade ids above data.sql's, so trades booked afterwards never collide with seeded ones.
+ */
+final class TradeLoadSeeder {
+
+    static final long FIRST_TRADE_ID = 1_000_000L;
+    private static final long FIRST_ROW_ID = 100_000_000L;
+    private static final int BATCH_SIZE = 5_000;
+
+    private static final String INSERT_TRADE = "INSERT INTO trade (id, trade_id, version, row_version, book_id, counterparty_id,"
+            + " trader_user_id, inputter_user_id, trade_type_id, trade_sub_type_id, trade_status_id, trade_date, trade_start_date,"
+            + " trade_maturity_date, trade_execution_date, uti_code, last_touch_timestamp, validity_start_date, active, created_date)"
+            + " VALUES (?, ?, 1, 0, ?, ?, 1003, 1003, 1001, 1003, 1000, ?, ?, ?, ?, ?, ?, ?, true, ?)";
+    private static final String INSERT_LEG = "INSERT INTO trade_leg (leg_id, notional, rate, trade_id, currency_id, leg_rate_type_id,"
+            + " index_id, holiday_calendar_id, calculation_period_schedule_id, payment_business_day_convention_id,"
+            + " fixing_business_day_convention_id, pay_rec_id, active, created_date)"
+            + " VALUES (?, ?, ?, ?, 1000, ?, ?, 1000, 1001, 1000, 1000, ?, true, ?)";
+    private static final String INSERT_CASHFLOW = "INSERT INTO cashflow (id, payment_value, value_date, rate, leg_id, pay_rec_id,"
+            + " payment_type_id, payment_business_day_convention_id, active, created_date, validity_start_date)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, 1000, true, ?, ?)";
+
+    private static final BigDecimal NOTIONAL = new BigDecimal("10000000.00");
+    private static final double FIXED_RATE = 0.0425;
+    private static final BigDecimal FIXED_AMOUNT = new BigDecimal("106250.00");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    TradeLoadSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts that many trades (business ids FIRST_TRADE_ID onwards) with two legs of cashflowsPerLeg quarterly
+     * cashflows each, traded over the last 30 days. Returns the number of cashflows inserted.
+     */
+    long seed(int trades, int cashflowsPerLeg) {
+        LocalDate today = LocalDate.now();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> tradeRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> legRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> cashflowRows = new ArrayList<>(BATCH_SIZE);
+        long cashflowId = FIRST_ROW_ID;
+        long cashflows = 0;
+
+        for (int i = 0; i < trades; i++) {
+            long id = FIRST_ROW_ID + i;
+            LocalDate tradeDate = today.minusDays(i % 30);
+            LocalDate startDate = tradeDate.plusDays(2);
+            tradeRows.add(new Object[] {id, FIRST_TRADE_ID + i, 1000 + i % 2, 1000 + i % 2,
+                    Date.valueOf(tradeDate), Date.valueOf(startDate), Date.valueOf(startDate.plusMonths(3L * cashflowsPerLeg)),
+                    Date.valueOf(tradeDate), "UTI-LOAD-" + i, now, Date.valueOf(tradeDate), now});
+
+            for (int leg = 0; leg < 2; leg++) {
+                boolean fixed = leg == 0;
+                long legId = FIRST_ROW_ID + 2L * i + leg;
+                long payRec = fixed ? 1000 : 1001;
+                legRows.add(new Object[] {legId, NOTIONAL, fixed ? FIXED_RATE : 0.0, id, fixed ? 1000 : 1001,
+                        fixed ? null : 1000, payRec, now});
+                for (int period = 1; period <= cashflowsPerLeg; period++) {
+                    cashflowRows.add(new Object[] {cashflowId++, fixed ? FIXED_AMOUNT : BigDecimal.ZERO,
+                            Date.valueOf(startDate.plusMonths(3L * period)), fixed ? FIXED_RATE : 0.0, legId, payRec,
+                            fixed ? 1000 : 1001, now, Date.valueOf(tradeDate)});
+                    cashflows++;
+                    if (cashflowRows.size() >= BATCH_SIZE) {
+                        flush(tradeRows, legRows, cashflowRows);
+                    }
+                }
+            }
+        }
+        flush(tradeRows, legRows, cashflowRows);
+        return cashflows;
+    }
+
+    // Parents before children, so the foreign keys hold after every batch
+    private void flush(List<Object[]> tradeRows, List<Object[]> legRows, List<Object[]> cashflowRows) {
+        flush(INSERT_TRADE, tradeRows);
+        flush(INSERT_LEG, legRows);
+        flush(INSERT_CASHFLOW, cashflowRows);
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
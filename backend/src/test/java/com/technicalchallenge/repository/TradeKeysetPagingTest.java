@@ -0,0 +1,64 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Walks the keyset ordering page by page through the repository, including trades without a trade date
+@DataJpaTest
+class TradeKeysetPagingTest {
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate[] tradeDates = {
+                LocalDate.of(2025, 3, 1), null, LocalDate.of(2025, 3, 2), null,
+                LocalDate.of(2025, 3, 1), null, LocalDate.of(2025, 2, 28)};
+        for (int i = 0; i < tradeDates.length; i++) {
+            Trade trade = new Trade();
+            trade.setTradeId(300000L + i);
+            trade.setVersion(1);
+            trade.setActive(true);
+            trade.setTradeDate(tradeDates[i]);
+            tradeRepository.save(trade);
+        }
+        tradeRepository.flush();
+    }
+
+    @Test
+    void testPagesCoverUndatedTradesBeforeDatedOnes() {
+        Specification<Trade> seeded = (root, query, cb) -> cb.between(root.get("tradeId"), 300000L, 300006L);
+
+        List<Long> walked = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            Specification<Trade> spec = cursor == null ? seeded : seeded.and(TradeCursor.decode(cursor).after());
+            List<Trade> page = tradeRepository.findAll(spec, TradeCursor.ORDER, 2);
+            page.forEach(trade -> walked.add(trade.getTradeId()));
+            // Each cursor is encoded from the last row, as the service does, so undated rows must round-trip
+            cursor = page.size() < 2 ? null : TradeCursor.of(page.get(page.size() - 1)).encode();
+            if (cursor != null) {
+                cursors.add(cursor);
+            }
+        } while (cursor != null);
+
+        // Undated trades first, then tradeDate desc; id desc within a date. The default H2 null ordering
+        // would put the undated trades last, so this also checks the explicit NULLS FIRST reaches the SQL
+        assertEquals(List.of(300005L, 300003L, 300001L, 300002L, 300004L, 300000L, 300006L), walked);
+        assertNull(TradeCursor.decode(cursors.get(0)).tradeDate());
+        assertEquals(LocalDate.of(2025, 3, 2), TradeCursor.decode(cursors.get(1)).tradeDate());
+    }
+}
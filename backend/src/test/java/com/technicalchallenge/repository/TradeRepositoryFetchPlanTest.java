@@ -0,0 +1,179 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Guards the trade list fetch plan: mapping a page of full TradeDTOs must cost the same number
+// of statements however many trades, legs and cashflows the page holds
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TradeRepositoryFetchPlanTest {
+
+    // Page select + count + legs + cashflows
+    private static final long STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Seeded reference data from data.sql; alternate between rows so each trade points at different entities
+        long[] users = {1000L, 1001L, 1003L, 1005L};
+        for (int i = 0; i < 24; i++) {
+            Trade trade = new Trade();
+            trade.setTradeId(200000L + i);
+            trade.setVersion(1);
+            trade.setActive(true);
+            trade.setTradeDate(LocalDate.of(2025, 1, 1).plusDays(i));
+            trade.setBook(entityManager.getReference(Book.class, 1000L + i % 2));
+            trade.setCounterparty(entityManager.getReference(Counterparty.class, 1000L + i % 2));
+            trade.setTraderUser(entityManager.getReference(ApplicationUser.class, users[i % 4]));
+            trade.setTradeInputterUser(entityManager.getReference(ApplicationUser.class, users[(i + 1) % 4]));
+            trade.setTradeType(entityManager.getReference(TradeType.class, 1000L + i % 3));
+            trade.setTradeSubType(entityManager.getReference(TradeSubType.class, 1000L + i % 4));
+            trade.setTradeStatus(entityManager.getReference(TradeStatus.class, 1000L + i % 6));
+            trade.setTradeLegs(new ArrayList<>());
+            for (int l = 0; l < 2; l++) {
+                TradeLeg leg = new TradeLeg();
+                leg.setTrade(trade);
+                leg.setNotional(BigDecimal.valueOf(1_000_000));
+                leg.setCurrency(entityManager.getReference(Currency.class, 1000L + l));
+                leg.setLegRateType(entityManager.getReference(LegType.class, 1000L + l));
+                leg.setIndex(entityManager.getReference(Index.class, 1000L + l));
+                leg.setHolidayCalendar(entityManager.getReference(HolidayCalendar.class, 1000L + l));
+                leg.setCalculationPeriodSchedule(entityManager.getReference(Schedule.class, 1000L + l));
+                leg.setPaymentBusinessDayConvention(entityManager.getReference(BusinessDayConvention.class, 1000L + l));
+                leg.setFixingBusinessDayConvention(entityManager.getReference(BusinessDayConvention.class, 1001L - l));
+                leg.setPayReceiveFlag(entityManager.getReference(PayRec.class, 1000L + l));
+                leg.setCashflows(new ArrayList<>());
+                for (int c = 0; c < 3; c++) {
+                    Cashflow cashflow = new Cashflow();
+                    cashflow.setTradeLeg(leg);
+                    cashflow.setPaymentValue(BigDecimal.TEN);
+                    cashflow.setValueDate(trade.getTradeDate().plusMonths(c + 1));
+                    cashflow.setPayRec(entityManager.getReference(PayRec.class, 1000L + c % 2));
+                    cashflow.setPaymentType(entityManager.getReference(LegType.class, 1000L + l));
+                    cashflow.setPaymentBusinessDayConvention(entityManager.getReference(BusinessDayConvention.class, 1000L + c % 2));
+                    leg.getCashflows().add(cashflow);
+                }
+                trade.getTradeLegs().add(leg);
+            }
+            entityManager.persist(trade);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private List<TradeDTO> loadAndMapPage(int page, int size) {
+        Specification<Trade> spec = (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("tradeId"), 200000L);
+        Page<Trade> trades = tradeRepository.findAll(spec, PageRequest.of(page, size, Sort.by("tradeDate").descending()));
+        tradeRepository.fetchLegsAndCashflows(trades.getContent());
+        TradeMapper mapper = new TradeMapper(new SimpleMeterRegistry());
+        return trades.getContent().stream().map(mapper::toDto).toList();
+    }
+
+    @Test
+    void testPageOfFullTradesUsesFixedStatementCount() {
+        List<TradeDTO> dtos = loadAndMapPage(0, 10);
+
+        assertEquals(10, dtos.size());
+        assertEquals(2, dtos.get(0).getTradeLegs().size());
+        assertEquals(3, dtos.get(0).getTradeLegs().get(0).getCashflows().size());
+        assertNotNull(dtos.get(0).getTraderUserName());
+        assertNotNull(dtos.get(0).getTradeLegs().get(0).getPayReceiveFlag());
+        assertEquals(STATEMENTS_PER_PAGE, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testStatementCountDoesNotGrowWithPageSize() {
+        loadAndMapPage(0, 20);
+        long twentyRows = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+
+        loadAndMapPage(1, 5);
+        assertEquals(twentyRows, statistics.getPrepareStatementCount());
+        assertEquals(STATEMENTS_PER_PAGE, twentyRows);
+    }
+
+    @Test
+    void testCursorQueryLoadsToOnesInSameSelect() {
+        List<Trade> trades = tradeRepository.findAll((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("tradeId"), 200000L),
+                Sort.by(Sort.Order.desc("tradeDate"), Sort.Order.desc("id")), 10);
+
+        assertEquals(10, trades.size());
+        trades.forEach(trade -> {
+            assertNotNull(trade.getBook().getBookName());
+            assertNotNull(trade.getCounterparty().getName());
+            assertNotNull(trade.getTraderUser().getUserProfile().getUserType());
+            assertNotNull(trade.getTradeStatus().getTradeStatus());
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testBlotterProjectionLoadsNoEntities() {
+        List<TradeBlotterRow> rows = tradeRepository.findBlotterRows(true);
+
+        // 24 trades booked above plus the two seeded by data.sql, one row each
+        assertEquals(26, rows.size());
+        TradeBlotterRow newest = rows.get(0);
+        assertEquals(200023L, newest.tradeId());
+        assertEquals("RATES-BOOK-1", newest.bookName());
+        assertEquals("USD", newest.leg1Currency());
+        assertEquals("EUR", newest.leg2Currency());
+        assertEquals(2, newest.legCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testBlotterRowCountsLegsBeyondTheTwoItShows() {
+        Trade trade = tradeRepository.findByTradeIdAndActiveTrue(200023L).orElseThrow();
+        TradeLeg third = new TradeLeg();
+        third.setTrade(trade);
+        third.setNotional(BigDecimal.valueOf(5_000));
+        third.setCurrency(entityManager.getReference(Currency.class, 1002L));
+        entityManager.persist(third);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TradeBlotterRow> rows = tradeRepository.findBlotterRows(true);
+
+        TradeBlotterRow newest = rows.get(0);
+        assertEquals(200023L, newest.tradeId());
+        assertEquals(3, newest.legCount());
+        // Still the first two legs by legId in the leg columns
+        assertEquals("USD", newest.leg1Currency());
+        assertEquals("EUR", newest.leg2Currency());
+        assertEquals(2, rows.get(1).legCount());
+    }
+}
@@ -0,0 +1,197 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeVersionDTO;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeCursor;
+import com.technicalchallenge.service.TradeSpecifications;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Query-plan guard for the trade search indexes: runs the blotter queries the service issues (its search
+// specifications against the repository), captures the SQL Hibernate sends and has H2 EXPLAIN it, so a
+// dropped index or a predicate that stops matching one fails here
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.technicalchallenge.repository.TradeSearchIndexPlanTest$CapturingInspector")
+class TradeSearchIndexPlanTest {
+
+    private static final int TRADES = 2000;
+    private static final int COUNTERPARTIES = 50;
+    private static final int BOOKS = 40;
+    private static final int TRADERS = 20;
+    private static final LocalDateTime VERSIONS_FROM = LocalDateTime.of(2020, 1, 1, 0, 0);
+    // As TradeService.filterTrades pages when the client gives no sort
+    private static final PageRequest BLOTTER_PAGE = PageRequest.of(0, 20, Sort.by("tradeDate").descending());
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    // ANALYZE commits, so the seed outlives each test's rollback and is only inserted once per context
+    private static boolean seeded;
+
+    @BeforeEach
+    void setUp() {
+        CapturingInspector.statements.clear();
+        if (seeded) {
+            return;
+        }
+        List<Object[]> counterparties = new ArrayList<>();
+        for (int i = 0; i < COUNTERPARTIES; i++) {
+            counterparties.add(new Object[]{2000 + i, "Counterparty-" + i, "Counterparty-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO counterparty (id, name, name_lower, active) VALUES (?, ?, lower(?), true)", counterparties);
+
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Object[]{2000 + i, "Book-" + i, "Book-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO book (id, book_name, book_name_lower, active, version) VALUES (?, ?, lower(?), true, 1)", books);
+
+        List<Object[]> traders = new ArrayList<>();
+        for (int i = 0; i < TRADERS; i++) {
+            traders.add(new Object[]{2000 + i, "trader" + i, "trader" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO application_user (id, login_id, login_id_lower, active, version, user_profile_id) VALUES (?, ?, lower(?), true, 1, 1000)", traders);
+
+        // Five versions per trade id, as amendments leave behind; only the last one is active. Version v
+        // was current from day v to day v + 1 after VERSIONS_FROM
+        List<Object[]> trades = new ArrayList<>();
+        for (int i = 0; i < TRADES; i++) {
+            int version = i % 5 + 1;
+            boolean active = version == 5;
+            trades.add(new Object[]{500000 + i, 300000 + i / 5 * 5, version, active, LocalDate.of(2020, 1, 1).plusDays(i),
+                    2000 + i % BOOKS, 2000 + i % COUNTERPARTIES, 2000 + i % TRADERS, 1000 + i % 6,
+                    VERSIONS_FROM.plusDays(version), active ? null : VERSIONS_FROM.plusDays(version + 1)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO trade (id, trade_id, version, active, trade_date, book_id, counterparty_id, "
+                + "trader_user_id, trade_status_id, created_date, deactivated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", trades);
+        jdbcTemplate.execute("ANALYZE");
+        seeded = true;
+    }
+
+    // EXPLAIN the first captured statement containing the fragment, binding the given parameters
+    private String plan(String fragment, Object... parameters) {
+        String sql = CapturingInspector.statements.stream()
+                .filter(statement -> statement.contains(fragment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statement containing '" + fragment + "'"));
+        return jdbcTemplate.query("EXPLAIN " + sql, rs -> rs.next() ? rs.getString(1).toLowerCase() : null, parameters);
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains("public." + index + ":"), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    @Test
+    void testCounterpartyFilterSeeksLowercaseAndForeignKeyIndexes() {
+        Page<Trade> page = tradeRepository.findAll(TradeSpecifications.filter("COUNTERPARTY-7", null, null, null, null, null), BLOTTER_PAGE);
+
+        assertEquals(TRADES / COUNTERPARTIES, page.getTotalElements());
+        String plan = plan("from trade t1_0", "counterparty-7", 0, 20);
+        assertUsesIndex(plan, "ix_counterparty_name_lower");
+        assertUsesIndex(plan, "ix_trade_counterparty");
+    }
+
+    @Test
+    void testBookAndTraderFiltersSeekLowercaseAndForeignKeyIndexes() {
+        Page<Trade> page = tradeRepository.findAll(TradeSpecifications.filter(null, "book-3", "Trader3", null, null, null), BLOTTER_PAGE);
+
+        // Book 3 and trader 3 coincide every lcm(40, 20) = 40 rows
+        assertEquals(TRADES / BOOKS, page.getTotalElements());
+        String plan = plan("from trade t1_0", "book-3", "trader3", 0, 20);
+        assertUsesIndex(plan, "ix_book_book_name_lower");
+        assertUsesIndex(plan, "ix_application_user_login_id_lower");
+        assertTrue(plan.contains("public.ix_trade_book:") || plan.contains("public.ix_trade_trader_user:"), plan);
+    }
+
+    @Test
+    void testRenamedBookIsFoundByItsNewNameInAnyCase() {
+        // The lowercase columns are plain columns the entities keep in step, so a rename through JPA must refresh them
+        Book book = bookRepository.findById(2005L).orElseThrow();
+        book.setBookName("Renamed-Book");
+        bookRepository.saveAndFlush(book);
+
+        assertEquals("renamed-book", book.getBookNameLower());
+        assertEquals(TRADES / BOOKS, tradeRepository.findAll(TradeSpecifications.filter(null, "RENAMED-book", null, null, null, null), BLOTTER_PAGE).getTotalElements());
+        assertEquals(0, tradeRepository.findAll(TradeSpecifications.filter(null, "book-5", null, null, null, null), BLOTTER_PAGE).getTotalElements());
+    }
+
+    @Test
+    void testActiveTradeDateRangeUsesCompositeIndex() {
+        LocalDate from = LocalDate.of(2021, 1, 1);
+        LocalDate to = LocalDate.of(2021, 3, 31);
+        Specification<Trade> spec = TradeSpecifications.filter(null, null, null, null, from, to).and(TradeSpecifications.active());
+
+        long rows;
+        try (Stream<TradeBlotterRow> blotter = tradeRepository.streamBlotterRows(spec, 100)) {
+            rows = blotter.count();
+        }
+
+        // 90 days in range, one active version in five
+        assertEquals(18, rows);
+        assertUsesIndex(plan("from trade t1_0", from, to), "ix_trade_active_trade_date");
+    }
+
+    @Test
+    void testLiveVersionLookupUsesTradeIdIndex() {
+        tradeRepository.findByTradeIdAndActiveTrue(300010L);
+
+        String plan = plan("from trade t1_0", 300010L);
+        assertUsesIndex(plan, "ix_trade_trade_id_active");
+        assertUsesIndex(plan, "ix_trade_leg_trade");
+    }
+
+    @Test
+    void testAsOfLookupSeeksTradeIdCreatedIndex() {
+        LocalDateTime asOf = VERSIONS_FROM.plusDays(2).plusHours(12);
+
+        List<TradeVersionDTO> versions = tradeRepository.findVersionsAsOf(asOf, null, 300010L, null, 10);
+
+        assertEquals(List.of(2), versions.stream().map(TradeVersionDTO::version).toList());
+        assertUsesIndex(plan("select t1_0.id from trade t1_0", asOf, asOf, 300010L, 10), "ix_trade_trade_id_created");
+    }
+
+    @Test
+    void testLegAndCashflowLoadsUseForeignKeyIndexes() {
+        tradeRepository.fetchLegsAndCashflows(tradeRepository.findAll(TradeSpecifications.filter(null, null, null, null, null, null), TradeCursor.ORDER, 5));
+
+        String plan = plan("from trade_leg t1_0", Collections.nCopies(5, 500000L).toArray());
+        assertUsesIndex(plan, "ix_trade_leg_trade");
+        assertUsesIndex(plan, "ix_cashflow_leg");
+    }
+}
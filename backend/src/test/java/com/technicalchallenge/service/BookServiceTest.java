@@ -22,6 +22,8 @@ public class BookServiceTest {
     private BookRepository bookRepository;
     @Mock
     private BookMapper bookMapper; // Add missing mock
+    @Mock
+    private ReferenceDataCache referenceDataCache;
     @InjectMocks
     private BookService bookService;
 
@@ -0,0 +1,105 @@
+package com.technicalchallenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static com.technicalchallenge.service.BusinessCalendar.Adjustment.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusinessCalendarTest {
+
+    // Easter and Christmas 2025 in London, Independence Day and Memorial Day 2025 in New York
+    private static final List<LocalDate> LON_HOLIDAYS = List.of(
+            LocalDate.of(2025, 4, 18), LocalDate.of(2025, 4, 21), LocalDate.of(2025, 5, 26),
+            LocalDate.of(2025, 12, 25), LocalDate.of(2025, 12, 26));
+
+    private final BusinessCalendar lon = BusinessCalendar.of("LON", LON_HOLIDAYS);
+    private final BusinessCalendar ny = BusinessCalendar.of("NY", List.of(
+            LocalDate.of(2025, 5, 26), LocalDate.of(2025, 7, 4)));
+
+    @Test
+    void testWeekendsAndHolidaysAreNotBusinessDays() {
+        assertTrue(lon.isBusinessDay(LocalDate.of(2025, 4, 17)));
+        assertFalse(lon.isBusinessDay(LocalDate.of(2025, 4, 18)));
+        assertFalse(lon.isBusinessDay(LocalDate.of(2025, 4, 19)));
+        assertFalse(lon.isBusinessDay(LocalDate.of(2025, 4, 20)));
+        assertTrue(lon.isBusinessDay(LocalDate.of(2025, 7, 4)));
+        assertFalse(ny.isBusinessDay(LocalDate.of(2025, 7, 4)));
+    }
+
+    @Test
+    void testAdjustConventions() {
+        LocalDate goodFriday = LocalDate.of(2025, 4, 18);
+        assertEquals(LocalDate.of(2025, 4, 22), lon.adjust(goodFriday, FOLLOWING));
+        assertEquals(LocalDate.of(2025, 4, 17), lon.adjust(LocalDate.of(2025, 4, 21), PRECEDING));
+        assertEquals(goodFriday, lon.adjust(goodFriday, UNADJUSTED));
+        assertEquals(LocalDate.of(2025, 4, 17), lon.adjust(LocalDate.of(2025, 4, 17), FOLLOWING));
+
+        // Following would leave the month, so modified following goes back instead
+        assertEquals(LocalDate.of(2025, 5, 30), lon.adjust(LocalDate.of(2025, 5, 31), MODIFIED_FOLLOWING));
+        assertEquals(LocalDate.of(2025, 12, 29), lon.adjust(LocalDate.of(2025, 12, 25), MODIFIED_FOLLOWING));
+        assertEquals(LocalDate.of(2025, 3, 3), lon.adjust(LocalDate.of(2025, 3, 1), MODIFIED_PRECEDING));
+    }
+
+    @Test
+    void testAdjustmentNames() {
+        assertEquals(MODIFIED_FOLLOWING, BusinessCalendar.Adjustment.fromName("Modified Following"));
+        assertEquals(FOLLOWING, BusinessCalendar.Adjustment.fromName("following"));
+        assertEquals(UNADJUSTED, BusinessCalendar.Adjustment.fromName(null));
+        assertThrows(IllegalArgumentException.class, () -> BusinessCalendar.Adjustment.fromName("End of Month"));
+    }
+
+    @Test
+    void testAddBusinessDaysSkipsHolidays() {
+        assertEquals(LocalDate.of(2025, 4, 22), lon.addBusinessDays(LocalDate.of(2025, 4, 17), 1));
+        assertEquals(LocalDate.of(2025, 4, 17), lon.addBusinessDays(LocalDate.of(2025, 4, 22), -1));
+        // From a non-business day, +1 is the next business day and -1 the previous one
+        assertEquals(LocalDate.of(2025, 4, 22), lon.addBusinessDays(LocalDate.of(2025, 4, 19), 1));
+        assertEquals(LocalDate.of(2025, 4, 17), lon.addBusinessDays(LocalDate.of(2025, 4, 19), -1));
+        assertEquals(LocalDate.of(2025, 4, 19), lon.addBusinessDays(LocalDate.of(2025, 4, 19), 0));
+    }
+
+    @Test
+    void testAddBusinessDaysMatchesDayByDayWalk() {
+        Random random = new Random(42);
+        for (int n = 0; n < 2000; n++) {
+            LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(3650));
+            int days = random.nextInt(1001) - 500;
+            assertEquals(walk(date, days), lon.addBusinessDays(date, days), date + " + " + days);
+        }
+    }
+
+    @Test
+    void testJointCalendarNeedsBusinessDayInEveryMember() {
+        BusinessCalendar joint = BusinessCalendar.joint("LON+NY", lon, ny);
+
+        assertFalse(joint.isBusinessDay(LocalDate.of(2025, 7, 4)));
+        assertFalse(joint.isBusinessDay(LocalDate.of(2025, 4, 18)));
+        assertEquals(LocalDate.of(2025, 7, 7), joint.adjust(LocalDate.of(2025, 7, 4), FOLLOWING));
+        assertEquals(LocalDate.of(2025, 7, 8), joint.addBusinessDays(LocalDate.of(2025, 7, 3), 2));
+    }
+
+    @Test
+    void testDatesOutsideRangeAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> lon.isBusinessDay(LocalDate.of(1949, 12, 31)));
+        assertThrows(IllegalArgumentException.class, () -> lon.adjust(LocalDate.of(2150, 1, 1), FOLLOWING));
+    }
+
+    // Reference implementation: step one calendar day at a time
+    private static LocalDate walk(LocalDate date, int days) {
+        int step = Integer.signum(days);
+        for (int remaining = Math.abs(days); remaining > 0; ) {
+            date = date.plusDays(step);
+            DayOfWeek dow = date.getDayOfWeek();
+            boolean weekend = dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY;
+            if (!weekend && !LON_HOLIDAYS.contains(date)) {
+                remaining--;
+            }
+        }
+        return date;
+    }
+}
@@ -0,0 +1,171 @@
+package com.technicalchallenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashflowEngineTest {
+
+    private static final BigDecimal MILLION = new BigDecimal("1000000");
+
+    private final CashflowEngine engine = new CashflowEngine();
+
+    @Test
+    void testParseSchedule() {
+        assertEquals(1, engine.parseSchedule("Monthly"));
+        assertEquals(3, engine.parseSchedule("Quarterly"));
+        assertEquals(6, engine.parseSchedule("semi-annually"));
+        assertEquals(12, engine.parseSchedule("Annually"));
+        assertEquals(6, engine.parseSchedule("6M"));
+        assertEquals(3, engine.parseSchedule(null));
+        assertThrows(IllegalArgumentException.class, () -> engine.parseSchedule("0M"));
+        assertThrows(IllegalArgumentException.class, () -> engine.parseSchedule("Weekly"));
+    }
+
+    @Test
+    void testMonthlyFixedLegUsesMonthsOverTwelve() {
+        // Functionality guide example: 1Y monthly from 2025-01-17 gives 12 cashflows, $1M x 5% / 12 each, in cents
+        CashflowSchedule schedule = engine.generate(LocalDate.of(2025, 1, 17), LocalDate.of(2026, 1, 17), 1,
+                true, MILLION, 0.05, CashflowEngine.Convention.MONTHS_OVER_12);
+
+        assertEquals(12, schedule.size());
+        assertEquals(LocalDate.of(2025, 2, 17), schedule.valueDate(0));
+        assertEquals(LocalDate.of(2026, 1, 17), schedule.valueDate(11));
+        for (int i = 0; i < schedule.size(); i++) {
+            assertEquals(1.0 / 12, schedule.accruals()[i], 1e-12);
+            assertEquals(416667, schedule.amounts()[i]);
+        }
+    }
+
+    @Test
+    void testWholePeriodsOnlyDropsStub() {
+        // 2Y3M quarterly is 9 periods; 2Y2M leaves a one-month stub that booking does not pay
+        LocalDate start = LocalDate.of(2025, 1, 17);
+        assertEquals(9, engine.generate(start, LocalDate.of(2027, 4, 17), 3, true, MILLION, 0.05,
+                CashflowEngine.Convention.MONTHS_OVER_12).size());
+        CashflowSchedule schedule = engine.generate(start, LocalDate.of(2027, 3, 17), 3, true, MILLION, 0.05,
+                CashflowEngine.Convention.MONTHS_OVER_12);
+        assertEquals(8, schedule.size());
+        assertEquals(LocalDate.of(2027, 1, 17), schedule.valueDate(7));
+        assertEquals(new BigDecimal("12500.00"), schedule.amount(7));
+    }
+
+    @Test
+    void testActual360ClipsLastPeriodToMaturity() {
+        CashflowSchedule schedule = engine.generate(LocalDate.of(2025, 1, 17), LocalDate.of(2025, 8, 1), 3,
+                true, MILLION, 0.05, CashflowEngine.Convention.ACTUAL_360);
+
+        assertEquals(3, schedule.size());
+        assertEquals(LocalDate.of(2025, 4, 17), schedule.valueDate(0));
+        assertEquals(LocalDate.of(2025, 7, 17), schedule.valueDate(1));
+        assertEquals(LocalDate.of(2025, 8, 1), schedule.valueDate(2));
+        assertEquals(90 / 360.0, schedule.accruals()[0], 1e-12);
+        assertEquals(15 / 360.0, schedule.accruals()[2], 1e-12);
+        // 2083.333... rounds half-up to the cent
+        assertEquals(208333, schedule.amounts()[2]);
+    }
+
+    @Test
+    void testEndOfMonthStartDoesNotDrift() {
+        // Rolling 31 Jan by one month at a time would stick at the 28th after February
+        CashflowSchedule schedule = engine.generate(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 5, 31), 1,
+                true, MILLION, 0.05, CashflowEngine.Convention.MONTHS_OVER_12);
+
+        assertEquals(4, schedule.size());
+        assertEquals(LocalDate.of(2024, 2, 29), schedule.valueDate(0));
+        assertEquals(LocalDate.of(2024, 3, 31), schedule.valueDate(1));
+        assertEquals(LocalDate.of(2024, 4, 30), schedule.valueDate(2));
+        assertEquals(LocalDate.of(2024, 5, 31), schedule.valueDate(3));
+    }
+
+    @Test
+    void testDatesMatchLocalDateOverThirtyYears() {
+        LocalDate start = LocalDate.of(1999, 8, 31);
+        CashflowSchedule schedule = engine.generate(start, start.plusYears(30), 1,
+                true, MILLION, 0.05, CashflowEngine.Convention.ACTUAL_360);
+
+        assertEquals(360, schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            assertEquals(start.plusMonths(i + 1), schedule.valueDate(i));
+        }
+    }
+
+    @Test
+    void testFloatingLegAndEmptySchedules() {
+        CashflowSchedule floating = engine.generate(LocalDate.of(2025, 1, 17), LocalDate.of(2026, 1, 17), 3,
+                false, MILLION, 0.05, CashflowEngine.Convention.ACTUAL_360);
+        assertEquals(4, floating.size());
+        assertEquals(0, floating.amounts()[3]);
+        assertTrue(floating.accruals()[3] > 0);
+
+        LocalDate date = LocalDate.of(2025, 1, 17);
+        assertEquals(0, engine.generate(date, date, 1, true, BigDecimal.ONE, 1, CashflowEngine.Convention.ACTUAL_360).size());
+        assertEquals(0, engine.generate(date, date.plusDays(20), 1, true, BigDecimal.ONE, 1,
+                CashflowEngine.Convention.MONTHS_OVER_12).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.generate(date, date.plusYears(1), 0, true, BigDecimal.ONE, 1, CashflowEngine.Convention.ACTUAL_360));
+    }
+
+    @Test
+    void testPaymentDatesRollOntoBusinessDays() {
+        // 2025-05-25 is a Sunday and 2025-08-25 a London bank holiday
+        BusinessCalendar lon = BusinessCalendar.of("LON", List.of(LocalDate.of(2025, 8, 25)));
+        CashflowSchedule schedule = engine.generate(LocalDate.of(2025, 2, 25), LocalDate.of(2025, 8, 31), 3,
+                true, MILLION, 2, 0.05, CashflowEngine.Convention.ACTUAL_360, lon, BusinessCalendar.Adjustment.MODIFIED_FOLLOWING);
+
+        assertEquals(3, schedule.size());
+        assertEquals(LocalDate.of(2025, 5, 26), schedule.valueDate(0));
+        assertEquals(LocalDate.of(2025, 8, 26), schedule.valueDate(1));
+        // 31 Aug is a Sunday; following would be September, so it rolls back to Friday
+        assertEquals(LocalDate.of(2025, 8, 29), schedule.valueDate(2));
+        // Accruals stay on the unadjusted dates
+        assertEquals(89 / 360.0, schedule.accruals()[0], 1e-12);
+    }
+
+    @Test
+    void testAmountsUseCurrencyScale() {
+        // 100M JPY x 1.5% quarterly: no minor units, so amounts are whole yen
+        CashflowSchedule yen = engine.generate(LocalDate.of(2025, 1, 17), LocalDate.of(2026, 1, 17), 3, true,
+                new BigDecimal("100000000"), Money.scaleOf("JPY"), 0.015, CashflowEngine.Convention.ACTUAL_360,
+                null, BusinessCalendar.Adjustment.UNADJUSTED);
+
+        // 90 days: 100,000,000 x 0.015 x 90 / 360 = 375,000 exactly
+        assertEquals(375_000, yen.amounts()[0]);
+        assertEquals(new BigDecimal("375000"), yen.amount(0));
+        assertEquals(0, yen.scale());
+    }
+
+    @Test
+    void testFloatingLegProjectsFixingsAndForwards() {
+        // Fixing for the first period, flat 4% simple act/360 forwards (per 90 days) from the curve date on
+        int curveDate = (int) LocalDate.of(2025, 4, 17).toEpochDay();
+        double df90 = 1 / (1 + 0.04 * 90 / 360);
+        ForwardCurve curve = ForwardCurve.of(LocalDate.of(2025, 4, 17),
+                new int[]{curveDate + 90, curveDate + 180, curveDate + 270, curveDate + 360},
+                new double[]{df90, df90 * df90, df90 * df90 * df90, df90 * df90 * df90 * df90});
+        IndexRates libor = new IndexRates("LIBOR", new int[]{(int) LocalDate.of(2025, 1, 15).toEpochDay()},
+                new double[]{0.05}, curve);
+
+        CashflowSchedule schedule = engine.generate(LocalDate.of(2025, 1, 17), LocalDate.of(2026, 1, 17), 3, false,
+                MILLION, 2, 0.0, CashflowEngine.Convention.MONTHS_OVER_12, null, BusinessCalendar.Adjustment.UNADJUSTED, libor);
+
+        assertEquals(4, schedule.size());
+        // 1M x 5% x 3/12 off the 15 Jan fixing
+        assertEquals(new BigDecimal("12500.00"), schedule.amount(0));
+        // 17 Jul - 17 Oct is 92 days at a constant overnight forward: a little over 4% simple, 3/12 accrual
+        double forward = curve.forwardRate((int) LocalDate.of(2025, 7, 17).toEpochDay(), (int) LocalDate.of(2025, 10, 17).toEpochDay());
+        assertEquals(0.04, forward, 1e-4);
+        assertEquals(Math.round(1_000_000 * forward * 3 / 12 * 100), schedule.amounts()[2], 1);
+
+        // No index data: floating periods stay at zero, as before
+        assertEquals(0, engine.generate(LocalDate.of(2025, 1, 17), LocalDate.of(2026, 1, 17), 3, false, MILLION, 2, 0.0,
+                CashflowEngine.Convention.MONTHS_OVER_12, null, BusinessCalendar.Adjustment.UNADJUSTED, null).amounts()[2]);
+        // Fixed legs ignore index data
+        assertEquals(new BigDecimal("12500.00"), engine.generate(LocalDate.of(2025, 1, 17), LocalDate.of(2026, 1, 17), 3, true,
+                MILLION, 2, 0.05, CashflowEngine.Convention.MONTHS_OVER_12, null, BusinessCalendar.Adjustment.UNADJUSTED, libor).amount(2));
+    }
+}
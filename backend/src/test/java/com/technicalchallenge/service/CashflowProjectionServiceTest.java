@@ -0,0 +1,213 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.LegType;
+import com.technicalchallenge.model.Schedule;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.CashflowRepository;
+import com.technicalchallenge.repository.TradeLegRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CashflowProjectionServiceTest {
+    @Mock private HolidayCalendarService holidayCalendarService;
+    @Mock private MarketDataService marketDataService;
+    @Mock private TradeRepository tradeRepository;
+    @Mock private TradeLegRepository tradeLegRepository;
+    @Mock private CashflowRepository cashflowRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private CashflowEngine cashflowEngine;
+    private SimpleMeterRegistry meterRegistry;
+    private CashflowProjectionService service;
+    private Trade trade;
+    private TradeLeg leg;
+
+    @BeforeEach
+    void setUp() {
+        cashflowEngine = spy(new CashflowEngine());
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CashflowProjectionService(cashflowEngine, holidayCalendarService, marketDataService, tradeRepository,
+                tradeLegRepository, cashflowRepository, transactionManager, meterRegistry, true, 2, 2);
+
+        // One-year quarterly fixed leg booked lazily on 2030-05-01: only the April period is stored
+        LegType fixed = new LegType();
+        fixed.setType("Fixed");
+        Schedule quarterly = new Schedule();
+        quarterly.setSchedule("Quarterly");
+        leg = new TradeLeg();
+        leg.setLegId(7L);
+        leg.setNotional(new BigDecimal("1000000"));
+        leg.setRate(0.05);
+        leg.setLegRateType(fixed);
+        leg.setCalculationPeriodSchedule(quarterly);
+        leg.setCashflowsMaterializedThrough(LocalDate.of(2030, 5, 1));
+        trade = new Trade();
+        trade.setTradeId(1001L);
+        trade.setTradeStartDate(LocalDate.of(2030, 1, 15));
+        trade.setTradeMaturityDate(LocalDate.of(2031, 1, 15));
+        trade.setTradeLegs(List.of(leg));
+        leg.setTrade(trade);
+    }
+
+    @Test
+    void testMergesStoredAndComputedCashflows() {
+        Cashflow stored = new Cashflow();
+        stored.setId(1L);
+        stored.setValueDate(LocalDate.of(2030, 4, 15));
+        when(tradeRepository.findByTradeIdAndActiveTrue(1001L)).thenReturn(Optional.of(trade));
+        when(cashflowRepository.findByTradeLegLegIdAndValueDateBetweenOrderByValueDate(7L, LocalDate.of(1900, 1, 1), LocalDate.of(2030, 5, 1)))
+                .thenReturn(List.of(stored));
+
+        List<Cashflow> cashflows = service.getTradeCashflows(1001L, null, null).orElseThrow();
+
+        assertEquals(List.of(LocalDate.of(2030, 4, 15), LocalDate.of(2030, 7, 15), LocalDate.of(2030, 10, 15), LocalDate.of(2031, 1, 15)),
+                cashflows.stream().map(Cashflow::getValueDate).toList());
+        assertSame(stored, cashflows.get(0));
+        assertNull(cashflows.get(1).getId());
+        assertSame(leg, cashflows.get(1).getTradeLeg());
+        assertEquals(new BigDecimal("12500.00"), cashflows.get(1).getPaymentValue());
+        verify(cashflowRepository, never()).save(any());
+    }
+
+    @Test
+    void testComputedRangeSkipsStoredRowsAndCachesSchedule() {
+        when(tradeRepository.findByTradeIdAndActiveTrue(1001L)).thenReturn(Optional.of(trade));
+
+        List<Cashflow> first = service.getTradeCashflows(1001L, LocalDate.of(2030, 6, 1), LocalDate.of(2030, 12, 31)).orElseThrow();
+        List<Cashflow> second = service.getTradeCashflows(1001L, LocalDate.of(2030, 8, 1), LocalDate.of(2031, 12, 31)).orElseThrow();
+
+        assertEquals(List.of(LocalDate.of(2030, 7, 15), LocalDate.of(2030, 10, 15)), first.stream().map(Cashflow::getValueDate).toList());
+        assertEquals(List.of(LocalDate.of(2030, 10, 15), LocalDate.of(2031, 1, 15)), second.stream().map(Cashflow::getValueDate).toList());
+        // Both ranges start after the stored period, so the database is not asked for rows
+        verify(cashflowRepository, never()).findByTradeLegLegIdAndValueDateBetweenOrderByValueDate(anyLong(), any(), any());
+        verify(cashflowEngine, times(1)).generate(any(TradeLeg.class), any(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("cashflow.projection.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cashflow.projection.cache.requests").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testUnknownTradeIsEmpty() {
+        when(tradeRepository.findByTradeIdAndActiveTrue(42L)).thenReturn(Optional.empty());
+
+        assertTrue(service.getTradeCashflows(42L, null, null).isEmpty());
+    }
+
+    @Test
+    void testRejectsInvertedRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getTradeCashflows(1001L, LocalDate.of(2031, 1, 1), LocalDate.of(2030, 1, 1)));
+        verifyNoInteractions(tradeRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMaterializeSettledStoresPaidPeriodsAndAdvancesLeg() {
+        LocalDate asOf = LocalDate.of(2030, 11, 1);
+        when(tradeLegRepository.findLegIdsMaterializedBefore(asOf, 0L, PageRequest.of(0, 2))).thenReturn(List.of(7L));
+        when(tradeLegRepository.findWithTradeByLegIdIn(List.of(7L))).thenReturn(List.of(leg));
+
+        int written = service.materializeSettled(asOf);
+
+        assertEquals(2, written);
+        ArgumentCaptor<List<Cashflow>> saved = ArgumentCaptor.forClass(List.class);
+        verify(cashflowRepository).saveAll(saved.capture());
+        assertEquals(List.of(LocalDate.of(2030, 7, 15), LocalDate.of(2030, 10, 15)),
+                saved.getValue().stream().map(Cashflow::getValueDate).toList());
+        assertEquals(asOf, leg.getCashflowsMaterializedThrough());
+        // A whole-book pass leaves the read cache alone
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void testMaterializeSettledPagesLegsAndLeavesLegsWithNothingPaidAlone() {
+        LocalDate asOf = LocalDate.of(2030, 11, 1);
+        TradeLeg quiet = copyOf(leg, 8L, LocalDate.of(2030, 10, 20));
+        TradeLeg last = copyOf(leg, 9L, LocalDate.of(2030, 5, 1));
+        when(tradeLegRepository.findLegIdsMaterializedBefore(asOf, 0L, PageRequest.of(0, 2))).thenReturn(List.of(7L, 8L));
+        when(tradeLegRepository.findLegIdsMaterializedBefore(asOf, 8L, PageRequest.of(0, 2))).thenReturn(List.of(9L));
+        when(tradeLegRepository.findWithTradeByLegIdIn(List.of(7L, 8L))).thenReturn(List.of(leg, quiet));
+        when(tradeLegRepository.findWithTradeByLegIdIn(List.of(9L))).thenReturn(List.of(last));
+
+        int written = service.materializeSettled(asOf);
+
+        // Two chunks, each in its own transaction; a short page is the last
+        assertEquals(4, written);
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(tradeLegRepository, times(2)).findLegIdsMaterializedBefore(any(), anyLong(), any());
+        assertEquals(asOf, leg.getCashflowsMaterializedThrough());
+        assertEquals(LocalDate.of(2030, 10, 20), quiet.getCashflowsMaterializedThrough());
+        assertEquals(asOf, last.getCashflowsMaterializedThrough());
+    }
+
+    @Test
+    void testMaterializeSettledCarriesOnPastFailedChunk() {
+        LocalDate asOf = LocalDate.of(2030, 11, 1);
+        TradeLeg last = copyOf(leg, 9L, LocalDate.of(2030, 5, 1));
+        when(tradeLegRepository.findLegIdsMaterializedBefore(asOf, 0L, PageRequest.of(0, 2))).thenReturn(List.of(7L, 8L));
+        when(tradeLegRepository.findLegIdsMaterializedBefore(asOf, 8L, PageRequest.of(0, 2))).thenReturn(List.of(9L));
+        when(tradeLegRepository.findWithTradeByLegIdIn(List.of(7L, 8L))).thenThrow(new IllegalStateException("lock timeout"));
+        when(tradeLegRepository.findWithTradeByLegIdIn(List.of(9L))).thenReturn(List.of(last));
+
+        int written = service.materializeSettled(asOf);
+
+        assertEquals(2, written);
+        verify(transactionManager).rollback(any());
+        assertEquals(LocalDate.of(2030, 5, 1), leg.getCashflowsMaterializedThrough());
+        assertEquals(asOf, last.getCashflowsMaterializedThrough());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedLeg() {
+        TradeLeg other = new TradeLeg();
+        other.setLegId(8L);
+        other.setNotional(new BigDecimal("500000"));
+        TradeLeg third = new TradeLeg();
+        third.setLegId(9L);
+        third.setNotional(new BigDecimal("250000"));
+
+        service.cachedSchedule(leg, trade);
+        service.cachedSchedule(other, trade);
+        service.cachedSchedule(leg, trade);
+        service.cachedSchedule(third, trade);
+        service.cachedSchedule(leg, trade);
+        service.cachedSchedule(other, trade);
+
+        assertEquals(2, service.size());
+        // leg 7 stayed hot; leg 8 was evicted by leg 9 and had to be recomputed
+        verify(cashflowEngine, times(1)).generate(same(leg), any(), any(), any(), any());
+        verify(cashflowEngine, times(2)).generate(same(other), any(), any(), any(), any());
+    }
+
+    private TradeLeg copyOf(TradeLeg source, Long legId, LocalDate materializedThrough) {
+        TradeLeg copy = new TradeLeg();
+        copy.setLegId(legId);
+        copy.setNotional(source.getNotional());
+        copy.setRate(source.getRate());
+        copy.setLegRateType(source.getLegRateType());
+        copy.setCalculationPeriodSchedule(source.getCalculationPeriodSchedule());
+        copy.setCashflowsMaterializedThrough(materializedThrough);
+        copy.setTrade(source.getTrade());
+        return copy;
+    }
+}
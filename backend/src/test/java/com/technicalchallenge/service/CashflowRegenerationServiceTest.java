@@ -0,0 +1,126 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.CashflowRegenerationStatus;
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.repository.CashflowRepository;
+import com.technicalchallenge.repository.TradeLegRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Runs the job against the data.sql legs; partitions commit on their own threads, so no test transaction
+@DataJpaTest(properties = "cashflow.regeneration.partition-size=1")
+@Import({CashflowRegenerationService.class, CashflowEngine.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CashflowRegenerationServiceTest {
+
+    @Autowired
+    private CashflowRegenerationService regenerationService;
+
+    @Autowired
+    private CashflowRepository cashflowRepository;
+
+    @Autowired
+    private TradeLegRepository tradeLegRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private HolidayCalendarService holidayCalendarService;
+
+    @MockBean
+    private MarketDataService marketDataService;
+
+    @MockBean
+    private PositionService positionService;
+
+    @BeforeEach
+    void setUp() {
+        // 2024-09-03 is a holiday in this calendar, so the first quarterly payment rolls to the 4th
+        when(holidayCalendarService.getBusinessCalendar(anyString()))
+                .thenAnswer(inv -> BusinessCalendar.of(inv.getArgument(0), List.of(LocalDate.of(2024, 9, 3))));
+    }
+
+    @Test
+    void testRegeneratesEveryActiveLeg() throws Exception {
+        CashflowRegenerationStatus status = run(null, null);
+
+        assertEquals("COMPLETED", status.state());
+        assertEquals(3, status.partitionsTotal());
+        assertEquals(3, status.partitionsDone());
+        assertEquals(3, status.legsProcessed());
+        assertEquals(40, status.cashflowsWritten());
+
+        // Trade 1000 is 2024-06-03 to 2029-06-03, quarterly: 20 periods of 1M x 5% / 4 on the fixed leg
+        List<Object[]> fixed = jdbcTemplate.query(
+                "SELECT value_date, payment_value FROM cashflow WHERE leg_id = 1000 ORDER BY value_date",
+                (rs, row) -> new Object[]{rs.getDate(1).toLocalDate(), rs.getBigDecimal(2)});
+        assertEquals(20, fixed.size());
+        assertEquals(LocalDate.of(2024, 9, 4), fixed.get(0)[0]);
+        assertEquals(LocalDate.of(2029, 6, 4), fixed.get(19)[0]);
+        assertEquals(0, new BigDecimal("12500").compareTo((BigDecimal) fixed.get(0)[1]));
+        assertEquals(20, count(1001));
+        // Trade 1001 is two days long, so its monthly leg has no whole period left
+        assertEquals(0, count(1002));
+    }
+
+    @Test
+    void testFilterOnlyTouchesMatchingLegs() throws Exception {
+        int nyLegCashflows = count(1000);
+
+        CashflowRegenerationStatus status = run("lon", null);
+
+        assertEquals("COMPLETED", status.state());
+        assertEquals("lon", status.holidayCalendar());
+        assertEquals(1, status.legsProcessed());
+        assertEquals(0, count(1002));
+        assertEquals(nyLegCashflows, count(1000));
+    }
+
+    @Test
+    void testIdsDoNotCollideWithHibernateAllocation() throws Exception {
+        // Hibernate holds part of a pooled block before and after the job takes its own blocks
+        saveCashflow();
+        run(null, null);
+        Cashflow saved = saveCashflow();
+
+        List<Long> jobIds = jdbcTemplate.queryForList("SELECT id FROM cashflow WHERE leg_id = 1000", Long.class);
+        assertEquals(20, jobIds.size());
+        assertFalse(jobIds.contains(saved.getId()));
+    }
+
+    private CashflowRegenerationStatus run(String holidayCalendar, String schedule) throws Exception {
+        regenerationService.start(holidayCalendar, schedule);
+        regenerationService.currentJob().get(30, TimeUnit.SECONDS);
+        return regenerationService.getStatus();
+    }
+
+    private Cashflow saveCashflow() {
+        Cashflow cashflow = new Cashflow();
+        cashflow.setTradeLeg(tradeLegRepository.findById(1002L).orElseThrow());
+        cashflow.setValueDate(LocalDate.of(2024, 6, 4));
+        cashflow.setPaymentValue(BigDecimal.ONE);
+        return cashflowRepository.saveAndFlush(cashflow);
+    }
+
+    private int count(long legId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cashflow WHERE leg_id = ?", Integer.class, legId);
+    }
+}
@@ -1,19 +1,21 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.CashflowGenerationRequest;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.PayRec;
 import com.technicalchallenge.model.TradeLeg;
 import com.technicalchallenge.repository.CashflowRepository;
-import com.technicalchallenge.repository.BusinessDayConventionRepository;
-import com.technicalchallenge.repository.LegTypeRepository;
-import com.technicalchallenge.repository.PayRecRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -30,15 +32,15 @@ public class CashflowServiceTest {
     private CashflowRepository cashflowRepository;
 
     @Mock
-    private PayRecRepository payRecRepository;
+    private ReferenceDataCache referenceDataCache;
 
     @Mock
-    private LegTypeRepository legTypeRepository;
+    private HolidayCalendarService holidayCalendarService;
 
     @Mock
-    private BusinessDayConventionRepository businessDayConventionRepository;
+    private MarketDataService marketDataService;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private CashflowService cashflowService;
 
     private Cashflow cashflow1;
@@ -49,6 +51,10 @@ public class CashflowServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cashflowService = new CashflowService(cashflowRepository, referenceDataCache, new CashflowEngine(),
+                holidayCalendarService, marketDataService, meterRegistry);
+
         // Set up related entities
         tradeLeg = new TradeLeg();
         tradeLeg.setLegId(1L);
@@ -177,6 +183,116 @@ public class CashflowServiceTest {
         verify(cashflowRepository, never()).save(any(Cashflow.class));
     }
 
+    @Test
+    void testPopulateReferenceDataByNameUsesCache() {
+        // Given
+        CashflowDTO dto = new CashflowDTO();
+        dto.setPayRec("pay");
+        when(referenceDataCache.findByName(PayRec.class, "pay")).thenReturn(Optional.of(payRec));
+        Cashflow cashflow = new Cashflow();
+
+        // When
+        cashflowService.populateReferenceDataByName(cashflow, dto);
+
+        // Then
+        assertSame(payRec, cashflow.getPayRec());
+        assertNull(cashflow.getPaymentType());
+    }
+
+    @Test
+    void testGeneratePreviewFixedLeg() {
+        // Given
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.now());
+        request.setTradeMaturityDate(LocalDate.now().plusYears(2));
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000.0));
+        legDTO.setLegType("Fixed");
+        legDTO.setRate(0.05);
+        legDTO.setCalculationPeriodSchedule("3M");
+        request.setLegs(List.of(legDTO));
+
+        // When
+        List<CashflowDTO> cashflows = cashflowService.generatePreview(request);
+
+        // Then - 2Y quarterly is 8 periods, each ~90/360 of 5% on 1M
+        assertEquals(8, cashflows.size());
+        assertEquals(LocalDate.now().plusYears(2), cashflows.get(7).getValueDate());
+        assertEquals(12500.0, cashflows.get(0).getPaymentValue().doubleValue(), 300.0);
+        verifyNoInteractions(cashflowRepository);
+    }
+
+    @Test
+    void testGeneratePreviewProjectsFloatingLeg() {
+        // Given - a 1Y quarterly LIBOR leg off a curve as of the start date
+        LocalDate start = LocalDate.of(2030, 1, 15);
+        MarketDataService loaded = new MarketDataService(new DefaultResourceLoader(), "", "");
+        loaded.loadCurves(new StringReader("LIBOR,2030-01-15,2031-01-15,0.96\n"));
+        when(marketDataService.findIndexRates("LIBOR")).thenReturn(loaded.findIndexRates("LIBOR"));
+
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(start);
+        request.setTradeMaturityDate(start.plusYears(1));
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000.0));
+        legDTO.setLegType("Floating");
+        legDTO.setIndex("LIBOR");
+        legDTO.setCalculationPeriodSchedule("Quarterly");
+        request.setLegs(List.of(legDTO));
+
+        // When
+        List<CashflowDTO> cashflows = cashflowService.generatePreview(request);
+
+        // Then - DF 0.96 over 365 days is about 4.1% simple, so each quarter pays about 10.2k
+        assertEquals(4, cashflows.size());
+        assertEquals(10200.0, cashflows.get(0).getPaymentValue().doubleValue(), 200.0);
+        assertEquals(10200.0, cashflows.get(3).getPaymentValue().doubleValue(), 200.0);
+    }
+
+    @Test
+    void testGeneratePreviewIsTimedWithCashflowsPerLeg() {
+        // Given - a quarterly and a semi-annual leg over 1Y, and a leg on a schedule the engine skips
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.of(2030, 1, 15));
+        request.setTradeMaturityDate(LocalDate.of(2031, 1, 15));
+        request.setLegs(List.of(fixedLeg("Quarterly"), fixedLeg("Semi-annually"), fixedLeg("Fortnightly")));
+
+        // When
+        cashflowService.generatePreview(request);
+
+        // Then
+        assertEquals(1, meterRegistry.get("cashflow.preview").timer().count());
+        DistributionSummary perLeg = meterRegistry.get("cashflow.preview.per.leg").summary();
+        assertEquals(2, perLeg.count());
+        assertEquals(6.0, perLeg.totalAmount());
+        assertEquals(4.0, perLeg.max());
+    }
+
+    @Test
+    void testGeneratePreviewRejectsUnknownBusinessDayConvention() {
+        // Given
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.of(2030, 1, 15));
+        request.setTradeMaturityDate(LocalDate.of(2031, 1, 15));
+        CashflowGenerationRequest.TradeLegDTO legDTO = fixedLeg("Quarterly");
+        legDTO.setPaymentBusinessDayConvention("Sideways");
+        request.setLegs(List.of(legDTO));
+
+        // When & Then - still timed, with no leg recorded
+        assertThrows(IllegalArgumentException.class, () -> cashflowService.generatePreview(request));
+        assertEquals(1, meterRegistry.get("cashflow.preview").timer().count());
+        assertEquals(0, meterRegistry.get("cashflow.preview.per.leg").summary().count());
+    }
+
+    private CashflowGenerationRequest.TradeLegDTO fixedLeg(String schedule) {
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000.0));
+        legDTO.setLegType("Fixed");
+        legDTO.setRate(0.05);
+        legDTO.setCalculationPeriodSchedule(schedule);
+        return legDTO;
+    }
+
     @Test
     void testDeleteCashflow() {
         // Given
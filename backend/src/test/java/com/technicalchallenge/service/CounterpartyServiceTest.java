@@ -15,6 +15,8 @@ import static org.junit.jupiter.api.Assertions.*;
 public class CounterpartyServiceTest {
     @Mock
     private CounterpartyRepository counterpartyRepository;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
     @InjectMocks
     private CounterpartyService counterpartyService;
 
@@ -0,0 +1,70 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.repository.HolidayRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarServiceTest {
+
+    @Mock
+    private HolidayRepository holidayRepository;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @InjectMocks
+    private HolidayCalendarService holidayCalendarService;
+
+    private void stubCalendar(long id, String name, LocalDate... holidays) {
+        HolidayCalendar calendar = new HolidayCalendar();
+        calendar.setId(id);
+        calendar.setHolidayCalendar(name);
+        when(referenceDataCache.findByName(HolidayCalendar.class, name)).thenReturn(Optional.of(calendar));
+        when(holidayRepository.findHolidayDatesByCalendarId(id)).thenReturn(List.of(holidays));
+    }
+
+    @Test
+    void testJointCalendarLoadsEachMemberOnce() {
+        stubCalendar(1000L, "NY", LocalDate.of(2025, 7, 4));
+        stubCalendar(1001L, "LON", LocalDate.of(2025, 8, 25));
+
+        // Same joint calendar, written differently
+        assertFalse(holidayCalendarService.isBusinessDay("LON+NY", LocalDate.of(2025, 7, 4)));
+        assertFalse(holidayCalendarService.isBusinessDay("ny + lon", LocalDate.of(2025, 8, 25)));
+        assertTrue(holidayCalendarService.isBusinessDay("LON", LocalDate.of(2025, 7, 4)));
+        assertSame(holidayCalendarService.getBusinessCalendar("LON+NY"), holidayCalendarService.getBusinessCalendar("NY+LON"));
+
+        verify(holidayRepository, times(1)).findHolidayDatesByCalendarId(1000L);
+        verify(holidayRepository, times(1)).findHolidayDatesByCalendarId(1001L);
+    }
+
+    @Test
+    void testAdjustAndAddBusinessDaysByName() {
+        stubCalendar(1000L, "NY", LocalDate.of(2025, 7, 4));
+
+        assertEquals(LocalDate.of(2025, 7, 7), holidayCalendarService.adjust("NY", LocalDate.of(2025, 7, 4), "Modified Following"));
+        assertEquals(LocalDate.of(2025, 7, 8), holidayCalendarService.addBusinessDays("NY", LocalDate.of(2025, 7, 3), 2));
+    }
+
+    @Test
+    void testUnknownCalendarIsRejected() {
+        when(referenceDataCache.findByName(HolidayCalendar.class, "TOKYO")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> holidayCalendarService.getBusinessCalendar("TOKYO"));
+        assertThrows(IllegalArgumentException.class, () -> holidayCalendarService.getBusinessCalendar(" + "));
+        verify(holidayRepository, never()).findHolidayDatesByCalendarId(anyLong());
+    }
+}
@@ -0,0 +1,111 @@
+package com.technicalchallenge.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataServiceTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 10, 17);
+    private static final int AS_OF_DAY = (int) AS_OF.toEpochDay();
+
+    private final MarketDataService marketDataService = new MarketDataService(new DefaultResourceLoader(), "", "");
+
+    @Test
+    void testCurveInterpolatesLogDiscountFactors() {
+        // 5% simple over the first 180 days, then a steeper second segment
+        double df180 = 1 / (1 + 0.05 * 180 / 360);
+        ForwardCurve curve = ForwardCurve.of(AS_OF, new int[]{AS_OF_DAY + 180, AS_OF_DAY + 360}, new double[]{df180, df180 * 0.97});
+
+        assertEquals(1.0, curve.discountFactor(AS_OF_DAY - 10));
+        assertEquals(df180, curve.discountFactor(AS_OF_DAY + 180), 1e-15);
+        assertEquals(Math.sqrt(df180), curve.discountFactor(AS_OF_DAY + 90), 1e-15);
+        assertEquals(0.05, curve.forwardRate(AS_OF_DAY, AS_OF_DAY + 180), 1e-12);
+        // Constant overnight forward within a segment, and the last segment carries on past the last pillar
+        assertEquals(curve.forwardRate(AS_OF_DAY + 200, AS_OF_DAY + 230), curve.forwardRate(AS_OF_DAY + 400, AS_OF_DAY + 430), 1e-12);
+        assertTrue(curve.forwardRate(AS_OF_DAY + 200, AS_OF_DAY + 230) > 0.05);
+        assertTrue(Double.isNaN(curve.forwardRate(AS_OF_DAY + 30, AS_OF_DAY + 30)));
+    }
+
+    @Test
+    void testCurveRejectsBadPillars() {
+        assertThrows(IllegalArgumentException.class, () -> ForwardCurve.of(AS_OF, new int[]{AS_OF_DAY}, new double[]{0.99}));
+        assertThrows(IllegalArgumentException.class, () -> ForwardCurve.of(AS_OF, new int[]{AS_OF_DAY + 10, AS_OF_DAY + 5}, new double[]{0.99, 0.98}));
+        assertThrows(IllegalArgumentException.class, () -> ForwardCurve.of(AS_OF, new int[]{AS_OF_DAY + 10}, new double[]{0.0}));
+        assertThrows(IllegalArgumentException.class, () -> ForwardCurve.of(AS_OF, new int[]{AS_OF_DAY + ForwardCurve.MAX_DAYS + 1}, new double[]{0.1}));
+    }
+
+    @Test
+    void testLoadsCurvesAndFixingsFromCsv() {
+        List<String> curves = marketDataService.loadCurves(new StringReader("""
+                index,as_of,pillar_date,discount_factor
+                # flat-ish USD curve
+                LIBOR,2025-10-17,2026-04-15,0.975609756
+                LIBOR,2025-10-17,2026-10-12,0.952380952
+                EURIBOR,2025-10-17,2026-10-17,0.98
+                """));
+        List<String> fixings = marketDataService.loadFixings(new StringReader("""
+                index,fixing_date,rate
+                libor,2025-07-01,0.045
+                libor,2025-04-01,0.047
+                """));
+
+        assertEquals(List.of("LIBOR", "EURIBOR"), curves);
+        assertEquals(List.of("libor"), fixings);
+        IndexRates libor = marketDataService.findIndexRates("Libor").orElseThrow();
+        assertEquals(AS_OF, libor.curve().asOf());
+        assertEquals(2, libor.fixingCount());
+        assertEquals(LocalDate.of(2025, 7, 1), libor.lastFixingDate());
+        assertEquals(List.of("EURIBOR", "LIBOR"), marketDataService.getAll().stream().map(IndexRates::index).toList());
+        assertTrue(marketDataService.findIndexRates("SONIA").isEmpty());
+        assertTrue(marketDataService.findIndexRates(null).isEmpty());
+    }
+
+    @Test
+    void testRateUsesFixingsBeforeCurveAsOfAndForwardsAfter() {
+        marketDataService.loadFixings(new StringReader("LIBOR,2025-04-01,0.047\nLIBOR,2025-07-01,0.045\n"));
+        IndexRates fixingsOnly = marketDataService.findIndexRates("LIBOR").orElseThrow();
+        int july = (int) LocalDate.of(2025, 7, 15).toEpochDay();
+
+        // Latest fixing on or before the period start; nothing before the first fixing
+        assertEquals(0.045, fixingsOnly.rate(july, july + 90));
+        assertEquals(0.047, fixingsOnly.rate((int) LocalDate.of(2025, 4, 1).toEpochDay(), july));
+        assertTrue(Double.isNaN(fixingsOnly.rate((int) LocalDate.of(2025, 1, 1).toEpochDay(), july)));
+
+        marketDataService.loadCurves(new StringReader("LIBOR,2025-10-17,2026-10-17,0.96\n"));
+        IndexRates withCurve = marketDataService.findIndexRates("LIBOR").orElseThrow();
+        assertNotSame(fixingsOnly, withCurve);
+        assertEquals(0.045, withCurve.rate(july, july + 90));
+        assertEquals(withCurve.curve().forwardRate(AS_OF_DAY + 10, AS_OF_DAY + 100), withCurve.rate(AS_OF_DAY + 10, AS_OF_DAY + 100));
+        // A later fixing on an existing date replaces it and keeps the curve
+        marketDataService.loadFixings(new StringReader("LIBOR,2025-07-01,0.044\n"));
+        assertEquals(0.044, marketDataService.findIndexRates("LIBOR").orElseThrow().rate(july, july + 90));
+        assertSame(withCurve.curve(), marketDataService.findIndexRates("LIBOR").orElseThrow().curve());
+    }
+
+    @Test
+    void testBadCsvLoadsNothing() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> marketDataService.loadCurves(new StringReader("""
+                LIBOR,2025-10-17,2026-10-17,0.96
+                EURIBOR,2025-10-17,2026-10-17,-1
+                """)));
+        assertTrue(error.getMessage().contains("EURIBOR"));
+        assertThrows(IllegalArgumentException.class, () -> marketDataService.loadFixings(new StringReader("LIBOR,17/10/2025,0.04\n")));
+        assertThrows(IllegalArgumentException.class, () -> marketDataService.loadFixings(new StringReader("LIBOR,2025-10-17\n")));
+        assertTrue(marketDataService.getAll().isEmpty());
+    }
+
+    @Test
+    void testLoadsConfiguredFilesAtStartup() {
+        MarketDataService configured = new MarketDataService(new DefaultResourceLoader(),
+                "classpath:market-data/curves.csv", "classpath:market-data/fixings.csv");
+
+        assertNotNull(configured.findIndexRates("LIBOR").orElseThrow().curve());
+        assertTrue(configured.findIndexRates("EURIBOR").orElseThrow().fixingCount() > 0);
+    }
+}
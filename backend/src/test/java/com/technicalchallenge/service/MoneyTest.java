@@ -0,0 +1,69 @@
+package com.technicalchallenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testCurrencyScales() {
+        assertEquals(2, Money.scaleOf("USD"));
+        assertEquals(2, Money.scaleOf("gbp"));
+        assertEquals(0, Money.scaleOf("JPY"));
+        assertEquals(3, Money.scaleOf("KWD"));
+        assertEquals(Money.DEFAULT_SCALE, Money.scaleOf(null));
+        assertEquals(Money.DEFAULT_SCALE, Money.scaleOf("XYZ1"));
+    }
+
+    @Test
+    void testMinorUnitConversion() {
+        assertEquals(12345, Money.toMinorUnits(new BigDecimal("123.45"), 2));
+        assertEquals(12346, Money.toMinorUnits(new BigDecimal("123.455"), 2));
+        assertEquals(-12346, Money.toMinorUnits(new BigDecimal("-123.455"), 2));
+        assertEquals(0, Money.toMinorUnits(null, 2));
+        assertEquals(new BigDecimal("123.45"), Money.toBigDecimal(12345, 2));
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("1e30"), 2));
+    }
+
+    @Test
+    void testRatesUseShortestDecimalForm() {
+        assertEquals(5, Money.rateUnscaled(0.05));
+        assertEquals(2, Money.rateScale(0.05));
+        assertEquals(425, Money.rateUnscaled(0.0425));
+        assertEquals(4, Money.rateScale(0.0425));
+        assertEquals(3, Money.rateUnscaled(3.0));
+        assertEquals(0, Money.rateScale(3.0));
+        assertThrows(IllegalArgumentException.class, () -> Money.rateUnscaled(Double.NaN));
+    }
+
+    @Test
+    void testInterestRoundsHalfUp() {
+        // 1,000,000.00 x 5% x 1/12 = 4166.666... -> 4166.67
+        assertEquals(416667, Money.interest(100_000_000, 5, 2, 1, 12));
+        // 0.10 x 5% x 1 = 0.005 -> 0.01, and -0.005 -> -0.01
+        assertEquals(1, Money.interest(10, 5, 2, 1, 1));
+        assertEquals(-1, Money.interest(-10, 5, 2, 1, 1));
+        assertEquals(0, Money.interest(0, 5, 2, 90, 360));
+        assertThrows(IllegalArgumentException.class, () -> Money.interest(1, 1, 0, 1, 0));
+    }
+
+    @Test
+    void testInterestMatchesBigDecimalIncludingOverflow() {
+        Random random = new Random(7);
+        for (int n = 0; n < 5000; n++) {
+            // Up to 10bn notionals at scale 2..3 and rates with up to 10 decimals; large ones overflow long products
+            long notional = random.nextLong(10_000_000_000_000L) * (random.nextBoolean() ? 1 : -1);
+            double rate = Math.round(random.nextDouble() * 0.2 * 1e10) / 1e10;
+            long days = 1 + random.nextInt(400);
+            long expected = BigDecimal.valueOf(notional).multiply(BigDecimal.valueOf(rate)).multiply(BigDecimal.valueOf(days))
+                    .divide(BigDecimal.valueOf(360), 0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, Money.interest(notional, Money.rateUnscaled(rate), Money.rateScale(rate), days, 360),
+                    notional + " x " + rate + " x " + days);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.dto.PositionReconciliation;
+import com.technicalchallenge.model.Trade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Positions over the data.sql trades: 100001 pays 12,500 USD in 2024-09 and 2024-12 from FX-BOOK-1 (FX desk),
+// 100002 pays 225,000 EUR in 2024-06 from RATES-BOOK-1 (Rates desk). Updates apply after commit, so no test transaction
+@DataJpaTest
+@Import({PositionService.class, CashflowProjectionService.class, CashflowEngine.class, ReferenceDataCache.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PositionServiceTest {
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private HolidayCalendarService holidayCalendarService;
+
+    @MockBean
+    private MarketDataService marketDataService;
+
+    @BeforeEach
+    void setUp() {
+        positionService.rebuild();
+    }
+
+    @Test
+    void testRebuildsFromStoredCashflows() {
+        List<PositionDTO> positions = positionService.getPositions(Set.of("book", "month"), null, null, null, null, null);
+
+        assertEquals(List.of(
+                new PositionDTO("FX-BOOK-1", null, "USD", YearMonth.of(2024, 9), new BigDecimal("-12500.00")),
+                new PositionDTO("FX-BOOK-1", null, "USD", YearMonth.of(2024, 12), new BigDecimal("-12500.00")),
+                new PositionDTO("RATES-BOOK-1", null, "EUR", YearMonth.of(2024, 6), new BigDecimal("-225000.00"))), positions);
+        assertEquals(2, positionService.tradeCount());
+        assertTrue(positionService.reconcile().matches());
+    }
+
+    @Test
+    void testGroupsAndFilters() {
+        assertEquals(List.of(
+                new PositionDTO(null, "FX", "USD", null, new BigDecimal("-25000.00")),
+                new PositionDTO(null, "Rates", "EUR", null, new BigDecimal("-225000.00"))),
+                positionService.getPositions(Set.of("desk"), null, null, null, null, null));
+        assertEquals(List.of(new PositionDTO(null, null, "USD", null, new BigDecimal("-12500.00"))),
+                positionService.getPositions(Set.of(), null, "fx", "usd", YearMonth.of(2024, 10), null));
+        assertTrue(positionService.getPositions(Set.of(), "NO-SUCH-BOOK", null, null, null, null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> positionService.getPositions(Set.of("counterparty"), null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> positionService.getPositions(Set.of(), null, null, null, YearMonth.of(2025, 1), YearMonth.of(2024, 1)));
+    }
+
+    @Test
+    void testAmendmentReplacesPreviousVersionAndReconcileReportsDrift() {
+        // A new version of 100001 receiving 1,000 USD in 2025-01 and nothing else; never written to the database
+        TradePosition amended = new TradePosition(100001L, 1000L);
+        amended.add(1000L, (int) LocalDate.of(2025, 1, 15).toEpochDay(), 100_000);
+        positionService.tradeBooked(trade(100001L), amended);
+
+        assertEquals(List.of(new PositionDTO("FX-BOOK-1", null, "USD", YearMonth.of(2025, 1), new BigDecimal("1000.00"))),
+                positionService.getPositions(Set.of("book", "month"), "FX-BOOK-1", null, null, null, null));
+
+        PositionReconciliation check = positionService.reconcile();
+        assertFalse(check.matches());
+        assertFalse(check.repaired());
+        assertEquals(3, check.mismatchedBuckets());
+        assertTrue(check.differences().contains("FX-BOOK-1/USD/2025-01: 1000.00 vs 0.00"));
+        // A check leaves the running positions alone; a rebuild puts back what is stored
+        assertEquals(1, positionService.getPositions(Set.of("month"), "FX-BOOK-1", null, null, null, null).size());
+        assertTrue(positionService.rebuild().repaired());
+        assertEquals(2, positionService.getPositions(Set.of("month"), "FX-BOOK-1", null, null, null, null).size());
+    }
+
+    @Test
+    void testClosedTradeDropsOutOnlyAfterCommit() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            positionService.tradeClosed(100002L);
+            status.setRollbackOnly();
+        });
+        assertEquals(1, positionService.getPositions(Set.of(), null, null, "EUR", null, null).size());
+
+        transaction.executeWithoutResult(status -> positionService.tradeClosed(100002L));
+        assertTrue(positionService.getPositions(Set.of(), null, null, "EUR", null, null).isEmpty());
+        assertEquals(1, positionService.tradeCount());
+    }
+
+    private static Trade trade(long tradeId) {
+        Trade trade = new Trade();
+        trade.setTradeId(tradeId);
+        return trade;
+    }
+}
@@ -0,0 +1,121 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+    @Mock private BookRepository bookRepository;
+    @Mock private CounterpartyRepository counterpartyRepository;
+    @Mock private TradeStatusRepository tradeStatusRepository;
+    @Mock private ApplicationUserRepository applicationUserRepository;
+    @Mock private TradeTypeRepository tradeTypeRepository;
+    @Mock private TradeSubTypeRepository tradeSubTypeRepository;
+    @Mock private CurrencyRepository currencyRepository;
+    @Mock private LegTypeRepository legTypeRepository;
+    @Mock private IndexRepository indexRepository;
+    @Mock private HolidayCalendarRepository holidayCalendarRepository;
+    @Mock private ScheduleRepository scheduleRepository;
+    @Mock private BusinessDayConventionRepository businessDayConventionRepository;
+    @Mock private PayRecRepository payRecRepository;
+    @Mock private DeskRepository deskRepository;
+    @Mock private SubDeskRepository subDeskRepository;
+    @Mock private CostCenterRepository costCenterRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ReferenceDataCache(bookRepository, counterpartyRepository, tradeStatusRepository,
+                applicationUserRepository, tradeTypeRepository, tradeSubTypeRepository, currencyRepository,
+                legTypeRepository, indexRepository, holidayCalendarRepository, scheduleRepository,
+                businessDayConventionRepository, payRecRepository, deskRepository, subDeskRepository,
+                costCenterRepository, meterRegistry);
+    }
+
+    private Book book(Long id, String name) {
+        Book book = new Book();
+        book.setId(id);
+        book.setBookName(name);
+        return book;
+    }
+
+    @Test
+    void testFindByNameIsCaseInsensitiveAndLoadsOnce() {
+        when(bookRepository.findAll()).thenReturn(List.of(book(1L, "FI-Rates")));
+
+        assertEquals(1L, cache.findByName(Book.class, "FI-Rates").orElseThrow().getId());
+        assertEquals(1L, cache.findByName(Book.class, " fi-rates ").orElseThrow().getId());
+        assertTrue(cache.findByName(Book.class, "Unknown").isEmpty());
+        assertEquals(1L, cache.findById(Book.class, 1L).orElseThrow().getId());
+
+        verify(bookRepository, times(1)).findAll();
+        assertEquals(3L, cache.getStats().get("Book").get("hits"));
+        assertEquals(1L, cache.getStats().get("Book").get("misses"));
+        assertEquals(3.0, meterRegistry.get("reference.data.cache.requests")
+                .tag("type", "Book").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testRefreshReloadsTable() {
+        when(bookRepository.findAll())
+                .thenReturn(List.of(book(1L, "FI-Rates")))
+                .thenReturn(List.of(book(1L, "FI-Rates"), book(2L, "FX-Spot")));
+
+        assertTrue(cache.findByName(Book.class, "FX-Spot").isEmpty());
+        cache.refresh(Book.class);
+        assertEquals(2L, cache.findByName(Book.class, "fx-spot").orElseThrow().getId());
+
+        verify(bookRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testUserFallsBackToLoginId() {
+        ApplicationUser user = new ApplicationUser();
+        user.setId(5L);
+        user.setFirstName("Simon");
+        user.setLoginId("simon.k");
+        when(applicationUserRepository.findAll()).thenReturn(List.of(user));
+
+        assertEquals(Optional.of(user), cache.findByName(ApplicationUser.class, "simon"));
+        assertEquals(Optional.of(user), cache.findByName(ApplicationUser.class, "SIMON.K"));
+    }
+
+    @Test
+    void testUserByFirstNameDoesNotAcceptLoginId() {
+        ApplicationUser simon = new ApplicationUser();
+        simon.setId(5L);
+        simon.setFirstName("Simon");
+        simon.setLoginId("simon.k");
+        ApplicationUser alice = new ApplicationUser();
+        alice.setId(6L);
+        alice.setFirstName("Alice");
+        alice.setLoginId("bob");
+        ApplicationUser bob = new ApplicationUser();
+        bob.setId(7L);
+        bob.setFirstName("Bob");
+        bob.setLoginId("bob.t");
+        when(applicationUserRepository.findAll()).thenReturn(List.of(simon, alice, bob));
+
+        assertEquals(Optional.of(simon), cache.findUserByFirstName("SIMON"));
+        assertTrue(cache.findUserByFirstName("simon.k").isEmpty());
+        // "bob" is Alice's login ID and Bob's first name; only Bob matches by first name
+        assertEquals(Optional.of(bob), cache.findUserByFirstName("bob"));
+        assertTrue(cache.findUserByFirstName(null).isEmpty());
+    }
+}
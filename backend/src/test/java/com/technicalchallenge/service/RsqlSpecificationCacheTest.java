@@ -0,0 +1,73 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Trade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RsqlSpecificationCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RsqlSpecificationCache cache;
+    private List<String> compiled;
+    private Function<String, Specification<Trade>> compiler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RsqlSpecificationCache(meterRegistry, 2);
+        compiled = new ArrayList<>();
+        compiler = query -> {
+            compiled.add(query);
+            return (root, q, cb) -> cb.conjunction();
+        };
+    }
+
+    @Test
+    void testRepeatedQueryCompiledOnce() {
+        Specification<Trade> first = cache.get("book==FX-BOOK-1", compiler);
+        Specification<Trade> second = cache.get("book==FX-BOOK-1", compiler);
+
+        assertSame(first, second);
+        assertEquals(List.of("book==FX-BOOK-1"), compiled);
+        assertEquals(1.0, meterRegistry.get("rsql.specification.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("rsql.specification.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("rsql.specification.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void testLeastRecentlyUsedQueryEvicted() {
+        cache.get("a==1", compiler);
+        cache.get("b==1", compiler);
+        cache.get("a==1", compiler);
+        cache.get("c==1", compiler);
+        cache.get("a==1", compiler);
+        cache.get("b==1", compiler);
+
+        // b was the eldest when c arrived, so it is the only query compiled twice
+        assertEquals(List.of("a==1", "b==1", "c==1", "b==1"), compiled);
+        assertEquals(2, cache.size());
+        assertEquals(2L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void testFailedCompilationNotCached() {
+        Function<String, Specification<Trade>> failing = query -> {
+            compiled.add(query);
+            throw new IllegalArgumentException("Invalid RSQL:" + query);
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("book=", failing));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("book=", failing));
+
+        assertEquals(2, compiled.size());
+        assertEquals(0, cache.size());
+    }
+}
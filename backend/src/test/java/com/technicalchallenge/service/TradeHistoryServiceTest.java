@@ -0,0 +1,127 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.CursorPageDTO;
+import com.technicalchallenge.dto.TradeVersionDTO;
+import com.technicalchallenge.dto.TradeVersionDiff;
+import com.technicalchallenge.model.Cashflow;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// data.sql trade 100001 (created 2024-06-01T10:30, LIVE, two 1,000,000 legs) amended at AMENDED_AT into a
+// version 2 with a 2,000,000 first leg and a new validity start, the way amendTrade leaves the rows
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TradeHistoryService.class)
+class TradeHistoryServiceTest {
+
+    private static final LocalDateTime AMENDED_AT = LocalDateTime.of(2025, 1, 10, 9, 0);
+
+    @Autowired
+    private TradeHistoryService tradeHistoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("UPDATE trade SET active = false, deactivated_date = ? WHERE id = 1000", AMENDED_AT);
+        jdbcTemplate.update("INSERT INTO trade (id, trade_id, version, book_id, counterparty_id, trader_user_id, inputter_user_id,"
+                + " trade_type_id, trade_sub_type_id, trade_status_id, trade_date, trade_start_date, trade_maturity_date,"
+                + " trade_execution_date, uti_code, last_touch_timestamp, validity_start_date, active, created_date)"
+                + " VALUES (5000, 100001, 2, 1000, 1000, 1003, 1003, 1001, 1003, 1001, '2024-06-01', '2024-06-03', '2029-06-03',"
+                + " '2024-06-01', 'UTI-001', ?, '2025-01-10', true, ?)", AMENDED_AT, AMENDED_AT);
+        jdbcTemplate.update("INSERT INTO trade_leg (leg_id, notional, rate, trade_id, currency_id, leg_rate_type_id, index_id,"
+                + " holiday_calendar_id, calculation_period_schedule_id, payment_business_day_convention_id,"
+                + " fixing_business_day_convention_id, pay_rec_id, active, created_date) VALUES"
+                + " (5000, 2000000.00, 0.05, 5000, 1000, 1000, null, 1000, 1001, 1000, 1000, 1000, true, ?),"
+                + " (5001, 1000000.00, 0.0, 5000, 1000, 1001, 1000, 1000, 1001, 1000, 1000, 1001, true, ?)", AMENDED_AT, AMENDED_AT);
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testHistoryListsVersionsOldestFirstInOneStatement() {
+        List<TradeVersionDTO> history = tradeHistoryService.getHistory(100001L);
+
+        assertEquals(List.of(1, 2), history.stream().map(TradeVersionDTO::version).toList());
+        assertEquals(LocalDateTime.of(2024, 6, 1, 10, 30), history.get(0).createdDate());
+        assertEquals(AMENDED_AT, history.get(0).deactivatedDate());
+        assertEquals(AMENDED_AT, history.get(1).createdDate());
+        assertNull(history.get(1).deactivatedDate());
+        assertEquals("LIVE", history.get(0).trade().tradeStatus());
+        assertEquals(0, new BigDecimal("2000000").compareTo(history.get(1).trade().leg1Notional()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(tradeHistoryService.getHistory(999999L).isEmpty());
+    }
+
+    @Test
+    void testAsOfFindsVersionCurrentAtTimestamp() {
+        assertEquals(List.of(), versionsAsOf(LocalDateTime.of(2024, 6, 1, 10, 0), null));
+        assertEquals(List.of(1), versionsAsOf(AMENDED_AT.minusSeconds(1), null));
+        // The amendment instant belongs to the new version only
+        assertEquals(List.of(2), versionsAsOf(AMENDED_AT, null));
+        // Version 2 is valid from 2025-01-10, so nothing recorded at AMENDED_AT was valid at the end of 2024
+        assertEquals(List.of(), versionsAsOf(AMENDED_AT, LocalDate.of(2024, 12, 31)));
+        assertEquals(List.of(2), versionsAsOf(AMENDED_AT, LocalDate.of(2025, 2, 1)));
+    }
+
+    @Test
+    void testAsOfPagesByTradeId() {
+        LocalDateTime asOf = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        CursorPageDTO<TradeVersionDTO> first = tradeHistoryService.getAsOf(asOf, null, null, null, 1);
+        assertEquals(100001L, first.getContent().get(0).tradeId());
+        assertEquals(2, first.getContent().get(0).version());
+        assertTrue(first.isHasNext());
+
+        CursorPageDTO<TradeVersionDTO> second = tradeHistoryService.getAsOf(asOf, null, null, first.getNextCursor(), 1);
+        assertEquals(List.of(100002L), second.getContent().stream().map(TradeVersionDTO::tradeId).toList());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+
+        assertThrows(IllegalArgumentException.class, () -> tradeHistoryService.getAsOf(asOf, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> tradeHistoryService.getAsOf(asOf, null, null, "not-a-trade-id", 10));
+    }
+
+    @Test
+    void testDiffListsChangedFieldsWithoutLoadingCashflows() {
+        TradeVersionDiff diff = tradeHistoryService.diff(100001L, null, null).orElseThrow();
+
+        assertEquals(1, diff.fromVersion());
+        assertEquals(2, diff.toVersion());
+        assertEquals(List.of(
+                new TradeVersionDiff.FieldChange("tradeStatus", "LIVE", "AMENDED"),
+                new TradeVersionDiff.FieldChange("validityStartDate", "2024-06-01", "2025-01-10"),
+                new TradeVersionDiff.FieldChange("leg1.notional", "1000000", "2000000")), diff.changes());
+        assertEquals(0, statistics.getEntityStatistics(Cashflow.class.getName()).getLoadCount());
+
+        assertTrue(tradeHistoryService.diff(100001L, 1, 7).isEmpty());
+        assertTrue(tradeHistoryService.diff(999999L, null, null).isEmpty());
+    }
+
+    private List<Integer> versionsAsOf(LocalDateTime asOf, LocalDate validOn) {
+        return tradeHistoryService.getAsOf(asOf, validOn, 100001L, null, 10).getContent().stream()
+                .map(TradeVersionDTO::version)
+                .toList();
+    }
+}
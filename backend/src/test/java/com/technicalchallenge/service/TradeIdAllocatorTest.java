@@ -0,0 +1,125 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.repository.TradeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeIdAllocatorTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TradeRepository tradeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Simulates trade_id_seq: each nextval returns the start of the next block
+    private AtomicLong stubSequence(long start, int blockSize) {
+        AtomicLong sequence = new AtomicLong(start);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.getAndAdd(blockSize));
+        return sequence;
+    }
+
+    @Test
+    void testIdsAreServedFromReservedBlocks() {
+        when(tradeRepository.findMaxTradeId()).thenReturn(Optional.empty());
+        stubSequence(10000L, 10);
+        TradeIdAllocator allocator = new TradeIdAllocator(jdbcTemplate, tradeRepository, transactionManager, 10, 10000L);
+
+        for (long expected = 10000L; expected < 10025L; expected++) {
+            assertEquals(expected, allocator.nextTradeId());
+        }
+        // 25 IDs need three blocks, so three nextval calls
+        verify(jdbcTemplate, times(3)).queryForObject(anyString(), eq(Long.class));
+        verify(tradeRepository, never()).count();
+    }
+
+    @Test
+    void testSequenceRestartsAboveExistingTrades() {
+        when(tradeRepository.findMaxTradeId()).thenReturn(Optional.of(10500L));
+        AtomicLong sequence = stubSequence(10000L, 10);
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.contains("RESTART WITH")) {
+                sequence.set(Long.parseLong(sql.substring(sql.lastIndexOf(' ') + 1)));
+            }
+            return null;
+        }).when(jdbcTemplate).execute(anyString());
+        TradeIdAllocator allocator = new TradeIdAllocator(jdbcTemplate, tradeRepository, transactionManager, 10, 10000L);
+
+        assertEquals(10501L, allocator.nextTradeId());
+        verify(jdbcTemplate).execute("ALTER SEQUENCE trade_id_seq RESTART WITH 10501");
+    }
+
+    @Test
+    void testSequenceIsPreparedAtStartupInItsOwnTransaction() {
+        when(tradeRepository.findMaxTradeId()).thenReturn(Optional.empty());
+        stubSequence(10000L, 10);
+        TradeIdAllocator allocator = new TradeIdAllocator(jdbcTemplate, tradeRepository, transactionManager, 10, 10000L);
+
+        allocator.prepareSequence();
+
+        // The DDL ran in a new transaction, not in whatever transaction a booking has open
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        verify(jdbcTemplate, times(2)).execute(anyString());
+        clearInvocations(jdbcTemplate, transactionManager);
+
+        // Bookings then only ever call nextval, once per block
+        for (long expected = 10000L; expected < 10015L; expected++) {
+            assertEquals(expected, allocator.nextTradeId());
+        }
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class));
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testConcurrentCallersNeverShareAnId() throws Exception {
+        when(tradeRepository.findMaxTradeId()).thenReturn(Optional.empty());
+        stubSequence(10000L, 50);
+        TradeIdAllocator allocator = new TradeIdAllocator(jdbcTemplate, tradeRepository, transactionManager, 50, 10000L);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        assertTrue(ids.add(allocator.nextTradeId()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(16000, ids.size());
+    }
+}
@@ -0,0 +1,91 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.exception.TradeConcurrencyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// How long the lock is held inside and outside a transaction; TradeServiceConcurrencyTest drives it through amendTrade
+@DataJpaTest
+@Import(TradeLocks.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeLocksTest {
+
+    private static final long TRADE_ID = 100001L;
+
+    @Autowired
+    private TradeLocks tradeLocks;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void testLockIsHeldUntilTheTransactionCompletes() {
+        transaction.executeWithoutResult(status -> {
+            tradeLocks.withLock(TRADE_ID, () -> null);
+            assertTrue(tradeLocks.isLocked(TRADE_ID));
+            assertFalse(tradeLocks.isLocked(TRADE_ID + 1));
+        });
+        assertFalse(tradeLocks.isLocked(TRADE_ID));
+
+        tradeLocks.withLock(TRADE_ID, () -> null);
+        assertFalse(tradeLocks.isLocked(TRADE_ID));
+    }
+
+    @Test
+    void testLockTakenBeforeTheTransactionIsReleasedOnReturn() {
+        // TradeService's lifecycle methods run with synchronization but no transaction while they hold the lock
+        TransactionTemplate notSupported = new TransactionTemplate(transactionManager);
+        notSupported.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        notSupported.executeWithoutResult(status -> {
+            tradeLocks.withLock(TRADE_ID, () -> transaction.execute(inner -> null));
+            assertFalse(tradeLocks.isLocked(TRADE_ID));
+        });
+    }
+
+    @Test
+    void testWaitingWriterGivesUpAfterTimeout() throws Exception {
+        TradeLocks locks = new TradeLocks(16, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> locks.withLock(TRADE_ID, () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        try {
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+            assertThrows(TradeConcurrencyException.class, () -> locks.withLock(TRADE_ID, () -> null));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertEquals("ok", locks.withLock(TRADE_ID, () -> "ok"));
+        assertThrows(IllegalArgumentException.class, () -> new TradeLocks(100, 50));
+    }
+
+}
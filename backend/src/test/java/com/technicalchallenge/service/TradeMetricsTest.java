@@ -0,0 +1,106 @@
+package com.technicalchallenge.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeMetrics tradeMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tradeMetrics = new TradeMetrics(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void testOperationOutsideTransactionRecordedOnReturn() {
+        assertEquals("booked", tradeMetrics.timeOperation(TradeMetrics.CREATE, () -> "booked"));
+
+        assertEquals(1, operation(TradeMetrics.CREATE, "success").count());
+        assertEquals(0, operation(TradeMetrics.CREATE, "failure").count());
+    }
+
+    @Test
+    void testFailedOperationRecordedAsFailure() {
+        assertThrows(IllegalStateException.class, () -> tradeMetrics.timeOperation(TradeMetrics.AMEND, () -> {
+            throw new IllegalStateException("Trade not found");
+        }));
+
+        assertEquals(0, operation(TradeMetrics.AMEND, "success").count());
+        assertEquals(1, operation(TradeMetrics.AMEND, "failure").count());
+    }
+
+    @Test
+    void testOperationInTransactionRecordedOnCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        tradeMetrics.timeOperation(TradeMetrics.TERMINATE, () -> "terminated");
+        tradeMetrics.timeOperation(TradeMetrics.CANCEL, () -> "cancelled");
+
+        // Nothing is recorded until the transaction completes
+        assertEquals(0, operation(TradeMetrics.TERMINATE, "success").count());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertEquals(1, operation(TradeMetrics.TERMINATE, "success").count());
+        assertEquals(1, operation(TradeMetrics.CANCEL, "success").count());
+    }
+
+    @Test
+    void testOperationWithSynchronizationButNoTransactionRecordedOnReturn() {
+        // As in TradeService's lifecycle methods, whose transaction has committed by the time they return
+        TransactionSynchronizationManager.initSynchronization();
+        tradeMetrics.timeOperation(TradeMetrics.AMEND, () -> "amended");
+
+        assertEquals(1, operation(TradeMetrics.AMEND, "success").count());
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    void testRolledBackOperationRecordedAsFailure() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        tradeMetrics.timeOperation(TradeMetrics.CREATE, () -> "booked");
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(0, operation(TradeMetrics.CREATE, "success").count());
+        assertEquals(1, operation(TradeMetrics.CREATE, "failure").count());
+    }
+
+    @Test
+    void testValidationAndCashflowMeters() {
+        tradeMetrics.validationStage(TradeMetrics.BUSINESS_RULES).record(() -> { });
+        tradeMetrics.validationRejected(TradeMetrics.BUSINESS_RULES);
+        tradeMetrics.cashflowsGenerated(40);
+        tradeMetrics.cashflowsGenerated(120);
+
+        assertEquals(1, meterRegistry.get("trade.validation").tag("stage", TradeMetrics.BUSINESS_RULES).timer().count());
+        assertEquals(1.0, meterRegistry.get("trade.validation.rejections").tag("stage", TradeMetrics.BUSINESS_RULES).counter().count());
+        assertEquals(0.0, meterRegistry.get("trade.validation.rejections").tag("stage", TradeMetrics.LEG_CONSISTENCY).counter().count());
+        assertEquals(160.0, meterRegistry.get("trade.cashflows.per.leg").summary().totalAmount());
+        assertEquals(120.0, meterRegistry.get("trade.cashflows.per.leg").summary().max());
+    }
+
+    private Timer operation(String operation, String outcome) {
+        return meterRegistry.get("trade.operation").tag("operation", operation).tag("outcome", outcome).timer();
+    }
+}
@@ -0,0 +1,179 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.technicalchallenge.dto.TradeChangeEvent;
+import com.technicalchallenge.dto.TradeEventMessage;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeOutboxEvent;
+import com.technicalchallenge.repository.TradeOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Events are recorded in committed transactions of their own, as TradeService does, so no test transaction.
+// The scheduled relay is switched off so only the tests' own relay() calls deliver
+@DataJpaTest(properties = "trade.outbox.relay-enabled=false")
+@Import({TradeOutboxService.class, SimpleMeterRegistry.class, TradeOutboxServiceTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeOutboxServiceTest {
+
+    @Autowired
+    private TradeOutboxService outboxService;
+
+    @Autowired
+    private TradeOutboxRepository outboxRepository;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        sink.reset();
+    }
+
+    @Test
+    void testRelaysCommittedEventsOnceInOrder() {
+        record(TradeChangeEvent.CREATED, 100001L, 1);
+        record(TradeChangeEvent.CREATED, 100002L, 1);
+        record(TradeChangeEvent.AMENDED, 100001L, 2);
+        transaction.executeWithoutResult(status -> {
+            outboxService.record(TradeChangeEvent.CANCELLED, trade(100002L, 1), List.of());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(3, outboxService.relay());
+
+        assertEquals(List.of("CREATED 100001 v1", "CREATED 100002 v1", "AMENDED 100001 v2"), sink.describe());
+        assertTrue(sink.sent.get(0).trade().contains("\"bookName\":\"FX-BOOK-1\""));
+        assertTrue(outboxRepository.findAll().stream().allMatch(event -> event.getPublishedDate() != null));
+        assertEquals(0, outboxService.pendingCount());
+        assertEquals(0, outboxService.relay());
+        assertEquals(3, sink.sent.size());
+    }
+
+    @Test
+    void testFailedTradeIsHeldBackWhileOtherTradesCarryOn() {
+        long first = record(TradeChangeEvent.CREATED, 100001L, 1);
+        record(TradeChangeEvent.CREATED, 100002L, 1);
+        long second = record(TradeChangeEvent.AMENDED, 100001L, 2);
+        sink.failingTrades.add(100001L);
+
+        assertEquals(1, outboxService.relay());
+        assertEquals(List.of("CREATED 100002 v1"), sink.describe());
+        assertEquals(2, outboxService.pendingCount());
+        assertEquals(1, outboxRepository.findById(first).orElseThrow().getAttempts());
+        // Never tried, since its predecessor had not gone out
+        assertEquals(0, outboxRepository.findById(second).orElseThrow().getAttempts());
+
+        sink.failingTrades.clear();
+        assertEquals(2, outboxService.relay());
+        assertEquals(List.of("CREATED 100002 v1", "CREATED 100001 v1", "AMENDED 100001 v2"), sink.describe());
+        assertEquals(0, outboxService.pendingCount());
+    }
+
+    @Test
+    void testBatchIsSentAgainWhenFlushFails() {
+        record(TradeChangeEvent.CREATED, 100001L, 1);
+        sink.failFlush = true;
+
+        assertEquals(0, outboxService.relay());
+        assertEquals(1, outboxService.pendingCount());
+
+        sink.failFlush = false;
+        assertEquals(1, outboxService.relay());
+        // At least once: the consumer sees the same eventId twice
+        assertEquals(2, sink.sent.size());
+        assertEquals(sink.sent.get(0).eventId(), sink.sent.get(1).eventId());
+        assertEquals(0, outboxService.pendingCount());
+    }
+
+    private long record(String type, long tradeId, int version) {
+        TradeOutboxEvent event = transaction.execute(status -> outboxService.record(type, trade(tradeId, version), List.of()));
+        return event.getId();
+    }
+
+    private static Trade trade(long tradeId, int version) {
+        Book book = new Book();
+        book.setBookName("FX-BOOK-1");
+        Trade trade = new Trade();
+        trade.setTradeId(tradeId);
+        trade.setVersion(version);
+        trade.setBook(book);
+        return trade;
+    }
+
+    static class RecordingSink implements TradeEventSink {
+        final List<TradeEventMessage> sent = new CopyOnWriteArrayList<>();
+        final Set<Long> failingTrades = new HashSet<>();
+        volatile boolean failFlush;
+
+        @Override
+        public void send(TradeEventMessage message) throws IOException {
+            if (failingTrades.contains(message.tradeId())) {
+                throw new IOException("broker unavailable");
+            }
+            sent.add(message);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (failFlush) {
+                throw new IOException("flush failed");
+            }
+        }
+
+        List<String> describe() {
+            return sent.stream().map(m -> m.type() + " " + m.tradeId() + " v" + m.tradeVersion()).toList();
+        }
+
+        void reset() {
+            sent.clear();
+            failingTrades.clear();
+            failFlush = false;
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+    }
+}
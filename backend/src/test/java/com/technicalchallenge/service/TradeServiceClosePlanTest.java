@@ -0,0 +1,95 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Trade;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Guards the close plan: terminating or cancelling a trade versions it with a copy of its legs and stored
+// cashflows, and that copy must cost a fixed number of statements per leg however many cashflows are stored.
+// Each test piles far more cashflows onto its data.sql trade than the statement budget allows for.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tradecloseplan;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.h2.console.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "trade.outbox.relay-enabled=false"})
+class TradeServiceClosePlanTest {
+
+    private static final int EXTRA_CASHFLOWS_PER_LEG = 60;
+    // Trade load, old version update, new version insert, outbox event, plus the lookups and
+    // sequence fetches a pooled block may need
+    private static final long STATEMENTS_PER_CLOSE = 8;
+    // Leg insert + one INSERT ... SELECT of its cashflows + the refresh of the copied leg
+    private static final long STATEMENTS_PER_LEG = 3;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testTerminateCopiesCashflowsInAFixedNumberOfStatements() {
+        assertClosedWithinBudget(100001L, () -> tradeService.terminateTrade(100001L));
+    }
+
+    @Test
+    void testCancelCopiesCashflowsInAFixedNumberOfStatements() {
+        assertClosedWithinBudget(100002L, () -> tradeService.cancelTrade(100002L));
+    }
+
+    private void assertClosedWithinBudget(Long tradeId, Supplier<Trade> close) {
+        List<Long> legIds = liveLegIds(tradeId);
+        for (Long legId : legIds) {
+            for (int i = 0; i < EXTRA_CASHFLOWS_PER_LEG; i++) {
+                jdbcTemplate.update("INSERT INTO cashflow (id, payment_value, value_date, rate, leg_id, pay_rec_id, payment_type_id, "
+                        + "payment_business_day_convention_id, active, created_date, validity_start_date) "
+                        + "VALUES (nextval('cashflow_seq'), 100.00, ?, 0.05, ?, 1000, 1000, 1000, true, "
+                        + "CURRENT_TIMESTAMP, DATE '2024-06-01')", LocalDate.of(2030, 1, 1).plusMonths(i), legId);
+            }
+        }
+        Integer storedBefore = storedCashflows(tradeId);
+
+        statistics.clear();
+        Trade closed = close.get();
+        long statements = statistics.getPrepareStatementCount();
+
+        long budget = STATEMENTS_PER_CLOSE + STATEMENTS_PER_LEG * legIds.size();
+        assertTrue(statements <= budget, "closing trade " + tradeId + " prepared " + statements + " statements, budget " + budget);
+        assertEquals(closed.getVersion(), jdbcTemplate.queryForObject(
+                "SELECT version FROM trade WHERE trade_id = ? AND active", Integer.class, tradeId));
+        assertEquals(storedBefore, storedCashflows(tradeId));
+    }
+
+    private List<Long> liveLegIds(Long tradeId) {
+        return jdbcTemplate.queryForList("SELECT l.leg_id FROM trade_leg l JOIN trade t ON t.id = l.trade_id "
+                + "WHERE t.trade_id = ? AND t.active", Long.class, tradeId);
+    }
+
+    private Integer storedCashflows(Long tradeId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cashflow c JOIN trade_leg l ON l.leg_id = c.leg_id "
+                + "JOIN trade t ON t.id = l.trade_id WHERE t.trade_id = ? AND t.active", Integer.class, tradeId);
+    }
+}
@@ -0,0 +1,193 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.support.SampleTrades;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.NestedTestConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Amendments go through PUT /api/trades/{id} and the real TradeService against the data.sql trades, so the
+// lock, the transaction around it, Trade's rowVersion and the controller's 409 mapping are all in play.
+// Tests only ever add versions, so each one checks what it added rather than the trades' full history.
+// The lock timeout is long enough for every writer of the stress test to queue; LockTimeout shortens it.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tradeconcurrency;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.h2.console.enabled=false",
+        "spring.jpa.show-sql=false",
+        "trade.lock.timeout-ms=120000"})
+@AutoConfigureMockMvc
+class TradeServiceConcurrencyTest {
+
+    private static final Long HOT_TRADE_ID = 100001L;
+    private static final Long OTHER_TRADE_ID = 100002L;
+    private static final int WRITERS = 64;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeLocks tradeLocks;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testConcurrentAmendmentsOfOneTradeBuildOneVersionChain() throws Exception {
+        int versionBefore = latestVersion(tradeRepository, HOT_TRADE_ID);
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return amend(mockMvc, objectMapper, HOT_TRADE_ID);
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                statuses.add(result.get(180, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every writer queued on the lock and none was turned away
+        assertTrue(statuses.stream().allMatch(status -> status == 200), "statuses " + statuses);
+        List<Trade> versions = versions(tradeRepository, HOT_TRADE_ID);
+        int latest = versionBefore + WRITERS;
+        // Versions 1..latest each appear exactly once
+        assertEquals(IntStream.rangeClosed(1, latest).boxed().toList(),
+                versions.stream().map(Trade::getVersion).toList());
+        assertEquals(List.of(latest), versions.stream().filter(Trade::getActive).map(Trade::getVersion).toList());
+        // Every superseded version was deactivated exactly once, by the amendment that followed it
+        assertTrue(versions.subList(0, latest - 1).stream()
+                .allMatch(t -> t.getRowVersion() == 1 && t.getDeactivatedDate() != null));
+    }
+
+    @Test
+    void testStaleWriteFromAnotherInstanceIsRejectedByRowVersion() {
+        // What a second application instance, which does not share this one's locks, read before amending
+        Long tradeId = OTHER_TRADE_ID;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Trade stale = transaction.execute(status -> tradeRepository.findByTradeIdAndActiveTrue(tradeId).orElseThrow());
+
+        tradeService.amendTrade(tradeId, amendment(tradeId));
+
+        stale.setActive(false);
+        stale.setDeactivatedDate(LocalDateTime.now());
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> transaction.executeWithoutResult(status -> tradeRepository.save(stale)));
+        assertEquals(1, versions(tradeRepository, tradeId).stream().filter(Trade::getActive).count());
+    }
+
+    // Own context with a short lock timeout, so a writer that finds the trade locked gives up quickly
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:tradelocktimeout;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+            "spring.h2.console.enabled=false",
+            "spring.jpa.show-sql=false",
+            "trade.lock.timeout-ms=500"})
+    @AutoConfigureMockMvc
+    class LockTimeout {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private TradeLocks tradeLocks;
+
+        @Autowired
+        private TradeRepository tradeRepository;
+
+        @Test
+        void testAmendmentWaitingTooLongForTheLockIsAConflict() throws Exception {
+            Long tradeId = OTHER_TRADE_ID;
+            int versionBefore = latestVersion(tradeRepository, tradeId);
+            CountDownLatch held = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread holder = new Thread(() -> tradeLocks.withLock(tradeId, () -> {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            holder.start();
+            try {
+                assertTrue(held.await(5, TimeUnit.SECONDS));
+                assertEquals(409, amend(mockMvc, objectMapper, tradeId));
+            } finally {
+                release.countDown();
+                holder.join();
+            }
+            assertEquals(versionBefore, latestVersion(tradeRepository, tradeId));
+        }
+    }
+
+    private static int amend(MockMvc mockMvc, ObjectMapper objectMapper, Long tradeId) throws Exception {
+        return mockMvc.perform(put("/api/trades/{id}", tradeId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amendment(tradeId))))
+                .andReturn().getResponse().getStatus();
+    }
+
+    private static TradeDTO amendment(Long tradeId) {
+        TradeDTO trade = SampleTrades.tradeDto(1);
+        trade.setTradeId(tradeId);
+        return trade;
+    }
+
+    private static List<Trade> versions(TradeRepository tradeRepository, Long tradeId) {
+        return tradeRepository.findByTradeId(tradeId).stream()
+                .sorted(Comparator.comparing(Trade::getVersion))
+                .toList();
+    }
+
+    private static int latestVersion(TradeRepository tradeRepository, Long tradeId) {
+        List<Trade> versions = versions(tradeRepository, tradeId);
+        return versions.get(versions.size() - 1).getVersion();
+    }
+}
@@ -1,7 +1,14 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.dto.CursorPageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeChangeEvent;
 import com.technicalchallenge.dto.TradeDTO;
 import com.technicalchallenge.dto.TradeLegDTO;
+import com.technicalchallenge.model.ApplicationUser;
 import com.technicalchallenge.model.Book;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.Counterparty;
@@ -10,31 +17,49 @@ import com.technicalchallenge.model.Schedule;
 import com.technicalchallenge.model.Trade;
 import com.technicalchallenge.model.TradeLeg;
 import com.technicalchallenge.model.TradeStatus;
-import com.technicalchallenge.repository.BookRepository;
+import com.technicalchallenge.model.UserProfile;
 import com.technicalchallenge.repository.CashflowRepository;
-import com.technicalchallenge.repository.CounterpartyRepository;
-import com.technicalchallenge.repository.LegTypeRepository;
-import com.technicalchallenge.repository.ScheduleRepository;
 import com.technicalchallenge.repository.TradeLegRepository;
 import com.technicalchallenge.repository.TradeRepository;
-import com.technicalchallenge.repository.TradeStatusRepository;
+import com.technicalchallenge.validation.TradeValidator;
+import com.technicalchallenge.validation.ValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import jakarta.persistence.EntityManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,22 +75,53 @@ class TradeServiceTest {
     private CashflowRepository cashflowRepository;
 
     @Mock
-    private TradeStatusRepository tradeStatusRepository;
+    private AdditionalInfoService additionalInfoService;
 
     @Mock
-    private AdditionalInfoService additionalInfoService;
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private TradeIdAllocator tradeIdAllocator;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TradeValidator tradeValidator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private CashflowEngine cashflowEngine = new CashflowEngine();
 
     @Mock
-    private BookRepository bookRepository;
+    private HolidayCalendarService holidayCalendarService;
 
     @Mock
-    private CounterpartyRepository counterpartyRepository;
+    private MarketDataService marketDataService;
 
     @Mock
-    private LegTypeRepository legTypeRepository;
+    private PositionService positionService;
 
     @Mock
-    private ScheduleRepository scheduleRepository;
+    private TradeStreamService tradeStreamService;
+
+    @Mock
+    private TradeOutboxService tradeOutboxService;
+
+    @Spy
+    private TradeLocks tradeLocks = new TradeLocks(16, 1000);
+
+    @Spy
+    private TradeMetrics tradeMetrics = new TradeMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private RsqlSpecificationCache rsqlSpecificationCache = new RsqlSpecificationCache(new SimpleMeterRegistry(), 16);
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
     @InjectMocks
     private TradeService tradeService;
@@ -171,19 +227,54 @@ class TradeServiceTest {
     LegType floatingLegType = new LegType();
     floatingLegType.setType("Floating");
     
-    // Mock repository calls 
-    when(bookRepository.findByBookName("TestBook")).thenReturn(Optional.of(mockBook));
-    when(counterpartyRepository.findByName("TestCounterparty")).thenReturn(Optional.of(mockCounterparty));
-    when(tradeStatusRepository.findByTradeStatus("TestStatus")).thenReturn(Optional.of(mockStatus));
-    when(scheduleRepository.findBySchedule("1M")).thenReturn(Optional.of(schedule));
-    when(legTypeRepository.findByType("Fixed")).thenReturn(Optional.of(fixedLegType));
-    when(legTypeRepository.findByType("Floating")).thenReturn(Optional.of(floatingLegType));
+    // Mock reference data lookups 
+    when(referenceDataCache.findByName(Book.class, "TestBook")).thenReturn(Optional.of(mockBook));
+    when(referenceDataCache.findByName(Counterparty.class, "TestCounterparty")).thenReturn(Optional.of(mockCounterparty));
+    when(referenceDataCache.findByName(TradeStatus.class, "TestStatus")).thenReturn(Optional.of(mockStatus));
+    when(referenceDataCache.findByName(Schedule.class, "1M")).thenReturn(Optional.of(schedule));
+    when(referenceDataCache.findByName(LegType.class, "Fixed")).thenReturn(Optional.of(fixedLegType));
+    when(referenceDataCache.findByName(LegType.class, "Floating")).thenReturn(Optional.of(floatingLegType));
     
     // Return the entities
     when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
     when(tradeLegRepository.save(any(TradeLeg.class))).thenAnswer(invocation -> invocation.getArgument(0));
 }
 
+    void setUpTraderSales(String loginId) {
+        UserProfile profile = new UserProfile();
+        profile.setUserType("TRADER_SALES");
+        ApplicationUser user = new ApplicationUser();
+        user.setId(1L);
+        user.setLoginId(loginId);
+        user.setFirstName(loginId);
+        user.setUserProfile(profile);
+        when(referenceDataCache.findUserByFirstName(loginId)).thenReturn(Optional.of(user));
+        when(referenceDataCache.findByName(eq(ApplicationUser.class), anyString())).thenReturn(Optional.of(user));
+    }
+
+    void setUpValidTrades() {
+        when(tradeValidator.validateTradeBusinessRules(any())).thenReturn(ValidationResult.success());
+        when(tradeValidator.validateTradeLegConsistency(any())).thenReturn(ValidationResult.success());
+        when(tradeValidator.confirmReferenceDataIsActive(any())).thenReturn(ValidationResult.success());
+        when(tradeValidator.validateTradeDTOReferenceData(any())).thenReturn(ValidationResult.success());
+    }
+
+    // A copy of the standard trade booked by its own trader
+    TradeDTO bookableTrade(Long tradeId) {
+        TradeDTO dto = new TradeDTO();
+        dto.setTradeId(tradeId);
+        dto.setTradeDate(tradeDTO.getTradeDate());
+        dto.setTradeStartDate(tradeDTO.getTradeStartDate());
+        dto.setTradeMaturityDate(tradeDTO.getTradeMaturityDate());
+        dto.setBookName(tradeDTO.getBookName());
+        dto.setCounterpartyName(tradeDTO.getCounterpartyName());
+        dto.setTradeStatus(tradeDTO.getTradeStatus());
+        dto.setTraderUserName("simon");
+        dto.setInputterUserName("simon");
+        dto.setTradeLegs(tradeDTO.getTradeLegs());
+        return dto;
+    }
+
     @Test
     void testCreateTrade_Success() {
         // Given
@@ -196,6 +287,7 @@ class TradeServiceTest {
         assertNotNull(result);
         assertEquals(100001L, result.getTradeId());
         verify(tradeRepository).save(any(Trade.class));
+        verify(tradeOutboxService).record(eq(TradeChangeEvent.CREATED), same(result), anyList());
     }
 
     @Test
@@ -223,6 +315,33 @@ class TradeServiceTest {
         assertTrue(exception.getMessage().contains("exactly 2 legs"));
     }
 
+    @Test
+    void testValidateUserPrivileges_LoginIdIsNotAcceptedAsInputterName() {
+        // Given - a trader whose login ID is not their first name; the cache's general name lookup
+        // would resolve the login ID, but privileges are matched on first name only
+        UserProfile profile = new UserProfile();
+        profile.setUserType("TRADER_SALES");
+        ApplicationUser user = new ApplicationUser();
+        user.setFirstName("Simon");
+        user.setLoginId("sk01");
+        user.setUserProfile(profile);
+        when(referenceDataCache.findUserByFirstName("Simon")).thenReturn(Optional.of(user));
+        when(referenceDataCache.findUserByFirstName("sk01")).thenReturn(Optional.empty());
+        lenient().when(referenceDataCache.findByName(ApplicationUser.class, "sk01")).thenReturn(Optional.of(user));
+
+        // When
+        tradeDTO.setInputterUserName("sk01");
+        tradeDTO.setTraderUserName("sk01");
+        boolean byLoginId = tradeService.validateUserPrivileges("create", tradeDTO);
+        tradeDTO.setInputterUserName("Simon");
+        tradeDTO.setTraderUserName("Simon");
+        boolean byFirstName = tradeService.validateUserPrivileges("create", tradeDTO);
+
+        // Then
+        assertFalse(byLoginId);
+        assertTrue(byFirstName);
+    }
+
     @Test
     void testGetTradeById_Found() {
         // Given
@@ -295,12 +414,12 @@ class TradeServiceTest {
         schedule.setSchedule("1M");
         
         when(tradeRepository.findByTradeIdAndActiveTrue(tradeId)).thenReturn(Optional.of(trade));
-        when(tradeStatusRepository.findByTradeStatus("AMENDED")).thenReturn(Optional.of(amendedStatus));
-        when(bookRepository.findByBookName("TestBook")).thenReturn(Optional.of(mockBook));
-        when(counterpartyRepository.findByName("TestCounterparty")).thenReturn(Optional.of(mockCounterparty));
-        when(legTypeRepository.findByType("Fixed")).thenReturn(Optional.of(fixedLegType));
-        when(legTypeRepository.findByType("Floating")).thenReturn(Optional.of(floatingLegType));
-        when(scheduleRepository.findBySchedule("1M")).thenReturn(Optional.of(schedule));
+        when(referenceDataCache.findByName(TradeStatus.class, "AMENDED")).thenReturn(Optional.of(amendedStatus));
+        when(referenceDataCache.findByName(Book.class, "TestBook")).thenReturn(Optional.of(mockBook));
+        when(referenceDataCache.findByName(Counterparty.class, "TestCounterparty")).thenReturn(Optional.of(mockCounterparty));
+        when(referenceDataCache.findByName(LegType.class, "Fixed")).thenReturn(Optional.of(fixedLegType));
+        when(referenceDataCache.findByName(LegType.class, "Floating")).thenReturn(Optional.of(floatingLegType));
+        when(referenceDataCache.findByName(Schedule.class, "1M")).thenReturn(Optional.of(schedule));
         when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(tradeLegRepository.save(any(TradeLeg.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -310,6 +429,55 @@ class TradeServiceTest {
         // Then
         assertNotNull(result);
         verify(tradeRepository, times(2)).save(any(Trade.class));
+        verify(positionService).tradeBooked(same(result), any(TradePosition.class));
+        // The old version's filter fields go along, so subscribers that only matched it still hear of the change
+        verify(tradeStreamService).publish(eq(TradeChangeEvent.AMENDED), same(result), anyList(),
+                eq(TradeStreamService.MatchKeys.of(trade)));
+    }
+
+    @Test
+    void testTerminateTrade_EndsLiveVersionAndAddsTerminatedVersion() {
+        // Given
+        Long tradeId = 100001L;
+        TradeStatus liveStatus = new TradeStatus();
+        liveStatus.setTradeStatus("LIVE");
+        trade.setTradeStatus(liveStatus);
+        TradeStatus terminatedStatus = new TradeStatus();
+        terminatedStatus.setTradeStatus("TERMINATED");
+
+        when(tradeRepository.findByTradeIdAndActiveTrue(tradeId)).thenReturn(Optional.of(trade));
+        when(referenceDataCache.findByName(TradeStatus.class, "TERMINATED")).thenReturn(Optional.of(terminatedStatus));
+        when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tradeLegRepository.save(any(TradeLeg.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Trade result = tradeService.terminateTrade(tradeId);
+
+        // Then - the old version keeps its status and ends when the new one starts
+        assertNotSame(trade, result);
+        assertFalse(trade.getActive());
+        assertEquals("LIVE", trade.getTradeStatus().getTradeStatus());
+        assertNotNull(trade.getDeactivatedDate());
+        assertEquals(trade.getDeactivatedDate(), result.getCreatedDate());
+
+        assertEquals(tradeId, result.getTradeId());
+        assertEquals(2, result.getVersion());
+        assertTrue(result.getActive());
+        assertSame(terminatedStatus, result.getTradeStatus());
+        assertEquals(trade.getTradeMaturityDate(), result.getTradeMaturityDate());
+        assertEquals(2, result.getTradeLegs().size());
+        assertSame(result, result.getTradeLegs().get(0).getTrade());
+        assertEquals(BigDecimal.valueOf(1000000), result.getTradeLegs().get(1).getNotional());
+
+        // Stored cashflows are copied in the database, never loaded or saved one by one
+        verify(cashflowRepository).copyToLeg(eq(1L), any(), eq(result.getCreatedDate()));
+        verify(cashflowRepository).copyToLeg(eq(2L), any(), eq(result.getCreatedDate()));
+        verify(cashflowRepository, never()).save(any(Cashflow.class));
+        verify(entityManager, times(2)).refresh(any(TradeLeg.class));
+        verify(tradeRepository, times(2)).save(any(Trade.class));
+        verify(positionService).tradeClosed(tradeId);
+        verify(tradeStreamService).publish(eq(TradeChangeEvent.TERMINATED), same(result), same(result.getTradeLegs()),
+                eq(TradeStreamService.MatchKeys.of(trade)));
     }
 
     @Test
@@ -337,5 +505,202 @@ class TradeServiceTest {
         assertNotNull(result);
         // Verify cashflow repository was called for both legs
         verify(cashflowRepository, times(24)).save(any(Cashflow.class));
+        // ...and the same cashflows go to the running positions
+        ArgumentCaptor<TradePosition> position = ArgumentCaptor.forClass(TradePosition.class);
+        verify(positionService).tradeBooked(same(result), position.capture());
+        assertEquals(100001L, position.getValue().tradeId());
+        assertEquals(24, position.getValue().size());
+    }
+
+    @Test
+    void testCreateTrades_FailedTradesReportedWithoutAbortingBatch() {
+        // Given - no inputter on either trade, so both are rejected by the privilege check
+        TradeDTO secondTradeDTO = new TradeDTO();
+        secondTradeDTO.setTradeId(100002L);
+        secondTradeDTO.setTradeLegs(tradeDTO.getTradeLegs());
+
+        // When
+        TradeBatchResultDTO result = tradeService.createTrades(Arrays.asList(tradeDTO, secondTradeDTO));
+
+        // Then
+        assertEquals(2, result.getTotalRequested());
+        assertEquals(0, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(0, result.getResults().get(0).getIndex());
+        assertEquals(100002L, result.getResults().get(1).getTradeId());
+        assertEquals(100001L, result.getResults().get(0).getTradeId());
+        assertFalse(result.getResults().get(1).isSuccess());
+        assertTrue(result.getResults().get(1).getMessage().contains("privileges"));
+        verify(tradeRepository, never()).save(any(Trade.class));
+    }
+
+    @Test
+    void testCreateTrades_SaveFailureRollsBackChunkAndReplaysTradesIndividually() {
+        // Given - three bookable trades in one chunk; the second fails when it is saved and the first
+        // has no trade ID or status, so booking fills both in before the chunk rolls back
+        setUpTradeCreationMocks();
+        setUpTraderSales("simon");
+        setUpValidTrades();
+        // Validation sees each DTO before booking fills in its status, so record what it saw at the time
+        List<TradeDTO> validated = new ArrayList<>();
+        List<String> validatedStatuses = new ArrayList<>();
+        when(tradeValidator.validateTradeBusinessRules(any())).thenAnswer(invocation -> {
+            TradeDTO dto = invocation.getArgument(0);
+            validated.add(dto);
+            validatedStatuses.add(dto.getTradeStatus());
+            return ValidationResult.success();
+        });
+        when(tradeIdAllocator.nextTradeId()).thenReturn(200001L, 200002L);
+        TradeStatus newStatus = new TradeStatus();
+        newStatus.setTradeStatus("NEW");
+        when(referenceDataCache.findByName(TradeStatus.class, "NEW")).thenReturn(Optional.of(newStatus));
+        when(tradeRepository.save(argThat((Trade t) -> t != null && t.getTradeId() == 100002L)))
+                .thenThrow(new DataIntegrityViolationException("duplicate trade_id"));
+        TradeDTO unnumbered = bookableTrade(null);
+        unnumbered.setTradeStatus(null);
+        List<TradeDTO> trades = List.of(unnumbered, bookableTrade(100002L), bookableTrade(100003L));
+
+        // When
+        TradeBatchResultDTO result = tradeService.createTrades(trades);
+
+        // Then - the chunk rolled back, then each trade was replayed in its own transaction
+        assertEquals(3, result.getTotalRequested());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of(0, 1, 2), result.getResults().stream().map(TradeBatchResultDTO.Item::getIndex).toList());
+        assertEquals(List.of(200002L, 100002L, 100003L), result.getResults().stream().map(TradeBatchResultDTO.Item::getTradeId).toList());
+        assertEquals(List.of(true, false, true), result.getResults().stream().map(TradeBatchResultDTO.Item::isSuccess).toList());
+        assertTrue(result.getResults().get(1).getMessage().contains("duplicate trade_id"));
+        // Chunk and the replayed second trade roll back; the replayed first and third trades commit
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+        // The first trade is saved in the chunk and again, under a fresh ID, in its replay; 100003 only in its replay
+        verify(tradeRepository, times(1)).save(argThat((Trade t) -> t != null && t.getTradeId() == 200001L));
+        verify(tradeRepository, times(1)).save(argThat((Trade t) -> t != null && t.getTradeId() == 200002L));
+        verify(tradeRepository, times(1)).save(argThat((Trade t) -> t != null && t.getTradeId() == 100003L));
+
+        // Each replay was validated from the trade as submitted, not from the chunk attempt's copy
+        assertEquals(5, validated.size());
+        List<TradeDTO> replayed = validated.subList(2, 5);
+        assertEquals(Arrays.asList(200002L, 100002L, 100003L), replayed.stream().map(TradeDTO::getTradeId).toList());
+        assertEquals(Arrays.asList(null, "TestStatus", "TestStatus"), validatedStatuses.subList(2, 5));
+        replayed.forEach(dto -> assertTrue(trades.stream().noneMatch(submitted -> submitted == dto)));
+        // and the caller's DTOs are left as they were submitted
+        assertEquals(Arrays.asList(null, 100002L, 100003L), trades.stream().map(TradeDTO::getTradeId).toList());
+        assertNull(unnumbered.getTradeStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFilterTradesByCursor_ReturnsNextCursorWithoutCounting() {
+        // Given - three rows come back for a page of two, so there is a next page
+        Trade first = new Trade();
+        first.setId(3L);
+        first.setTradeDate(LocalDate.of(2025, 1, 3));
+        Trade second = new Trade();
+        second.setId(2L);
+        second.setTradeDate(LocalDate.of(2025, 1, 2));
+        Trade third = new Trade();
+        third.setId(1L);
+        third.setTradeDate(LocalDate.of(2025, 1, 2));
+        when(tradeRepository.findAll(any(Specification.class), eq(TradeCursor.ORDER), eq(3)))
+                .thenReturn(List.of(first, second, third));
+
+        // When
+        CursorPageDTO<Trade> page = tradeService.filterTrades(null, "TestBook", null, null, null, null, null, 2, false);
+
+        // Then
+        assertEquals(List.of(first, second), page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals(new TradeCursor(LocalDate.of(2025, 1, 2), 2L), TradeCursor.decode(page.getNextCursor()));
+        assertNull(page.getTotalElements());
+        verify(tradeRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void testFilterTradesByCursor_InvalidCursorRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeService.filterTrades(null, null, null, null, null, null, "not-a-cursor", 20, false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportTrades_WritesCsvRowsAndClosesCursor() throws Exception {
+        // Given
+        TradeBlotterRow quoted = new TradeBlotterRow(2L, 100002L, 1, LocalDate.of(2025, 1, 2), null, null,
+                "TestBook", "Big \"Bank\", Ltd", "Test Trader", "Swap", "LIVE", true,
+                new BigDecimal("1E+6"), 0.05, "USD", null, null, null, 1);
+        TradeBlotterRow plain = new TradeBlotterRow(1L, 100001L, 1, LocalDate.of(2025, 1, 1), null, null,
+                "TestBook", "TestCounterparty", "Test Trader", "Swap", "LIVE", true,
+                null, null, null, null, null, null, 0);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(tradeRepository.streamBlotterRows(any(Specification.class), anyInt()))
+                .thenReturn(Stream.of(quoted, plain).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = tradeService.exportTrades(Specification.where(null), TradeExportWriter.Format.CSV, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,tradeId,version,tradeDate"));
+        assertEquals("2,100002,1,2025-01-02,,,TestBook,\"Big \"\"Bank\"\", Ltd\",Test Trader,Swap,LIVE,true,1000000,0.05,USD,,,,1", lines[1]);
+        assertEquals("1,100001,1,2025-01-01,,,TestBook,TestCounterparty,Test Trader,Swap,LIVE,true,,,,,,,0", lines[2]);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportTrades_ClientAbortStopsReadingAndClosesCursor() {
+        // Given - an endless cursor and a client that has gone away
+        TradeBlotterRow row = new TradeBlotterRow(1L, 100001L, 1, LocalDate.of(2025, 1, 1), null, null,
+                "TestBook", "TestCounterparty", "Test Trader", "Swap", "LIVE", true,
+                null, null, null, null, null, null, 0);
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicInteger read = new AtomicInteger();
+        when(tradeRepository.streamBlotterRows(any(Specification.class), anyInt()))
+                .thenReturn(Stream.generate(() -> row).peek(r -> read.incrementAndGet()).onClose(() -> closed.set(true)));
+        OutputStream aborted = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When
+        IOException thrown = assertThrows(IOException.class,
+                () -> tradeService.exportTrades(Specification.where(null), TradeExportWriter.Format.CSV, aborted));
+
+        // Then - the first write to the client fails, by the periodic flush at the latest
+        assertEquals("Broken pipe", thrown.getMessage());
+        assertTrue(closed.get());
+        assertTrue(read.get() <= 500, "read " + read.get() + " rows after the client went away");
+    }
+
+    @Test
+    void testExportTrades_WritesOneJsonObjectPerLine() throws Exception {
+        // Given
+        TradeBlotterRow row = new TradeBlotterRow(1L, 100001L, 1, LocalDate.of(2025, 1, 1), null, null,
+                "TestBook", "TestCounterparty", "Test Trader", "Swap", "LIVE", true,
+                null, null, null, null, null, null, 0);
+        when(tradeRepository.streamBlotterRows(any(), anyInt())).thenReturn(Stream.of(row, row));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        tradeService.exportTrades(Specification.where(null), TradeExportWriter.Format.NDJSON, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(100001L, objectMapper.readTree(lines[0]).get("tradeId").asLong());
+        assertEquals("2025-01-01", objectMapper.readTree(lines[1]).get("tradeDate").asText());
+    }
+
+    @Test
+    void testBuildExportSpecification_InvalidRsqlRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeService.buildExportSpecification(null, null, null, null, null, null, "tradeId=bogus=1", true));
     }
 }
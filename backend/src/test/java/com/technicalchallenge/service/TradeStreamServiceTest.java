@@ -0,0 +1,193 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeChangeEvent;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeStreamServiceTest {
+
+    private static final TradeStreamService.Filter ANY = new TradeStreamService.Filter(null, null, null, null, null, null);
+
+    private final TradeStreamService service = new TradeStreamService(new SimpleMeterRegistry(), 2, 10, 0L);
+
+    @Test
+    void testDeliversMatchingChangesInCommitOrder() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(new TradeStreamService.Filter(null, "fx-book-1", null, null, null, null), emitter);
+        // Sent before publishing, so the two matching changes fit the queue even if the sender is slow to start
+        assertEquals("ready", emitter.next().name);
+
+        service.publish(TradeChangeEvent.CREATED, trade(100001L, "FX-BOOK-1", "NEW"), List.of(), null);
+        service.publish(TradeChangeEvent.CREATED, trade(100002L, "RATES-BOOK-1", "NEW"), List.of(), null);
+        service.publish(TradeChangeEvent.CREATED, trade(100003L, "FX-BOOK-1", "NEW"), List.of(), null);
+
+        Sent first = emitter.next();
+        Sent second = emitter.next();
+        assertEquals("trade", first.name);
+        assertEquals(100001L, first.event.tradeId());
+        assertEquals(1, first.event.sequence());
+        assertEquals("FX-BOOK-1", first.event.row().bookName());
+        assertEquals(0, first.event.row().legCount());
+        // 100002 went to nobody but still took a sequence number
+        assertEquals(100003L, second.event.tradeId());
+        assertEquals(3, second.event.sequence());
+        assertNull(emitter.sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testTradeLeavingTheFilterIsStillSent() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(new TradeStreamService.Filter(null, null, null, "NEW", null, null), emitter);
+        Trade trade = trade(100001L, "FX-BOOK-1", "NEW");
+        TradeStreamService.MatchKeys before = TradeStreamService.MatchKeys.of(trade);
+        trade.setTradeStatus(status("CANCELLED"));
+
+        service.publish(TradeChangeEvent.CANCELLED, trade, List.of(), before);
+
+        emitter.next();
+        Sent cancelled = emitter.next();
+        assertEquals(TradeChangeEvent.CANCELLED, cancelled.event.type());
+        assertEquals("CANCELLED", cancelled.event.row().tradeStatus());
+    }
+
+    @Test
+    void testNothingIsSentBeforeCommit() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(ANY, emitter);
+        assertEquals("ready", emitter.next().name);
+
+        List<TransactionSynchronization> pending;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.publish(TradeChangeEvent.CREATED, trade(100001L, "FX-BOOK-1", "NEW"), List.of(), null);
+            pending = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertNull(emitter.sent.poll(100, TimeUnit.MILLISECONDS));
+
+        pending.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(100001L, emitter.next().event.tradeId());
+    }
+
+    @Test
+    void testSlowSubscriberIsSentResyncAndDropped() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.gate = new CountDownLatch(1);
+        service.subscribe(ANY, emitter);
+        // The sender is now stuck writing "ready"; two changes fill the queue and the third overflows it
+        assertTrue(emitter.entered.await(5, TimeUnit.SECONDS));
+        for (long tradeId = 100001L; tradeId <= 100003L; tradeId++) {
+            service.publish(TradeChangeEvent.CREATED, trade(tradeId, "FX-BOOK-1", "NEW"), List.of(), null);
+        }
+        emitter.gate.countDown();
+
+        assertEquals("ready", emitter.next().name);
+        assertEquals("resync", emitter.next().name);
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, service.subscriberCount());
+        assertNull(emitter.sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testRejectsSubscribersOverTheLimit() {
+        TradeStreamService limited = new TradeStreamService(new SimpleMeterRegistry(), 2, 1, 0L);
+        limited.subscribe(ANY, new RecordingEmitter());
+
+        assertThrows(IllegalStateException.class, () -> limited.subscribe(ANY, new RecordingEmitter()));
+    }
+
+    @Test
+    void testFilterMatchesLikeFilterTrades() {
+        TradeStreamService.MatchKeys keys = new TradeStreamService.MatchKeys("BigBank", "FX-BOOK-1", "simon", "NEW", LocalDate.of(2025, 3, 10));
+
+        assertTrue(ANY.matches(keys));
+        assertTrue(new TradeStreamService.Filter("bigbank", "fx-book-1", "SIMON", "new", LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 10)).matches(keys));
+        assertFalse(new TradeStreamService.Filter(null, null, null, null, LocalDate.of(2025, 3, 11), null).matches(keys));
+        assertFalse(new TradeStreamService.Filter("OtherBank", null, null, null, null, null).matches(keys));
+    }
+
+    private static Trade trade(long tradeId, String bookName, String status) {
+        Book book = new Book();
+        book.setBookName(bookName);
+        Trade trade = new Trade();
+        trade.setTradeId(tradeId);
+        trade.setVersion(1);
+        trade.setBook(book);
+        trade.setTradeStatus(status(status));
+        return trade;
+    }
+
+    private static TradeStatus status(String name) {
+        TradeStatus status = new TradeStatus();
+        status.setTradeStatus(name);
+        return status;
+    }
+
+    private record Sent(String name, TradeChangeEvent event) {
+    }
+
+    // Records what would be written to the response; optionally holds the sender inside send()
+    private static class RecordingEmitter extends SseEmitter {
+        private static final Pattern EVENT_NAME = Pattern.compile("event:(\\w+)");
+
+        final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile CountDownLatch gate;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            String name = null;
+            TradeChangeEvent event = null;
+            for (var part : builder.build()) {
+                if (part.getData() instanceof TradeChangeEvent change) {
+                    event = change;
+                } else if (part.getData() instanceof String text) {
+                    Matcher matcher = EVENT_NAME.matcher(text);
+                    if (matcher.find()) {
+                        name = matcher.group(1);
+                    }
+                }
+            }
+            sent.add(new Sent(name, event));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        Sent next() throws InterruptedException {
+            Sent next = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(next, "nothing sent");
+            return next;
+        }
+    }
+}
@@ -15,6 +15,8 @@ import static org.junit.jupiter.api.Assertions.*;
 public class UserServiceTest {
     @Mock
     private ApplicationUserRepository applicationUserRepository;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
     @InjectMocks
     private ApplicationUserService applicationUserService;
 
@@ -0,0 +1,99 @@
+package com.technicalchallenge.support;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeLegDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sample swap from sample-swap-post-payload.json, referring to the reference rows in data.sql by name,
+ * as the API receives it. Shared by the tests that book trades through the API, the load tests and the benchmarks.
+ */
+public final class SampleTrades {
+
+    private static final String SAMPLE_PAYLOAD = "/sample-swap-post-payload.json";
+
+    private SampleTrades() {
+    }
+
+    /**
+     * The sample swap as the API receives it, dated from today (booked trades may be at most 30 days old)
+     * and running the given number of years. The payload repeats "tradeLegs"; the parsed (last) copy only
+     * carries ids, so the leg names are filled in from the first copy.
+     */
+    public static TradeDTO tradeDto(int years) {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        TradeDTO trade;
+        try (InputStream payload = SampleTrades.class.getResourceAsStream(SAMPLE_PAYLOAD)) {
+            ObjectNode json = (ObjectNode) objectMapper.readTree(payload);
+            json.remove(List.of("tradeDate", "startDate", "maturityDate", "executionDate", "lastTouchTimestamp", "validityStartDate"));
+            trade = objectMapper.treeToValue(json, TradeDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        LocalDate today = LocalDate.now();
+        trade.setTradeDate(today);
+        trade.setTradeExecutionDate(today);
+        trade.setTradeStartDate(today.plusDays(2));
+        trade.setTradeMaturityDate(today.plusDays(2).plusYears(years));
+        trade.setValidityStartDate(today);
+
+        TradeLegDTO fixed = trade.getTradeLegs().get(0);
+        fixed.setCurrency("USD");
+        fixed.setLegType("Fixed");
+        fixed.setHolidayCalendar("NY");
+        fixed.setCalculationPeriodSchedule("Quarterly");
+        fixed.setPaymentBusinessDayConvention("Following");
+        fixed.setFixingBusinessDayConvention("Following");
+        fixed.setPayReceiveFlag("Pay");
+        fixed.setRate(0.0475);
+
+        TradeLegDTO floating = trade.getTradeLegs().get(1);
+        floating.setCurrency("USD");
+        floating.setLegType("Floating");
+        floating.setIndexName("LIBOR");
+        floating.setHolidayCalendar("NY");
+        floating.setCalculationPeriodSchedule("Quarterly");
+        floating.setPaymentBusinessDayConvention("Following");
+        floating.setFixingBusinessDayConvention("Following");
+        floating.setPayReceiveFlag("Receive");
+        return trade;
+    }
+
+    // The /api/cashflows/generate body for the sample swap's two legs
+    public static CashflowGenerationRequest generationRequest(int years) {
+        TradeDTO trade = tradeDto(years);
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(trade.getTradeStartDate());
+        request.setTradeMaturityDate(trade.getTradeMaturityDate());
+        List<CashflowGenerationRequest.TradeLegDTO> legs = new ArrayList<>();
+        for (TradeLegDTO legDto : trade.getTradeLegs()) {
+            CashflowGenerationRequest.TradeLegDTO leg = new CashflowGenerationRequest.TradeLegDTO();
+            leg.setLegType(legDto.getLegType());
+            leg.setNotional(legDto.getNotional());
+            leg.setCurrency(legDto.getCurrency());
+            leg.setRate(legDto.getRate());
+            leg.setIndex(legDto.getIndexName());
+            leg.setCalculationPeriodSchedule(legDto.getCalculationPeriodSchedule());
+            leg.setPaymentBusinessDayConvention(legDto.getPaymentBusinessDayConvention());
+            leg.setHolidayCalendar(legDto.getHolidayCalendar());
+            leg.setPayReceiveFlag(legDto.getPayReceiveFlag());
+            legs.add(leg);
+        }
+        request.setLegs(legs);
+        return request;
+    }
+}
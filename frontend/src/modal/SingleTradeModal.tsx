@@ -63,10 +63,12 @@ export const SingleTradeModal: React.FC<SingleTradeModalProps> = (props) => {
             const legsDto = editableTrade.tradeLegs.map(leg => ({
                 legType: leg.legType,
                 notional: typeof leg.notional === 'string' ? parseFloat(leg.notional) : leg.notional,
+                currency: leg.currency,
                 rate: leg.rate ? (typeof leg.rate === 'string' ? parseFloat(leg.rate) : leg.rate) : undefined,
                 index: leg.index,
                 calculationPeriodSchedule: leg.calculationPeriodSchedule,
                 paymentBusinessDayConvention: leg.paymentBusinessDayConvention,
+                holidayCalendar: leg.holidayCalendar,
                 payReceiveFlag: leg.payReceiveFlag,
             }));
 
@@ -1,19 +1,19 @@
 import React from "react";
 import {observer} from "mobx-react-lite";
 import AGGridTable from "../components/AGGridTable";
-import {fetchTrades} from "../utils/api";
+import {fetchTradeBlotter} from "../utils/api";
 import {getColDefFromResult, getRowDataFromData} from "../utils/agGridUtils";
 import { useQuery } from '@tanstack/react-query';
-import {Trade} from "../utils/tradeTypes";
+import {TradeBlotterRow} from "../utils/tradeTypes";
 
 
 export const TradeBlotterModal: React.FC = observer(() => {
-    const [trades, setTrades] = React.useState<Trade[]>([]);
+    const [trades, setTrades] = React.useState<TradeBlotterRow[]>([]);
 
     const {data, isSuccess} = useQuery({
-        queryKey: ['trades'],
+        queryKey: ['tradeBlotter'],
         queryFn: async () => {
-            const res = await fetchTrades();
+            const res = await fetchTradeBlotter();
             return res.data;
         },
         refetchInterval: 30000,
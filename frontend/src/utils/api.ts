@@ -12,6 +12,8 @@ const api = axios.create({
 
 export const fetchTrades = () => api.get('/trades');
 
+export const fetchTradeBlotter = () => api.get('/trades/blotter');
+
 export const fetchAllUsers = async () => {
   console.log("Fetching all users from the API");
   return await api.get('/users').then((res) => {return res});
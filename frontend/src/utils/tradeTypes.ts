@@ -7,6 +7,7 @@ export interface TradeLeg {
   index?: string;
   calculationPeriodSchedule?: string;
   paymentBusinessDayConvention?: string;
+  holidayCalendar?: string;
   payReceiveFlag?: string;
   [key: string]: unknown;
 }
@@ -32,6 +33,30 @@ export interface Trade {
   [key: string]: unknown;
 }
 
+// Flat row returned by /trades/blotter
+export interface TradeBlotterRow {
+  id: number;
+  tradeId: number;
+  version?: number;
+  tradeDate?: string;
+  tradeStartDate?: string;
+  tradeMaturityDate?: string;
+  bookName?: string;
+  counterpartyName?: string;
+  traderUserName?: string;
+  tradeType?: string;
+  tradeStatus?: string;
+  active?: boolean;
+  leg1Notional?: number;
+  leg1Rate?: number;
+  leg1Currency?: string;
+  leg2Notional?: number;
+  leg2Rate?: number;
+  leg2Currency?: string;
+  // Legs the trade really has; only the first two have columns
+  legCount?: number;
+}
+
 export interface CashflowDTO {
   id?: number;
   paymentValue: number | string;